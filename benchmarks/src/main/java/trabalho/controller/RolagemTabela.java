@@ -0,0 +1,222 @@
+package trabalho.controller;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.scene.Scene;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.stage.Stage;
+import trabalho.metricas.Histograma;
+import trabalho.model.Obra;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+
+/**
+ * Rolagem contínua de uma tabela de obras: tempo de quadro e alocação por linha rolada.
+ *
+ * Monta uma TableView com as mesmas colunas da tela ({@code -Drolagem.obras}, padrão 100 mil
+ * obras) e a rola {@code -Drolagem.pixelsPorQuadro} pixels a cada quadro, descendo até a linha
+ * {@code -Drolagem.linhas} e voltando ao topo, primeiro com as fábricas de célula antigas (uma
+ * SimpleStringProperty nova por célula exibida) e depois com as da tela ({@link LinhaObra}).
+ * Cada modo roda um aquecimento e uma medida, os dois de {@code -Drolagem.segundos} segundos;
+ * como a rolagem vai e volta nas mesmas linhas, a medida mostra o uso contínuo da tabela,
+ * com as linhas já exibidas antes. Informa:
+ * - tempo de quadro: do início do pulso (animações) ao fim do layout, que é quando as
+ *   células recebem as linhas novas (p50, p99, máximo);
+ * - bytes alocados na thread do JavaFX por linha rolada e coletas de lixo durante a medida.
+ *
+ * Precisa de tela (ou do Monocle). Com {@code -Djavafx.animation.fullspeed=true} os pulsos não
+ * esperam o vsync e a rolagem vai o mais rápido possível:
+ *
+ * <pre>
+ * java -Djavafx.animation.fullspeed=true -cp benchmarks/target/benchmarks.jar trabalho.controller.RolagemTabela
+ * </pre>
+ */
+public class RolagemTabela {
+
+    private static final int OBRAS = Integer.getInteger("rolagem.obras", 100_000);
+    private static final int SEGUNDOS = Integer.getInteger("rolagem.segundos", 10);
+    private static final int PIXELS_POR_QUADRO = Integer.getInteger("rolagem.pixelsPorQuadro", 120);
+    private static final int LINHAS_ROLADAS = Integer.getInteger("rolagem.linhas", 2_000);
+    private static final double ALTURA_LINHA = 24;
+
+    /** Resultado de uma medida. */
+    private record Medida(String modo, long quadros, long linhas, Histograma tempos, long bytes,
+                          long coletas, long msColeta) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Obra> obras = gerarObras(OBRAS);
+        CountDownLatch iniciado = new CountDownLatch(1);
+        Platform.startup(iniciado::countDown);
+        iniciado.await();
+        Platform.setImplicitExit(false); // fechar a janela do primeiro modo não encerra o JavaFX
+
+        List<Medida> medidas = new ArrayList<>();
+        medidas.add(medir("propriedade por célula (antigo)", obras, false));
+        medidas.add(medir("LinhaObra", obras, true));
+        Platform.exit();
+
+        System.out.printf("%-32s %8s %9s %9s %9s %9s %12s %8s%n",
+                "fábricas", "quadros", "linhas", "p50 (ms)", "p99 (ms)", "máx (ms)", "bytes/linha", "GCs");
+        for (Medida m : medidas) {
+            System.out.printf("%-32s %8d %9d %9.2f %9.2f %9.2f %12.0f %4d (%d ms)%n",
+                    m.modo(), m.quadros(), m.linhas(),
+                    m.tempos().percentil(50) / 1e6, m.tempos().percentil(99) / 1e6, m.tempos().maximo() / 1e6,
+                    m.linhas() == 0 ? 0.0 : (double) m.bytes() / m.linhas(), m.coletas(), m.msColeta());
+        }
+    }
+
+    /** Abre a tabela, aquece e mede uma volta de rolagem; devolve quando a medida termina. */
+    private static Medida medir(String modo, List<Obra> obras, boolean linhaObra) throws InterruptedException {
+        Medida[] resultado = new Medida[1];
+        CountDownLatch fim = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            TableView<Obra> tabela = montarTabela(obras, linhaObra);
+            Stage janela = new Stage();
+            Scene cena = new Scene(tabela, 1280, 800);
+            janela.setScene(cena);
+            janela.setTitle("Rolagem: " + modo);
+            janela.show();
+
+            new AnimationTimer() {
+                private final com.sun.management.ThreadMXBean threads =
+                        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                private final long idThread = Thread.currentThread().threadId();
+                private final long duracao = SEGUNDOS * 1_000_000_000L;
+                private VirtualFlow<?> fluxo;
+                private long inicioVolta;
+                private boolean medindo;
+                private long inicioQuadro;
+                private long quadros;
+                private double pixels;
+                private double deslocamento;
+                private int sentido = 1;
+                private Histograma tempos = new Histograma();
+                private long bytesInicio;
+                private long[] coletasInicio;
+
+                {
+                    // Fim do layout do pulso: as células já mostram as linhas novas
+                    cena.addPostLayoutPulseListener(() -> {
+                        if (inicioQuadro != 0) {
+                            tempos.registrar(System.nanoTime() - inicioQuadro);
+                            inicioQuadro = 0;
+                        }
+                    });
+                }
+
+                @Override
+                public void handle(long agora) {
+                    if (fluxo == null) {
+                        fluxo = (VirtualFlow<?>) tabela.lookup(".virtual-flow");
+                        inicioVolta = System.nanoTime();
+                        return;
+                    }
+                    long decorrido = System.nanoTime() - inicioVolta;
+                    if (decorrido >= duracao) {
+                        if (!medindo) {
+                            // Fim do aquecimento: zera os contadores e mede a segunda volta
+                            medindo = true;
+                            inicioVolta = System.nanoTime();
+                            quadros = 0;
+                            pixels = 0;
+                            tempos = new Histograma();
+                            bytesInicio = threads.getThreadAllocatedBytes(idThread);
+                            coletasInicio = coletas();
+                        } else {
+                            long bytes = threads.getThreadAllocatedBytes(idThread) - bytesInicio;
+                            long[] coletas = coletas();
+                            stop();
+                            janela.close();
+                            resultado[0] = new Medida(modo, quadros, (long) (pixels / ALTURA_LINHA), tempos, bytes,
+                                    coletas[0] - coletasInicio[0], coletas[1] - coletasInicio[1]);
+                            fim.countDown();
+                            return;
+                        }
+                    }
+                    inicioQuadro = System.nanoTime();
+                    if (deslocamento >= LINHAS_ROLADAS * ALTURA_LINHA) {
+                        sentido = -1;
+                    } else if (deslocamento <= 0) {
+                        sentido = 1;
+                    }
+                    double rolado = fluxo.scrollPixels(sentido * PIXELS_POR_QUADRO);
+                    deslocamento += rolado;
+                    pixels += Math.abs(rolado);
+                    quadros++;
+                }
+            }.start();
+        });
+        fim.await();
+        return resultado[0];
+    }
+
+    private static TableView<Obra> montarTabela(List<Obra> obras, boolean linhaObra) {
+        TableView<Obra> tabela = new TableView<>(FXCollections.observableArrayList(obras));
+        tabela.setFixedCellSize(ALTURA_LINHA);
+
+        TableColumn<Obra, Number> id = new TableColumn<>("ID");
+        id.setCellValueFactory(linhaObra ? LinhaObra.fabricaId()
+                : c -> new SimpleObjectProperty<>(c.getValue().getId()));
+        tabela.getColumns().add(id);
+        coluna(tabela, "Título", linhaObra, LinhaObra.Campo.TITULO, Obra::getTitulo);
+        coluna(tabela, "Autor", linhaObra, LinhaObra.Campo.AUTOR, Obra::getAutor);
+        coluna(tabela, "Tipo", linhaObra, LinhaObra.Campo.TIPO, Obra::getTipo_Obra);
+        coluna(tabela, "Ano", linhaObra, LinhaObra.Campo.ANO, Obra::getAno_Publicacao);
+        coluna(tabela, "Volume", linhaObra, LinhaObra.Campo.VOLUME, Obra::getVolume);
+        coluna(tabela, "Edição", linhaObra, LinhaObra.Campo.EDICAO, Obra::getEdicao);
+        coluna(tabela, "Editora", linhaObra, LinhaObra.Campo.EDITORA, Obra::getEditora);
+        coluna(tabela, "ISBN", linhaObra, LinhaObra.Campo.ISBN, Obra::getIsbn);
+        coluna(tabela, "Chamada", linhaObra, LinhaObra.Campo.CHAMADA, Obra::getChamada);
+        return tabela;
+    }
+
+    /** Coluna de texto com a fábrica da tela ou a antiga (propriedade nova, null -> ""). */
+    private static void coluna(TableView<Obra> tabela, String titulo, boolean linhaObra,
+                               LinhaObra.Campo campo, Function<Obra, String> valor) {
+        TableColumn<Obra, String> col = new TableColumn<>(titulo);
+        col.setCellValueFactory(linhaObra ? LinhaObra.fabrica(campo)
+                : c -> new SimpleStringProperty(valor.apply(c.getValue()) != null ? valor.apply(c.getValue()) : ""));
+        tabela.getColumns().add(col);
+    }
+
+    /** Coletas e milissegundos de coleta somados de todos os coletores. */
+    private static long[] coletas() {
+        long[] total = new long[2];
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total[0] += Math.max(0, gc.getCollectionCount());
+            total[1] += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static List<Obra> gerarObras(int quantidade) {
+        String[] tipos = {"Livro", "Livro Online", "Revista", "Jornal"};
+        List<Obra> obras = new ArrayList<>(quantidade);
+        for (int n = 1; n <= quantidade; n++) {
+            String tipo = tipos[n % tipos.length];
+            Obra obra = new Obra(n, "Obra de teste " + n + " (" + tipo + ")", tipo, String.valueOf(1900 + n % 120),
+                    "Autor " + n % 5000, "Editora " + n % 50);
+            obra.setChamada("RT-" + tipo.charAt(0) + "-" + n);
+            obra.setEdicao(String.valueOf(1 + n % 5));
+            if ("Revista".equals(tipo)) {
+                obra.setVolume(String.valueOf(n % 30));
+            }
+            if (!"Livro Online".equals(tipo)) {
+                obra.setIsbn(String.format("978%010d", n));
+            }
+            obras.add(obra);
+        }
+        return obras;
+    }
+}
@@ -0,0 +1,105 @@
+package trabalho.dao;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import trabalho.db.Db;
+import trabalho.db.MigracaoEsquema;
+import trabalho.model.Obra;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Banco usado pelos benchmarks: criado, com esquema e acervo de teste, uma vez por fork.
+ *
+ * Com -Dmuseu.db.url=... (e museu.db.user / museu.db.pass) usa um PostgreSQL local já
+ * existente, que deve estar vazio; sem isso sobe um PostgreSQL embutido em diretório
+ * temporário. Em ambos os casos cria o esquema com os scripts da aplicação (MigracaoEsquema)
+ * e cadastra {@code obrasPorTipo} obras de cada tipo (Livro, Livro Online, Revista, Jornal).
+ */
+@State(Scope.Benchmark)
+public class BancoBenchmark {
+
+    static final String[] TIPOS = {"Livro", "Livro Online", "Revista", "Jornal"};
+
+    @Param({"1000"})
+    public int obrasPorTipo;
+
+    final ObraDAO dao = new ObraDAO();
+
+    /** Ids e nomes cadastrados na carga, para atualizar/resolver obras que existem. */
+    final List<Integer> ids = new ArrayList<>();
+    final List<String> autores = new ArrayList<>();
+
+    private EmbeddedPostgres embutido;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws Exception {
+        if (System.getProperty("museu.db.url") == null) {
+            embutido = EmbeddedPostgres.builder().start();
+            System.setProperty("museu.db.url", embutido.getJdbcUrl("postgres", "postgres"));
+            System.setProperty("museu.db.user", "postgres");
+            System.setProperty("museu.db.pass", "");
+        }
+
+        try (Connection conn = Db.getConnection()) {
+            MigracaoEsquema.aplicar(conn, true);
+        }
+
+        int quantidadeAutores = Math.max(1, obrasPorTipo / 5);
+        for (int i = 0; i < quantidadeAutores; i++) {
+            autores.add("Autor " + i);
+        }
+        List<Obra> carga = new ArrayList<>();
+        for (String tipo : TIPOS) {
+            for (int i = 0; i < obrasPorTipo; i++) {
+                carga.add(novaObra(tipo, i, autores.get(i % quantidadeAutores)));
+            }
+        }
+        dao.inserirLote(carga);
+
+        try (Connection conn = Db.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id_obra FROM obras ORDER BY id_obra")) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws IOException {
+        Db.encerrarPool();
+        if (embutido != null) {
+            embutido.close();
+        }
+    }
+
+    /** Obra válida do tipo informado (campos no formato que o controller produz). */
+    static Obra novaObra(String tipo, int n, String autor) {
+        Obra obra = new Obra();
+        obra.setTitulo("Obra de teste " + n + " (" + tipo + ")");
+        obra.setTipo_Obra(tipo);
+        obra.setAno_Publicacao(String.valueOf(1900 + n % 120));
+        obra.setAutor(autor);
+        obra.setEditora("Editora " + n % 50);
+        obra.setChamada("BM-" + tipo.charAt(0) + "-" + n);
+        obra.setEdicao(String.valueOf(1 + n % 5));
+        if ("Revista".equals(tipo)) {
+            obra.setVolume(String.valueOf(n % 30));
+        }
+        if (!"Livro Online".equals(tipo)) {
+            obra.setIsbn(String.format("978%010d", n));
+        }
+        return obra;
+    }
+}
@@ -0,0 +1,346 @@
+package trabalho.dao;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Driver JDBC (só para a verificação de planos) que faz o EXPLAIN de cada comando do DAO.
+ *
+ * Com a URL "jdbc:planos:postgresql://..." o Db abre as conexões por este driver, que delega ao
+ * do PostgreSQL. Durante um cenário ({@link #iniciarCenario}), antes de enviar cada SELECT,
+ * INSERT, UPDATE ou DELETE, executa na mesma conexão e com os mesmos parâmetros um
+ * EXPLAIN (ANALYZE, BUFFERS, TIMING OFF, FORMAT XML) e desfaz o que ele alterou (rollback, ou rollback até
+ * um savepoint se a conexão já estiver numa transação). Assim o plano vem do comando real,
+ * enxergando o mesmo estado da transação, e o banco não muda por causa da verificação.
+ *
+ * TIMING OFF: sem cronometrar cada nó, o tempo total fica próximo do da execução normal
+ * (as linhas reais de cada nó continuam sendo contadas).
+ *
+ * Limitações: de um batch, só o primeiro conjunto de parâmetros é explicado; comandos dentro de
+ * funções (obras_gravar...) aparecem só pelo tempo total da chamada; o EXPLAIN usa o plano
+ * com os valores dos parâmetros (custom plan), mesmo que o comando preparado no servidor já
+ * tenha passado ao plano genérico; e um comando lido por cursor (setFetchSize, como em
+ * ObraDAO.stream) é planejado para devolver as primeiras linhas cedo e sem paralelismo, então
+ * o plano real pode ser outro.
+ */
+final class CapturaPlanos implements Driver {
+
+    static final String PREFIXO = "jdbc:planos:";
+
+    private static final Driver POSTGRES = new org.postgresql.Driver();
+
+    // Cenário em andamento (null: não captura) e planos coletados nele
+    private static volatile String cenario;
+    private static final List<Plano> PLANOS = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Plano de um comando.
+     *
+     * @param cenario     cenário em que o comando foi enviado
+     * @param sql         texto do comando
+     * @param raiz        nó raiz do plano (null se o EXPLAIN falhou)
+     * @param planejamentoMs tempo de planejamento
+     * @param execucaoMs  tempo de execução (inclui triggers)
+     * @param erro        mensagem de erro do EXPLAIN, se houver
+     */
+    record Plano(String cenario, String sql, No raiz, double planejamentoMs, double execucaoMs, String erro) {
+    }
+
+    /**
+     * Nó do plano.
+     *
+     * @param tipo             Node-Type (Seq Scan, Nested Loop, Hash Join...)
+     * @param relacao          tabela lida, se for uma varredura
+     * @param indice           índice usado, se houver
+     * @param linhasEstimadas  linhas estimadas pelo planejador (por execução do nó)
+     * @param linhasReais      linhas produzidas (média por execução do nó)
+     * @param execucoes        vezes que o nó foi executado (loops)
+     * @param blocosCache      blocos encontrados no cache do servidor (shared hit)
+     * @param blocosLidos      blocos lidos do disco/SO (shared read)
+     * @param filhos           nós filhos (num Nested Loop, o primeiro é o externo)
+     */
+    record No(String tipo, String relacao, String indice, double linhasEstimadas, double linhasReais,
+              double execucoes, long blocosCache, long blocosLidos, List<No> filhos) {
+
+        /** Linhas produzidas somando todas as execuções. */
+        double linhasTotais() {
+            return linhasReais * execucoes;
+        }
+    }
+
+    private CapturaPlanos() {
+    }
+
+    static void registrar() throws SQLException {
+        DriverManager.registerDriver(new CapturaPlanos());
+    }
+
+    static void iniciarCenario(String nome) {
+        PLANOS.clear();
+        cenario = nome;
+    }
+
+    static List<Plano> encerrarCenario() {
+        cenario = null;
+        synchronized (PLANOS) {
+            List<Plano> planos = new ArrayList<>(PLANOS);
+            PLANOS.clear();
+            return planos;
+        }
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        Connection fisica = POSTGRES.connect("jdbc:" + url.substring(PREFIXO.length()), info);
+        ConexaoCapturada handler = new ConexaoCapturada(fisica);
+        handler.proxy = (Connection) Proxy.newProxyInstance(CapturaPlanos.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+        return handler.proxy;
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith(PREFIXO);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
+        return POSTGRES.getPropertyInfo("jdbc:" + url.substring(PREFIXO.length()), info);
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return POSTGRES.getMajorVersion();
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return POSTGRES.getMinorVersion();
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    private static Object chamar(Object alvo, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(alvo, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /** Só estes comandos aceitam EXPLAIN (SET, COMMIT, NOTIFY... passam direto). */
+    private static boolean explicavel(String sql) {
+        String inicio = sql.stripLeading().toUpperCase(Locale.ROOT);
+        return inicio.startsWith("SELECT") || inicio.startsWith("WITH") || inicio.startsWith("INSERT")
+                || inicio.startsWith("UPDATE") || inicio.startsWith("DELETE");
+    }
+
+    /** Connection: embrulha os comandos criados. */
+    private static final class ConexaoCapturada implements InvocationHandler {
+        private final Connection fisica;
+        private Connection proxy;
+
+        ConexaoCapturada(Connection fisica) {
+            this.fisica = fisica;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "createStatement":
+                case "prepareStatement":
+                case "prepareCall": {
+                    Statement comando = (Statement) chamar(fisica, method, args);
+                    String sql = method.getName().equals("createStatement") ? null : (String) args[0];
+                    return Proxy.newProxyInstance(CapturaPlanos.class.getClassLoader(),
+                            new Class<?>[]{method.getReturnType()}, new ComandoCapturado(this, comando, sql));
+                }
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return chamar(fisica, method, args);
+            }
+        }
+
+        /** EXPLAIN ANALYZE do comando, desfeito em seguida; o plano vai para {@link #PLANOS}. */
+        void explicar(String sql, Map<Integer, Object[]> parametros) {
+            String nomeCenario = cenario;
+            if (nomeCenario == null || sql == null || !explicavel(sql)) {
+                return;
+            }
+            Plano plano;
+            try {
+                boolean autoCommit = fisica.getAutoCommit();
+                Savepoint savepoint = null;
+                if (autoCommit) {
+                    fisica.setAutoCommit(false);
+                } else {
+                    savepoint = fisica.setSavepoint();
+                }
+                try (PreparedStatement ps = fisica.prepareStatement("EXPLAIN (ANALYZE, BUFFERS, TIMING OFF, FORMAT XML) " + sql)) {
+                    for (Object[] chamada : parametros.values()) {
+                        ((Method) chamada[0]).invoke(ps, (Object[]) chamada[1]);
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        rs.next();
+                        plano = lerPlano(nomeCenario, sql, rs.getString(1));
+                    }
+                } catch (Exception e) { // erro do EXPLAIN, de um parâmetro ou do XML
+                    plano = new Plano(nomeCenario, sql, null, 0, 0, String.valueOf(e.getMessage()));
+                } finally {
+                    if (autoCommit) {
+                        fisica.rollback();
+                        fisica.setAutoCommit(true);
+                    } else {
+                        fisica.rollback(savepoint);
+                        fisica.releaseSavepoint(savepoint);
+                    }
+                }
+            } catch (SQLException e) {
+                plano = new Plano(nomeCenario, sql, null, 0, 0, String.valueOf(e.getMessage()));
+            }
+            PLANOS.add(plano);
+        }
+    }
+
+    /** Statement / PreparedStatement: guarda os parâmetros e explica antes de executar. */
+    private static final class ComandoCapturado implements InvocationHandler {
+        private final ConexaoCapturada conexao;
+        private final Statement fisico;
+        private final String sql;
+        private final Map<Integer, Object[]> parametros = new TreeMap<>();
+        private Map<Integer, Object[]> primeiroDoBatch;
+
+        ComandoCapturado(ConexaoCapturada conexao, Statement fisico, String sql) {
+            this.conexao = conexao;
+            this.fisico = fisico;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nome = method.getName();
+            if (nome.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer indice
+                    && method.getDeclaringClass() != Statement.class) {
+                parametros.put(indice, new Object[]{method, args});
+                return chamar(fisico, method, args);
+            }
+            switch (nome) {
+                case "clearParameters":
+                    parametros.clear();
+                    return chamar(fisico, method, args);
+                case "addBatch":
+                    if (primeiroDoBatch == null) {
+                        primeiroDoBatch = new TreeMap<>(parametros);
+                    }
+                    return chamar(fisico, method, args);
+                case "clearBatch":
+                    primeiroDoBatch = null;
+                    return chamar(fisico, method, args);
+                case "execute":
+                case "executeQuery":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                    conexao.explicar(args != null && args.length > 0 ? (String) args[0] : sql, parametros);
+                    return chamar(fisico, method, args);
+                case "executeBatch":
+                case "executeLargeBatch":
+                    if (primeiroDoBatch != null) {
+                        conexao.explicar(sql, primeiroDoBatch);
+                        primeiroDoBatch = null;
+                    }
+                    return chamar(fisico, method, args);
+                case "getConnection":
+                    return conexao.proxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return chamar(fisico, method, args);
+            }
+        }
+    }
+
+    private static Plano lerPlano(String cenario, String sql, String xml) throws Exception {
+        DocumentBuilderFactory fabrica = DocumentBuilderFactory.newInstance();
+        fabrica.setNamespaceAware(true);
+        Element explain = fabrica.newDocumentBuilder().parse(new InputSource(new StringReader(xml))).getDocumentElement();
+        Element query = filho(explain, "Query");
+        return new Plano(cenario, sql, lerNo(filho(query, "Plan")),
+                numero(query, "Planning-Time"), numero(query, "Execution-Time"), null);
+    }
+
+    private static No lerNo(Element plan) {
+        List<No> filhos = new ArrayList<>();
+        Element plans = filho(plan, "Plans");
+        if (plans != null) {
+            for (Node n = plans.getFirstChild(); n != null; n = n.getNextSibling()) {
+                if (n instanceof Element e && "Plan".equals(e.getLocalName())) {
+                    filhos.add(lerNo(e));
+                }
+            }
+        }
+        return new No(texto(plan, "Node-Type"), texto(plan, "Relation-Name"), texto(plan, "Index-Name"),
+                numero(plan, "Plan-Rows"), numero(plan, "Actual-Rows"), numero(plan, "Actual-Loops"),
+                (long) numero(plan, "Shared-Hit-Blocks"), (long) numero(plan, "Shared-Read-Blocks"), filhos);
+    }
+
+    private static Element filho(Element pai, String nome) {
+        for (Node n = pai.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n instanceof Element e && nome.equals(e.getLocalName())) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    private static String texto(Element pai, String nome) {
+        Element e = filho(pai, nome);
+        return e != null ? e.getTextContent().trim() : null;
+    }
+
+    private static double numero(Element pai, String nome) {
+        String t = texto(pai, nome);
+        return t != null ? Double.parseDouble(t) : 0;
+    }
+}
@@ -0,0 +1,67 @@
+package trabalho.dao;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import trabalho.db.Db;
+import trabalho.model.Obra;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Só o mapeamento ResultSet -> Obra (mapObra), sem rede.
+ *
+ * As linhas da listagem são lidas uma vez para um ResultSet rolável do próprio driver
+ * (todas em memória); cada operação posiciona em uma linha e a converte. Mede a
+ * localização das colunas por nome, a decodificação dos valores e a montagem da Obra.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapeamentoBenchmark {
+
+    private Connection conn;
+    private Statement st;
+    private ResultSet rs;
+    private int linhas;
+    private int linha;
+
+    @Setup(Level.Trial)
+    public void carregar(BancoBenchmark banco) throws SQLException {
+        conn = Db.getConnection();
+        st = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        rs = st.executeQuery(ObraDAO.SELECT_OBRA + "FROM obras o " + ObraDAO.JOINS_OBRA);
+        rs.last();
+        linhas = rs.getRow();
+    }
+
+    @TearDown(Level.Trial)
+    public void fechar() throws SQLException {
+        rs.close();
+        st.close();
+        conn.close();
+    }
+
+    @Benchmark
+    public Obra mapObra(BancoBenchmark banco) throws SQLException {
+        linha = linha % linhas + 1; // percorre os quatro tipos de obra
+        rs.absolute(linha);
+        return banco.dao.mapObra(rs);
+    }
+}
@@ -0,0 +1,103 @@
+package trabalho.dao;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import trabalho.model.Obra;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Operações do ObraDAO contra um PostgreSQL real (veja {@link BancoBenchmark}).
+ *
+ * Cada benchmark roda em vazão (ops/ms) e em amostragem de tempo (percentis p50...p99.99);
+ * com o profiler gc (padrão do executor trabalho.Benchmarks) informa também a alocação por operação.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObraDAOBenchmark {
+
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    /**
+     * Obra recém-inserida para cada chamada de excluir. Setup por invocação é aceitável aqui:
+     * a operação medida leva milissegundos, bem acima do custo de controle do JMH.
+     */
+    @State(Scope.Thread)
+    public static class ObraParaExcluir {
+        int id;
+
+        @Setup(Level.Invocation)
+        public void inserir(BancoBenchmark banco) throws SQLException {
+            int n = SEQUENCIA.incrementAndGet();
+            id = banco.dao.inserir(BancoBenchmark.novaObra("Livro", n, "Autor excluir")).getId();
+        }
+    }
+
+    @Benchmark
+    public List<Obra> listar(BancoBenchmark banco) throws SQLException {
+        return banco.dao.listar();
+    }
+
+    /** Mesmas obras de {@link #listar}, percorridas por cursor (compare a alocação no profiler gc). */
+    @Benchmark
+    public long percorrerStream(BancoBenchmark banco) throws SQLException {
+        try (Stream<Obra> obras = banco.dao.stream(FiltroObras.TODAS)) {
+            return obras.count();
+        }
+    }
+
+    @Benchmark
+    public List<Obra> listarPrimeiraPagina(BancoBenchmark banco) throws SQLException {
+        return banco.dao.listarPagina(OrdemObra.TITULO, true, null, 200);
+    }
+
+    @Benchmark
+    public Obra inserir(BancoBenchmark banco) throws SQLException {
+        int n = SEQUENCIA.incrementAndGet();
+        String tipo = BancoBenchmark.TIPOS[n % BancoBenchmark.TIPOS.length];
+        return banco.dao.inserir(BancoBenchmark.novaObra(tipo, n, banco.autores.get(n % banco.autores.size())));
+    }
+
+    @Benchmark
+    public Obra atualizar(BancoBenchmark banco) throws SQLException {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        int n = aleatorio.nextInt(banco.ids.size());
+        // Mesmo tipo da carga (a obra n foi cadastrada com TIPOS[n / obrasPorTipo])
+        Obra obra = BancoBenchmark.novaObra(BancoBenchmark.TIPOS[n / banco.obrasPorTipo], aleatorio.nextInt(),
+                banco.autores.get(n % banco.autores.size()));
+        obra.setId(banco.ids.get(n));
+        return banco.dao.atualizar(obra);
+    }
+
+    @Benchmark
+    public int excluir(BancoBenchmark banco, ObraParaExcluir alvo) throws SQLException {
+        banco.dao.excluir(alvo.id);
+        return alvo.id;
+    }
+
+    /** Autor e editora ainda não cadastrados: o servidor também cadastra os nomes. */
+    @Benchmark
+    public Obra inserirComNomesNovos(BancoBenchmark banco) throws SQLException {
+        int n = SEQUENCIA.incrementAndGet();
+        Obra obra = BancoBenchmark.novaObra("Livro", n, "Autor novo " + n);
+        obra.setEditora("Editora nova " + n);
+        return banco.dao.inserir(obra);
+    }
+}
@@ -0,0 +1,129 @@
+package trabalho.dao;
+
+import trabalho.metricas.Metricas;
+import trabalho.metricas.ResumoOperacao;
+import trabalho.model.Obra;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verificação do orçamento de idas e voltas ao banco de cada operação do ObraDAO.
+ *
+ * Com o banco remoto, cada ida custa dezenas de milissegundos; uma alteração no DAO que
+ * acrescente um comando por gravação passa despercebida num banco local e só aparece nas
+ * estações. Esta verificação sobe o mesmo banco dos benchmarks ({@link BancoBenchmark}),
+ * executa cada operação em todos os tipos de obra e caminhos (autor novo ou conhecido...)
+ * e compara o maior número de idas de uma chamada (contado pelas conexões do pool) com o
+ * orçamento. Termina com código 1 se algum orçamento for ultrapassado.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar trabalho.dao.OrcamentoIdas
+ * </pre>
+ *
+ * Ao reduzir as idas de uma operação, reduza também o orçamento dela aqui.
+ */
+public class OrcamentoIdas {
+
+    /** Operação, quantidade máxima de idas por chamada e as chamadas que a exercitam. */
+    private record Cenario(String operacao, int orcamento, Execucao execucao) {
+    }
+
+    @FunctionalInterface
+    private interface Execucao {
+        void executar(BancoBenchmark banco) throws SQLException;
+    }
+
+    private static final List<Cenario> CENARIOS = List.of(
+            // gravação e exclusão: um comando (funções obras_gravar / obras_excluir)
+            new Cenario("ObraDAO.inserir", 1, banco -> {
+                int n = 0;
+                for (String tipo : BancoBenchmark.TIPOS) {
+                    Obra nova = BancoBenchmark.novaObra(tipo, ++n, "Autor novo orçamento " + n);
+                    nova.setEditora("Editora nova orçamento " + n);
+                    banco.dao.inserir(nova);
+                    banco.dao.inserir(BancoBenchmark.novaObra(tipo, ++n, banco.autores.get(0)));
+                }
+            }),
+            new Cenario("ObraDAO.atualizar", 1, banco -> {
+                for (int t = 0; t < BancoBenchmark.TIPOS.length; t++) {
+                    int n = t * banco.obrasPorTipo;
+                    Obra obra = BancoBenchmark.novaObra(BancoBenchmark.TIPOS[t], n + 7, "Autor novo atualizar " + t);
+                    obra.setEditora("Editora nova atualizar " + t);
+                    obra.setId(banco.ids.get(n));
+                    banco.dao.atualizar(obra);
+                }
+            }),
+            new Cenario("ObraDAO.excluir", 1, banco -> {
+                for (String tipo : BancoBenchmark.TIPOS) {
+                    Obra obra = banco.dao.inserir(BancoBenchmark.novaObra(tipo, 1, banco.autores.get(0)));
+                    banco.dao.excluir(obra.getId());
+                }
+            }),
+            new Cenario("ObraDAO.listarPagina", 1, banco -> {
+                ChavePagina apos = null;
+                for (int i = 0; i < 3; i++) {
+                    List<Obra> pagina = banco.dao.listarPagina(OrdemObra.TITULO, true, apos, 200);
+                    apos = OrdemObra.TITULO.chaveApos(pagina.get(pagina.size() - 1));
+                }
+            }),
+            new Cenario("ObraDAO.buscar", 1, banco -> {
+                banco.dao.buscar("obra teste", 50);
+                banco.dao.buscar("livro", "Livro", 1950, 2000, 50);
+            }),
+            new Cenario("ObraDAO.buscarPorIds", 1, banco ->
+                    banco.dao.buscarPorIds(banco.ids.subList(0, 100))),
+            // 2x isolamento, xmin, gravadas, excluídas, commit
+            new Cenario("ObraDAO.alteracoesDesde", 6, banco -> {
+                long versao = banco.dao.alteracoesDesde(ObraDAO.VERSAO_INICIAL).versao();
+                banco.dao.alteracoesDesde(versao);
+            }),
+            // por bloco: autores e editoras (consulta + insert dos que faltam), sequence,
+            // 6 batches (obras, obras_autores, 4 tabelas de tipo), NOTIFY, commit
+            new Cenario("ObraDAO.inserirLote", 13, banco -> {
+                List<Obra> lote = new ArrayList<>();
+                for (String tipo : BancoBenchmark.TIPOS) {
+                    for (int i = 0; i < 250; i++) {
+                        Obra obra = BancoBenchmark.novaObra(tipo, i, "Autor lote orçamento " + i % 40);
+                        obra.setEditora("Editora lote orçamento " + i % 10);
+                        lote.add(obra);
+                    }
+                }
+                banco.dao.inserirLote(lote);
+            })
+    );
+
+    public static void main(String[] args) throws Exception {
+        // Sem revalidação de conexões ociosas: o isValid do pool não entra na contagem
+        System.setProperty("museu.pool.validarAposMs", String.valueOf(Long.MAX_VALUE));
+
+        BancoBenchmark banco = new BancoBenchmark();
+        banco.obrasPorTipo = 200;
+        banco.iniciar();
+        int estouros = 0;
+        try {
+            System.out.printf("%-26s %9s %9s %9s  %s%n", "operação", "orçamento", "idas máx", "idas méd", "");
+            for (Cenario cenario : CENARIOS) {
+                Metricas.zerar();
+                cenario.execucao().executar(banco);
+                ResumoOperacao resumo = Metricas.resumo().stream()
+                        .filter(r -> r.operacao().equals(cenario.operacao()))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalStateException("Operação não medida: " + cenario.operacao()));
+                boolean estourou = resumo.idasMaximo() > cenario.orcamento();
+                if (estourou) {
+                    estouros++;
+                }
+                System.out.printf("%-26s %9d %9d %9.1f  %s%n", cenario.operacao(), cenario.orcamento(),
+                        resumo.idasMaximo(), resumo.idasPorChamada(), estourou ? "ESTOUROU" : "ok");
+            }
+        } finally {
+            banco.encerrar();
+        }
+        if (estouros > 0) {
+            System.err.println(estouros + " operação(ões) acima do orçamento de idas ao banco.");
+            System.exit(1);
+        }
+    }
+}
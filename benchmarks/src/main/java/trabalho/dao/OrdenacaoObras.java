@@ -0,0 +1,159 @@
+package trabalho.dao;
+
+import trabalho.model.Obra;
+
+import java.nio.file.Path;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Ordenação do acervo em memória: tempo e ordem alfabética pt-BR.
+ *
+ * Gera {@code -Dordenacao.obras} obras (padrão 500 mil) com títulos e editoras acentuados e
+ * mede, sem banco:
+ * - a ordenação antiga por título (String.compareTo a cada comparação), só como referência;
+ * - a primeira ordenação por título, ano e editora ({@link OrdemObra#ordenar}: chaves calculadas
+ *   em paralelo, uma por texto distinto, + Arrays.parallelSort);
+ * - a reordenação com as chaves já calculadas (o que a cópia local guarda por coluna);
+ * - na {@link AcervoLocal}, a primeira página por título, gravações aplicadas nas listas já
+ *   ordenadas e a primeira página da ordem decrescente (a mesma lista, lida ao contrário).
+ *
+ * Confere ainda que o resultado segue o Collator pt-BR ("Ética" junto de "Etica", não depois
+ * de "Zoologia"); termina com código 1 se não seguir.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar trabalho.dao.OrdenacaoObras
+ * </pre>
+ */
+public class OrdenacaoObras {
+
+    private static final int OBRAS = Integer.getInteger("ordenacao.obras", 500_000);
+    private static final int GRAVACOES = 1_000;
+    private static final String[] PALAVRAS = {
+            "Memórias", "póstumas", "de", "Brás", "Cubas", "Ética", "Etica", "ação", "Água", "agua",
+            "viva", "O", "cortiço", "Iracema", "Grande", "Sertão", "veredas", "Macunaíma", "Ensaio",
+            "sobre", "a", "cegueira", "Zoologia", "Érico", "estrela", "Órfãos", "Ubirajara", "Zé"
+    };
+
+    public static void main(String[] args) throws Exception {
+        List<Obra> obras = gerarObras(OBRAS);
+        System.out.printf("%d obras, %d processador(es)%n", obras.size(), Runtime.getRuntime().availableProcessors());
+
+        for (int rodada = 1; rodada <= 2; rodada++) { // a primeira rodada aquece o JIT
+            System.out.println("Rodada " + rodada + (rodada == 1 ? " (aquecimento)" : ""));
+
+            List<Obra> copia = new ArrayList<>(obras);
+            long inicio = System.nanoTime();
+            copia.sort(Comparator.comparing(Obra::getTitulo).thenComparingInt(Obra::getId));
+            medida("título, String.compareTo (antigo)", inicio);
+
+            inicio = System.nanoTime();
+            List<OrdemObra.Linha<Obra>> porTitulo = OrdemObra.TITULO.linhas(obras);
+            medida("título, chaves pt-BR + ordenação", inicio);
+
+            List<OrdemObra.Linha<Obra>> embaralhadas = new ArrayList<>(porTitulo);
+            Collections.shuffle(embaralhadas, new Random(rodada));
+            inicio = System.nanoTime();
+            OrdemObra.Linha<?>[] linhas = embaralhadas.toArray(new OrdemObra.Linha<?>[0]);
+            Arrays.parallelSort(linhas, Comparator.comparing((OrdemObra.Linha<?> linha) -> linha.chave()));
+            medida("título, reordenação com chaves prontas", inicio);
+
+            inicio = System.nanoTime();
+            OrdemObra.ANO.linhas(obras);
+            medida("ano (int)", inicio);
+
+            inicio = System.nanoTime();
+            OrdemObra.EDITORA.linhas(obras);
+            medida("editora (poucos nomes distintos)", inicio);
+
+            AcervoLocal acervo = new AcervoLocal(Path.of("nao-usado.bin"), null);
+            for (Obra obra : obras) {
+                acervo.obraGravada(obra);
+            }
+            inicio = System.nanoTime();
+            acervo.listarPagina(OrdemObra.TITULO, true, null, null, 200).join();
+            medida("AcervoLocal: 1ª página por título", inicio);
+            inicio = System.nanoTime();
+            for (int i = 0; i < GRAVACOES; i++) {
+                Obra alterada = obras.get(i * (obras.size() / GRAVACOES));
+                Obra nova = new Obra(alterada.getId(), alterada.getTitulo() + " (2ª ed.)", alterada.getTipo_Obra(),
+                        alterada.getAno_Publicacao(), alterada.getAutor(), alterada.getEditora());
+                acervo.obraGravada(nova);
+            }
+            double msGravacoes = (System.nanoTime() - inicio) / 1e6;
+            System.out.printf("  %-45s %9.3f ms por gravação%n", "AcervoLocal: gravação nas listas ordenadas",
+                    msGravacoes / GRAVACOES);
+            inicio = System.nanoTime();
+            List<Obra> ultimas = acervo.listarPagina(OrdemObra.TITULO, false, null, null, 200).join();
+            medida("AcervoLocal: 1ª página decrescente", inicio);
+
+            if (rodada == 2) {
+                conferirOrdem(porTitulo, ultimas);
+            }
+        }
+    }
+
+    /** Títulos consecutivos na ordem do Collator pt-BR, e a página decrescente é o fim da crescente. */
+    private static void conferirOrdem(List<OrdemObra.Linha<Obra>> porTitulo, List<Obra> decrescente) {
+        Collator ptBr = Collator.getInstance(Locale.forLanguageTag("pt-BR"));
+        ptBr.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        int foraDeOrdem = 0;
+        for (int i = 1; i < porTitulo.size(); i++) {
+            if (ptBr.compare(porTitulo.get(i - 1).obra().getTitulo(), porTitulo.get(i).obra().getTitulo()) > 0) {
+                foraDeOrdem++;
+            }
+        }
+        int etica = primeiro(porTitulo, "Ética");
+        int etica2 = primeiro(porTitulo, "Etica");
+        int zoologia = primeiro(porTitulo, "Zoologia");
+        System.out.printf("Ordem: %d par(es) fora da ordem pt-BR; 1ª posição de \"Etica\" %d, \"Ética\" %d, \"Zoologia\" %d%n",
+                foraDeOrdem, etica2, etica, zoologia);
+        System.out.println("Primeiros títulos da página decrescente: "
+                + decrescente.subList(0, 3).stream().map(Obra::getTitulo).toList());
+        if (foraDeOrdem > 0 || etica > zoologia) {
+            System.out.println("FALHOU: ordenação fora da ordem alfabética do português");
+            System.exit(1);
+        }
+    }
+
+    private static int primeiro(List<OrdemObra.Linha<Obra>> linhas, String prefixo) {
+        for (int i = 0; i < linhas.size(); i++) {
+            if (linhas.get(i).obra().getTitulo().startsWith(prefixo)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void medida(String descricao, long inicio) {
+        System.out.printf("  %-45s %9.1f ms%n", descricao, (System.nanoTime() - inicio) / 1e6);
+    }
+
+    private static List<Obra> gerarObras(int quantidade) {
+        Random aleatorio = new Random(42);
+        String[] tipos = {"Livro", "Livro Online", "Revista", "Jornal"};
+        List<Obra> obras = new ArrayList<>(quantidade);
+        for (int n = 1; n <= quantidade; n++) {
+            StringBuilder titulo = new StringBuilder();
+            int palavras = 2 + aleatorio.nextInt(4);
+            for (int p = 0; p < palavras; p++) {
+                if (p > 0) {
+                    titulo.append(' ');
+                }
+                titulo.append(PALAVRAS[aleatorio.nextInt(PALAVRAS.length)]);
+            }
+            titulo.append(' ').append(n % 997);
+            Obra obra = new Obra(n, titulo.toString(), tipos[n % tipos.length], String.valueOf(1900 + n % 120),
+                    "Autor " + n % 5000, "Editora " + PALAVRAS[n % PALAVRAS.length]);
+            obra.setChamada("OR-" + n);
+            obras.add(obra);
+        }
+        return obras;
+    }
+}
@@ -0,0 +1,345 @@
+package trabalho.dao;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import trabalho.dao.CapturaPlanos.No;
+import trabalho.dao.CapturaPlanos.Plano;
+import trabalho.db.Db;
+import trabalho.model.Obra;
+
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Verificação dos planos de execução das consultas do ObraDAO.
+ *
+ * Num banco pequeno toda consulta é rápida, e uma mudança no SQL (ou um índice que some) que
+ * faz o PostgreSQL trocar um Index Scan por uma varredura da tabela inteira só aparece nas
+ * estações, com o acervo real. Esta verificação cadastra um acervo de tamanho realista
+ * ({@code -Dplanos.obrasPorTipo}, padrão 25 mil de cada tipo, um terço das obras com dois
+ * autores), executa as operações do DAO e faz o EXPLAIN (ANALYZE, BUFFERS) de cada comando
+ * enviado ({@link CapturaPlanos}). Um comando reprova quando:
+ * - lê uma tabela grande ({@link #LINHAS_TABELA_GRANDE} linhas ou mais) por Seq Scan, fora
+ *   das operações que leem o acervo inteiro;
+ * - faz um Nested Loop com muitas linhas externas ({@link #LINHAS_LACO}) sobre tabela grande,
+ *   ou que repete um Seq Scan de tabela grande a cada linha externa;
+ * - passa do orçamento de tempo de execução do cenário.
+ * Termina com código 1 se algum comando reprovar. O relatório (opcional) traz o plano de cada
+ * comando: forma, linhas estimadas x reais e blocos do cache / lidos. Os planos dependem do
+ * random_page_cost do servidor; para conferir com o valor passado pelas estações, rode com o
+ * mesmo {@code -Dmuseu.db.custoPaginaAleatoria}.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar trabalho.dao.PlanosConsultas [relatorio.txt]
+ * </pre>
+ *
+ * Operação nova no DAO: acrescente um cenário aqui.
+ */
+public class PlanosConsultas {
+
+    static final long LINHAS_TABELA_GRANDE = 10_000;
+    static final double LINHAS_LACO = 5_000;
+
+    /** Estimativa errada por este fator (ou mais) aparece marcada no relatório. */
+    private static final double FATOR_ESTIMATIVA = 10;
+
+    /**
+     * Cenário: operações exercitadas, orçamento de tempo por comando e se pode varrer tabelas
+     * inteiras (listar, stream e a primeira sincronização leem todas as obras).
+     */
+    private record Cenario(String nome, double orcamentoMs, boolean leituraCompleta, Execucao execucao) {
+    }
+
+    @FunctionalInterface
+    private interface Execucao {
+        void executar(BancoBenchmark banco) throws SQLException;
+    }
+
+    private static final List<Cenario> CENARIOS = List.of(
+            new Cenario("ObraDAO.listar", 1_500, true, banco -> banco.dao.listar()),
+            new Cenario("ObraDAO.stream", 2_500, true, banco -> {
+                try (Stream<Obra> obras = banco.dao.stream(FiltroObras.TODAS)) {
+                    obras.count();
+                }
+                try (Stream<Obra> revistas = banco.dao.stream(FiltroObras.doTipo("Revista"))) {
+                    revistas.count();
+                }
+            }),
+            new Cenario("ObraDAO.listarPagina", 50, false, banco -> {
+                for (OrdemObra ordem : new OrdemObra[]{OrdemObra.ID, OrdemObra.TITULO, OrdemObra.ANO}) {
+                    for (boolean crescente : new boolean[]{true, false}) {
+                        List<Obra> pagina = banco.dao.listarPagina(ordem, crescente, null, 200);
+                        banco.dao.listarPagina(ordem, crescente, ordem.chaveApos(pagina.get(pagina.size() - 1)), 200);
+                    }
+                }
+            }),
+            // Sem índice possível (editora vem de outra tabela; chamada é expressão): ordena tudo
+            new Cenario("ObraDAO.listarPagina (editora, chamada)", 400, true, banco -> {
+                for (OrdemObra ordem : new OrdemObra[]{OrdemObra.EDITORA, OrdemObra.CHAMADA}) {
+                    List<Obra> pagina = banco.dao.listarPagina(ordem, true, null, 200);
+                    banco.dao.listarPagina(ordem, true, ordem.chaveApos(pagina.get(pagina.size() - 1)), 200);
+                }
+            }),
+            // Termos seletivos, como os de quem procura uma obra (no acervo de teste, "obra" e
+            // "teste" estão em todos os títulos, e ler a tabela inteira seria o plano certo)
+            new Cenario("ObraDAO.buscar", 100, false, banco -> {
+                banco.dao.buscar("teste 4321", 50);
+                banco.dao.buscar("autor 77", "Livro", 1950, 2000, 50);
+            }),
+            new Cenario("ObraDAO.buscarPorIds", 30, false, banco ->
+                    banco.dao.buscarPorIds(banco.ids.subList(0, 100))),
+            new Cenario("ObraDAO.alteracoesDesde (inicial)", 2_500, true, banco ->
+                    banco.dao.alteracoesDesde(ObraDAO.VERSAO_INICIAL)),
+            new Cenario("ObraDAO.obrasPorAutor/obrasPorEditora", 500, true, banco -> {
+                banco.dao.obrasPorAutor();
+                banco.dao.obrasPorEditora();
+            }),
+            new Cenario("ObraDAO.gravar", 30, false, banco -> {
+                int n = 0;
+                for (String tipo : BancoBenchmark.TIPOS) {
+                    Obra obra = banco.dao.inserir(BancoBenchmark.novaObra(tipo, ++n, "Autor novo planos " + n));
+                    obra.setTitulo(obra.getTitulo() + " (revisada)");
+                    banco.dao.atualizar(obra);
+                    banco.dao.excluir(obra.getId());
+                }
+            }),
+            new Cenario("ObraDAO.inserirLote", 100, false, banco -> {
+                List<Obra> lote = new ArrayList<>();
+                for (String tipo : BancoBenchmark.TIPOS) {
+                    for (int i = 0; i < 250; i++) {
+                        lote.add(BancoBenchmark.novaObra(tipo, i, "Autor lote planos " + i % 40));
+                    }
+                }
+                banco.dao.inserirLote(lote);
+            })
+    );
+
+    public static void main(String[] args) throws Exception {
+        Path relatorio = args.length > 0 ? Path.of(args[0]) : null;
+        EmbeddedPostgres embutido = null;
+        String url = System.getProperty("museu.db.url");
+        if (url == null) {
+            embutido = EmbeddedPostgres.builder().start();
+            url = embutido.getJdbcUrl("postgres", "postgres");
+            System.setProperty("museu.db.user", "postgres");
+            System.setProperty("museu.db.pass", "");
+        }
+        System.setProperty("museu.db.url", CapturaPlanos.PREFIXO + url.substring("jdbc:".length()));
+        System.setProperty("museu.pool.vazamentoMs", "0"); // a carga do acervo segura a conexão por minutos
+        CapturaPlanos.registrar();
+
+        BancoBenchmark banco = new BancoBenchmark();
+        banco.obrasPorTipo = Integer.getInteger("planos.obrasPorTipo", 25_000);
+        int reprovados = 0;
+        try (PrintWriter saida = relatorio != null
+                ? new PrintWriter(Files.newBufferedWriter(relatorio, StandardCharsets.UTF_8)) : null) {
+            banco.iniciar();
+            Map<String, Long> tamanhos = prepararAcervo();
+
+            System.out.printf("%-40s %8s %10s %10s  %s%n", "cenário", "comandos", "máx (ms)", "orçamento", "");
+            for (Cenario cenario : CENARIOS) {
+                List<Plano> planos;
+                CapturaPlanos.iniciarCenario(cenario.nome());
+                try {
+                    cenario.execucao().executar(banco);
+                } finally {
+                    planos = CapturaPlanos.encerrarCenario();
+                }
+                reprovados += avaliar(cenario, planos, tamanhos, saida);
+            }
+        } finally {
+            banco.encerrar();
+            if (embutido != null) {
+                embutido.close();
+            }
+        }
+        if (relatorio != null) {
+            System.out.println("Planos em " + relatorio.toAbsolutePath());
+        }
+        if (reprovados > 0) {
+            System.err.println(reprovados + " comando(s) com plano reprovado.");
+            System.exit(1);
+        }
+    }
+
+    /** Segundo autor para um terço das obras, estatísticas atualizadas e linhas de cada tabela. */
+    private static Map<String, Long> prepararAcervo() throws SQLException {
+        Map<String, Long> tamanhos = new HashMap<>();
+        try (Connection conn = Db.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO obras_autores (id_obra, id_autor, ordem) " +
+                    "SELECT oa.id_obra, a.id_autor, 2 " +
+                    "FROM obras_autores oa " +
+                    "JOIN autores a ON a.id_autor = (SELECT min(id_autor) FROM autores) + (oa.id_autor * 7 + 3) % 97 " +
+                    "WHERE oa.id_obra % 3 = 0 AND a.id_autor <> oa.id_autor");
+            st.execute("ANALYZE");
+            try (ResultSet rs = st.executeQuery(
+                    "SELECT relname, reltuples::bigint FROM pg_class WHERE relkind = 'r' AND relnamespace = 'public'::regnamespace")) {
+                while (rs.next()) {
+                    tamanhos.put(rs.getString(1), rs.getLong(2));
+                }
+            }
+        }
+        return tamanhos;
+    }
+
+    /** Confere os planos do cenário, imprime o resumo e devolve quantos comandos reprovaram. */
+    private static int avaliar(Cenario cenario, List<Plano> planos, Map<String, Long> tamanhos, PrintWriter saida) {
+        int reprovados = 0;
+        double maximo = 0;
+        List<String> mensagens = new ArrayList<>();
+        if (saida != null) {
+            saida.println("=== " + cenario.nome() + " (orçamento " + cenario.orcamentoMs() + " ms)");
+        }
+        for (Plano plano : planos) {
+            maximo = Math.max(maximo, plano.execucaoMs());
+            List<String> problemas = new ArrayList<>();
+            if (plano.erro() != null) {
+                problemas.add("EXPLAIN falhou: " + plano.erro());
+            } else {
+                procurarProblemas(plano.raiz(), cenario, tamanhos, problemas);
+                if (plano.execucaoMs() > cenario.orcamentoMs()) {
+                    problemas.add(String.format("execução em %.1f ms, acima do orçamento", plano.execucaoMs()));
+                }
+            }
+            if (!problemas.isEmpty()) {
+                reprovados++;
+                for (String problema : problemas) {
+                    mensagens.add("    " + problema + "\n      em: " + resumirSql(plano.sql()));
+                }
+            }
+            if (saida != null) {
+                saida.println();
+                saida.println(plano.sql());
+                saida.printf("planejamento %.2f ms, execução %.2f ms%s%n", plano.planejamentoMs(), plano.execucaoMs(),
+                        problemas.isEmpty() ? "" : "  REPROVADO: " + String.join("; ", problemas));
+                if (plano.raiz() != null) {
+                    saida.println("forma: " + forma(plano.raiz()));
+                    escreverNo(saida, plano.raiz(), 1, false);
+                }
+            }
+        }
+        if (saida != null) {
+            saida.println();
+        }
+        System.out.printf("%-40s %8d %10.1f %10.0f  %s%n", cenario.nome(), planos.size(), maximo,
+                cenario.orcamentoMs(), reprovados > 0 ? "REPROVADO" : "ok");
+        for (String mensagem : mensagens) {
+            System.out.println(mensagem);
+        }
+        return reprovados;
+    }
+
+    private static void procurarProblemas(No no, Cenario cenario, Map<String, Long> tamanhos, List<String> problemas) {
+        if ("Seq Scan".equals(no.tipo()) && grande(no.relacao(), tamanhos) && !cenario.leituraCompleta()) {
+            problemas.add("Seq Scan em " + no.relacao() + " (" + tamanhos.get(no.relacao()) + " linhas)");
+        }
+        if ("Nested Loop".equals(no.tipo()) && no.filhos().size() == 2) {
+            No externo = no.filhos().get(0);
+            No interno = no.filhos().get(1);
+            String varrida = tabelaVarrida(interno, tamanhos);
+            if (varrida != null && externo.linhasTotais() > 1) {
+                problemas.add(String.format("Nested Loop repete o Seq Scan de %s para cada uma de %.0f linhas",
+                        varrida, externo.linhasTotais()));
+            } else if (externo.linhasTotais() >= LINHAS_LACO && tabelaGrande(interno, tamanhos) != null) {
+                problemas.add(String.format("Nested Loop com %.0f linhas externas sobre %s",
+                        externo.linhasTotais(), tabelaGrande(interno, tamanhos)));
+            }
+        }
+        for (No filho : no.filhos()) {
+            procurarProblemas(filho, cenario, tamanhos, problemas);
+        }
+    }
+
+    private static boolean grande(String tabela, Map<String, Long> tamanhos) {
+        return tabela != null && tamanhos.getOrDefault(tabela, 0L) >= LINHAS_TABELA_GRANDE;
+    }
+
+    /** Tabela grande lida por Seq Scan nesta subárvore (null se nenhuma). */
+    private static String tabelaVarrida(No no, Map<String, Long> tamanhos) {
+        if ("Seq Scan".equals(no.tipo()) && grande(no.relacao(), tamanhos)) {
+            return no.relacao();
+        }
+        for (No filho : no.filhos()) {
+            String tabela = tabelaVarrida(filho, tamanhos);
+            if (tabela != null) {
+                return tabela;
+            }
+        }
+        return null;
+    }
+
+    /** Tabela grande lida (de qualquer forma) nesta subárvore (null se nenhuma). */
+    private static String tabelaGrande(No no, Map<String, Long> tamanhos) {
+        if (grande(no.relacao(), tamanhos)) {
+            return no.relacao();
+        }
+        for (No filho : no.filhos()) {
+            String tabela = tabelaGrande(filho, tamanhos);
+            if (tabela != null) {
+                return tabela;
+            }
+        }
+        return null;
+    }
+
+    /** Forma do plano numa linha, ex.: "Limit > Nested Loop(Index Scan obras, Aggregate > ...)". */
+    private static String forma(No no) {
+        StringBuilder sb = new StringBuilder(no.tipo());
+        if (no.relacao() != null) {
+            sb.append(' ').append(no.relacao());
+        }
+        if (no.filhos().size() == 1) {
+            sb.append(" > ").append(forma(no.filhos().get(0)));
+        } else if (!no.filhos().isEmpty()) {
+            sb.append('(');
+            for (int i = 0; i < no.filhos().size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(forma(no.filhos().get(i)));
+            }
+            sb.append(')');
+        }
+        return sb.toString();
+    }
+
+    /** Um nó por linha; abaixo de um Limit, a estimativa é da consulta sem limite e não é comparada. */
+    private static void escreverNo(PrintWriter saida, No no, int nivel, boolean sobLimite) {
+        StringBuilder linha = new StringBuilder("  ".repeat(nivel)).append(no.tipo());
+        if (no.relacao() != null) {
+            linha.append(" em ").append(no.relacao());
+        }
+        if (no.indice() != null) {
+            linha.append(" usando ").append(no.indice());
+        }
+        linha.append(String.format("  estimadas=%.0f reais=%.0f", no.linhasEstimadas(), no.linhasReais()));
+        if (no.execucoes() != 1) {
+            linha.append(String.format(" x%.0f", no.execucoes()));
+        }
+        linha.append("  cache=").append(no.blocosCache()).append(" lidos=").append(no.blocosLidos());
+        double maior = Math.max(no.linhasEstimadas(), no.linhasReais());
+        double menor = Math.max(1, Math.min(no.linhasEstimadas(), no.linhasReais()));
+        if (!sobLimite && no.execucoes() > 0 && maior / menor >= FATOR_ESTIMATIVA) {
+            linha.append(String.format("  <- estimativa errada %.0fx", maior / menor));
+        }
+        saida.println(linha);
+        for (No filho : no.filhos()) {
+            escreverNo(saida, filho, nivel + 1, sobLimite || "Limit".equals(no.tipo()));
+        }
+    }
+
+    private static String resumirSql(String sql) {
+        String linha = sql.replaceAll("\\s+", " ").trim();
+        return linha.length() > 160 ? linha.substring(0, 157) + "..." : linha;
+    }
+}
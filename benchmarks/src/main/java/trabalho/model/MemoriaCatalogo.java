@@ -0,0 +1,135 @@
+package trabalho.model;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Memória ocupada pelo catálogo em memória: Obra x ObraCompacta.
+ *
+ * Gera {@code -Dmemoria.obras} obras (padrão 1 milhão) como o driver as entrega: cada campo de
+ * cada linha é uma String nova, mesmo a editora repetida em milhares de obras. Autores saem de
+ * {@code AUTORES} nomes (um em cada cinco com dois autores) e editoras de {@code EDITORAS} nomes;
+ * livros têm ISBN e às vezes edição, revistas volume e número, jornais número.
+ *
+ * Mede o heap usado depois de coletas completas, com só a List&lt;Obra&gt; viva e depois com só
+ * a List&lt;ObraCompacta&gt; (o dicionário de textos compartilhados entra na conta) e confere
+ * que os getters devolvem os mesmos valores. Rode com heap de sobra para as duas listas:
+ *
+ * <pre>
+ * java -Xmx3g -cp benchmarks/target/benchmarks.jar trabalho.model.MemoriaCatalogo
+ * </pre>
+ */
+public class MemoriaCatalogo {
+
+    private static final int OBRAS = Integer.getInteger("memoria.obras", 1_000_000);
+    private static final int AUTORES = 100_000;
+    private static final int EDITORAS = 5_000;
+    private static final String[] TIPOS = {"Livro", "Livro", "Livro", "Livro Online", "Revista", "Jornal"};
+    private static final String[] EDICOES = {"1ª", "2ª", "3ª", "Revista e ampliada"};
+
+    public static void main(String[] args) {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        long base = usado(memoria);
+
+        List<Obra> obras = gerarObras(OBRAS);
+        long comObras = usado(memoria) - base;
+
+        long inicio = System.nanoTime();
+        List<ObraCompacta> compactas = new ArrayList<>(obras.size());
+        for (Obra obra : obras) {
+            compactas.add(ObraCompacta.de(obra));
+        }
+        double msConversao = (System.nanoTime() - inicio) / 1e6;
+        int diferentes = conferir(obras, compactas);
+
+        obras = null;
+        long comCompactas = usado(memoria) - base;
+
+        System.out.printf("%d obras, %d textos no dicionário, conversão em %.0f ms%n",
+                compactas.size(), Dicionario.tamanho(), msConversao);
+        imprimir("List<Obra>", comObras, compactas.size());
+        imprimir("List<ObraCompacta>", comCompactas, compactas.size());
+        System.out.printf("Redução: %.1f%%%n", 100.0 * (comObras - comCompactas) / comObras);
+        if (diferentes > 0) {
+            System.out.println("FALHOU: " + diferentes + " obra(s) com getters diferentes da original");
+            System.exit(1);
+        }
+    }
+
+    private static void imprimir(String descricao, long bytes, int obras) {
+        System.out.printf("  %-20s %8.1f MB  %6.0f bytes/obra  %8.1f MB por milhão%n",
+                descricao, bytes / 1e6, (double) bytes / obras, bytes / 1e6 * 1_000_000 / obras);
+    }
+
+    /** Quantas compactas diferem da Obra original em algum getter. */
+    private static int conferir(List<Obra> obras, List<ObraCompacta> compactas) {
+        int diferentes = 0;
+        for (int i = 0; i < obras.size(); i++) {
+            if (!mesmosDados(obras.get(i), compactas.get(i))) {
+                diferentes++;
+            }
+        }
+        return diferentes;
+    }
+
+    private static boolean mesmosDados(DadosObra a, DadosObra b) {
+        return Objects.equals(a.getId(), b.getId()) && Objects.equals(a.getTitulo(), b.getTitulo())
+                && Objects.equals(a.getTipo_Obra(), b.getTipo_Obra())
+                && Objects.equals(a.getAno_Publicacao(), b.getAno_Publicacao())
+                && Objects.equals(a.getAutor(), b.getAutor()) && Objects.equals(a.getAutores(), b.getAutores())
+                && Objects.equals(a.getEditora(), b.getEditora()) && Objects.equals(a.getVolume(), b.getVolume())
+                && Objects.equals(a.getEdicao(), b.getEdicao()) && Objects.equals(a.getIsbn(), b.getIsbn())
+                && Objects.equals(a.getChamada(), b.getChamada()) && Objects.equals(a.getNumero(), b.getNumero());
+    }
+
+    /** Heap usado depois de coletas completas (o que continua vivo). */
+    private static long usado(MemoryMXBean memoria) {
+        long anterior = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            long atual = memoria.getHeapMemoryUsage().getUsed();
+            if (atual >= anterior) {
+                return atual;
+            }
+            anterior = atual;
+        }
+        return anterior;
+    }
+
+    private static List<Obra> gerarObras(int quantidade) {
+        Random aleatorio = new Random(42);
+        List<Obra> obras = new ArrayList<>(quantidade);
+        for (int n = 1; n <= quantidade; n++) {
+            String tipo = TIPOS[n % TIPOS.length];
+            String autor = "Autor " + aleatorio.nextInt(AUTORES) + " Sobrenome";
+            if (aleatorio.nextInt(5) == 0) {
+                autor += Obra.SEPARADOR_AUTORES + "Autor " + aleatorio.nextInt(AUTORES) + " Sobrenome";
+            }
+            Obra obra = new Obra(n, "Título da obra número " + n, new String(tipo),
+                    String.valueOf(1900 + aleatorio.nextInt(125)), autor,
+                    "Editora " + aleatorio.nextInt(EDITORAS), "CH-" + n, null);
+            switch (tipo) {
+                case "Livro":
+                case "Livro Online":
+                    obra.setIsbn(String.valueOf(9_780_000_000_000L + n));
+                    if (aleatorio.nextInt(3) == 0) {
+                        obra.setEdicao(new String(EDICOES[aleatorio.nextInt(EDICOES.length)]));
+                    }
+                    break;
+                case "Revista":
+                    obra.setVolume(String.valueOf(1 + aleatorio.nextInt(60)));
+                    obra.setNumero(String.valueOf(1 + aleatorio.nextInt(12)));
+                    break;
+                default:
+                    obra.setNumero(String.valueOf(1 + aleatorio.nextInt(20_000)));
+                    break;
+            }
+            obras.add(obra);
+        }
+        return obras;
+    }
+}
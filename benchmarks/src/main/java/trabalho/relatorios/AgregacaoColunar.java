@@ -0,0 +1,169 @@
+package trabalho.relatorios;
+
+import trabalho.model.Obra;
+import trabalho.model.TipoObra;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Relatórios agregados do acervo: laço sobre List&lt;Obra&gt; x {@link AcervoColunar}.
+ *
+ * Gera {@code -Dagregacao.obras} obras (padrão 1 milhão; 100 mil autores, 5 mil editoras) e mede,
+ * sem banco, a melhor de 5 execuções de cada consulta:
+ * - revistas por década;
+ * - as 10 editoras com mais obras;
+ * - os 10 autores com mais livros publicados entre 1950 e 1999;
+ * - quantidade de obras entre 1950 e 1999.
+ *
+ * O laço sobre Obra é o que um relatório faz hoje com listar() (ou stream()): compara o tipo,
+ * converte o ano e conta num HashMap. Confere que as duas formas dão o mesmo resultado;
+ * termina com código 1 se não derem.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar trabalho.relatorios.AgregacaoColunar
+ * </pre>
+ */
+public class AgregacaoColunar {
+
+    private static final int OBRAS = Integer.getInteger("agregacao.obras", 1_000_000);
+    private static final int AUTORES = 100_000;
+    private static final int EDITORAS = 5_000;
+    private static final String[] TIPOS = {"Livro", "Livro", "Livro", "Livro Online", "Revista", "Jornal"};
+    private static final int REPETICOES = 5;
+
+    private static boolean falhou;
+
+    public static void main(String[] args) {
+        List<Obra> obras = gerarObras(OBRAS);
+        System.out.printf("%d obras, %d processador(es)%n", obras.size(), Runtime.getRuntime().availableProcessors());
+
+        long inicio = System.nanoTime();
+        AcervoColunar acervo = AcervoColunar.de(obras.stream());
+        System.out.printf("Montagem das colunas: %.0f ms%n", (System.nanoTime() - inicio) / 1e6);
+        System.out.printf("  %-40s %12s %12s%n", "", "List<Obra>", "colunas");
+
+        comparar("revistas por década",
+                () -> new TreeMap<>(porDecada(obras, "Revista")),
+                () -> new TreeMap<>(acervo.agrupar(Agrupamento.DECADA, acervo.doTipo(TipoObra.REVISTA))));
+        comparar("10 editoras com mais obras",
+                () -> maiores(contarEditoras(obras), 10),
+                () -> acervo.maiores(Agrupamento.EDITORA, acervo.todas(), 10));
+        comparar("10 autores com mais livros, 1950-1999",
+                () -> maiores(contarAutores(obras, "Livro", 1950, 1999), 10),
+                () -> acervo.maiores(Agrupamento.AUTOR,
+                        acervo.doTipo(TipoObra.LIVRO).e(acervo.entreAnos(1950, 1999)), 10));
+        comparar("obras entre 1950 e 1999",
+                () -> contarEntreAnos(obras, 1950, 1999),
+                () -> acervo.contar(acervo.entreAnos(1950, 1999)));
+
+        if (falhou) {
+            System.out.println("FALHOU: o acervo em colunas deu resultado diferente do laço sobre Obra");
+            System.exit(1);
+        }
+    }
+
+    private static void comparar(String descricao, Supplier<?> obras, Supplier<?> colunas) {
+        Object esperado = null;
+        Object obtido = null;
+        long melhorObras = Long.MAX_VALUE;
+        long melhorColunas = Long.MAX_VALUE;
+        for (int i = 0; i < REPETICOES; i++) {
+            long inicio = System.nanoTime();
+            esperado = obras.get();
+            melhorObras = Math.min(melhorObras, System.nanoTime() - inicio);
+            inicio = System.nanoTime();
+            obtido = colunas.get();
+            melhorColunas = Math.min(melhorColunas, System.nanoTime() - inicio);
+        }
+        System.out.printf("  %-40s %9.1f ms %9.1f ms  (%.0fx)%n", descricao, melhorObras / 1e6,
+                melhorColunas / 1e6, (double) melhorObras / melhorColunas);
+        if (!esperado.equals(obtido)) {
+            System.out.println("    diferente: " + esperado + " x " + obtido);
+            falhou = true;
+        }
+    }
+
+    // ======== Como um relatório faz hoje, sobre objetos Obra ========
+
+    private static Map<String, Integer> porDecada(List<Obra> obras, String tipo) {
+        Map<String, Integer> contagens = new HashMap<>();
+        for (Obra obra : obras) {
+            if (tipo.equals(obra.getTipo_Obra()) && obra.getAno_Publicacao() != null) {
+                int inicio = Math.floorDiv(Integer.parseInt(obra.getAno_Publicacao()), 10) * 10;
+                contagens.merge(inicio + "-" + (inicio + 9), 1, Integer::sum);
+            }
+        }
+        return contagens;
+    }
+
+    private static Map<String, Integer> contarEditoras(List<Obra> obras) {
+        Map<String, Integer> contagens = new HashMap<>();
+        for (Obra obra : obras) {
+            if (obra.getEditora() != null) {
+                contagens.merge(obra.getEditora(), 1, Integer::sum);
+            }
+        }
+        return contagens;
+    }
+
+    private static Map<String, Integer> contarAutores(List<Obra> obras, String tipo, int anoMinimo, int anoMaximo) {
+        Map<String, Integer> contagens = new HashMap<>();
+        for (Obra obra : obras) {
+            if (tipo.equals(obra.getTipo_Obra()) && obra.getAno_Publicacao() != null) {
+                int ano = Integer.parseInt(obra.getAno_Publicacao());
+                if (ano >= anoMinimo && ano <= anoMaximo) {
+                    for (String autor : obra.getAutores()) {
+                        contagens.merge(autor, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+        return contagens;
+    }
+
+    private static int contarEntreAnos(List<Obra> obras, int anoMinimo, int anoMaximo) {
+        int total = 0;
+        for (Obra obra : obras) {
+            if (obra.getAno_Publicacao() != null) {
+                int ano = Integer.parseInt(obra.getAno_Publicacao());
+                if (ano >= anoMinimo && ano <= anoMaximo) {
+                    total++;
+                }
+            }
+        }
+        return total;
+    }
+
+    private static List<Map.Entry<String, Integer>> maiores(Map<String, Integer> contagens, int limite) {
+        List<Map.Entry<String, Integer>> grupos = new ArrayList<>(contagens.entrySet());
+        grupos.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<Map.Entry<String, Integer>> resultado = new ArrayList<>();
+        for (Map.Entry<String, Integer> grupo : grupos.subList(0, Math.min(limite, grupos.size()))) {
+            resultado.add(Map.entry(grupo.getKey(), grupo.getValue()));
+        }
+        return resultado;
+    }
+
+    private static List<Obra> gerarObras(int quantidade) {
+        Random aleatorio = new Random(42);
+        List<Obra> obras = new ArrayList<>(quantidade);
+        for (int n = 1; n <= quantidade; n++) {
+            String autor = "Autor " + aleatorio.nextInt(AUTORES);
+            if (aleatorio.nextInt(5) == 0) {
+                autor += Obra.SEPARADOR_AUTORES + "Autor " + aleatorio.nextInt(AUTORES);
+            }
+            String ano = aleatorio.nextInt(50) == 0 ? null : String.valueOf(1850 + aleatorio.nextInt(175));
+            String editora = aleatorio.nextInt(20) == 0 ? null : "Editora " + aleatorio.nextInt(EDITORAS);
+            obras.add(new Obra(n, "Título " + n, TIPOS[n % TIPOS.length], ano, autor, editora));
+        }
+        return obras;
+    }
+}
@@ -2,6 +2,8 @@ module inf.Trabalho.demo {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.sql;
+    requires org.postgresql.jdbc;
+    requires jdk.jfr;
 
 
     opens trabalho.controller to javafx.fxml;
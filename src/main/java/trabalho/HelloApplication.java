@@ -4,20 +4,113 @@ import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import trabalho.controller.ObraController;
+import trabalho.dao.AcervoLocal;
+import trabalho.dao.ObraDAO;
+import trabalho.dao.SincronizadorObras;
+import trabalho.db.Db;
+import trabalho.db.MigracaoEsquema;
+import trabalho.metricas.Metricas;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 public class HelloApplication extends Application {
+    // Recebe as gravações das outras estações (LISTEN/NOTIFY)
+    private final SincronizadorObras sincronizador = new SincronizadorObras(new ObraDAO());
+
+    // Cópia local do acervo: a tabela aparece sem esperar o banco
+    private final AcervoLocal acervo = new AcervoLocal(AcervoLocal.arquivoPadrao(), new ObraDAO());
+
+    // Conferência do esquema do banco, em segundo plano (falha = esquema com erro, não banco fora do ar)
+    private final CompletableFuture<Void> esquema = new CompletableFuture<>();
+
+    @Override
+    public void init() {
+        // Abre as conexões do pool enquanto a janela é montada
+        Db.iniciarPool();
+        exportarMetricas();
+        // Nada aqui espera o banco: sem rede, a janela abre do mesmo jeito
+        Thread.ofVirtual().name("esquema").start(() -> {
+            try {
+                atualizarEsquema();
+                esquema.complete(null);
+            } catch (SQLException | RuntimeException e) {
+                e.printStackTrace();
+                esquema.completeExceptionally(e);
+            }
+        });
+        ObraDAO.adicionarOuvinte(acervo);
+        // Escuta antes de sincronizar: nada gravado entre as duas etapas fica de fora
+        sincronizador.iniciar();
+        // Lê a cópia local sem atrasar a janela (a tabela espera acervo.carregado()); a
+        // sincronização usa o esquema novo (versões), então espera também a conferência
+        acervo.carregarEmSegundoPlano();
+        acervo.carregado().runAfterBoth(esquema, acervo::sincronizarEmSegundoPlano);
+    }
+
     @Override
     public void start(Stage stage) throws Exception {
         FXMLLoader fxml = new FXMLLoader(
                 HelloApplication.class.getResource("/trabalho/ObraView.fxml")
         );
+        fxml.setControllerFactory(tipo -> new ObraController(acervo, esquema));
         Scene scene = new Scene(fxml.load(), 750, 450);
         stage.setTitle("Cadastro de Obras");
         stage.setScene(scene);
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        sincronizador.close();
+        acervo.salvar();
+        String arquivoMetricas = System.getProperty("museu.metricas.arquivo");
+        if (arquivoMetricas != null && !arquivoMetricas.isBlank()) {
+            Metricas.exportar(Path.of(arquivoMetricas)); // últimos números antes de sair
+        }
+        Db.encerrarPool();
+    }
+
+    /**
+     * Aplica os scripts de esquema pendentes e confere os índices (numa virtual thread, ao abrir).
+     * Sem conexão com o banco a aplicação segue com a cópia local (a conferência fica para a
+     * próxima abertura); esquema com erro ou sem os índices desabilita as gravações e a
+     * sincronização da cópia local.
+     */
+    private static void atualizarEsquema() throws SQLException {
+        try {
+            MigracaoEsquema.Resultado r = MigracaoEsquema.aplicar();
+            if (!r.linhaBase().isEmpty()) {
+                System.out.println("[esquema] Já aplicados anteriormente: " + r.linhaBase());
+            }
+            if (!r.aplicados().isEmpty()) {
+                System.out.println("[esquema] Scripts aplicados: " + r.aplicados());
+            }
+        } catch (SQLTimeoutException e) {
+            System.err.println("[esquema] Banco indisponível, esquema não conferido: " + e.getMessage());
+        } catch (SQLException e) {
+            if (e.getSQLState() != null && e.getSQLState().startsWith("08")) { // falha de conexão
+                System.err.println("[esquema] Banco indisponível, esquema não conferido: " + e.getMessage());
+                return;
+            }
+            throw e;
+        }
+    }
+
+    /** Com -Dmuseu.metricas.arquivo=... grava as métricas do banco nesse CSV periodicamente. */
+    private static void exportarMetricas() {
+        String arquivo = System.getProperty("museu.metricas.arquivo");
+        if (arquivo != null && !arquivo.isBlank()) {
+            long intervalo = Long.getLong("museu.metricas.intervaloSeg", 60);
+            Metricas.exportarPeriodicamente(Path.of(arquivo), Duration.ofSeconds(intervalo));
+        }
+    }
+
     public static void main(String[] args) {
         launch();
     }
-}
\ No newline at end of file
+}
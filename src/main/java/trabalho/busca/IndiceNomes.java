@@ -0,0 +1,243 @@
+package trabalho.busca;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice em memória de nomes (autores ou editoras) para sugerir enquanto o usuário digita.
+ *
+ * Cada nome entra no índice uma vez por palavra, com a chave normalizada (sem acento,
+ * minúscula) a partir daquela palavra: "José de Alencar" gera "jose de alencar",
+ * "de alencar" e "alencar". Assim "alen", "jose de" e "Jose" encontram o mesmo nome
+ * pelo intervalo de chaves que começam com o texto digitado, sem consultar o banco.
+ *
+ * Estrutura:
+ * - as chaves dos nomes carregados do banco ficam num array ordenado, montado de uma vez
+ *   ({@link #carregar}); o intervalo do prefixo sai de duas buscas binárias e a nota de
+ *   cada chave fica num long[] paralelo. Com um prefixo de uma letra o intervalo tem dezenas
+ *   de milhares de chaves, e percorrer arrays custa bem menos que percorrer um TreeMap;
+ * - os nomes que aparecem depois da carga ({@link #registrar}) vão para um TreeMap pequeno,
+ *   consultado junto, até a próxima carga incorporá-los ao array.
+ *
+ * Ordem das sugestões: nomes que começam com o texto digitado, depois os que têm uma
+ * palavra começando com ele; no empate, o nome com mais obras (a grafia já usada no
+ * acervo aparece antes das variantes) e a ordem alfabética (sem acentos).
+ *
+ * Thread-safe: sugestões em paralelo, inclusões exclusivas.
+ */
+public class IndiceNomes {
+
+    /** Nome indexado e quantas obras o usam (só um critério de ordem). */
+    private record Nome(String exibicao, int obras) {
+    }
+
+    /**
+     * Uma chave de um nome. A chave termina com o nome original (após um '\0') para que nomes
+     * diferentes com a mesma palavra ("Maria Silva", "João Silva") não se sobreponham.
+     * {@code inicio} = chave a partir da primeira palavra.
+     */
+    private record Entrada(String chave, Nome nome, boolean inicio) {
+    }
+
+    private Map<String, Nome> nomes = new HashMap<>();
+    private Entrada[] entradas = new Entrada[0];
+    private long[] notas = new long[0];
+    private final TreeMap<String, Entrada> recentes = new TreeMap<>();
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+    /** Quantidade de nomes indexados. */
+    public int tamanho() {
+        trava.readLock().lock();
+        try {
+            return nomes.size();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Substitui o conteúdo pelos nomes lidos do banco (nome -> quantidade de obras).
+     * O array é montado e ordenado fora da trava: as sugestões continuam enquanto isso.
+     */
+    public void carregar(Map<String, Integer> obrasPorNome) {
+        Map<String, Nome> novos = new HashMap<>(obrasPorNome.size() * 2);
+        List<Entrada> lista = new ArrayList<>(obrasPorNome.size() * 3);
+        for (Map.Entry<String, Integer> e : obrasPorNome.entrySet()) {
+            if (e.getKey() != null && !e.getKey().isBlank()) {
+                Nome nome = new Nome(e.getKey(), e.getValue());
+                novos.put(nome.exibicao(), nome);
+                chaves(nome, lista);
+            }
+        }
+        Entrada[] novasEntradas = lista.toArray(new Entrada[0]);
+        Arrays.parallelSort(novasEntradas, Comparator.comparing(Entrada::chave));
+        long[] novasNotas = new long[novasEntradas.length];
+        for (int i = 0; i < novasEntradas.length; i++) {
+            novasNotas[i] = nota(novasEntradas[i]);
+        }
+
+        trava.writeLock().lock();
+        try {
+            // Registrados durante a leitura do banco e que ela não viu continuam nos recentes
+            recentes.values().removeIf(e -> novos.containsKey(e.nome().exibicao()));
+            for (Entrada e : recentes.values()) {
+                novos.putIfAbsent(e.nome().exibicao(), e.nome());
+            }
+            nomes = novos;
+            entradas = novasEntradas;
+            notas = novasNotas;
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Garante que o nome esteja no índice (gravação desta ou de outra estação). Um nome novo
+     * entra com uma obra; um já conhecido não muda, já que uma atualização não é uma obra nova.
+     */
+    public void registrar(String nome) {
+        if (nome == null || nome.isBlank()) {
+            return;
+        }
+        trava.writeLock().lock();
+        try {
+            if (!nomes.containsKey(nome)) {
+                Nome novo = new Nome(nome, 1);
+                nomes.put(nome, novo);
+                List<Entrada> lista = new ArrayList<>();
+                chaves(novo, lista);
+                for (Entrada e : lista) {
+                    recentes.put(e.chave(), e);
+                }
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Nomes que começam com o texto digitado, ou que têm uma palavra que começa com ele.
+     *
+     * @param digitado texto do campo (acentos e maiúsculas são ignorados)
+     * @param limite   quantidade máxima de sugestões
+     * @return nomes na grafia cadastrada, do mais ao menos provável
+     */
+    public List<String> sugerir(String digitado, int limite) {
+        String prefixo = String.join(" ", Texto.tokens(digitado));
+        if (prefixo.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        trava.readLock().lock();
+        try {
+            Melhores melhores = new Melhores(limite);
+            int fim = posicao(prefixo + Character.MAX_VALUE);
+            for (int i = posicao(prefixo); i < fim; i++) {
+                if (notas[i] > melhores.pior()) { // com prefixo curto, quase todas param aqui
+                    melhores.considerar(entradas[i], notas[i]);
+                }
+            }
+            for (Entrada e : recentes.subMap(prefixo, true, prefixo + Character.MAX_VALUE, true).values()) {
+                melhores.considerar(e, nota(e));
+            }
+            return melhores.nomes();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // ======== Internos ========
+
+    private static void chaves(Nome nome, List<Entrada> destino) {
+        List<String> palavras = Texto.tokens(nome.exibicao());
+        for (int i = 0; i < palavras.size(); i++) {
+            String chave = String.join(" ", palavras.subList(i, palavras.size()));
+            destino.add(new Entrada(chave + '\0' + nome.exibicao(), nome, i == 0));
+        }
+    }
+
+    /** Primeira posição do array com chave >= texto (busca binária). */
+    private int posicao(String texto) {
+        int lo = 0;
+        int hi = entradas.length;
+        while (lo < hi) {
+            int meio = (lo + hi) >>> 1;
+            if (entradas[meio].chave().compareTo(texto) < 0) {
+                lo = meio + 1;
+            } else {
+                hi = meio;
+            }
+        }
+        return lo;
+    }
+
+    /** Ordem das sugestões: pelo início do nome primeiro, depois mais obras. */
+    private static long nota(Entrada e) {
+        return (e.inicio() ? 1L << 32 : 0) | e.nome().obras();
+    }
+
+    /**
+     * As {@code limite} melhores entradas vistas, em ordem, sem repetir nome. As chaves chegam
+     * em ordem alfabética, então no empate fica a que apareceu antes.
+     */
+    private static final class Melhores {
+        private final int limite;
+        private final List<Entrada> entradas;
+        private final long[] notas;
+
+        Melhores(int limite) {
+            this.limite = limite;
+            this.entradas = new ArrayList<>(limite + 1);
+            this.notas = new long[limite + 1];
+        }
+
+        /** Nota que uma entrada precisa superar para entrar (com a lista cheia). */
+        long pior() {
+            return entradas.size() < limite ? Long.MIN_VALUE : notas[limite - 1];
+        }
+
+        void considerar(Entrada e, long nota) {
+            if (nota <= pior()) {
+                return;
+            }
+            for (int i = 0; i < entradas.size(); i++) {
+                if (entradas.get(i).nome() == e.nome()) {
+                    if (nota <= notas[i]) {
+                        return;
+                    }
+                    remover(i); // o mesmo nome, agora pelo início: sobe na ordem
+                    break;
+                }
+            }
+            int pos = entradas.size();
+            while (pos > 0 && nota > notas[pos - 1]) {
+                pos--;
+            }
+            entradas.add(pos, e);
+            System.arraycopy(notas, pos, notas, pos + 1, entradas.size() - 1 - pos);
+            notas[pos] = nota;
+            if (entradas.size() > limite) {
+                remover(limite);
+            }
+        }
+
+        private void remover(int i) {
+            entradas.remove(i);
+            System.arraycopy(notas, i + 1, notas, i, entradas.size() - i);
+        }
+
+        List<String> nomes() {
+            List<String> nomes = new ArrayList<>(entradas.size());
+            for (Entrada e : entradas) {
+                nomes.add(e.nome().exibicao());
+            }
+            return nomes;
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package trabalho.busca;
+
+import trabalho.dao.OuvinteObras;
+import trabalho.model.DadosObra;
+import trabalho.model.Obra;
+import trabalho.model.ObraCompacta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido em memória sobre título, autor, editora e chamada das obras.
+ *
+ * Estrutura:
+ * - palavra normalizada (sem acento, minúscula) -> lista de postagens ordenada por id_obra;
+ *   cada postagem guarda o id e em quais campos a palavra aparece (máscara de bits).
+ * - as palavras ficam num TreeMap, o que permite buscar por prefixo (a última palavra
+ *   digitada ainda está incompleta).
+ * - as obras ficam como {@link ObraCompacta} (o índice guarda o acervo inteiro); os
+ *   resultados da busca são objetos Obra criados na hora.
+ *
+ * Busca: todas as palavras da consulta precisam aparecer (E). As palavras completas são
+ * processadas da lista mais curta para a mais longa, restringindo os candidatos antes
+ * do prefixo, que é o termo mais caro. A pontuação soma o peso dos campos em que cada
+ * palavra aparece (título > autor > chamada > editora); correspondência exata vale mais
+ * que por prefixo.
+ *
+ * O índice é atualizado incrementalmente ({@link OuvinteObras}) e é thread-safe:
+ * leituras (buscas) em paralelo, escritas exclusivas.
+ */
+public class IndiceObras implements OuvinteObras {
+
+    // Campos indexados (bits da máscara) e seus pesos na pontuação
+    private static final int TITULO = 1;
+    private static final int AUTOR = 2;
+    private static final int EDITORA = 4;
+    private static final int CHAMADA = 8;
+    private static final int BITS_CAMPOS = 4;
+
+    private static final float PESO_PREFIXO = 0.7f;
+    private static final int TAMANHO_MINIMO_PREFIXO = 2;
+
+    private final Map<Integer, ObraCompacta> obras = new HashMap<>();
+    private final TreeMap<String, Postagens> palavras = new TreeMap<>();
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+    /** Quantidade de obras indexadas. */
+    public int tamanho() {
+        trava.readLock().lock();
+        try {
+            return obras.size();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /** Todas as obras indexadas, na forma compacta (cópia da lista, em ordem qualquer). */
+    public List<ObraCompacta> obras() {
+        trava.readLock().lock();
+        try {
+            return new ArrayList<>(obras.values());
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /** Indexa (ou reindexa) um conjunto de obras, por exemplo uma página carregada do banco. */
+    public void adicionar(List<? extends DadosObra> lote) {
+        trava.writeLock().lock();
+        try {
+            for (DadosObra obra : lote) {
+                indexar(obra);
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /** Esvazia o índice (antes de recarregá-lo do zero). */
+    public void limpar() {
+        trava.writeLock().lock();
+        try {
+            obras.clear();
+            palavras.clear();
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void obraGravada(Obra obra) {
+        trava.writeLock().lock();
+        try {
+            indexar(obra);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void obraExcluida(int id) {
+        trava.writeLock().lock();
+        try {
+            desindexar(id);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca obras que contenham todas as palavras da consulta (a última pode ser prefixo).
+     *
+     * @param consulta texto digitado pelo usuário
+     * @param limite   quantidade máxima de resultados
+     * @return obras em ordem de relevância (empate: mais recente primeiro)
+     */
+    public List<Obra> buscar(String consulta, int limite) {
+        List<String> termos = Texto.tokens(consulta);
+        if (termos.isEmpty()) {
+            return List.of();
+        }
+
+        trava.readLock().lock();
+        try {
+            String ultimo = termos.get(termos.size() - 1);
+            boolean ultimoEhPrefixo = ultimo.length() >= TAMANHO_MINIMO_PREFIXO;
+
+            // Palavras completas: da lista mais curta para a mais longa
+            List<Postagens> completas = new ArrayList<>();
+            for (String termo : ultimoEhPrefixo ? termos.subList(0, termos.size() - 1) : termos) {
+                Postagens p = palavras.get(termo);
+                if (p == null) {
+                    return List.of();
+                }
+                completas.add(p);
+            }
+            completas.sort((a, b) -> Integer.compare(a.tamanho, b.tamanho));
+
+            Pontuacao pontos = null;
+            for (Postagens p : completas) {
+                pontos = intersectar(pontos, List.of(p), List.of(1f));
+                if (pontos.tamanho == 0) {
+                    return List.of();
+                }
+            }
+
+            if (ultimoEhPrefixo) {
+                NavigableMap<String, Postagens> faixa =
+                        palavras.subMap(ultimo, true, ultimo + Character.MAX_VALUE, true);
+                List<Postagens> listas = new ArrayList<>(faixa.size());
+                List<Float> fatores = new ArrayList<>(faixa.size());
+                for (Map.Entry<String, Postagens> e : faixa.entrySet()) {
+                    listas.add(e.getValue());
+                    fatores.add(e.getKey().length() == ultimo.length() ? 1f : PESO_PREFIXO);
+                }
+                pontos = intersectar(pontos, listas, fatores);
+            }
+
+            return melhores(pontos, limite);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // ======== Internos (chamados com a trava adquirida) ========
+
+    private void indexar(DadosObra dados) {
+        if (dados.getId() == null) {
+            return;
+        }
+        ObraCompacta obra = ObraCompacta.de(dados);
+        desindexar(obra.id());
+        obras.put(obra.id(), obra);
+        Map<String, Integer> campos = camposPorPalavra(obra);
+        for (Map.Entry<String, Integer> e : campos.entrySet()) {
+            palavras.computeIfAbsent(e.getKey(), k -> new Postagens()).adicionar(obra.id(), e.getValue());
+        }
+    }
+
+    private void desindexar(int id) {
+        ObraCompacta anterior = obras.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        for (String palavra : camposPorPalavra(anterior).keySet()) {
+            Postagens p = palavras.get(palavra);
+            if (p != null) {
+                p.remover(id);
+                if (p.tamanho == 0) {
+                    palavras.remove(palavra);
+                }
+            }
+        }
+    }
+
+    private static Map<String, Integer> camposPorPalavra(DadosObra obra) {
+        Map<String, Integer> campos = new HashMap<>();
+        marcar(campos, obra.getTitulo(), TITULO);
+        marcar(campos, obra.getAutor(), AUTOR);
+        marcar(campos, obra.getEditora(), EDITORA);
+        marcar(campos, obra.getChamada(), CHAMADA);
+        return campos;
+    }
+
+    private static void marcar(Map<String, Integer> campos, String texto, int campo) {
+        for (String palavra : Texto.tokens(texto)) {
+            campos.merge(palavra, campo, (a, b) -> a | b);
+        }
+    }
+
+    /**
+     * Soma a pontuação de um termo (que pode corresponder a várias palavras, no caso do prefixo)
+     * aos candidatos. Com {@code candidatos == null} qualquer obra pode entrar; caso contrário
+     * só as que já atendiam aos termos anteriores continuam.
+     */
+    private static Pontuacao intersectar(Pontuacao candidatos, List<Postagens> listas, List<Float> fatores) {
+        Pontuacao doTermo = new Pontuacao(candidatos != null ? candidatos.tamanho : 64);
+        for (int l = 0; l < listas.size(); l++) {
+            Postagens p = listas.get(l);
+            float fator = fatores.get(l);
+            if (candidatos != null && candidatos.tamanho * 8 < p.tamanho) {
+                // Poucos candidatos e lista longa: busca binária de cada candidato
+                for (int s = 0; s < candidatos.ids.length; s++) {
+                    int id = candidatos.ids[s];
+                    if (id == 0) {
+                        continue;
+                    }
+                    int pos = p.posicao(id);
+                    if (pos >= 0) {
+                        doTermo.maximo(id, peso(p.valores[pos] & ((1 << BITS_CAMPOS) - 1)) * fator);
+                    }
+                }
+                continue;
+            }
+            for (int i = 0; i < p.tamanho; i++) {
+                int id = p.valores[i] >>> BITS_CAMPOS;
+                if (candidatos != null && Float.isNaN(candidatos.nota(id))) {
+                    continue;
+                }
+                // várias palavras do mesmo prefixo: vale a melhor
+                doTermo.maximo(id, peso(p.valores[i] & ((1 << BITS_CAMPOS) - 1)) * fator);
+            }
+        }
+        if (candidatos != null) {
+            for (int s = 0; s < doTermo.ids.length; s++) {
+                if (doTermo.ids[s] != 0) {
+                    doTermo.notas[s] += candidatos.nota(doTermo.ids[s]);
+                }
+            }
+        }
+        return doTermo;
+    }
+
+    private static float peso(int mascara) {
+        float peso = 0;
+        if ((mascara & TITULO) != 0) {
+            peso += 4;
+        }
+        if ((mascara & AUTOR) != 0) {
+            peso += 3;
+        }
+        if ((mascara & CHAMADA) != 0) {
+            peso += 2;
+        }
+        if ((mascara & EDITORA) != 0) {
+            peso += 1;
+        }
+        return peso;
+    }
+
+    private List<Obra> melhores(Pontuacao pontos, int limite) {
+        if (pontos == null || pontos.tamanho == 0) {
+            return List.of();
+        }
+        // Nota (float positivo, cujos bits preservam a ordem) nos 32 bits altos e id nos baixos:
+        // ordenar os long em ordem decrescente dá relevância e, no empate, o id mais recente
+        long[] ordenados = new long[pontos.tamanho];
+        int n = 0;
+        for (int s = 0; s < pontos.ids.length; s++) {
+            if (pontos.ids[s] != 0) {
+                ordenados[n++] = (long) Float.floatToIntBits(pontos.notas[s]) << 32 | pontos.ids[s];
+            }
+        }
+        Arrays.sort(ordenados);
+        List<Obra> resultado = new ArrayList<>(Math.min(limite, n));
+        for (int i = n - 1; i >= 0 && resultado.size() < limite; i--) {
+            ObraCompacta obra = obras.get((int) ordenados[i]);
+            if (obra != null) {
+                resultado.add(obra.paraObra());
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Mapa id -> nota com endereçamento aberto sobre arrays primitivos. Numa busca por prefixo
+     * curto ("me") dezenas de milhares de obras recebem nota; um HashMap<Integer, Float>
+     * criaria dois objetos por obra só para isso. O id 0 marca posição vazia (ids de obra começam em 1).
+     */
+    private static final class Pontuacao {
+        int[] ids;
+        float[] notas;
+        int tamanho;
+
+        Pontuacao(int esperado) {
+            int capacidade = Integer.highestOneBit(Math.max(16, esperado * 2) - 1) << 1;
+            ids = new int[capacidade];
+            notas = new float[capacidade];
+        }
+
+        /** Nota do id, ou NaN se ausente. */
+        float nota(int id) {
+            int mascara = ids.length - 1;
+            for (int s = espalhar(id) & mascara; ; s = (s + 1) & mascara) {
+                if (ids[s] == id) {
+                    return notas[s];
+                }
+                if (ids[s] == 0) {
+                    return Float.NaN;
+                }
+            }
+        }
+
+        /** Guarda a maior entre a nota atual e a nova. */
+        void maximo(int id, float nota) {
+            int mascara = ids.length - 1;
+            int s = espalhar(id) & mascara;
+            while (ids[s] != 0 && ids[s] != id) {
+                s = (s + 1) & mascara;
+            }
+            if (ids[s] == id) {
+                notas[s] = Math.max(notas[s], nota);
+                return;
+            }
+            ids[s] = id;
+            notas[s] = nota;
+            if (++tamanho * 2 > ids.length) {
+                crescer();
+            }
+        }
+
+        private void crescer() {
+            int[] idsAntigos = ids;
+            float[] notasAntigas = notas;
+            ids = new int[idsAntigos.length * 2];
+            notas = new float[idsAntigos.length * 2];
+            int mascara = ids.length - 1;
+            for (int i = 0; i < idsAntigos.length; i++) {
+                if (idsAntigos[i] != 0) {
+                    int s = espalhar(idsAntigos[i]) & mascara;
+                    while (ids[s] != 0) {
+                        s = (s + 1) & mascara;
+                    }
+                    ids[s] = idsAntigos[i];
+                    notas[s] = notasAntigas[i];
+                }
+            }
+        }
+
+        private static int espalhar(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Lista de postagens de uma palavra: inteiros (id << 4 | campos) ordenados por id.
+     * Um int[] em vez de coleção de objetos mantém o índice compacto para centenas de milhares de obras.
+     */
+    private static final class Postagens {
+        int[] valores = new int[2];
+        int tamanho;
+
+        void adicionar(int id, int campos) {
+            // Carga em ordem crescente de id: caso comum, acrescenta no fim sem busca
+            int pos = tamanho > 0 && (valores[tamanho - 1] >>> BITS_CAMPOS) < id ? -(tamanho + 1) : posicao(id);
+            if (pos >= 0) {
+                valores[pos] |= campos;
+                return;
+            }
+            pos = -(pos + 1);
+            if (tamanho == valores.length) {
+                valores = Arrays.copyOf(valores, tamanho * 2);
+            }
+            System.arraycopy(valores, pos, valores, pos + 1, tamanho - pos);
+            valores[pos] = id << BITS_CAMPOS | campos;
+            tamanho++;
+        }
+
+        void remover(int id) {
+            int pos = posicao(id);
+            if (pos >= 0) {
+                System.arraycopy(valores, pos + 1, valores, pos, tamanho - pos - 1);
+                tamanho--;
+            }
+        }
+
+        /** Busca binária pelo id; negativo = -(ponto de inserção) - 1, como Arrays.binarySearch. */
+        private int posicao(int id) {
+            int lo = 0;
+            int hi = tamanho - 1;
+            while (lo <= hi) {
+                int meio = (lo + hi) >>> 1;
+                int atual = valores[meio] >>> BITS_CAMPOS;
+                if (atual < id) {
+                    lo = meio + 1;
+                } else if (atual > id) {
+                    hi = meio - 1;
+                } else {
+                    return meio;
+                }
+            }
+            return -(lo + 1);
+        }
+    }
+}
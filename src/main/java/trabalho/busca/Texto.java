@@ -0,0 +1,61 @@
+package trabalho.busca;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Utilitários de normalização de texto para busca.
+ *
+ * Títulos e nomes em português têm acentos e cedilha; para a busca, "Memórias" e
+ * "memorias" devem ser a mesma palavra. A normalização decompõe os caracteres (NFD),
+ * remove as marcas diacríticas e converte para minúsculas.
+ */
+public final class Texto {
+
+    private Texto() {
+    }
+
+    /** Remove acentos e converte para minúsculas ("Canção" -> "cancao"). */
+    public static String normalizar(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return "";
+        }
+        // Atalho: texto ASCII só precisa de minúsculas
+        boolean ascii = true;
+        for (int i = 0; i < texto.length() && ascii; i++) {
+            ascii = texto.charAt(i) < 128;
+        }
+        String base = ascii ? texto : Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(base.length());
+        for (int i = 0; i < base.length(); i++) {
+            char c = base.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Divide o texto em palavras normalizadas (letras e dígitos).
+     * Ex.: "Dom Casmurro (2ª ed.)" -> [dom, casmurro, 2a, ed]
+     */
+    public static List<String> tokens(String texto) {
+        List<String> tokens = new ArrayList<>();
+        String normalizado = normalizar(texto);
+        int inicio = -1;
+        for (int i = 0; i <= normalizado.length(); i++) {
+            boolean parteDaPalavra = i < normalizado.length()
+                    && Character.isLetterOrDigit(normalizado.charAt(i));
+            if (parteDaPalavra && inicio < 0) {
+                inicio = i;
+            } else if (!parteDaPalavra && inicio >= 0) {
+                tokens.add(normalizado.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,54 @@
+package trabalho.controller;
+
+import trabalho.busca.Texto;
+import trabalho.model.DadosObra;
+
+import java.util.function.Predicate;
+
+/**
+ * Filtros da barra acima da tabela, aplicados às obras em memória (resultados da busca ou o
+ * acervo inteiro, guardado como ObraCompacta). Imutável: pode ser testado fora da thread do
+ * JavaFX, no filtro em segundo plano do acervo.
+ *
+ * @param tipo      tipo exato ("Livro", ...) ou null
+ * @param anoMinimo ano de publicação mínimo (inclusive), Integer.MIN_VALUE = sem limite
+ * @param anoMaximo ano de publicação máximo (inclusive), Integer.MAX_VALUE = sem limite
+ * @param editora   parte do nome da editora, já normalizada (Texto.normalizar), "" = qualquer
+ */
+record FiltroTabela(String tipo, int anoMinimo, int anoMaximo, String editora) implements Predicate<DadosObra> {
+
+    /** true quando nenhum filtro está preenchido. */
+    boolean vazio() {
+        return tipo == null && anoMinimo == Integer.MIN_VALUE && anoMaximo == Integer.MAX_VALUE
+                && editora.isEmpty();
+    }
+
+    /** Ano mínimo para a busca no servidor (null = sem limite). */
+    Integer anoMinimoOuNull() {
+        return anoMinimo != Integer.MIN_VALUE ? anoMinimo : null;
+    }
+
+    /** Ano máximo para a busca no servidor (null = sem limite). */
+    Integer anoMaximoOuNull() {
+        return anoMaximo != Integer.MAX_VALUE ? anoMaximo : null;
+    }
+
+    @Override
+    public boolean test(DadosObra obra) {
+        if (tipo != null && !tipo.equals(obra.getTipo_Obra())) {
+            return false;
+        }
+        if (anoMinimo != Integer.MIN_VALUE || anoMaximo != Integer.MAX_VALUE) {
+            int ano;
+            try {
+                ano = obra.anoPublicacao(); // na ObraCompacta, um short já pronto
+            } catch (NumberFormatException e) {
+                return false; // sem ano válido, fora de qualquer faixa
+            }
+            if (ano < anoMinimo || ano > anoMaximo) {
+                return false;
+            }
+        }
+        return editora.isEmpty() || Texto.normalizar(obra.getEditora()).contains(editora);
+    }
+}
@@ -0,0 +1,389 @@
+package trabalho.controller;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.collections.ObservableListBase;
+import trabalho.dao.ChavePagina;
+import trabalho.dao.OrdemObra;
+import trabalho.model.Obra;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Lista observável "janelada" que alimenta a TableView página por página.
+ *
+ * Em vez de carregar o acervo inteiro, a janela:
+ * - carrega só a primeira página ao abrir (primeira pintura com custo constante);
+ * - ao exibir a última página conhecida, pede a próxima (pré-carregamento);
+ * - mantém em memória no máximo {@code maxPaginas} páginas, descartando as usadas há mais
+ *   tempo (LRU). Uma página descartada é recarregada pelo seu intervalo de chaves se voltar
+ *   a ser exibida.
+ *
+ * Cada página p cobre o intervalo de chaves (chaves[p], chaves[p+1]]. Como os limites são
+ * chaves e não posições, a janela consegue aplicar gravações e exclusões isoladas
+ * ({@link #aplicarGravacao}, {@link #aplicarExclusao}) sem recarregar nada: a obra entra na
+ * página cujo intervalo contém a sua chave, e a TableView recebe apenas aquela mudança
+ * (mantendo seleção e posição de rolagem).
+ *
+ * As páginas são buscadas de forma assíncrona: enquanto uma página não chega, as linhas
+ * correspondentes mostram {@link #CARREGANDO}. Os resultados são aplicados na thread do
+ * JavaFX, e respostas de uma recarga já substituída por outra são descartadas.
+ */
+public class JanelaObras extends ObservableListBase<Obra> {
+
+    /** Busca obras depois de {@code apos} e até {@code ate} (ver ObraDAOAsync.listarPagina). */
+    @FunctionalInterface
+    public interface CarregadorPagina {
+        CompletableFuture<List<Obra>> carregar(OrdemObra ordem, boolean crescente,
+                                               ChavePagina apos, ChavePagina ate, int limite);
+    }
+
+    /** Linha exibida enquanto a página correspondente está sendo buscada. */
+    public static final Obra CARREGANDO = new Obra(null, "Carregando...", "", "");
+
+    private final CarregadorPagina carregador;
+    private final int tamanhoPagina;
+    private final int maxPaginas;
+    private final Consumer<Throwable> aoFalhar;
+
+    private OrdemObra ordem = OrdemObra.ID;
+    private boolean crescente = false;
+
+    // chaves.get(p) = chave da última obra antes da página p (null para a página 0)
+    private final List<ChavePagina> chaves = new ArrayList<>();
+    // tamanhos.get(p) = linhas da página p (conhecido mesmo quando a página foi descartada)
+    private final List<Integer> tamanhos = new ArrayList<>();
+    // inicios[p] = índice da primeira linha da página p; recalculado quando tamanhos muda
+    private int[] inicios = new int[]{0};
+    private boolean iniciosValidos = true;
+    private final Map<Integer, List<Obra>> paginas;
+    private int tamanho;
+    private boolean fimAlcancado;
+
+    // Buscas em andamento por página; "geracao" muda a cada recarga e invalida as anteriores
+    private final Map<Integer, CompletableFuture<List<Obra>>> emVoo = new HashMap<>();
+    private int geracao;
+    private boolean recarregando;
+    private final ReadOnlyBooleanWrapper carregando = new ReadOnlyBooleanWrapper(false);
+
+    public JanelaObras(CarregadorPagina carregador, int tamanhoPagina, int maxPaginas,
+                       Consumer<Throwable> aoFalhar) {
+        this.carregador = carregador;
+        this.tamanhoPagina = tamanhoPagina;
+        this.maxPaginas = maxPaginas;
+        this.aoFalhar = aoFalhar;
+        // LinkedHashMap em ordem de acesso = cache LRU de páginas
+        this.paginas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Obra>> eldest) {
+                return size() > JanelaObras.this.maxPaginas;
+            }
+        };
+    }
+
+    public OrdemObra getOrdem() {
+        return ordem;
+    }
+
+    public boolean isCrescente() {
+        return crescente;
+    }
+
+    /** true enquanto houver alguma página sendo buscada no banco. */
+    public ReadOnlyBooleanProperty carregandoProperty() {
+        return carregando.getReadOnlyProperty();
+    }
+
+    /** Troca a ordenação (se mudou) e recarrega a partir da primeira página. */
+    public void reordenar(OrdemObra novaOrdem, boolean novaCrescente) {
+        if (novaOrdem == ordem && novaCrescente == crescente) {
+            return;
+        }
+        this.ordem = novaOrdem;
+        this.crescente = novaCrescente;
+        recarregar();
+    }
+
+    /**
+     * Busca de novo a primeira página. O conteúdo atual continua visível até a resposta
+     * chegar; buscas anteriores ainda em andamento são canceladas.
+     */
+    public void recarregar() {
+        geracao++;
+        emVoo.values().forEach(f -> f.cancel(true));
+        emVoo.clear();
+        recarregando = true;
+
+        iniciar(0, carregador.carregar(ordem, crescente, null, null, tamanhoPagina), primeira -> {
+            int tamanhoAnterior = tamanho;
+            chaves.clear();
+            tamanhos.clear();
+            paginas.clear();
+            tamanho = 0;
+            iniciosValidos = false;
+            fimAlcancado = false;
+            recarregando = false;
+            registrarNovaPagina(null, primeira);
+
+            beginChange();
+            if (tamanhoAnterior > 0) {
+                nextRemove(0, Collections.nCopies(tamanhoAnterior, CARREGANDO));
+            }
+            if (tamanho > 0) {
+                nextAdd(0, tamanho);
+            }
+            endChange();
+        });
+    }
+
+    /**
+     * Aplica uma obra inserida ou atualizada: remove a versão anterior (se estiver carregada)
+     * e insere a nova na posição correspondente à ordenação atual.
+     * Se a posição estiver além da última página carregada, nada é feito: a obra aparecerá
+     * quando a rolagem chegar lá.
+     */
+    public void aplicarGravacao(Obra obra) {
+        aplicarExclusao(obra.getId());
+        if (recarregando) {
+            return; // a recarga em andamento já trará a obra
+        }
+
+        ChavePagina chave = ordem.chaveApos(obra);
+        if (chaves.isEmpty()) {
+            if (fimAlcancado) {
+                // acervo estava vazio: a obra forma a primeira página
+                registrarNovaPagina(null, List.of(obra));
+                beginChange();
+                nextAdd(0, 1);
+                endChange();
+            }
+            return;
+        }
+
+        int p = paginaDaChave(chave);
+        List<Obra> pagina = paginas.get(p);
+        if (p == chaves.size() - 1 && !fimAlcancado) {
+            // Última página conhecida, mas existem obras depois dela ainda não carregadas
+            if (pagina == null || pagina.isEmpty()
+                    || comparar(chave, ordem.chaveApos(pagina.get(pagina.size() - 1))) > 0) {
+                return;
+            }
+        }
+
+        int pos = 0; // página fora da memória: a posição exata virá quando for recarregada
+        if (pagina != null) {
+            while (pos < pagina.size() && comparar(ordem.chaveApos(pagina.get(pos)), chave) < 0) {
+                pos++;
+            }
+            pagina.add(pos, obra);
+        }
+        tamanhos.set(p, tamanhos.get(p) + 1);
+        tamanho++;
+        iniciosValidos = false;
+
+        int indice = inicio(p) + pos;
+        beginChange();
+        nextAdd(indice, indice + 1);
+        endChange();
+    }
+
+    /** Remove da janela as linhas da obra (se estiverem em páginas carregadas). */
+    public void aplicarExclusao(int id) {
+        beginChange();
+        for (Map.Entry<Integer, List<Obra>> e : new ArrayList<>(paginas.entrySet())) {
+            int p = e.getKey();
+            List<Obra> pagina = e.getValue();
+            for (int i = pagina.size() - 1; i >= 0; i--) {
+                Obra obra = pagina.get(i);
+                if (obra.getId() != null && obra.getId() == id) {
+                    int indice = inicio(p) + i;
+                    pagina.remove(i);
+                    tamanhos.set(p, tamanhos.get(p) - 1);
+                    tamanho--;
+                    iniciosValidos = false;
+                    nextRemove(indice, obra);
+                }
+            }
+        }
+        endChange();
+    }
+
+    @Override
+    public Obra get(int index) {
+        if (index < 0 || index >= tamanho) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int p = paginaDoIndice(index);
+        List<Obra> pagina = paginas.get(p);
+        if (pagina == null) {
+            // Página descartada pelo LRU: recarrega pelo seu intervalo de chaves
+            if (!recarregando && !emVoo.containsKey(p)) {
+                recarregarPagina(p);
+            }
+            return CARREGANDO;
+        }
+
+        // Chegou na última página conhecida: pede a próxima
+        if (p == chaves.size() - 1 && !fimAlcancado && !recarregando && !emVoo.containsKey(p + 1)) {
+            carregarProxima(pagina);
+        }
+
+        int i = index - inicio(p);
+        return i < pagina.size() ? pagina.get(i) : CARREGANDO;
+    }
+
+    @Override
+    public int size() {
+        return tamanho;
+    }
+
+    private void recarregarPagina(int p) {
+        ChavePagina ate = p + 1 < chaves.size() ? chaves.get(p + 1) : null;
+        int limite = Math.max(tamanhoPagina, tamanhos.get(p));
+        iniciar(p, carregador.carregar(ordem, crescente, chaves.get(p), ate, limite), nova -> {
+            int antigo = tamanhos.get(p);
+            int novo = nova.size();
+            int inicio = inicio(p);
+            paginas.put(p, new ArrayList<>(nova));
+            tamanhos.set(p, novo);
+            tamanho += novo - antigo;
+            iniciosValidos = false;
+
+            // O intervalo pode ter ganhado/perdido obras desde que foi carregado pela primeira vez
+            beginChange();
+            for (int i = 0; i < Math.min(antigo, novo); i++) {
+                nextUpdate(inicio + i);
+            }
+            if (novo > antigo) {
+                nextAdd(inicio + antigo, inicio + novo);
+            } else if (novo < antigo) {
+                nextRemove(inicio + novo, Collections.nCopies(antigo - novo, CARREGANDO));
+            }
+            endChange();
+        });
+    }
+
+    private void carregarProxima(List<Obra> ultima) {
+        if (ultima.isEmpty()) {
+            return;
+        }
+        int p = chaves.size();
+        ChavePagina chave = ordem.chaveApos(ultima.get(ultima.size() - 1));
+        iniciar(p, carregador.carregar(ordem, crescente, chave, null, tamanhoPagina), nova -> {
+            if (chaves.size() != p) {
+                return;
+            }
+            int inicio = tamanho;
+            registrarNovaPagina(chave, nova);
+            if (tamanho > inicio) {
+                beginChange();
+                nextAdd(inicio, tamanho);
+                endChange();
+            }
+        });
+    }
+
+    private void registrarNovaPagina(ChavePagina chave, List<Obra> pagina) {
+        if (pagina.size() < tamanhoPagina) {
+            fimAlcancado = true;
+        }
+        if (pagina.isEmpty()) {
+            return;
+        }
+        int p = chaves.size();
+        chaves.add(chave);
+        tamanhos.add(pagina.size());
+        paginas.put(p, new ArrayList<>(pagina));
+        tamanho += pagina.size();
+        iniciosValidos = false;
+    }
+
+    /** Página cujo intervalo (chaves[p], chaves[p+1]] contém a chave (busca binária). */
+    private int paginaDaChave(ChavePagina chave) {
+        int lo = 0;
+        int hi = chaves.size() - 1;
+        while (lo < hi) {
+            int meio = (lo + hi + 1) >>> 1;
+            if (comparar(chaves.get(meio), chave) < 0) {
+                lo = meio;
+            } else {
+                hi = meio - 1;
+            }
+        }
+        return lo;
+    }
+
+    /** Página que contém a linha {@code index} (busca binária em inicios). */
+    private int paginaDoIndice(int index) {
+        int[] ini = inicios();
+        int lo = 0;
+        int hi = tamanhos.size() - 1;
+        while (lo < hi) {
+            int meio = (lo + hi + 1) >>> 1;
+            if (ini[meio] <= index) {
+                lo = meio;
+            } else {
+                hi = meio - 1;
+            }
+        }
+        return lo;
+    }
+
+    private int inicio(int p) {
+        return inicios()[p];
+    }
+
+    private int[] inicios() {
+        if (!iniciosValidos) {
+            inicios = new int[tamanhos.size() + 1];
+            for (int p = 0; p < tamanhos.size(); p++) {
+                inicios[p + 1] = inicios[p] + tamanhos.get(p);
+            }
+            iniciosValidos = true;
+        }
+        return inicios;
+    }
+
+    private int comparar(ChavePagina a, ChavePagina b) {
+        return ordem.comparar(a, b, crescente);
+    }
+
+    /**
+     * Registra a busca da página p e aplica o resultado na thread do JavaFX,
+     * desde que nenhuma recarga tenha acontecido nesse meio tempo.
+     */
+    private void iniciar(int p, CompletableFuture<List<Obra>> busca, Consumer<List<Obra>> aoChegar) {
+        int g = geracao;
+        emVoo.put(p, busca);
+        carregando.set(true);
+        busca.whenComplete((pagina, erro) -> Platform.runLater(() -> {
+            if (g != geracao) {
+                return; // resposta de uma recarga antiga
+            }
+            emVoo.remove(p);
+            carregando.set(!emVoo.isEmpty());
+            if (erro != null) {
+                if (p == 0) {
+                    recarregando = false;
+                }
+                Throwable causa = erro instanceof CompletionException && erro.getCause() != null
+                        ? erro.getCause() : erro;
+                if (!(causa instanceof CancellationException)) {
+                    aoFalhar.accept(causa);
+                }
+                return;
+            }
+            aoChegar.accept(pagina);
+        }));
+    }
+}
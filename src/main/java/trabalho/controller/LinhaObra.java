@@ -0,0 +1,178 @@
+package trabalho.controller;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn;
+import javafx.util.Callback;
+import trabalho.dao.ChaveOrdenacao;
+import trabalho.dao.OrdemObra;
+import trabalho.model.Obra;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Valores de uma obra como aparecem nas colunas da tabela.
+ *
+ * A TableView pede o valor de cada célula (cellValueFactory) toda vez que uma célula passa a
+ * mostrar outra linha, ou seja, para cada linha que entra na tela durante a rolagem. Criar ali
+ * uma SimpleStringProperty por célula gera dez objetos por linha rolada, mais o registro do
+ * listener da célula em cada um. Aqui cada obra ganha, na primeira exibição, os textos já
+ * prontos (null -> "") e, na primeira vez que cada coluna é pedida, um valor fixo que é
+ * reaproveitado em toda exibição seguinte. Rolar por linhas já vistas não cria objetos
+ * (além do CellDataFeatures que o próprio TableColumn monta a cada chamada).
+ *
+ * A linha também guarda, sob demanda, a chave de ordenação da obra em cada coluna ordenável
+ * ({@link #chave}): ordenar os resultados da busca por título compara chaves pt-BR já prontas,
+ * sem analisar os textos a cada comparação.
+ *
+ * Os valores são fixos porque as obras da tabela não mudam depois de exibidas: uma gravação
+ * chega como um objeto Obra novo (OuvinteObras, JanelaObras.aplicarGravacao), que ganha a sua
+ * própria linha. Por isso também não há listeners: quem se registra num valor que nunca muda
+ * nunca seria avisado.
+ *
+ * As linhas ficam num WeakHashMap pela identidade da obra (Obra não redefine equals): saem
+ * sozinhas quando a obra deixa de ser usada (página descartada pela JanelaObras, busca
+ * substituída). A linha não guarda a obra, senão a entrada nunca sairia do mapa.
+ * Usado só na thread do JavaFX.
+ */
+final class LinhaObra {
+
+    /** Colunas de texto da tabela. */
+    enum Campo {
+        TITULO, AUTOR, TIPO, ANO, VOLUME, EDICAO, EDITORA, ISBN, CHAMADA
+    }
+
+    private static final Campo[] CAMPOS = Campo.values();
+    private static final int ORDENS = OrdemObra.values().length;
+    private static final Map<Obra, LinhaObra> LINHAS = new WeakHashMap<>();
+
+    // As células de uma linha pedem seus valores em sequência: a última linha evita o mapa
+    private static Obra ultimaObra;
+    private static LinhaObra ultimaLinha;
+
+    // Fábricas das colunas: criadas uma vez por campo e reaproveitadas por todas as tabelas
+    private static final Callback<TableColumn.CellDataFeatures<Obra, Number>, ObservableValue<Number>> FABRICA_ID =
+            c -> de(c.getValue()).id();
+    private static final Map<Campo, Callback<TableColumn.CellDataFeatures<Obra, String>, ObservableValue<String>>>
+            FABRICAS = fabricas();
+
+    private final Integer id;
+    private final String[] textos = new String[CAMPOS.length];
+    private ValorFixo<Number> valorId;
+    // Não existe new ValorFixo<String>[n]; o array é privado e só recebe ValorFixo<String>
+    @SuppressWarnings("unchecked")
+    private final ValorFixo<String>[] valores = (ValorFixo<String>[]) new ValorFixo<?>[CAMPOS.length];
+    private ChaveOrdenacao[] chaves;
+
+    private LinhaObra(Obra obra) {
+        id = obra.getId();
+        textos[Campo.TITULO.ordinal()] = texto(obra.getTitulo());
+        textos[Campo.AUTOR.ordinal()] = texto(obra.getAutor());
+        textos[Campo.TIPO.ordinal()] = texto(obra.getTipo_Obra());
+        textos[Campo.ANO.ordinal()] = texto(obra.getAno_Publicacao());
+        textos[Campo.VOLUME.ordinal()] = texto(obra.getVolume());
+        textos[Campo.EDICAO.ordinal()] = texto(obra.getEdicao());
+        textos[Campo.EDITORA.ordinal()] = texto(obra.getEditora());
+        textos[Campo.ISBN.ordinal()] = texto(obra.getIsbn());
+        textos[Campo.CHAMADA.ordinal()] = texto(obra.getChamada());
+    }
+
+    /** Linha da obra, criada na primeira exibição. */
+    static LinhaObra de(Obra obra) {
+        if (obra == ultimaObra) {
+            return ultimaLinha;
+        }
+        LinhaObra linha = LINHAS.get(obra);
+        if (linha == null) {
+            linha = new LinhaObra(obra);
+            LINHAS.put(obra, linha);
+        }
+        ultimaObra = obra;
+        ultimaLinha = linha;
+        return linha;
+    }
+
+    /** cellValueFactory da coluna de id. */
+    static Callback<TableColumn.CellDataFeatures<Obra, Number>, ObservableValue<Number>> fabricaId() {
+        return FABRICA_ID;
+    }
+
+    /** cellValueFactory da coluna de texto do campo. */
+    static Callback<TableColumn.CellDataFeatures<Obra, String>, ObservableValue<String>> fabrica(Campo campo) {
+        return FABRICAS.get(campo);
+    }
+
+    ObservableValue<Number> id() {
+        if (valorId == null) {
+            valorId = new ValorFixo<>(id);
+        }
+        return valorId;
+    }
+
+    ObservableValue<String> valor(Campo campo) {
+        int i = campo.ordinal();
+        if (valores[i] == null) {
+            valores[i] = new ValorFixo<>(textos[i]);
+        }
+        return valores[i];
+    }
+
+    /** Chave da obra (a mesma desta linha) para ordenar pela coluna, calculada na primeira vez. */
+    ChaveOrdenacao chave(OrdemObra ordem, Obra obra) {
+        if (chaves == null) {
+            chaves = new ChaveOrdenacao[ORDENS];
+        }
+        ChaveOrdenacao chave = chaves[ordem.ordinal()];
+        if (chave == null) {
+            chave = ordem.chaveOrdenacao(obra);
+            chaves[ordem.ordinal()] = chave;
+        }
+        return chave;
+    }
+
+    private static String texto(String valor) {
+        return valor != null ? valor : "";
+    }
+
+    private static Map<Campo, Callback<TableColumn.CellDataFeatures<Obra, String>, ObservableValue<String>>> fabricas() {
+        Map<Campo, Callback<TableColumn.CellDataFeatures<Obra, String>, ObservableValue<String>>> fabricas =
+                new EnumMap<>(Campo.class);
+        for (Campo campo : CAMPOS) {
+            fabricas.put(campo, c -> de(c.getValue()).valor(campo));
+        }
+        return fabricas;
+    }
+
+    /** Valor somente leitura que nunca muda: registrar listeners não tem efeito (nem custo). */
+    private static final class ValorFixo<T> implements ObservableValue<T> {
+        private final T valor;
+
+        ValorFixo(T valor) {
+            this.valor = valor;
+        }
+
+        @Override
+        public T getValue() {
+            return valor;
+        }
+
+        @Override
+        public void addListener(ChangeListener<? super T> listener) {
+        }
+
+        @Override
+        public void removeListener(ChangeListener<? super T> listener) {
+        }
+
+        @Override
+        public void addListener(InvalidationListener listener) {
+        }
+
+        @Override
+        public void removeListener(InvalidationListener listener) {
+        }
+    }
+}
@@ -1,13 +1,53 @@
 package trabalho.controller;
 
+import trabalho.busca.IndiceNomes;
+import trabalho.busca.IndiceObras;
+import trabalho.busca.Texto;
+import trabalho.dao.AcervoLocal;
+import trabalho.dao.CacheNomes;
+import trabalho.dao.ChavePagina;
+import trabalho.dao.FiltroObras;
 import trabalho.dao.ObraDAO;
+import trabalho.dao.ObraDAOAsync;
+import trabalho.dao.OrdemObra;
+import trabalho.dao.OuvinteObras;
+import trabalho.db.Db;
+import trabalho.exportacao.ExportadorAcervo;
+import trabalho.exportacao.FormatoExportacao;
+import trabalho.metricas.Metricas;
 import trabalho.model.Obra;
+import trabalho.model.ObraCompacta;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 /**
  * Controller da tela de obras.
@@ -17,7 +57,22 @@ import java.sql.SQLException;
  * - Preencher/limpar o formulário.
  * - Validar dados antes de salvar.
  * - Chamar o DAO para listar, inserir, atualizar e excluir obras.
+ *   As chamadas ao banco rodam fora da thread do JavaFX (ObraDAOAsync), para a janela
+ *   continuar respondendo; os resultados voltam para a interface com Platform.runLater.
+ * - Aplicar na tabela as gravações desta e das outras estações (OuvinteObras), sem recarregar.
+ * - Exibir a tabela a partir da cópia local do acervo (AcervoLocal), quando existir, sem
+ *   esperar o banco; a cópia é sincronizada em segundo plano.
  * - Exibir mensagens de erro/ sucesso ao usuário.
+ * - Buscar obras por título, autor, editora e chamada num índice em memória (IndiceObras),
+ *   sem consultar o banco a cada tecla. Enquanto o índice carrega (ou com
+ *   -Dmuseu.busca.memoria=false) a busca é feita no servidor (ObraDAO.buscar).
+ * - Filtrar por tipo, faixa de anos e editora e ordenar pelos cabeçalhos em memória
+ *   (FilteredList/SortedList sobre chaves de ordenação pt-BR já calculadas); sem texto de
+ *   busca, os filtros valem para o acervo inteiro, filtrado e ordenado em segundo plano.
+ * - Sugerir, nos campos autor e editora, os nomes já cadastrados (IndiceNomes em memória,
+ *   consultado quando o usuário para de digitar), para evitar variantes do mesmo nome.
+ * - Exportar o acervo para arquivo (CSV, JSON Lines ou MARCXML) sem travar a tela.
+ * - Mostrar, no painel "Desempenho", latências e contadores das operações de banco (Metricas).
  */
 public class ObraController {
 
@@ -45,11 +100,101 @@ public class ObraController {
     @FXML private TableColumn<Obra, String> colIsbn;
     @FXML private TableColumn<Obra, String> colChamada;
 
+    @FXML private Button btnSalvar;
+    @FXML private Button btnExcluir;
+    @FXML private ProgressIndicator progresso;
+    @FXML private Label lblStatus;
+    @FXML private TextField txtBusca;
+    @FXML private Label lblTotalObras;
+    @FXML private ComboBox<String> cbFiltroTipo;
+    @FXML private TextField txtFiltroAnoDe;
+    @FXML private TextField txtFiltroAnoAte;
+    @FXML private TextField txtFiltroEditora;
+    @FXML private Button btnExportar;
+    @FXML private ToggleButton btnDesempenho;
+    @FXML private VBox painelDesempenho;
+    @FXML private TextArea txtDesempenho;
+
     // DAO para acessar o banco de dados (padrão: um DAO por entidade)
     private final ObraDAO dao = new ObraDAO();
+    private final ObraDAOAsync daoAsync = new ObraDAOAsync(dao);
+
+    // Quantidade de gravações/exclusões em andamento (desabilita os botões que conflitam)
+    private final IntegerProperty operacoes = new SimpleIntegerProperty(0);
+
+    // Exportação do acervo em andamento (uma por vez)
+    private final BooleanProperty exportando = new SimpleBooleanProperty(false);
+
+    // Conferência do esquema do banco, feita em segundo plano ao abrir: enquanto pendente ou
+    // com erro não grava, e a tabela só lê do banco depois dela (funções e colunas novas)
+    private final CompletableFuture<?> esquema;
+    private final BooleanProperty esquemaPendente = new SimpleBooleanProperty(true);
+    private final BooleanProperty esquemaComErro = new SimpleBooleanProperty(false);
+
+    // Tamanho de cada página buscada no banco e quantas páginas ficam em memória (LRU)
+    private static final int TAMANHO_PAGINA = 200;
+    private static final int MAX_PAGINAS_EM_MEMORIA = 10;
+
+    // Lista observável "janelada" que alimenta a TableView: busca páginas conforme a rolagem
+    private final JanelaObras dados = new JanelaObras(this::carregarPagina, TAMANHO_PAGINA,
+            MAX_PAGINAS_EM_MEMORIA, this::falhaAoCarregar);
+
+    // Cópia local do acervo (null = sempre ler do banco)
+    private final AcervoLocal acervo;
+
+    // Índice de busca em memória: carregado em segundo plano e mantido pelas gravações do DAO
+    private static final int TAMANHO_PAGINA_INDEXACAO = 5_000;
+    private static final int LIMITE_RESULTADOS_BUSCA = 500;
+    private static final boolean BUSCA_EM_MEMORIA =
+            Boolean.parseBoolean(System.getProperty("museu.busca.memoria", "true"));
+    private final IndiceObras indice = new IndiceObras();
+    private final ObservableList<Obra> resultadosBusca = FXCollections.observableArrayList();
+    private volatile boolean indiceCompleto;
+
+    // Resultados exibidos: filtros da tela e ordem dos cabeçalhos aplicados em memória
+    private final FilteredList<Obra> resultadosFiltrados = new FilteredList<>(resultadosBusca);
+    private final SortedList<Obra> resultadosOrdenados = new SortedList<>(resultadosFiltrados);
+    // true quando os resultados são o acervo inteiro filtrado (já chegam filtrados e ordenados)
+    private boolean resultadosDoAcervo;
+    private static final String TODOS_OS_TIPOS = "Todos os tipos";
+
+    // Nomes já cadastrados, sugeridos nos campos autor e editora (carregados uma vez)
+    private final IndiceNomes nomesAutores = new IndiceNomes();
+    private final IndiceNomes nomesEditoras = new IndiceNomes();
+
+    // Incrementado a cada busca: resposta do servidor para uma consulta antiga é descartada
+    private int geracaoBusca;
+
+    // Avisos do DAO ainda não aplicados na tabela (por id; null = excluída), aplicados todos
+    // num só Platform.runLater: uma importação de milhares de obras não enfileira milhares
+    private final Map<Integer, Obra> avisosPendentes = new LinkedHashMap<>();
+    private boolean avisosAgendados; // sob a trava de avisosPendentes
+
+    // Busca refeita depois das gravações, no máximo uma vez por intervalo
+    private static final Duration INTERVALO_ATUALIZACAO_BUSCA = Duration.millis(300);
+    private final PauseTransition atualizacaoBusca = new PauseTransition(INTERVALO_ATUALIZACAO_BUSCA);
+
+    // Atualiza o painel de desempenho a cada segundo enquanto ele está aberto
+    private final Timeline atualizacaoDesempenho =
+            new Timeline(new KeyFrame(Duration.seconds(1), e -> atualizarDesempenho()));
+
+    // Colunas ordenáveis e a coluna correspondente no banco (ordenação feita pelo DAO)
+    private Map<TableColumn<Obra, ?>, OrdemObra> colunasOrdenaveis;
+
+    public ObraController() {
+        this(null, CompletableFuture.completedFuture(null));
+    }
 
-    // Lista observável que alimenta a TableView (facilita atualização automática da tabela)
-    private final ObservableList<Obra> dados = FXCollections.observableArrayList();
+    /**
+     * @param acervo  cópia local usada para exibir a tabela sem esperar o banco (pode ser null)
+     * @param esquema conferência do esquema do banco em andamento; até terminar, Salvar e Excluir
+     *                ficam desabilitados e a tabela não lê do banco; se falhar, as gravações
+     *                continuam desabilitadas (a consulta continua funcionando)
+     */
+    public ObraController(AcervoLocal acervo, CompletableFuture<?> esquema) {
+        this.acervo = acervo;
+        this.esquema = esquema;
+    }
 
     /**
      * Método chamado automaticamente pelo JavaFX após a injeção dos componentes FXML.
@@ -70,50 +215,203 @@ public class ObraController {
         cbAnoPublicacao.setItems(anos);
         cbAnoPublicacao.setEditable(true); // permite digitar um ano não listado
 
+        // ---------- Filtros da tabela ----------
+        cbFiltroTipo.setItems(FXCollections.observableArrayList(
+                TODOS_OS_TIPOS, "Livro", "Livro Online", "Revista", "Jornal"
+        ));
+        cbFiltroTipo.setValue(TODOS_OS_TIPOS);
+
         // ---------- Configuração das colunas da tabela ----------
-        // Cada coluna recebe um callback que transforma o modelo Obra em propriedades exibíveis.
-        colId.setCellValueFactory(c ->
-                new javafx.beans.property.SimpleIntegerProperty(c.getValue().getId()));
-        colTitulo.setCellValueFactory(c ->
-                new javafx.beans.property.SimpleStringProperty(c.getValue().getTitulo()));
-        colAutor.setCellValueFactory(c ->
-                new javafx.beans.property.SimpleStringProperty(c.getValue().getAutor()));
-        colTipoObra.setCellValueFactory(c ->
-                new javafx.beans.property.SimpleStringProperty(c.getValue().getTipo_Obra()));
-        colAnoPublicacao.setCellValueFactory(c ->
-                new javafx.beans.property.SimpleStringProperty(c.getValue().getAno_Publicacao()));
-
-        // Para campos opcionais (p. ex. volume, edicao, isbn) garantimos não mostrar "null"
-        colVolume.setCellValueFactory(c ->
-                new javafx.beans.property.SimpleStringProperty(
-                        c.getValue().getVolume() != null ? c.getValue().getVolume() : ""
-                ));
-        colEdicao.setCellValueFactory(c ->
-                new javafx.beans.property.SimpleStringProperty(
-                        c.getValue().getEdicao() != null ? c.getValue().getEdicao() : ""
-                ));
-        // colEditora teve duas configurações no original — mantemos apenas a correta abaixo
-        colEditora.setCellValueFactory(c ->
-                new javafx.beans.property.SimpleStringProperty(c.getValue().getEditora()));
-        colIsbn.setCellValueFactory(c ->
-                new javafx.beans.property.SimpleStringProperty(
-                        c.getValue().getIsbn() != null ? c.getValue().getIsbn() : ""
-                ));
-        colChamada.setCellValueFactory(c ->
-                new javafx.beans.property.SimpleStringProperty(
-                        c.getValue().getChamada() != null ? c.getValue().getChamada() : ""
-                ));
+        // Cada coluna lê o valor da LinhaObra da obra: textos prontos (sem "null") e valores
+        // reaproveitados, para a rolagem não criar objetos a cada célula exibida.
+        colId.setCellValueFactory(LinhaObra.fabricaId());
+        colTitulo.setCellValueFactory(LinhaObra.fabrica(LinhaObra.Campo.TITULO));
+        colAutor.setCellValueFactory(LinhaObra.fabrica(LinhaObra.Campo.AUTOR));
+        colTipoObra.setCellValueFactory(LinhaObra.fabrica(LinhaObra.Campo.TIPO));
+        colAnoPublicacao.setCellValueFactory(LinhaObra.fabrica(LinhaObra.Campo.ANO));
+        colVolume.setCellValueFactory(LinhaObra.fabrica(LinhaObra.Campo.VOLUME));
+        colEdicao.setCellValueFactory(LinhaObra.fabrica(LinhaObra.Campo.EDICAO));
+        colEditora.setCellValueFactory(LinhaObra.fabrica(LinhaObra.Campo.EDITORA));
+        colIsbn.setCellValueFactory(LinhaObra.fabrica(LinhaObra.Campo.ISBN));
+        colChamada.setCellValueFactory(LinhaObra.fabrica(LinhaObra.Campo.CHAMADA));
+
+        // ---------- Ordenação feita no banco (paginação por chave) ----------
+        // Clicar no cabeçalho reordena a consulta em vez de ordenar a lista em memória,
+        // já que a tabela só tem as páginas próximas da área visível.
+        colunasOrdenaveis = Map.of(
+                colId, OrdemObra.ID,
+                colTitulo, OrdemObra.TITULO,
+                colAnoPublicacao, OrdemObra.ANO,
+                colEditora, OrdemObra.EDITORA,
+                colChamada, OrdemObra.CHAMADA
+        );
+        for (TableColumn<Obra, ?> col : table.getColumns()) {
+            col.setSortable(colunasOrdenaveis.containsKey(col));
+        }
+        table.setSortPolicy(t -> {
+            if (t.getItems() == resultadosOrdenados) {
+                if (resultadosDoAcervo) {
+                    atualizarBusca(); // acervo inteiro: refeito em segundo plano já na ordem nova
+                } else {
+                    resultadosOrdenados.setComparator(comparadorResultados());
+                }
+                return true;
+            }
+            if (t.getSortOrder().isEmpty()) {
+                dados.reordenar(OrdemObra.ID, false); // padrão: mais recentes primeiro
+            } else {
+                TableColumn<Obra, ?> col = t.getSortOrder().get(0);
+                dados.reordenar(colunasOrdenaveis.get(col),
+                        col.getSortType() == TableColumn.SortType.ASCENDING);
+            }
+            return true;
+        });
 
         // ---------- Liga a lista observável à tabela ----------
         table.setItems(dados);
 
         // Quando o usuário seleciona uma linha, preenche o formulário com os dados da obra
+        // (linhas "Carregando..." ainda não têm dados e limpam o formulário)
         table.getSelectionModel().selectedItemProperty().addListener(
-                (obs, old, sel) -> preencherFormulario(sel)
+                (obs, old, sel) -> preencherFormulario(sel == JanelaObras.CARREGANDO ? null : sel)
         );
 
-        // Carrega os dados do banco inicialmente
+        // ---------- Indicador de progresso e botões durante acesso ao banco ----------
+        progresso.visibleProperty().bind(operacoes.greaterThan(0).or(dados.carregandoProperty()).or(exportando));
+        btnExportar.disableProperty().bind(exportando);
+        btnSalvar.disableProperty().bind(operacoes.greaterThan(0).or(esquemaPendente).or(esquemaComErro));
+        btnExcluir.disableProperty().bind(operacoes.greaterThan(0).or(esquemaPendente).or(esquemaComErro));
+        esquema.whenComplete((r, erro) -> {
+            if (erro == null) {
+                Platform.runLater(() -> esquemaPendente.set(false));
+                return;
+            }
+            Throwable causa = erro instanceof CompletionException && erro.getCause() != null
+                    ? erro.getCause() : erro;
+            Platform.runLater(() -> {
+                esquemaPendente.set(false);
+                esquemaComErro.set(true);
+                showError("Esquema do banco", causa.getMessage()
+                        + "\n\nA consulta continua disponível; gravações ficam desabilitadas.");
+            });
+        });
+
+        // ---------- Painel de desempenho (métricas do DAO, pool e caches) ----------
+        painelDesempenho.visibleProperty().bind(btnDesempenho.selectedProperty());
+        painelDesempenho.managedProperty().bind(btnDesempenho.selectedProperty());
+        atualizacaoDesempenho.setCycleCount(Animation.INDEFINITE);
+        btnDesempenho.selectedProperty().addListener((obs, old, aberto) -> {
+            if (aberto) {
+                atualizarDesempenho();
+                atualizacaoDesempenho.play();
+            } else {
+                atualizacaoDesempenho.stop();
+            }
+        });
+
+        // ---------- Busca instantânea (índice em memória ou servidor) ----------
+        txtBusca.textProperty().addListener((obs, old, texto) -> buscar(texto));
+        cbFiltroTipo.valueProperty().addListener((obs, old, tipo) -> atualizarBusca());
+        txtFiltroAnoDe.textProperty().addListener((obs, old, ano) -> atualizarBusca());
+        txtFiltroAnoAte.textProperty().addListener((obs, old, ano) -> atualizarBusca());
+        txtFiltroEditora.textProperty().addListener((obs, old, editora) -> atualizarBusca());
+        atualizacaoBusca.setOnFinished(e -> atualizarBusca());
+
+        // ---------- Sugestões de autor (vários, separados por ";") e editora ----------
+        new SugestoesCampo(txtAutor, nomesAutores, true);
+        new SugestoesCampo(txtEditora, nomesEditoras, false);
+        new SugestoesCampo(txtFiltroEditora, nomesEditoras, false);
+
+        // ---------- Gravações (desta e de outras estações) aplicadas na tabela ----------
+        ObraDAO.adicionarOuvinte(new OuvinteObras() {
+            @Override
+            public void obraGravada(Obra obra) {
+                for (String autor : obra.getAutores()) {
+                    nomesAutores.registrar(autor);
+                }
+                nomesEditoras.registrar(obra.getEditora());
+                agendarAviso(obra.getId(), obra);
+            }
+
+            @Override
+            public void obraExcluida(int id) {
+                agendarAviso(id, null);
+            }
+
+            @Override
+            public void alteracoesPerdidas() {
+                if (acervo != null && acervo.disponivel()) {
+                    return; // a cópia local se ressincroniza e repassa só as diferenças
+                }
+                Platform.runLater(() -> {
+                    recarregarTabela();
+                    carregarNomes();
+                    if (BUSCA_EM_MEMORIA) {
+                        indiceCompleto = false;
+                        indice.limpar();
+                        indexarAcervo();
+                    }
+                });
+            }
+        });
+
+        carregarNomes();
+        if (BUSCA_EM_MEMORIA) {
+            ObraDAO.adicionarOuvinte(indice);
+        }
+        if (acervo == null) {
+            carregarDadosDoBanco();
+            return;
+        }
+        // A cópia local é lida do disco em segundo plano: a janela já aparece, e a tabela e o
+        // índice começam quando a leitura termina (pela cópia, ou pelo banco se não houver)
+        lblTotalObras.setText("Lendo a cópia local do acervo...");
+        acervo.carregado().thenRun(() -> {
+            if (acervo.disponivel()) {
+                Platform.runLater(this::carregarDados);
+            } else {
+                Platform.runLater(this::carregarDadosDoBanco);
+            }
+        });
+    }
+
+    /**
+     * Primeira carga lendo do banco: espera a conferência do esquema (as consultas usam colunas e
+     * funções criadas pelos scripts). Com o esquema com erro tenta do mesmo jeito; a falha aparece
+     * na carga da tabela.
+     */
+    private void carregarDadosDoBanco() {
+        if (esquema.isDone()) {
+            carregarDados();
+            return;
+        }
+        lblTotalObras.setText("Conferindo o esquema do banco...");
+        esquema.handle((r, erro) -> null).thenRun(() -> Platform.runLater(this::carregarDados));
+    }
+
+    /** Primeira carga da tabela e do índice de busca. */
+    private void carregarDados() {
+        lblTotalObras.setText("");
         recarregarTabela();
+        if (BUSCA_EM_MEMORIA) {
+            indexarAcervo();
+        }
+    }
+
+    /** Mostra no painel as métricas das operações de banco, do pool de conexões e dos caches. */
+    private void atualizarDesempenho() {
+        StringBuilder texto = new StringBuilder(Metricas.relatorio());
+        texto.append('\n').append(Db.estatisticasPool()).append('\n');
+        texto.append(Db.estatisticasCacheComandos()).append('\n');
+        CacheNomes.Estatisticas autores = ObraDAO.estatisticasCacheAutores();
+        CacheNomes.Estatisticas editoras = ObraDAO.estatisticasCacheEditoras();
+        texto.append(String.format("Cache autores: %d/%d, acertos %.0f%%%n",
+                autores.tamanho(), autores.capacidade(), autores.taxaAcerto() * 100));
+        texto.append(String.format("Cache editoras: %d/%d, acertos %.0f%%%n",
+                editoras.tamanho(), editoras.capacidade(), editoras.taxaAcerto() * 100));
+        double rolagem = txtDesempenho.getScrollTop();
+        txtDesempenho.setText(texto.toString());
+        txtDesempenho.setScrollTop(rolagem);
     }
 
     /**
@@ -202,10 +500,8 @@ public class ObraController {
             // Volume: se vazio, guardamos null no objeto (assim o banco fica limpo)
             if (volume != null && !volume.isEmpty()) {
                 obra.setVolume(volume);
-                System.out.println("DEBUG: Volume definido: " + volume);
             } else {
                 obra.setVolume(null);
-                System.out.println("DEBUG: Volume é null ou vazio");
             }
 
             // Edicao também pode ser null se vazio
@@ -215,23 +511,19 @@ public class ObraController {
             obra.setChamada(chamada);
 
             // Decide inserir ou atualizar com base na presença do id
-            if (obra.getId() == null) {
-                dao.inserir(obra);   // insere nova obra
-            } else {
-                dao.atualizar(obra); // atualiza obra existente
-            }
+            CompletableFuture<Obra> gravacao = obra.getId() == null
+                    ? daoAsync.inserir(obra)    // insere nova obra
+                    : daoAsync.atualizar(obra); // atualiza obra existente
 
-            // Atualiza tabela, limpa formulário e mostra mensagem de sucesso
-            recarregarTabela();
-            onNovo();
-            showInfo("Sucesso", "Obra salva com sucesso.");
+            // Ao concluir: limpa formulário e mostra mensagem de sucesso
+            // (a obra gravada já foi aplicada na tabela pelo ouvinte do DAO, sem reler o acervo)
+            acompanhar("Salvando...", gravacao, salva -> {
+                onNovo();
+                showInfo("Sucesso", "Obra salva com sucesso.");
+            });
         } catch (IllegalArgumentException e) {
             // Erros de validação mostrados ao usuário
             showError("Validação", e.getMessage());
-        } catch (SQLException e) {
-            // Erros do banco: mostrar mensagem e imprimir stacktrace para debug
-            showError("Banco de dados", e.getMessage());
-            e.printStackTrace();
         }
     }
 
@@ -242,42 +534,383 @@ public class ObraController {
      */
     @FXML
     private void onExcluir() {
+        if (txtId.getText() == null || txtId.getText().isBlank()) {
+            showError("Atenção", "Selecione uma obra para excluir.");
+            return;
+        }
+        int id = Integer.parseInt(txtId.getText());
+
+        // Caixa de confirmação (modal)
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION,
+                "Excluir a obra selecionada?",
+                ButtonType.YES, ButtonType.NO);
+        confirm.setHeaderText("Confirmação");
+        confirm.showAndWait();
+
+        if (confirm.getResult() == ButtonType.YES) {
+            acompanhar("Excluindo...", daoAsync.excluir(id), r -> {
+                onNovo();
+                showInfo("Sucesso", "Obra excluída com sucesso.");
+            });
+        }
+    }
+
+    /**
+     * Ao clicar em "Exportar": escolhe o arquivo (o formato vem da extensão) e exporta o acervo
+     * inteiro numa virtual thread, direto do banco para o disco (ExportadorAcervo). O andamento
+     * aparece na barra de status; a tela continua livre para uso.
+     */
+    @FXML
+    private void onExportar() {
+        FileChooser escolha = new FileChooser();
+        escolha.setTitle("Exportar acervo");
+        escolha.setInitialFileName("acervo-" + LocalDate.now() + ".csv");
+        escolha.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV", "*.csv", "*.csv.gz"),
+                new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl", "*.jsonl.gz"),
+                new FileChooser.ExtensionFilter("MARCXML", "*.xml", "*.xml.gz"));
+        File arquivo = escolha.showSaveDialog(table.getScene().getWindow());
+        if (arquivo == null) {
+            return;
+        }
+        Path destino = arquivo.toPath();
         try {
-            if (txtId.getText() == null || txtId.getText().isBlank()) {
-                showError("Atenção", "Selecione uma obra para excluir.");
+            FormatoExportacao.doArquivo(destino);
+        } catch (IllegalArgumentException e) {
+            showError("Exportação", e.getMessage());
+            return;
+        }
+
+        exportando.set(true);
+        lblStatus.setText("Exportando...");
+        Thread.ofVirtual().name("exportacao-acervo").start(() -> {
+            try {
+                ExportadorAcervo.Resultado r = new ExportadorAcervo(dao).exportar(destino, FiltroObras.TODAS,
+                        (obras, bytes, decorrido) -> Platform.runLater(() -> lblStatus.setText(String.format(
+                                "Exportando: %d obras, %.1f MB", obras, bytes / (1024.0 * 1024.0)))));
+                Platform.runLater(() -> {
+                    exportando.set(false);
+                    lblStatus.setText("");
+                    showInfo("Exportação", String.format("%d obras exportadas para %s%n%.1f MB em %.1f s (%.0f obras/s)",
+                            r.obras(), destino.getFileName(), r.bytesArquivo() / (1024.0 * 1024.0),
+                            r.duracao().toMillis() / 1000.0, r.obrasPorSegundo()));
+                });
+            } catch (IOException | SQLException | RuntimeException e) {
+                e.printStackTrace();
+                Platform.runLater(() -> {
+                    exportando.set(false);
+                    lblStatus.setText("");
+                    showError("Exportação", "Falha ao exportar o acervo: " + e.getMessage());
+                });
+            }
+        });
+    }
+
+    /**
+     * Recarrega a tabela a partir da primeira página, mantendo a ordenação atual.
+     * Uma recarga anterior ainda em andamento é cancelada (só a mais recente é aplicada).
+     */
+    private void recarregarTabela() {
+        dados.recarregar();
+    }
+
+    /**
+     * Filtra a tabela pela busca digitada e pelos filtros. Com o campo e os filtros vazios, volta
+     * a exibir a lista paginada; com só os filtros, exibe o acervo inteiro filtrado.
+     * Com o índice em memória completo a consulta roda localmente e pode ser refeita a cada
+     * tecla; antes disso (ou com a busca em memória desligada) vai para o servidor.
+     */
+    private void buscar(String texto) {
+        int geracao = ++geracaoBusca;
+        FiltroTabela filtro = filtroTela();
+        if (texto == null || texto.isBlank()) {
+            if (filtro.vazio()) {
+                table.setItems(dados);
+                lblTotalObras.setText(BUSCA_EM_MEMORIA ? indice.tamanho() + " obras" : "");
+            } else {
+                filtrarAcervo(filtro, geracao);
+            }
+            return;
+        }
+        if (BUSCA_EM_MEMORIA && indiceCompleto) {
+            buscarNoIndice(texto, filtro);
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        // O servidor já aplica tipo e anos; a editora é filtrada nos resultados, em memória
+        daoAsync.buscar(texto, filtro.tipo(), filtro.anoMinimoOuNull(), filtro.anoMaximoOuNull(),
+                        LIMITE_RESULTADOS_BUSCA)
+                .whenComplete((obras, erro) -> Platform.runLater(() -> {
+                    if (geracao != geracaoBusca) {
+                        return;
+                    }
+                    if (erro != null) {
+                        Throwable causa = erro instanceof CompletionException && erro.getCause() != null
+                                ? erro.getCause() : erro;
+                        if (BUSCA_EM_MEMORIA) {
+                            // Sem a busca no servidor (ex.: script 02 não aplicado): usa o índice parcial
+                            causa.printStackTrace();
+                            buscarNoIndice(texto, filtro);
+                        } else {
+                            falhaAoCarregar(causa);
+                        }
+                        return;
+                    }
+                    mostrarResultados(obras, filtro, false, System.nanoTime() - inicio);
+                }));
+    }
+
+    private void buscarNoIndice(String texto, FiltroTabela filtro) {
+        long inicio = System.nanoTime();
+        mostrarResultados(indice.buscar(texto, LIMITE_RESULTADOS_BUSCA), filtro, false, System.nanoTime() - inicio);
+    }
+
+    /**
+     * Filtros sem texto de busca: o acervo inteiro, filtrado e na ordem da coluna escolhida,
+     * montado fora da thread do JavaFX (pode ter centenas de milhares de obras). A cópia local já
+     * guarda o acervo ordenado por coluna e só percorre a lista; sem ela, as obras do índice de
+     * busca são filtradas e ordenadas em paralelo (ForkJoinPool comum).
+     */
+    private void filtrarAcervo(FiltroTabela filtro, int geracao) {
+        TableColumn<Obra, ?> col = table.getSortOrder().isEmpty() ? null : table.getSortOrder().get(0);
+        OrdemObra ordem = col != null ? colunasOrdenaveis.get(col) : OrdemObra.ID;
+        boolean crescente = col != null && col.getSortType() == TableColumn.SortType.ASCENDING;
+
+        CompletableFuture<List<Obra>> obras;
+        if (acervo != null && acervo.disponivel()) {
+            obras = acervo.filtrar(filtro, ordem, crescente);
+        } else if (BUSCA_EM_MEMORIA && indiceCompleto) {
+            obras = CompletableFuture.supplyAsync(() ->
+                    ordem.ordenar(indice.obras().parallelStream().filter(filtro).toList(), crescente)
+                            .stream().map(ObraCompacta::paraObra).toList());
+        } else {
+            table.setItems(dados);
+            lblTotalObras.setText("Filtros disponíveis após carregar o acervo (ou use a busca)");
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        obras.whenComplete((lista, erro) -> Platform.runLater(() -> {
+            if (geracao != geracaoBusca) {
                 return;
             }
-            int id = Integer.parseInt(txtId.getText());
-
-            // Caixa de confirmação (modal)
-            Alert confirm = new Alert(Alert.AlertType.CONFIRMATION,
-                    "Excluir a obra selecionada?",
-                    ButtonType.YES, ButtonType.NO);
-            confirm.setHeaderText("Confirmação");
-            confirm.showAndWait();
-
-            if (confirm.getResult() == ButtonType.YES) {
-                dao.excluir(id);
-                recarregarTabela();
-                onNovo();
-                showInfo("Sucesso", "Obra excluída com sucesso.");
+            if (erro != null) {
+                falhaAoCarregar(erro instanceof CompletionException && erro.getCause() != null
+                        ? erro.getCause() : erro);
+                return;
             }
-        } catch (SQLException e) {
-            showError("Banco de dados", e.getMessage());
-            e.printStackTrace();
+            mostrarResultados(lista, filtro, true, System.nanoTime() - inicio);
+        }));
+    }
+
+    /**
+     * Exibe resultados em memória. Os da busca (poucos) são filtrados e ordenados aqui, pela
+     * FilteredList/SortedList; os do acervo chegam filtrados e ordenados do segundo plano.
+     */
+    private void mostrarResultados(List<Obra> obras, FiltroTabela filtro, boolean doAcervo, long nanos) {
+        // Esvazia antes de trocar filtro e ordem, para não refiltrar nem reordenar a lista anterior
+        resultadosBusca.clear();
+        resultadosDoAcervo = doAcervo;
+        resultadosFiltrados.setPredicate(doAcervo || filtro.vazio() ? null : filtro);
+        resultadosOrdenados.setComparator(doAcervo ? null : comparadorResultados());
+        resultadosBusca.setAll(obras);
+        if (table.getItems() != resultadosOrdenados) {
+            table.setItems(resultadosOrdenados);
         }
+        lblTotalObras.setText(String.format(doAcervo ? "%d obra(s) no filtro em %.1f ms" : "%d resultado(s) em %.1f ms",
+                resultadosOrdenados.size(), nanos / 1_000_000.0));
     }
 
-    /** Recarrega os dados da tabela chamando o DAO e substitui o conteúdo da lista observável. */
-    private void recarregarTabela() {
+    /**
+     * Ordem do cabeçalho para os resultados da busca (null = ordem de relevância), comparando as
+     * chaves de ordenação guardadas nas LinhaObra: cada texto é analisado uma vez, não a cada
+     * comparação.
+     */
+    private Comparator<Obra> comparadorResultados() {
+        if (table.getSortOrder().isEmpty()) {
+            return null;
+        }
+        TableColumn<Obra, ?> col = table.getSortOrder().get(0);
+        OrdemObra ordem = colunasOrdenaveis.get(col);
+        Comparator<Obra> comparador = (a, b) ->
+                LinhaObra.de(a).chave(ordem, a).compareTo(LinhaObra.de(b).chave(ordem, b));
+        return col.getSortType() == TableColumn.SortType.ASCENDING ? comparador : comparador.reversed();
+    }
+
+    /** Filtros preenchidos na barra da tabela (um ano incompleto ou inválido é ignorado). */
+    private FiltroTabela filtroTela() {
+        String tipo = cbFiltroTipo.getValue();
+        return new FiltroTabela(TODOS_OS_TIPOS.equals(tipo) ? null : tipo,
+                anoDoFiltro(txtFiltroAnoDe, Integer.MIN_VALUE), anoDoFiltro(txtFiltroAnoAte, Integer.MAX_VALUE),
+                Texto.normalizar(txtFiltroEditora.getText()).trim());
+    }
+
+    private static int anoDoFiltro(TextField campo, int semFiltro) {
+        String texto = campo.getText() != null ? campo.getText().trim() : "";
+        if (texto.length() != 4) {
+            return semFiltro; // ainda digitando
+        }
         try {
-            dados.setAll(dao.listar()); // lista() retorna List<Obra>
-        } catch (SQLException e) {
-            showError("Banco de dados", e.getMessage());
-            e.printStackTrace();
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            return semFiltro;
         }
     }
 
+    /** Ação do botão "Limpar filtros". */
+    @FXML
+    private void onLimparFiltros() {
+        cbFiltroTipo.setValue(TODOS_OS_TIPOS);
+        txtFiltroAnoDe.clear();
+        txtFiltroAnoAte.clear();
+        txtFiltroEditora.clear();
+    }
+
+    /** Refaz a busca atual (ou o total) depois de uma gravação/exclusão. */
+    private void atualizarBusca() {
+        buscar(txtBusca.getText());
+    }
+
+    /**
+     * Guarda o aviso do DAO (qualquer thread) e agenda a aplicação, se ainda não houver uma
+     * agendada. Avisos seguidos da mesma obra valem pelo último.
+     */
+    private void agendarAviso(int id, Obra obra) {
+        synchronized (avisosPendentes) {
+            avisosPendentes.remove(id); // reinsere no fim: mantém a ordem dos avisos
+            avisosPendentes.put(id, obra);
+            if (avisosAgendados) {
+                return;
+            }
+            avisosAgendados = true;
+        }
+        Platform.runLater(this::aplicarAvisos);
+    }
+
+    /** Aplica na tabela os avisos acumulados e agenda uma só atualização da busca. */
+    private void aplicarAvisos() {
+        Map<Integer, Obra> avisos;
+        synchronized (avisosPendentes) {
+            avisos = new LinkedHashMap<>(avisosPendentes);
+            avisosPendentes.clear();
+            avisosAgendados = false;
+        }
+        for (Map.Entry<Integer, Obra> aviso : avisos.entrySet()) {
+            if (aviso.getValue() == null) {
+                dados.aplicarExclusao(aviso.getKey());
+            } else {
+                dados.aplicarGravacao(aviso.getValue());
+            }
+        }
+        // play() não recomeça a contagem: numa importação longa a busca é refeita a cada
+        // intervalo, em vez de esperar o fim da importação
+        atualizacaoBusca.play();
+    }
+
+    /**
+     * Página da tabela: da cópia local, se houver, senão do banco.
+     * As duas fontes devolvem o mesmo formato e a mesma ordenação.
+     */
+    private CompletableFuture<List<Obra>> carregarPagina(OrdemObra ordem, boolean crescente,
+                                                         ChavePagina apos, ChavePagina ate, int limite) {
+        if (acervo != null && acervo.disponivel()) {
+            return acervo.listarPagina(ordem, crescente, apos, ate, limite);
+        }
+        return daoAsync.listarPagina(ordem, crescente, apos, ate, limite);
+    }
+
+    /**
+     * Carrega o acervo inteiro no índice de busca numa virtual thread: da cópia local, se houver,
+     * senão página por página do banco. A tabela não espera: a busca já funciona (parcialmente)
+     * enquanto a carga avança.
+     */
+    private void indexarAcervo() {
+        Thread.ofVirtual().name("indexacao-acervo").start(() -> {
+            if (acervo != null && acervo.disponivel()) {
+                indice.adicionar(acervo.compactas()); // os mesmos objetos da cópia, sem duplicar
+                indiceCompleto = true;
+                Platform.runLater(() -> {
+                    if (table.getItems() == dados) {
+                        lblTotalObras.setText(indice.tamanho() + " obras");
+                    }
+                });
+                return;
+            }
+            try {
+                ChavePagina apos = null;
+                List<Obra> pagina;
+                do {
+                    pagina = dao.listarPagina(OrdemObra.ID, true, apos, TAMANHO_PAGINA_INDEXACAO);
+                    indice.adicionar(pagina);
+                    if (!pagina.isEmpty()) {
+                        apos = OrdemObra.ID.chaveApos(pagina.get(pagina.size() - 1));
+                    }
+                    Platform.runLater(() -> {
+                        if (table.getItems() == dados) {
+                            lblTotalObras.setText(indice.tamanho() + " obras");
+                        }
+                    });
+                } while (pagina.size() >= TAMANHO_PAGINA_INDEXACAO);
+                indiceCompleto = true;
+                Platform.runLater(() -> {
+                    if (!filtroTela().vazio()) {
+                        atualizarBusca(); // filtros sem busca esperavam o índice completo
+                    }
+                });
+            } catch (SQLException e) {
+                e.printStackTrace();
+                Platform.runLater(() -> showError("Banco de dados",
+                        "Falha ao carregar o índice de busca: " + e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Carrega os autores e editoras cadastrados nos índices de sugestões, numa virtual thread.
+     * Sem eles o formulário funciona normalmente, só não sugere nomes.
+     */
+    private void carregarNomes() {
+        Thread.ofVirtual().name("carga-nomes").start(() -> {
+            try {
+                nomesAutores.carregar(dao.obrasPorAutor());
+                nomesEditoras.carregar(dao.obrasPorEditora());
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Acompanha uma gravação/exclusão em segundo plano: mostra o progresso, mantém os botões
+     * Salvar/Excluir desabilitados até terminar e, de volta à thread do JavaFX, executa
+     * {@code aoConcluir} ou mostra o erro do banco.
+     */
+    private <T> void acompanhar(String status, CompletableFuture<T> operacao, Consumer<T> aoConcluir) {
+        operacoes.set(operacoes.get() + 1);
+        lblStatus.setText(status);
+        operacao.whenComplete((resultado, erro) -> Platform.runLater(() -> {
+            operacoes.set(operacoes.get() - 1);
+            if (operacoes.get() == 0) {
+                lblStatus.setText("");
+            }
+            if (erro != null) {
+                Throwable causa = erro instanceof CompletionException && erro.getCause() != null
+                        ? erro.getCause() : erro;
+                showError("Banco de dados", causa.getMessage());
+                causa.printStackTrace();
+            } else {
+                aoConcluir.accept(resultado);
+            }
+        }));
+    }
+
+    /** Falha ao buscar uma página da tabela (já na thread do JavaFX). */
+    private void falhaAoCarregar(Throwable e) {
+        e.printStackTrace();
+        showError("Banco de dados", e.getMessage());
+    }
+
     /**
      * Valida campos obrigatórios:
      * - título, autor, tipo da obra, ano, editora e chamada são obrigatórios
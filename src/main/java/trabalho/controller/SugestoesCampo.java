@@ -0,0 +1,106 @@
+package trabalho.controller;
+
+import javafx.animation.PauseTransition;
+import javafx.geometry.Side;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.CustomMenuItem;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+import trabalho.busca.IndiceNomes;
+
+import java.util.List;
+
+/**
+ * Sugestões de nomes já cadastrados sob um campo de texto (autor, editora).
+ *
+ * As teclas são agrupadas: a consulta ao {@link IndiceNomes} só roda quando o usuário para de
+ * digitar por {@code ATRASO} (uma palavra digitada de uma vez gera uma consulta, não uma por
+ * letra). A consulta é em memória, na própria thread do JavaFX; nada vai ao banco.
+ *
+ * Com {@code variosNomes} (campo de autores, nomes separados por ";"), só o último nome é
+ * completado; os anteriores são mantidos.
+ *
+ * As sugestões só aparecem com o campo em foco: o texto preenchido pelo programa (seleção
+ * na tabela) não abre a lista.
+ */
+final class SugestoesCampo {
+
+    private static final Duration ATRASO = Duration.millis(150);
+    private static final int LIMITE_SUGESTOES = 10;
+
+    private final TextField campo;
+    private final IndiceNomes indice;
+    private final boolean variosNomes;
+    private final ContextMenu lista = new ContextMenu();
+    private final PauseTransition espera = new PauseTransition(ATRASO);
+
+    // Texto posto pelo próprio componente ao escolher uma sugestão (não reabre a lista)
+    private boolean aplicando;
+
+    SugestoesCampo(TextField campo, IndiceNomes indice, boolean variosNomes) {
+        this.campo = campo;
+        this.indice = indice;
+        this.variosNomes = variosNomes;
+
+        espera.setOnFinished(e -> mostrar());
+        campo.textProperty().addListener((obs, old, texto) -> {
+            if (aplicando || !campo.isFocused()) {
+                return;
+            }
+            espera.playFromStart(); // recomeça a contagem a cada tecla
+        });
+        campo.focusedProperty().addListener((obs, old, foco) -> {
+            if (!foco) {
+                espera.stop();
+                lista.hide();
+            }
+        });
+    }
+
+    private void mostrar() {
+        String texto = campo.getText() != null ? campo.getText() : "";
+        int inicio = variosNomes ? inicioDoUltimoNome(texto) : 0;
+        String digitado = texto.substring(inicio).trim();
+
+        List<String> sugestoes = indice.sugerir(digitado, LIMITE_SUGESTOES);
+        if (sugestoes.isEmpty() || (sugestoes.size() == 1 && sugestoes.get(0).equals(digitado))) {
+            lista.hide();
+            return;
+        }
+
+        lista.getItems().clear();
+        for (String nome : sugestoes) {
+            CustomMenuItem item = new CustomMenuItem(new Label(nome), true);
+            item.setOnAction(e -> escolher(texto.substring(0, inicio), nome));
+            lista.getItems().add(item);
+        }
+        if (!lista.isShowing()) {
+            lista.show(campo, Side.BOTTOM, 0, 0);
+        }
+    }
+
+    private void escolher(String nomesAnteriores, String nome) {
+        aplicando = true;
+        try {
+            campo.setText(nomesAnteriores + nome);
+            campo.positionCaret(campo.getText().length());
+        } finally {
+            aplicando = false;
+        }
+        lista.hide();
+    }
+
+    /** Posição onde começa o nome sendo digitado (depois do último separador de autores). */
+    private static int inicioDoUltimoNome(String texto) {
+        int separador = texto.lastIndexOf(';'); // como em Obra.setAutor
+        if (separador < 0) {
+            return 0;
+        }
+        int inicio = separador + 1;
+        while (inicio < texto.length() && texto.charAt(inicio) == ' ') {
+            inicio++;
+        }
+        return inicio;
+    }
+}
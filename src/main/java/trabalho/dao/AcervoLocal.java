@@ -0,0 +1,618 @@
+package trabalho.dao;
+
+import trabalho.db.Db;
+import trabalho.model.DadosObra;
+import trabalho.model.Obra;
+import trabalho.model.ObraCompacta;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Cópia local do acervo, gravada em disco entre execuções.
+ *
+ * Ao abrir a aplicação ({@link #carregarEmSegundoPlano}) o arquivo é lido numa virtual thread, sem
+ * ida ao banco, enquanto a janela já aparece; terminada a leitura ({@link #carregado()}), a tabela
+ * é exibida a partir dele ({@link #listarPagina}). Em seguida, {@link #sincronizar()} busca no
+ * banco só o que mudou desde a última sincronização ({@link ObraDAO#alteracoesDesde}) e repassa
+ * as diferenças aos {@link OuvinteObras}, como se fossem gravações. Abrir a janela não depende da
+ * latência da rede nem do tamanho do acervo.
+ *
+ * Depois de aberta, a cópia é mantida pelas gravações locais e das outras estações (é um
+ * OuvinteObras registrado no ObraDAO).
+ *
+ * As obras ficam em memória como {@link ObraCompacta} (o acervo inteiro, que pode ter milhões
+ * de obras); as páginas e listas devolvidas são objetos Obra criados na hora.
+ *
+ * Ordenação: na primeira página pedida numa coluna, o acervo inteiro é ordenado por ela, com as
+ * chaves de ordenação (CollationKey pt-BR dos textos, int dos números) calculadas em paralelo
+ * no ForkJoinPool comum e Arrays.parallelSort. A lista ordenada (crescente; a decrescente é a
+ * mesma lida de trás para frente) fica guardada com as chaves e é mantida pelas gravações
+ * seguintes: cada uma remove e insere uma linha por busca binária, sem ordenar de novo.
+ * A ordenação (segundos, com milhões de obras) roda sobre uma cópia da lista de obras, fora da
+ * trava: gravações, avisos e {@link #disponivel()} não esperam por ela; as obras alteradas
+ * enquanto isso são corrigidas na lista pronta antes de ela passar a valer.
+ *
+ * Formato do arquivo (big-endian): "MUSE", versão do formato, URL do banco, versão do acervo,
+ * quantidade de obras e, para cada obra, o id seguido dos campos de texto (tamanho + UTF-8,
+ * -1 para null). Um arquivo de outro banco ou de outro formato é ignorado.
+ */
+public class AcervoLocal implements OuvinteObras {
+
+    private static final int MAGICO = 0x4D555345; // "MUSE"
+    private static final int FORMATO = 1;
+    private static final long SEM_VERSAO = -1;
+
+    // Acima disto, uma sincronização descarta as listas ordenadas em vez de atualizá-las linha a linha
+    private static final int LIMITE_ALTERACOES_INCREMENTAIS = 10_000;
+
+    private final Path arquivo;
+    private final ObraDAO dao;
+    private final Map<Integer, ObraCompacta> obras = new HashMap<>();
+    private volatile long versao = SEM_VERSAO; // escrita sob a trava; lida sem ela por disponivel()
+
+    // Obras em ordem crescente de cada coluna, com as chaves: montadas sob demanda, mantidas pelas gravações
+    private final Map<OrdemObra, ArrayList<OrdemObra.Linha<ObraCompacta>>> ordenadas = new EnumMap<>(OrdemObra.class);
+    // Ordenações em andamento (fora da trava), por coluna
+    private final Map<OrdemObra, Ordenacao> ordenando = new EnumMap<>(OrdemObra.class);
+
+    private final AtomicBoolean sincronizando = new AtomicBoolean();
+    // Avisos recebidos durante uma sincronização (id -> obra gravada, null = excluída), reaplicados
+    // sobre o retrato do banco, que pode ser anterior a eles; null fora de uma sincronização
+    private Map<Integer, ObraCompacta> avisosDuranteSincronizacao;
+    private final CompletableFuture<Void> carregado = new CompletableFuture<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public AcervoLocal(Path arquivo, ObraDAO dao) {
+        this.arquivo = arquivo;
+        this.dao = dao;
+    }
+
+    /** Arquivo padrão: -Dmuseu.acervo.arquivo=... ou ~/.museu/acervo.bin. */
+    public static Path arquivoPadrao() {
+        String configurado = System.getProperty("museu.acervo.arquivo");
+        if (configurado != null) {
+            return Path.of(configurado);
+        }
+        return Path.of(System.getProperty("user.home"), ".museu", "acervo.bin");
+    }
+
+    /**
+     * Lê o arquivo ({@link #carregar}) numa virtual thread: quem abre a aplicação não espera o
+     * disco. A sincronização com o banco vem depois de {@link #carregado()} (a leitura substitui
+     * a cópia em memória).
+     */
+    public void carregarEmSegundoPlano() {
+        Thread.ofVirtual().name("acervo-abertura").start(() -> {
+            try {
+                carregar();
+            } finally {
+                carregado.complete(null);
+            }
+        });
+    }
+
+    /**
+     * Completa quando a leitura do arquivo de {@link #carregarEmSegundoPlano} termina, com ou sem
+     * cópia ({@link #disponivel()} diz se há uma). Só então vale a pena montar a tabela e o índice.
+     */
+    public CompletableFuture<Void> carregado() {
+        return carregado;
+    }
+
+    /** true quando há uma cópia carregada (do arquivo ou de uma sincronização completa). */
+    public boolean disponivel() {
+        return versao != SEM_VERSAO;
+    }
+
+    /** Todas as obras da cópia local (cópia da lista, em ordem qualquer). */
+    public synchronized List<Obra> obras() {
+        List<Obra> lista = new ArrayList<>(obras.size());
+        for (ObraCompacta obra : obras.values()) {
+            lista.add(obra.paraObra());
+        }
+        return lista;
+    }
+
+    /** Todas as obras da cópia local na forma compacta (os mesmos objetos guardados aqui). */
+    public synchronized List<ObraCompacta> compactas() {
+        return new ArrayList<>(obras.values());
+    }
+
+    /**
+     * Lê o arquivo da cópia local, se existir. Um arquivo ausente, corrompido ou de outro banco
+     * não é erro: a aplicação segue lendo do banco até a primeira sincronização.
+     */
+    public void carregar() {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (buf.getInt() != MAGICO || buf.getInt() != FORMATO || !Db.url().equals(lerTexto(buf))) {
+                System.err.println("Cópia local do acervo ignorada (formato ou banco diferente): " + arquivo);
+                return;
+            }
+            long versaoLida = buf.getLong();
+            int quantidade = buf.getInt();
+            Map<Integer, ObraCompacta> lidas = new HashMap<>(quantidade * 4 / 3 + 1);
+            for (int i = 0; i < quantidade; i++) {
+                Obra obra = new Obra();
+                obra.setId(buf.getInt());
+                obra.setTitulo(lerTexto(buf));
+                obra.setTipo_Obra(lerTexto(buf));
+                obra.setAno_Publicacao(lerTexto(buf));
+                obra.setAutor(lerTexto(buf));
+                obra.setEditora(lerTexto(buf));
+                obra.setVolume(lerTexto(buf));
+                obra.setEdicao(lerTexto(buf));
+                obra.setIsbn(lerTexto(buf));
+                obra.setChamada(lerTexto(buf));
+                lidas.put(obra.getId(), ObraCompacta.de(obra));
+            }
+            synchronized (this) {
+                obras.clear();
+                obras.putAll(lidas);
+                versao = versaoLida;
+                descartarOrdenadas();
+            }
+        } catch (NoSuchFileException e) {
+            // primeira execução: sem cópia local ainda
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Falha ao ler a cópia local do acervo (" + arquivo + "): " + e);
+        }
+    }
+
+    /**
+     * Grava a cópia local (arquivo temporário + troca atômica: uma falha no meio não estraga
+     * a cópia anterior).
+     */
+    public void salvar() {
+        List<ObraCompacta> copia;
+        long versaoCopia;
+        synchronized (this) {
+            if (versao == SEM_VERSAO) {
+                return;
+            }
+            copia = new ArrayList<>(obras.values());
+            versaoCopia = versao;
+        }
+
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try {
+            if (arquivo.getParent() != null) {
+                Files.createDirectories(arquivo.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporario), 1 << 16))) {
+                out.writeInt(MAGICO);
+                out.writeInt(FORMATO);
+                escreverTexto(out, Db.url());
+                out.writeLong(versaoCopia);
+                out.writeInt(copia.size());
+                for (ObraCompacta obra : copia) {
+                    out.writeInt(obra.id());
+                    escreverTexto(out, obra.getTitulo());
+                    escreverTexto(out, obra.getTipo_Obra());
+                    escreverTexto(out, obra.getAno_Publicacao());
+                    escreverTexto(out, obra.getAutor());
+                    escreverTexto(out, obra.getEditora());
+                    escreverTexto(out, obra.getVolume());
+                    escreverTexto(out, obra.getEdicao());
+                    escreverTexto(out, obra.getIsbn());
+                    escreverTexto(out, obra.getChamada());
+                }
+            }
+            try {
+                Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // No Windows o arquivo mapeado na leitura fica travado até o mapeamento ser coletado
+                System.gc();
+                Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            System.err.println("Falha ao gravar a cópia local do acervo (" + arquivo + "): " + e);
+        }
+    }
+
+    /**
+     * Traz do banco o que mudou desde a última sincronização (ou tudo, se não há cópia),
+     * repassa as diferenças aos ouvintes do ObraDAO e grava a cópia em disco.
+     * Chamadas simultâneas são ignoradas (uma sincronização já em andamento basta).
+     *
+     * A consulta ao banco roda fora da trava: gravações e exclusões avisadas nesse meio-tempo
+     * (desta e de outras estações) são guardadas e reaplicadas depois do retrato do banco, e as
+     * obras que elas alteraram não são repassadas de novo aos ouvintes (já receberam o aviso,
+     * mais novo que o retrato).
+     */
+    public void sincronizar() throws SQLException {
+        if (!sincronizando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long desde;
+            synchronized (this) {
+                desde = versao == SEM_VERSAO ? ObraDAO.VERSAO_INICIAL : versao;
+                avisosDuranteSincronizacao = new HashMap<>();
+            }
+            boolean completa = desde == ObraDAO.VERSAO_INICIAL;
+            AlteracoesAcervo alteracoes = dao.alteracoesDesde(desde);
+
+            List<Obra> gravadas = new ArrayList<>();
+            List<Integer> excluidas = new ArrayList<>();
+            synchronized (this) {
+                if (completa || alteracoes.gravadas().size() + alteracoes.excluidas().size()
+                        > LIMITE_ALTERACOES_INCREMENTAIS) {
+                    descartarOrdenadas(); // reordenar tudo sai mais barato que tantas inserções
+                }
+                if (completa) {
+                    obras.clear();
+                }
+                for (Obra obra : alteracoes.gravadas()) {
+                    aplicarGravacao(obra);
+                }
+                for (int id : alteracoes.excluidas()) {
+                    aplicarExclusao(id);
+                }
+                for (Map.Entry<Integer, ObraCompacta> aviso : avisosDuranteSincronizacao.entrySet()) {
+                    if (aviso.getValue() == null) {
+                        aplicarExclusao(aviso.getKey());
+                    } else {
+                        aplicarGravacao(aviso.getValue());
+                    }
+                }
+                versao = alteracoes.versao();
+
+                // Carga completa: a tela ainda lia do banco, não há diferença a repassar
+                if (!completa) {
+                    for (Obra obra : alteracoes.gravadas()) {
+                        if (!avisosDuranteSincronizacao.containsKey(obra.getId())) {
+                            gravadas.add(obra);
+                        }
+                    }
+                    for (int id : alteracoes.excluidas()) {
+                        if (!avisosDuranteSincronizacao.containsKey(id)) {
+                            excluidas.add(id);
+                        }
+                    }
+                }
+                avisosDuranteSincronizacao = null;
+            }
+
+            for (Obra obra : gravadas) {
+                ObraDAO.notificarGravacao(obra);
+            }
+            for (int id : excluidas) {
+                ObraDAO.notificarExclusao(id);
+            }
+            salvar();
+        } finally {
+            synchronized (this) {
+                avisosDuranteSincronizacao = null;
+            }
+            sincronizando.set(false);
+        }
+    }
+
+    /** {@link #sincronizar()} numa virtual thread; falhas (ex.: banco fora do ar) só são registradas. */
+    public void sincronizarEmSegundoPlano() {
+        Thread.ofVirtual().name("acervo-sincronizacao").start(() -> {
+            try {
+                sincronizar();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Página da cópia local, com a mesma semântica de
+     * {@link ObraDAO#listarPagina(OrdemObra, boolean, ChavePagina, ChavePagina, int)}
+     * (pode ser usada como carregador da tabela no lugar do banco).
+     */
+    public CompletableFuture<List<Obra>> listarPagina(OrdemObra ordem, boolean crescente,
+                                                      ChavePagina apos, ChavePagina ate, int limite) {
+        // Fora da thread chamadora: a primeira página de uma ordenação nova ordena o acervo inteiro
+        return CompletableFuture.supplyAsync(() -> pagina(ordem, crescente, apos, ate, limite), executor);
+    }
+
+    /**
+     * Obras que atendem ao filtro, na ordem da coluna, fora da thread chamadora. Percorre a
+     * lista já ordenada da coluna (ordenando o acervo, se for a primeira vez): filtrar não
+     * exige ordenar o resultado de novo.
+     */
+    public CompletableFuture<List<Obra>> filtrar(Predicate<? super DadosObra> filtro, OrdemObra ordem,
+                                                 boolean crescente) {
+        return CompletableFuture.supplyAsync(() -> {
+            // Sob a trava só a cópia das referências; o filtro percorre a cópia sem ela
+            Object[] linhas;
+            do {
+                garantirOrdenada(ordem);
+                synchronized (this) {
+                    List<OrdemObra.Linha<ObraCompacta>> ordenada = ordenadas.get(ordem);
+                    linhas = ordenada != null ? ordenada.toArray() : null;
+                }
+            } while (linhas == null); // descartada entre a ordenação e a leitura: ordena de novo
+            int n = linhas.length;
+            List<Obra> resultado = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                @SuppressWarnings("unchecked") // toArray de uma List<Linha<ObraCompacta>>
+                ObraCompacta obra = ((OrdemObra.Linha<ObraCompacta>) linhas[crescente ? i : n - 1 - i]).obra();
+                if (filtro.test(obra)) {
+                    resultado.add(obra.paraObra());
+                }
+            }
+            return resultado;
+        }, executor);
+    }
+
+    private List<Obra> pagina(OrdemObra ordem, boolean crescente, ChavePagina apos, ChavePagina ate, int limite) {
+        while (true) {
+            garantirOrdenada(ordem);
+            synchronized (this) {
+                List<OrdemObra.Linha<ObraCompacta>> linhas = ordenadas.get(ordem);
+                if (linhas != null) {
+                    return pagina(linhas, ordem, crescente, apos, ate, limite);
+                }
+            }
+            // descartada entre a ordenação e a leitura (ex.: sincronização completa): ordena de novo
+        }
+    }
+
+    /** Página de uma lista já ordenada (sob a trava: só busca binária e as linhas da página). */
+    private static List<Obra> pagina(List<OrdemObra.Linha<ObraCompacta>> linhas, OrdemObra ordem, boolean crescente,
+                                     ChavePagina apos, ChavePagina ate, int limite) {
+        int n = linhas.size();
+
+        // Primeira linha depois de "apos" (busca binária; no sentido decrescente, de trás para frente)
+        int inicio = 0;
+        if (apos != null) {
+            ChaveOrdenacao chave = ordem.chaveOrdenacao(apos);
+            int lo = 0;
+            int hi = n;
+            while (lo < hi) {
+                int meio = (lo + hi) >>> 1;
+                int c = linhas.get(crescente ? meio : n - 1 - meio).chave().compareTo(chave);
+                if ((crescente ? c : -c) <= 0) {
+                    lo = meio + 1;
+                } else {
+                    hi = meio;
+                }
+            }
+            inicio = lo;
+        }
+
+        ChaveOrdenacao fim = ate != null ? ordem.chaveOrdenacao(ate) : null;
+        List<Obra> pagina = new ArrayList<>(Math.min(limite, n - inicio));
+        for (int i = inicio; i < n && pagina.size() < limite; i++) {
+            OrdemObra.Linha<ObraCompacta> linha = linhas.get(crescente ? i : n - 1 - i);
+            if (fim != null) {
+                int c = linha.chave().compareTo(fim);
+                if ((crescente ? c : -c) > 0) {
+                    break;
+                }
+            }
+            pagina.add(linha.obra().paraObra());
+        }
+        return pagina;
+    }
+
+    /** Ordenação de uma coluna em andamento, fora da trava. */
+    private static final class Ordenacao {
+        private final CompletableFuture<Void> pronta = new CompletableFuture<>();
+        // ids gravados/excluídos depois da cópia (sob a trava); null = muitos, a cópia não serve mais
+        private Set<Integer> alteradas = new HashSet<>();
+    }
+
+    /**
+     * Garante a lista crescente da coluna (chamar sem a trava). Na primeira vez, copia a lista de
+     * obras sob a trava e ordena a cópia sem ela; quem pedir a mesma coluna enquanto isso espera
+     * a mesma ordenação. Ao terminar, as obras alteradas nesse meio-tempo são corrigidas na lista
+     * (busca binária) e ela passa a valer; se a cópia foi descartada, ordena de novo.
+     */
+    private void garantirOrdenada(OrdemObra ordem) {
+        while (true) {
+            Ordenacao ordenacao;
+            List<ObraCompacta> copia = null;
+            synchronized (this) {
+                if (ordenadas.containsKey(ordem)) {
+                    return;
+                }
+                ordenacao = ordenando.get(ordem);
+                if (ordenacao == null) {
+                    ordenacao = new Ordenacao();
+                    ordenando.put(ordem, ordenacao);
+                    copia = new ArrayList<>(obras.values());
+                }
+            }
+            if (copia == null) {
+                ordenacao.pronta.join(); // outra thread já está ordenando esta coluna
+                continue;
+            }
+            try {
+                List<OrdemObra.Linha<ObraCompacta>> linhas = ordem.linhas(copia); // o trecho caro
+                synchronized (this) {
+                    if (ordenacao.alteradas != null) {
+                        ArrayList<OrdemObra.Linha<ObraCompacta>> lista = new ArrayList<>(linhas);
+                        corrigir(lista, ordem, copia, ordenacao.alteradas);
+                        ordenadas.put(ordem, lista);
+                    }
+                }
+            } finally {
+                synchronized (this) {
+                    ordenando.remove(ordem);
+                }
+                ordenacao.pronta.complete(null);
+            }
+        }
+    }
+
+    /** Troca, na lista ordenada a partir da cópia, as obras alteradas pela versão atual (sob a trava). */
+    private void corrigir(ArrayList<OrdemObra.Linha<ObraCompacta>> linhas, OrdemObra ordem,
+                          List<ObraCompacta> copia, Set<Integer> alteradas) {
+        if (alteradas.isEmpty()) {
+            return;
+        }
+        Map<Integer, ObraCompacta> naCopia = new HashMap<>();
+        for (ObraCompacta obra : copia) {
+            if (alteradas.contains(obra.id())) {
+                naCopia.put(obra.id(), obra);
+            }
+        }
+        for (int id : alteradas) {
+            ObraCompacta antiga = naCopia.get(id);
+            ObraCompacta atual = obras.get(id);
+            if (antiga == atual) {
+                continue;
+            }
+            if (antiga != null) {
+                remover(linhas, ordem, antiga);
+            }
+            if (atual != null) {
+                OrdemObra.Linha<ObraCompacta> linha = new OrdemObra.Linha<>(ordem.chaveOrdenacao(atual), atual);
+                linhas.add(-posicao(linhas, linha.chave()) - 1, linha);
+            }
+        }
+    }
+
+    /** Descarta as listas ordenadas (e as cópias sendo ordenadas), para ordenar de novo quando pedidas. */
+    private void descartarOrdenadas() {
+        ordenadas.clear();
+        for (Ordenacao ordenacao : ordenando.values()) {
+            ordenacao.alteradas = null;
+        }
+    }
+
+    /** Anota a obra alterada nas ordenações em andamento (sob a trava). */
+    private void anotarAlterada(int id) {
+        for (Ordenacao ordenacao : ordenando.values()) {
+            if (ordenacao.alteradas != null) {
+                ordenacao.alteradas.add(id);
+                if (ordenacao.alteradas.size() > LIMITE_ALTERACOES_INCREMENTAIS) {
+                    ordenacao.alteradas = null;
+                }
+            }
+        }
+    }
+
+    /** Põe a obra na cópia e nas listas ordenadas já montadas (sob a trava). */
+    private void aplicarGravacao(DadosObra gravada) {
+        ObraCompacta obra = ObraCompacta.de(gravada);
+        ObraCompacta anterior = obras.get(obra.id());
+        if (obra.equals(anterior)) {
+            return; // já aplicada (aviso de uma gravação que a sincronização trouxe)
+        }
+        obras.put(obra.id(), obra);
+        anotarAlterada(obra.id());
+        for (Map.Entry<OrdemObra, ArrayList<OrdemObra.Linha<ObraCompacta>>> e : ordenadas.entrySet()) {
+            if (anterior != null) {
+                remover(e.getValue(), e.getKey(), anterior);
+            }
+            OrdemObra.Linha<ObraCompacta> linha = new OrdemObra.Linha<>(e.getKey().chaveOrdenacao(obra), obra);
+            e.getValue().add(-posicao(e.getValue(), linha.chave()) - 1, linha);
+        }
+    }
+
+    private void aplicarExclusao(int id) {
+        ObraCompacta anterior = obras.remove(id);
+        if (anterior != null) {
+            anotarAlterada(id);
+            for (Map.Entry<OrdemObra, ArrayList<OrdemObra.Linha<ObraCompacta>>> e : ordenadas.entrySet()) {
+                remover(e.getValue(), e.getKey(), anterior);
+            }
+        }
+    }
+
+    private static void remover(ArrayList<OrdemObra.Linha<ObraCompacta>> linhas, OrdemObra ordem, ObraCompacta obra) {
+        int i = posicao(linhas, ordem.chaveOrdenacao(obra));
+        if (i >= 0 && linhas.get(i).obra() == obra) {
+            linhas.remove(i);
+        } else {
+            linhas.removeIf(l -> l.obra() == obra); // não deveria acontecer: as obras compactas não mudam
+        }
+    }
+
+    /** Posição da chave na lista, ou -(ponto de inserção) - 1, como Collections.binarySearch. */
+    private static int posicao(List<? extends OrdemObra.Linha<?>> linhas, ChaveOrdenacao chave) {
+        int lo = 0;
+        int hi = linhas.size() - 1;
+        while (lo <= hi) {
+            int meio = (lo + hi) >>> 1;
+            int c = linhas.get(meio).chave().compareTo(chave);
+            if (c < 0) {
+                lo = meio + 1;
+            } else if (c > 0) {
+                hi = meio - 1;
+            } else {
+                return meio;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    // ======== OuvinteObras: mantém a cópia igual ao banco depois de aberta ========
+
+    @Override
+    public synchronized void obraGravada(Obra obra) {
+        ObraCompacta compacta = ObraCompacta.de(obra);
+        aplicarGravacao(compacta);
+        if (avisosDuranteSincronizacao != null) {
+            avisosDuranteSincronizacao.put(compacta.id(), compacta);
+        }
+    }
+
+    @Override
+    public synchronized void obraExcluida(int id) {
+        aplicarExclusao(id);
+        if (avisosDuranteSincronizacao != null) {
+            avisosDuranteSincronizacao.put(id, null);
+        }
+    }
+
+    @Override
+    public void alteracoesPerdidas() {
+        // Avisos perdidos: a sincronização incremental recupera exatamente o que faltou
+        if (disponivel()) {
+            sincronizarEmSegundoPlano();
+        }
+    }
+
+    private static String lerTexto(MappedByteBuffer buf) {
+        int tamanho = buf.getInt();
+        if (tamanho < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[tamanho];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void escreverTexto(DataOutputStream out, String texto) throws IOException {
+        if (texto == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
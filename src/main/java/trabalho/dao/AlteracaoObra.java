@@ -0,0 +1,45 @@
+package trabalho.dao;
+
+/**
+ * Aviso de alteração de uma obra trocado entre estações pelo canal
+ * {@link ObraDAO#CANAL_ALTERACOES} (NOTIFY do PostgreSQL).
+ *
+ * O payload é compacto ("id:operação:tipo:origem", ex. "1234:U:Livro:k3f9a2"): só o
+ * necessário para a outra estação decidir o que reler. A origem identifica o processo
+ * que gravou, para que ele ignore os próprios avisos (já aplicados localmente).
+ *
+ * @param id        id_obra alterada
+ * @param operacao  {@link #INCLUSAO}, {@link #ATUALIZACAO} ou {@link #EXCLUSAO}
+ * @param tipo      tipo da obra ("Livro", "Revista"...); vazio na exclusão
+ * @param origem    identificador do processo que fez a gravação
+ */
+public record AlteracaoObra(int id, char operacao, String tipo, String origem) {
+
+    public static final char INCLUSAO = 'I';
+    public static final char ATUALIZACAO = 'U';
+    public static final char EXCLUSAO = 'D';
+
+    public String comoPayload() {
+        return id + ":" + operacao + ":" + (tipo != null ? tipo : "") + ":" + origem;
+    }
+
+    /** Lê um payload; devolve null se não estiver no formato esperado (outra versão da aplicação). */
+    public static AlteracaoObra doPayload(String payload) {
+        if (payload == null) {
+            return null;
+        }
+        String[] partes = payload.split(":", 4);
+        if (partes.length != 4 || partes[1].length() != 1) {
+            return null;
+        }
+        char operacao = partes[1].charAt(0);
+        if (operacao != INCLUSAO && operacao != ATUALIZACAO && operacao != EXCLUSAO) {
+            return null;
+        }
+        try {
+            return new AlteracaoObra(Integer.parseInt(partes[0]), operacao, partes[2], partes[3]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
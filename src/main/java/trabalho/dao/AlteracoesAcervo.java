@@ -0,0 +1,15 @@
+package trabalho.dao;
+
+import trabalho.model.Obra;
+
+import java.util.List;
+
+/**
+ * Resultado de {@link ObraDAO#alteracoesDesde(long)}: o que mudou no acervo desde uma versão.
+ *
+ * @param gravadas  obras incluídas ou alteradas (formato das listagens)
+ * @param excluidas ids de obras excluídas
+ * @param versao    versão a informar na próxima sincronização
+ */
+public record AlteracoesAcervo(List<Obra> gravadas, List<Integer> excluidas, long versao) {
+}
@@ -0,0 +1,84 @@
+package trabalho.dao;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache limitado nome → id (autores ou editoras), com descarte LRU e contadores.
+ *
+ * Usado pelo {@link ObraDAO} para que gravações com nomes já conhecidos não precisem
+ * consultar o banco para descobrir o id. Só devem entrar no cache ids já confirmados
+ * (após o commit), para nunca apontar para uma linha de uma transação desfeita.
+ *
+ * Thread-safe: pode ser compartilhado por todas as instâncias do DAO.
+ */
+public class CacheNomes {
+
+    /**
+     * Contadores do cache.
+     *
+     * @param acertos    consultas respondidas pelo cache
+     * @param falhas     consultas que precisaram ir ao banco
+     * @param descartes  entradas removidas por falta de espaço (LRU)
+     * @param tamanho    entradas atualmente no cache
+     * @param capacidade limite de entradas
+     */
+    public record Estatisticas(long acertos, long falhas, long descartes, int tamanho, int capacidade) {
+
+        /** Fração das consultas respondidas pelo cache (0 a 1). */
+        public double taxaAcerto() {
+            long total = acertos + falhas;
+            return total == 0 ? 0 : (double) acertos / total;
+        }
+    }
+
+    private final int capacidade;
+    private final LinkedHashMap<String, Integer> ids;
+    private long acertos;
+    private long falhas;
+    private long descartes;
+
+    public CacheNomes(int capacidade) {
+        this.capacidade = capacidade;
+        // ordem de acesso: a entrada usada há mais tempo é a primeira a sair
+        this.ids = new LinkedHashMap<>(Math.min(capacidade, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                if (size() > CacheNomes.this.capacidade) {
+                    descartes++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** Retorna o id do nome, ou null se não estiver no cache. */
+    public synchronized Integer obter(String nome) {
+        Integer id = ids.get(nome);
+        if (id != null) {
+            acertos++;
+        } else {
+            falhas++;
+        }
+        return id;
+    }
+
+    /** Registra um id já confirmado no banco. */
+    public synchronized void registrar(String nome, int id) {
+        ids.put(nome, id);
+    }
+
+    /** Remove o nome (ex.: após erro de gravação que pode indicar id obsoleto). */
+    public synchronized void remover(String nome) {
+        ids.remove(nome);
+    }
+
+    public synchronized void limpar() {
+        ids.clear();
+    }
+
+    public synchronized Estatisticas estatisticas() {
+        return new Estatisticas(acertos, falhas, descartes, ids.size(), capacidade);
+    }
+}
@@ -0,0 +1,65 @@
+package trabalho.dao;
+
+import java.text.CollationKey;
+import java.util.Arrays;
+
+/**
+ * Valor de uma obra já pronto para ordenar por uma {@link OrdemObra}, mais o id_obra para
+ * desempate. Calculada uma vez por obra e coluna; só chaves da mesma coluna são comparáveis.
+ *
+ * Nas colunas de texto a chave é a CollationKey pt-BR do texto ({@link Colacao}) reescrita em
+ * bytes: a CollationKey é uma sequência de pesos (chars) quase sempre menores que 0xFF no
+ * alfabeto latino, e cada peso vira um byte (0xFF e mais dois bytes para os maiores), o que
+ * preserva a ordem e ocupa metade. Comparar é Arrays.compareUnsigned (vetorizado pela JVM),
+ * sem passar pelo objeto CollationKey. Os primeiros 8 bytes ficam também num long
+ * ({@code prefixo}), que resolve sem seguir ponteiros as comparações entre textos que começam
+ * diferente; nas colunas numéricas (id, ano) o prefixo é o próprio número.
+ *
+ * @param prefixo começo da chave (comparado sem sinal)
+ * @param texto   chave do texto em bytes (colunas de texto) ou null (colunas numéricas)
+ * @param id      id_obra
+ */
+public record ChaveOrdenacao(long prefixo, byte[] texto, int id) implements Comparable<ChaveOrdenacao> {
+
+    /** Chave de uma coluna de texto. */
+    static ChaveOrdenacao deTexto(CollationKey colacao, int id) {
+        byte[] original = colacao.toByteArray(); // cada peso em 2 bytes (big-endian)
+        byte[] texto = new byte[original.length];
+        int tamanho = 0;
+        for (int i = 0; i + 1 < original.length; i += 2) {
+            int peso = (original[i] & 0xFF) << 8 | (original[i + 1] & 0xFF);
+            if (peso < 0xFF) {
+                texto[tamanho++] = (byte) peso;
+            } else {
+                if (tamanho + 3 > texto.length) {
+                    texto = Arrays.copyOf(texto, texto.length + original.length);
+                }
+                texto[tamanho++] = (byte) 0xFF;
+                texto[tamanho++] = (byte) (peso >>> 8);
+                texto[tamanho++] = (byte) peso;
+            }
+        }
+        texto = Arrays.copyOf(texto, tamanho);
+
+        long prefixo = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            prefixo = prefixo << 8 | (i < tamanho ? texto[i] & 0xFF : 0); // mais curta: completa com zeros
+        }
+        return new ChaveOrdenacao(prefixo, texto, id);
+    }
+
+    /** Chave de uma coluna numérica. */
+    static ChaveOrdenacao deNumero(int numero, int id) {
+        return new ChaveOrdenacao((long) numero - Integer.MIN_VALUE, null, id); // sem sinal, na mesma ordem
+    }
+
+    /** Ordem crescente da coluna (valor, depois id_obra), a mesma de {@link OrdemObra#comparar}. */
+    @Override
+    public int compareTo(ChaveOrdenacao outra) {
+        int c = Long.compareUnsigned(prefixo, outra.prefixo);
+        if (c == 0 && texto != null) {
+            c = Arrays.compareUnsigned(texto, outra.texto);
+        }
+        return c != 0 ? c : Integer.compare(id, outra.id);
+    }
+}
@@ -0,0 +1,11 @@
+package trabalho.dao;
+
+/**
+ * Posição na listagem paginada: valor da coluna de ordenação e id_obra da última
+ * obra da página anterior. A próxima página começa imediatamente depois dela.
+ *
+ * @param valor valor da coluna de ordenação (String ou Integer, conforme a {@link OrdemObra})
+ * @param id    id_obra da última obra (desempate)
+ */
+public record ChavePagina(Object valor, int id) {
+}
@@ -0,0 +1,45 @@
+package trabalho.dao;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Locale;
+
+/**
+ * Ordem alfabética do português (pt-BR) para as colunas de texto.
+ *
+ * String.compareTo compara códigos UTF-16: "Ética" vai para depois de "Zoologia" e "água"
+ * para depois de "Zebra". O Collator do pt-BR ordena como um leitor espera (acentos e
+ * maiúsculas só desempatam), mas cada comparação refaz a análise dos dois textos: ordenar
+ * centenas de milhares de títulos com ele leva quase um minuto. Para ordenar muitas linhas,
+ * calcula-se uma vez a CollationKey de cada texto ({@link #chave}); comparar chaves é
+ * comparar arrays, tão barato quanto String.compareTo.
+ *
+ * O Collator não é thread-safe (getCollationKey é synchronized): cada thread usa a sua cópia,
+ * e as chaves podem ser calculadas em paralelo.
+ */
+final class Colacao {
+
+    private static final Collator PT_BR = criar();
+    private static final ThreadLocal<Collator> POR_THREAD = ThreadLocal.withInitial(() -> (Collator) PT_BR.clone());
+
+    private Colacao() {
+    }
+
+    /** Chave de ordenação do texto (null = ""). */
+    static CollationKey chave(String texto) {
+        return POR_THREAD.get().getCollationKey(texto != null ? texto : "");
+    }
+
+    /** Compara dois textos diretamente (para poucas comparações, sem guardar chaves). */
+    static int comparar(String a, String b) {
+        return POR_THREAD.get().compare(a != null ? a : "", b != null ? b : "");
+    }
+
+    private static Collator criar() {
+        Collator collator = Collator.getInstance(Locale.forLanguageTag("pt-BR"));
+        collator.setStrength(Collator.TERTIARY);
+        // Formas compostas e decompostas do mesmo acento ("é" e "e" + U+0301) são iguais
+        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        return collator;
+    }
+}
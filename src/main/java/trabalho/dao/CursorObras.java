@@ -0,0 +1,107 @@
+package trabalho.dao;
+
+import trabalho.model.Obra;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Leitura de obras por cursor no servidor, uma obra de cada vez (base de {@link ObraDAO#stream}).
+ *
+ * Com autocommit desligado e fetchSize definido, o driver abre um cursor (portal) no servidor
+ * e busca as linhas em blocos: só um bloco fica na memória, qualquer que seja o tamanho do
+ * acervo. A conexão fica emprestada do pool enquanto o cursor estiver aberto.
+ *
+ * O cursor se fecha sozinho ao chegar ao fim ou em erro; interrompido antes (findFirst,
+ * limit, exceção do consumidor...), quem fecha é o close() do Stream.
+ */
+final class CursorObras extends Spliterators.AbstractSpliterator<Obra> implements AutoCloseable {
+
+    private final ObraDAO dao;
+    private final Connection conn;
+    private PreparedStatement ps;
+    private ResultSet rs;
+    private boolean fechado;
+
+    /**
+     * Abre o cursor. Os parâmetros do SQL são preenchidos por {@code parametros}.
+     * Em caso de erro, a conexão já volta ao pool antes da exceção.
+     */
+    CursorObras(ObraDAO dao, Connection conn, String sql, int tamanhoBloco, Parametros parametros)
+            throws SQLException {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.dao = dao;
+        this.conn = conn;
+        try {
+            conn.setAutoCommit(false); // sem transação o driver traz o resultado inteiro
+            ps = conn.prepareStatement(sql);
+            ps.setFetchSize(tamanhoBloco);
+            parametros.preencher(ps);
+            rs = ps.executeQuery();
+        } catch (SQLException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    interface Parametros {
+        void preencher(PreparedStatement ps) throws SQLException;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Obra> acao) {
+        if (fechado) {
+            return false;
+        }
+        Obra obra;
+        try {
+            if (!rs.next()) {
+                close();
+                return false;
+            }
+            obra = dao.mapObra(rs);
+        } catch (SQLException e) {
+            close();
+            throw new IllegalStateException("Falha ao ler obras do cursor: " + e.getMessage(), e);
+        }
+        acao.accept(obra);
+        return true;
+    }
+
+    /** Fecha cursor e comando, encerra a transação (só leitura) e devolve a conexão ao pool. */
+    @Override
+    public void close() {
+        if (fechado) {
+            return;
+        }
+        fechado = true;
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+            if (ps != null) {
+                ps.close();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        try {
+            conn.rollback(); // nada a confirmar: a transação só existiu para o cursor
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package trabalho.dao;
+
+/**
+ * Filtros opcionais das leituras de obras (null = sem filtro), os mesmos da busca textual.
+ *
+ * @param tipo      "Livro", "Livro Online", "Revista" ou "Jornal"
+ * @param anoMinimo ano de publicação mínimo (inclusive)
+ * @param anoMaximo ano de publicação máximo (inclusive)
+ */
+public record FiltroObras(String tipo, Integer anoMinimo, Integer anoMaximo) {
+
+    /** Sem filtro: o acervo inteiro. */
+    public static final FiltroObras TODAS = new FiltroObras(null, null, null);
+
+    public static FiltroObras doTipo(String tipo) {
+        return new FiltroObras(tipo, null, null);
+    }
+
+    public static FiltroObras entreAnos(Integer anoMinimo, Integer anoMaximo) {
+        return new FiltroObras(null, anoMinimo, anoMaximo);
+    }
+}
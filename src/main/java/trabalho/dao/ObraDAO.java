@@ -1,11 +1,23 @@
 package trabalho.dao;
 
 import trabalho.db.Db;
+import trabalho.metricas.Metricas;
 import trabalho.model.Obra;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Data Access Object (DAO) para a entidade Obra.
@@ -13,385 +25,480 @@ import java.util.List;
  * Responsabilidades principais:
  * - Isolar o código de acesso ao banco de dados (SQL, conexões, transações).
  * - Fornecer métodos para inserir, atualizar, excluir e listar obras.
+ * - Percorrer o acervo por cursor no servidor (stream), sem carregá-lo inteiro na memória.
+ * - Importar obras em lote (inserirLote) com poucas idas e voltas ao banco.
+ * - Avisar as outras estações de cada gravação (NOTIFY no canal {@link #CANAL_ALTERACOES}).
  * - Tratar transações e rollback em caso de erro.
+ * - Medir cada operação pública ({@link Metricas}: latência, erros, linhas e dados lidos).
  *
  * Observação: este DAO trabalha com diversas tabelas relacionadas:
  *   obras, autores, editoras, livros, livros_online, revistas, jornais, obras_autores.
  */
 public class ObraDAO {
 
+    // Caches nome -> id compartilhados por todas as instâncias do DAO
+    private static final int CAPACIDADE_CACHE_NOMES = Integer.getInteger("museu.cache.nomes.max", 10_000);
+    private static final CacheNomes CACHE_AUTORES = new CacheNomes(CAPACIDADE_CACHE_NOMES);
+    private static final CacheNomes CACHE_EDITORAS = new CacheNomes(CAPACIDADE_CACHE_NOMES);
+
+    // Interessados nas alterações confirmadas (índice de busca, tela...)
+    private static final List<OuvinteObras> OUVINTES = new CopyOnWriteArrayList<>();
+
+    /** Canal NOTIFY em que cada gravação é anunciada às outras estações ({@link AlteracaoObra}). */
+    public static final String CANAL_ALTERACOES = "obras_alteradas";
+
+    // Identifica este processo nos avisos enviados, para ignorar os próprios avisos ao recebê-los
+    static final String ORIGEM = Long.toString(ThreadLocalRandom.current().nextLong() >>> 24, 36);
+
+    /** Passa a receber as inserções, atualizações e exclusões confirmadas por qualquer ObraDAO. */
+    public static void adicionarOuvinte(OuvinteObras ouvinte) {
+        OUVINTES.add(ouvinte);
+    }
+
+    public static void removerOuvinte(OuvinteObras ouvinte) {
+        OUVINTES.remove(ouvinte);
+    }
+
+    /** Contadores do cache de autores (acertos, falhas, descartes). */
+    public static CacheNomes.Estatisticas estatisticasCacheAutores() {
+        return CACHE_AUTORES.estatisticas();
+    }
+
+    /** Contadores do cache de editoras (acertos, falhas, descartes). */
+    public static CacheNomes.Estatisticas estatisticasCacheEditoras() {
+        return CACHE_EDITORAS.estatisticas();
+    }
+
     /**
      * Insere uma nova obra no banco de dados.
      *
-     * Fluxo geral:
-     * 1) Abre conexão e inicia transação (autoCommit = false).
-     * 2) Insere/obtém ID do autor (tabela autores).
-     * 3) Insere/obtém ID da editora (tabela editoras).
-     * 4) Insere registro na tabela obras (campos principais).
-     * 5) Insere relacionamento obra <-> autor (tabela obras_autores).
-     * 6) Insere dados na tabela específica conforme o tipo (livros, revistas, jornais, livros_online).
-     * 7) Commit da transação; em caso de erro, rollback.
+     * Tudo é feito no servidor por um único comando (função obras_gravar, veja
+     * {@code sql/04_gravacao_obra.sql}), em uma ida e volta:
+     * 1) Obtém (ou cadastra) os autores e a editora pelo nome.
+     * 2) Insere o registro na tabela obras e os autores (na ordem) em obras_autores.
+     * 3) Insere os dados na tabela específica do tipo (livros, revistas, jornais, livros_online).
+     * 4) Avisa as outras estações (NOTIFY).
+     * O comando é atômico: em caso de erro nada é gravado.
+     *
+     * @return a obra como ficou gravada (com o id gerado), no mesmo formato devolvido pelas listagens
      */
-    public void inserir(Obra obra) throws SQLException {
-        Connection conn = null;
-        try {
-            conn = Db.getConnection();
-            conn.setAutoCommit(false); // começa transação manual
-
-            // 1. Inserir ou obter ID do autor (evita duplicatas)
-            Integer idAutor = inserirOuObterAutor(conn, obra.getAutor());
-
-            // 2. Inserir ou obter ID da editora (evita duplicatas)
-            Integer idEditora = inserirOuObterEditora(conn, obra.getEditora());
-
-            // 3. Inserir na tabela obras e obter o id gerado (id_obra)
-            final String sqlObra =
-                    "INSERT INTO obras (chamada, chamada_local, titulo, edicao, ano_publicacao, id_editora) " +
-                            "VALUES (?, ?, ?, ?, ?, ?)";
-            Integer idObra;
-
-            try (PreparedStatement ps = conn.prepareStatement(sqlObra, Statement.RETURN_GENERATED_KEYS)) {
-                ps.setString(1, obra.getChamada());
-                ps.setString(2, obra.getChamada()); // chamada_local = chamada (mesma informação)
-                ps.setString(3, obra.getTitulo());
-                // edicao pode ser null se não informado
-                ps.setString(4, obra.getEdicao() != null && !obra.getEdicao().isEmpty() ? obra.getEdicao() : null);
-                ps.setInt(5, Integer.parseInt(obra.getAno_Publicacao())); // ano é obrigatório e já validado no controller
-                ps.setInt(6, idEditora);
-                ps.executeUpdate();
-
-                try (ResultSet rs = ps.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        idObra = rs.getInt(1);
-                        obra.setId(idObra); // atualiza o objeto com o id gerado
-                    } else {
-                        throw new SQLException("Falha ao obter ID da obra inserida.");
-                    }
-                }
-            }
+    public Obra inserir(Obra obra) throws SQLException {
+        return Metricas.medir("ObraDAO.inserir", () -> gravarNoBanco(obra), salva -> 1);
+    }
 
-            // 4. Relacionar obra com autor (tabela de relacionamento)
-            final String sqlObraAutor = "INSERT INTO obras_autores (id_obra, id_autor) VALUES (?, ?)";
-            try (PreparedStatement ps = conn.prepareStatement(sqlObraAutor)) {
-                ps.setInt(1, idObra);
-                ps.setInt(2, idAutor);
-                ps.executeUpdate();
-            }
+    /**
+     * Atualiza uma obra existente.
+     *
+     * Mesmo comando único de {@link #inserir(Obra)}: atualiza obras, troca os autores em
+     * obras_autores e atualiza (ou cria) o registro da tabela específica do tipo; se a obra
+     * mudou de tipo, o registro do tipo anterior é removido. Obra inexistente é erro.
+     *
+     * @return a obra como ficou gravada, no mesmo formato devolvido pelas listagens
+     */
+    public Obra atualizar(Obra obra) throws SQLException {
+        if (obra.getId() == null) {
+            throw new SQLException("ID nulo para atualizar.");
+        }
+        return Metricas.medir("ObraDAO.atualizar", () -> gravarNoBanco(obra), salva -> 1);
+    }
 
-            // 5. Inserir na tabela específica conforme o tipo da obra
-            String tipoObra = obra.getTipo_Obra();
+    /**
+     * Exclui uma obra pelo id: tabelas específicas, obras_autores e obras, e o aviso às outras
+     * estações, em um único comando atômico (função obras_excluir).
+     */
+    public void excluir(int id) throws SQLException {
+        Metricas.medir("ObraDAO.excluir", () -> {
+            excluirNoBanco(id);
+            return id;
+        }, excluida -> 1);
+    }
 
-            if ("Livro".equals(tipoObra)) {
-                // Tabela livros armazena ISBN para livros físicos
-                final String sqlLivro = "INSERT INTO livros (id_obra, isbn) VALUES (?, ?)";
-                try (PreparedStatement ps = conn.prepareStatement(sqlLivro)) {
-                    ps.setInt(1, idObra);
-                    ps.setString(2, obra.getIsbn());
-                    ps.executeUpdate();
-                }
-            } else if ("Livro Online".equals(tipoObra)) {
-                // Livros online podem ter menos campos (apenas relacionamento com obra)
-                final String sqlLivroOnline = "INSERT INTO livros_online (id_obra) VALUES (?)";
-                try (PreparedStatement ps = conn.prepareStatement(sqlLivroOnline)) {
-                    ps.setInt(1, idObra);
-                    ps.executeUpdate();
-                }
-            } else if ("Revista".equals(tipoObra)) {
-                // Revistas: issn, volume e numero (numero usamos do campo edicao)
-                final String sqlRevista = "INSERT INTO revistas (id_obra, issn, volume, numero) VALUES (?, ?, ?, ?)";
-                try (PreparedStatement ps = conn.prepareStatement(sqlRevista)) {
-                    ps.setInt(1, idObra);
-                    ps.setString(2, obra.getIsbn() != null ? obra.getIsbn() : "");
-
-                    // Volume: se vazio insere NULL
-                    if (obra.getVolume() != null && !obra.getVolume().isEmpty()) {
-                        ps.setString(3, obra.getVolume());
-                    } else {
-                        ps.setNull(3, java.sql.Types.VARCHAR);
-                    }
+    private static final String SQL_GRAVAR =
+            "SELECT obra, ids_autores, editora FROM obras_gravar(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-                    // Numero: usamos edicao como numero da revista
-                    if (obra.getEdicao() != null && !obra.getEdicao().isEmpty()) {
-                        ps.setString(4, obra.getEdicao());
-                    } else {
-                        ps.setNull(4, java.sql.Types.VARCHAR);
-                    }
+    // SQLState de violação de chave estrangeira (foreign_key_violation)
+    private static final String VIOLACAO_CHAVE_ESTRANGEIRA = "23503";
 
-                    ps.executeUpdate();
-                }
-            } else if ("Jornal".equals(tipoObra)) {
-                // Jornais: issn e numero_edicao (usamos edicao)
-                final String sqlJornal = "INSERT INTO jornais (id_obra, issn, numero_edicao) VALUES (?, ?, ?)";
-                try (PreparedStatement ps = conn.prepareStatement(sqlJornal)) {
-                    ps.setInt(1, idObra);
-                    ps.setString(2, obra.getIsbn()); // ISSN do jornal (pode ser null)
-                    ps.setString(3, obra.getEdicao()); // numero_edicao usa campo edicao
-                    ps.executeUpdate();
-                }
+    /**
+     * Insere (id nulo) ou atualiza a obra com a função obras_gravar, em autocommit.
+     * Um id em cache de autor/editora removido por fora viola a chave estrangeira: nesse caso
+     * o cache desses nomes é descartado e a gravação é repetida uma vez, resolvendo pelo nome.
+     */
+    private Obra gravarNoBanco(Obra obra) throws SQLException {
+        try {
+            return gravarNoBanco(obra, true);
+        } catch (SQLException e) {
+            esquecerNomes(obra); // um id em cache pode estar desatualizado
+            if (!VIOLACAO_CHAVE_ESTRANGEIRA.equals(e.getSQLState())) {
+                throw e;
             }
-
-            conn.commit(); // confirma transação
+        }
+        try {
+            return gravarNoBanco(obra, false);
         } catch (SQLException e) {
-            // Em caso de erro, tenta rollback para manter integridade
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) {
-                    ex.printStackTrace();
-                }
+            esquecerNomes(obra);
+            throw e;
+        }
+    }
+
+    private Obra gravarNoBanco(Obra obra, boolean usarCache) throws SQLException {
+        // Ids já conhecidos vão junto: o servidor só procura pelo nome os que faltam
+        List<String> nomesAutores = obra.getAutores();
+        Integer[] idsAutoresConhecidos = new Integer[nomesAutores.size()];
+        Integer idEditoraConhecida = null;
+        if (usarCache) {
+            for (int i = 0; i < idsAutoresConhecidos.length; i++) {
+                idsAutoresConhecidos[i] = CACHE_AUTORES.obter(nomesAutores.get(i));
             }
-            throw e; // repropaga para ser tratado em camadas superiores
-        } finally {
-            // Garante restauração do autoCommit e fechamento da conexão
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                } catch (SQLException e) {
-                    e.printStackTrace();
+            idEditoraConhecida = CACHE_EDITORAS.obter(obra.getEditora());
+        }
+
+        int idObra;
+        Integer[] idsAutores;
+        int idEditora;
+        try (Connection conn = Db.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL_GRAVAR)) {
+            ps.setObject(1, obra.getId(), Types.INTEGER);
+            ps.setString(2, obra.getChamada());
+            ps.setString(3, obra.getTitulo());
+            ps.setString(4, obra.getEdicao());
+            ps.setInt(5, Integer.parseInt(obra.getAno_Publicacao())); // ano é obrigatório e já validado no controller
+            ps.setArray(6, conn.createArrayOf("text", nomesAutores.toArray()));
+            ps.setArray(7, conn.createArrayOf("integer", idsAutoresConhecidos));
+            ps.setString(8, obra.getEditora());
+            ps.setObject(9, idEditoraConhecida, Types.INTEGER);
+            ps.setString(10, obra.getTipo_Obra());
+            ps.setString(11, obra.getIsbn());
+            ps.setString(12, obra.getVolume());
+            ps.setString(13, CANAL_ALTERACOES);
+            ps.setString(14, ORIGEM);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Falha ao gravar a obra.");
                 }
+                idObra = rs.getInt(1);
+                idsAutores = (Integer[]) rs.getArray(2).getArray();
+                idEditora = rs.getInt(3);
             }
         }
+
+        obra.setId(idObra); // atualiza o objeto com o id gerado
+        // IDs confirmados: as próximas gravações com esses nomes não procuram pelo nome
+        for (int i = 0; i < idsAutores.length; i++) {
+            CACHE_AUTORES.registrar(nomesAutores.get(i), idsAutores[i]);
+        }
+        CACHE_EDITORAS.registrar(obra.getEditora(), idEditora);
+
+        Obra salva = comoPersistida(obra);
+        notificarGravacao(salva);
+        return salva;
+    }
+
+    private void excluirNoBanco(int id) throws SQLException {
+        try (Connection conn = Db.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT obras_excluir(?, ?, ?)")) {
+            ps.setInt(1, id);
+            ps.setString(2, CANAL_ALTERACOES);
+            ps.setString(3, ORIGEM);
+            ps.executeQuery().close();
+        }
+        notificarExclusao(id);
+    }
+
+    /** Quantidade padrão de obras gravadas por transação em {@link #inserirLote(Iterable)}. */
+    public static final int TAMANHO_BLOCO_PADRAO = 5_000;
+
+    /** Insere várias obras em lotes (ver {@link #inserirLote(Iterable, int)}) com o bloco padrão. */
+    public int inserirLote(Iterable<Obra> obras) throws SQLException {
+        return inserirLote(obras, TAMANHO_BLOCO_PADRAO);
     }
 
     /**
-     * Atualiza uma obra existente.
+     * Insere muitas obras de uma vez (importação de acervo).
+     *
+     * Diferente de chamar {@link #inserir(Obra)} por obra, cada bloco de {@code tamanhoBloco} obras:
+     * 1) Resolve todos os autores e editoras distintos do bloco em poucas consultas (= ANY / unnest).
+     * 2) Reserva os id_obra do bloco de uma vez na sequence da tabela obras.
+     * 3) Grava obras, obras_autores e as tabelas específicas em JDBC batch
+     *    (o driver reescreve cada batch em INSERTs multi-linha).
+     * 4) Faz commit do bloco; um erro desfaz apenas o bloco corrente (se o erro veio de um id
+     *    obsoleto no cache de nomes, o bloco é repetido uma vez sem o cache).
      *
-     * Fluxo:
-     * - Verifica id não nulo
-     * - Abre transação
-     * - Atualiza dados na tabela obras
-     * - Atualiza relacionamento autor (REMOVE e RE-INSERT)
-     * - Atualiza/inserir dados na tabela específica conforme tipo
-     * - Commit / rollback em caso de erro
+     * O Iterable é consumido sob demanda, então a entrada pode ser maior que a memória.
+     * Os objetos Obra recebem o id gerado.
+     *
+     * @return quantidade de obras inseridas
      */
-    public void atualizar(Obra obra) throws SQLException {
-        if (obra.getId() == null) {
-            throw new SQLException("ID nulo para atualizar.");
+    public int inserirLote(Iterable<Obra> obras, int tamanhoBloco) throws SQLException {
+        return Metricas.medir("ObraDAO.inserirLote", () -> inserirLoteNoBanco(obras, tamanhoBloco),
+                total -> total);
+    }
+
+    private int inserirLoteNoBanco(Iterable<Obra> obras, int tamanhoBloco) throws SQLException {
+        if (tamanhoBloco < 1) {
+            throw new IllegalArgumentException("Tamanho do bloco deve ser positivo.");
         }
 
-        Connection conn = null;
-        try {
-            conn = Db.getConnection();
+        int total = 0;
+        try (Connection conn = Db.getConnection()) {
             conn.setAutoCommit(false);
-
-            // Obter/garantir IDs de autor e editora (podem ter sido alterados)
-            Integer idAutor = inserirOuObterAutor(conn, obra.getAutor());
-            Integer idEditora = inserirOuObterEditora(conn, obra.getEditora());
-
-            // Atualiza tabela obras com os campos principais
-            final String sqlObra =
-                    "UPDATE obras SET chamada=?, chamada_local=?, titulo=?, edicao=?, " +
-                            "ano_publicacao=?, id_editora=? WHERE id_obra=?";
-            try (PreparedStatement ps = conn.prepareStatement(sqlObra)) {
-                ps.setString(1, obra.getChamada());
-                ps.setString(2, obra.getChamada());
-                ps.setString(3, obra.getTitulo());
-                ps.setString(4, obra.getEdicao());
-                ps.setInt(5, Integer.parseInt(obra.getAno_Publicacao()));
-                ps.setInt(6, idEditora);
-                ps.setInt(7, obra.getId());
-                ps.executeUpdate();
-            }
-
-            // Atualiza relacionamento autor: remove antigos e insere o atual
-            final String sqlDeleteAutor = "DELETE FROM obras_autores WHERE id_obra=?";
-            try (PreparedStatement ps = conn.prepareStatement(sqlDeleteAutor)) {
-                ps.setInt(1, obra.getId());
-                ps.executeUpdate();
-            }
-
-            final String sqlInsertAutor = "INSERT INTO obras_autores (id_obra, id_autor) VALUES (?, ?)";
-            try (PreparedStatement ps = conn.prepareStatement(sqlInsertAutor)) {
-                ps.setInt(1, obra.getId());
-                ps.setInt(2, idAutor);
-                ps.executeUpdate();
-            }
-
-            // Atualiza a tabela específica dependendo do tipo (se já existir atualiza, se não insere)
-            String tipoObra = obra.getTipo_Obra();
-
-            if ("Livro".equals(tipoObra)) {
-                if (existeNaTabela(conn, "livros", obra.getId())) {
-                    final String sql = "UPDATE livros SET isbn=? WHERE id_obra=?";
-                    try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                        ps.setString(1, obra.getIsbn());
-                        ps.setInt(2, obra.getId());
-                        ps.executeUpdate();
-                    }
-                } else {
-                    final String sql = "INSERT INTO livros (id_obra, isbn) VALUES (?, ?)";
-                    try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                        ps.setInt(1, obra.getId());
-                        ps.setString(2, obra.getIsbn());
-                        ps.executeUpdate();
-                    }
-                }
-            } else if ("Revista".equals(tipoObra)) {
-                if (existeNaTabela(conn, "revistas", obra.getId())) {
-                    // Atualiza revista existente
-                    final String sql = "UPDATE revistas SET issn=?, volume=?, numero=? WHERE id_obra=?";
-                    try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                        ps.setString(1, obra.getIsbn() != null ? obra.getIsbn() : "");
-                        if (obra.getVolume() != null && !obra.getVolume().isEmpty()) {
-                            ps.setString(2, obra.getVolume());
-                        } else {
-                            ps.setNull(2, java.sql.Types.VARCHAR);
-                        }
-                        if (obra.getEdicao() != null && !obra.getEdicao().isEmpty()) {
-                            ps.setString(3, obra.getEdicao());
-                        } else {
-                            ps.setNull(3, java.sql.Types.VARCHAR);
-                        }
-                        ps.setInt(4, obra.getId());
-                        ps.executeUpdate();
-                    }
-                } else {
-                    // Insere nova revista se não existia
-                    final String sqlInsert = "INSERT INTO revistas (id_obra, issn, volume, numero) VALUES (?, ?, ?, ?)";
-                    try (PreparedStatement ps = conn.prepareStatement(sqlInsert)) {
-                        ps.setInt(1, obra.getId());
-                        ps.setString(2, obra.getIsbn() != null ? obra.getIsbn() : "");
-                        if (obra.getVolume() != null && !obra.getVolume().isEmpty()) {
-                            ps.setString(3, obra.getVolume());
-                        } else {
-                            ps.setNull(3, java.sql.Types.VARCHAR);
-                        }
-                        if (obra.getEdicao() != null && !obra.getEdicao().isEmpty()) {
-                            ps.setString(4, obra.getEdicao());
-                        } else {
-                            ps.setNull(4, java.sql.Types.VARCHAR);
-                        }
-                        ps.executeUpdate();
+            try {
+                List<Obra> bloco = new ArrayList<>(tamanhoBloco);
+                for (Obra obra : obras) {
+                    bloco.add(obra);
+                    if (bloco.size() == tamanhoBloco) {
+                        total += gravarBlocoComNovaTentativa(conn, bloco);
+                        bloco.clear();
                     }
                 }
-            } else if ("Jornal".equals(tipoObra)) {
-                if (existeNaTabela(conn, "jornais", obra.getId())) {
-                    final String sql = "UPDATE jornais SET issn=?, numero_edicao=? WHERE id_obra=?";
-                    try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                        ps.setString(1, obra.getIsbn());
-                        ps.setString(2, obra.getEdicao()); // numero_edicao usa campo edicao
-                        ps.setInt(3, obra.getId());
-                        ps.executeUpdate();
-                    }
+                if (!bloco.isEmpty()) {
+                    total += gravarBlocoComNovaTentativa(conn, bloco);
                 }
-                // Observação: se jornal não existia e precisa ser inserido, podemos adicionar lógica semelhante a revista/livro.
-            }
-
-            conn.commit();
-        } catch (SQLException e) {
-            // rollback em caso de falha
-            if (conn != null) {
+            } catch (SQLException e) {
+                // desfaz apenas o bloco em andamento; os anteriores já foram confirmados
                 try {
                     conn.rollback();
                 } catch (SQLException ex) {
                     ex.printStackTrace();
                 }
-            }
-            throw e; // repropaga para camada superior
-        } finally {
-            // restaura autoCommit e fecha conexão
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         }
+        return total;
     }
 
     /**
-     * Exclui uma obra pelo id.
-     *
-     * Passos:
-     * - Excluir registros nas tabelas específicas (livros, revistas, jornais, etc).
-     * - Excluir relacionamento em obras_autores.
-     * - Excluir registro em obras.
-     * - Tudo dentro de uma transação para garantir consistência.
+     * Grava o bloco (ver {@link #gravarBloco}); numa falha, esquece do cache os nomes do bloco.
+     * Um id em cache de autor/editora removido por fora viola a chave estrangeira: nesse caso o
+     * bloco é desfeito e gravado de novo uma vez, resolvendo todos os nomes pelo banco.
      */
-    public void excluir(int id) throws SQLException {
-        Connection conn = null;
+    private int gravarBlocoComNovaTentativa(Connection conn, List<Obra> bloco) throws SQLException {
         try {
-            conn = Db.getConnection();
-            conn.setAutoCommit(false);
-
-            // Remove nas tabelas específicas (se existirem registros)
-            excluirDaTabela(conn, "livros", id);
-            excluirDaTabela(conn, "livros_online", id);
-            excluirDaTabela(conn, "revistas", id);
-            excluirDaTabela(conn, "jornais", id);
-
-            // Remove relacionamento autor <-> obra
-            final String sqlDeleteObraAutor = "DELETE FROM obras_autores WHERE id_obra=?";
-            try (PreparedStatement ps = conn.prepareStatement(sqlDeleteObraAutor)) {
-                ps.setInt(1, id);
-                ps.executeUpdate();
+            return gravarBloco(conn, bloco, true);
+        } catch (SQLException e) {
+            esquecerNomes(bloco);
+            if (!VIOLACAO_CHAVE_ESTRANGEIRA.equals(e.getSQLState())) {
+                throw e;
             }
+            conn.rollback();
+        }
+        try {
+            return gravarBloco(conn, bloco, false);
+        } catch (SQLException e) {
+            esquecerNomes(bloco);
+            throw e;
+        }
+    }
 
-            // Remove obra
-            final String sqlDeleteObra = "DELETE FROM obras WHERE id_obra=?";
-            try (PreparedStatement ps = conn.prepareStatement(sqlDeleteObra)) {
-                ps.setInt(1, id);
-                ps.executeUpdate();
+    /** Grava um bloco de obras na transação corrente e faz commit (usarCache = false: nomes só pelo banco). */
+    private int gravarBloco(Connection conn, List<Obra> bloco, boolean usarCache) throws SQLException {
+        // 1. Autores e editoras: uma consulta + um insert para todos os nomes distintos do bloco
+        Set<String> nomesAutores = new HashSet<>();
+        Set<String> nomesEditoras = new HashSet<>();
+        for (Obra obra : bloco) {
+            nomesAutores.addAll(obra.getAutores());
+            if (obra.getEditora() != null) {
+                nomesEditoras.add(obra.getEditora()); // editora é opcional (obras.id_editora aceita NULL)
             }
+        }
+        Map<String, Integer> autores = resolverNomes(conn, usarCache ? CACHE_AUTORES : null,
+                "autores", "id_autor", nomesAutores);
+        Map<String, Integer> editoras = resolverNomes(conn, usarCache ? CACHE_EDITORAS : null,
+                "editoras", "id_editora", nomesEditoras);
 
-            conn.commit();
-        } catch (SQLException e) {
-            // rollback em caso de erro
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) {
-                    ex.printStackTrace();
+        // 2. Reserva os ids das obras do bloco (evita um RETURNING por linha)
+        final String sqlIds = "SELECT nextval(pg_get_serial_sequence('obras', 'id_obra')) " +
+                "FROM generate_series(1, ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sqlIds)) {
+            ps.setInt(1, bloco.size());
+            try (ResultSet rs = ps.executeQuery()) {
+                for (Obra obra : bloco) {
+                    if (!rs.next()) {
+                        throw new SQLException("Falha ao reservar IDs das obras.");
+                    }
+                    obra.setId(rs.getInt(1));
                 }
             }
-            throw e;
-        } finally {
-            // restauração e fechamento da conexão
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                } catch (SQLException e) {
-                    e.printStackTrace();
+        }
+
+        // 3. Inserts em batch (mesmas regras de preenchimento de inserir())
+        final String sqlObra = "INSERT INTO obras (id_obra, chamada, chamada_local, titulo, edicao, " +
+                "ano_publicacao, id_editora) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        final String sqlObraAutor = "INSERT INTO obras_autores (id_obra, id_autor, ordem) VALUES (?, ?, ?)";
+        final String sqlLivro = "INSERT INTO livros (id_obra, isbn) VALUES (?, ?)";
+        final String sqlLivroOnline = "INSERT INTO livros_online (id_obra) VALUES (?)";
+        final String sqlRevista = "INSERT INTO revistas (id_obra, issn, volume, numero) VALUES (?, ?, ?, ?)";
+        final String sqlJornal = "INSERT INTO jornais (id_obra, issn, numero_edicao) VALUES (?, ?, ?)";
+
+        try (PreparedStatement psObra = conn.prepareStatement(sqlObra);
+             PreparedStatement psObraAutor = conn.prepareStatement(sqlObraAutor);
+             PreparedStatement psLivro = conn.prepareStatement(sqlLivro);
+             PreparedStatement psLivroOnline = conn.prepareStatement(sqlLivroOnline);
+             PreparedStatement psRevista = conn.prepareStatement(sqlRevista);
+             PreparedStatement psJornal = conn.prepareStatement(sqlJornal)) {
+
+            boolean livros = false, livrosOnline = false, revistas = false, jornais = false;
+            for (Obra obra : bloco) {
+                int idObra = obra.getId();
+
+                psObra.setInt(1, idObra);
+                psObra.setString(2, obra.getChamada());
+                psObra.setString(3, obra.getChamada());
+                psObra.setString(4, obra.getTitulo());
+                psObra.setString(5, textoOuNull(obra.getEdicao()));
+                psObra.setInt(6, Integer.parseInt(obra.getAno_Publicacao()));
+                if (obra.getEditora() != null) {
+                    psObra.setInt(7, editoras.get(obra.getEditora()));
+                } else {
+                    psObra.setNull(7, Types.INTEGER);
                 }
+                psObra.addBatch();
+
+                List<String> autoresObra = obra.getAutores();
+                for (int i = 0; i < autoresObra.size(); i++) {
+                    psObraAutor.setInt(1, idObra);
+                    psObraAutor.setInt(2, autores.get(autoresObra.get(i)));
+                    psObraAutor.setInt(3, i + 1);
+                    psObraAutor.addBatch();
+                }
+
+                String tipoObra = obra.getTipo_Obra();
+                if ("Livro".equals(tipoObra)) {
+                    psLivro.setInt(1, idObra);
+                    psLivro.setString(2, obra.getIsbn());
+                    psLivro.addBatch();
+                    livros = true;
+                } else if ("Livro Online".equals(tipoObra)) {
+                    psLivroOnline.setInt(1, idObra);
+                    psLivroOnline.addBatch();
+                    livrosOnline = true;
+                } else if ("Revista".equals(tipoObra)) {
+                    psRevista.setInt(1, idObra);
+                    psRevista.setString(2, obra.getIsbn() != null ? obra.getIsbn() : "");
+                    psRevista.setString(3, textoOuNull(obra.getVolume()));
+                    psRevista.setString(4, textoOuNull(obra.getEdicao()));
+                    psRevista.addBatch();
+                    revistas = true;
+                } else if ("Jornal".equals(tipoObra)) {
+                    psJornal.setInt(1, idObra);
+                    psJornal.setString(2, obra.getIsbn());
+                    psJornal.setString(3, obra.getEdicao());
+                    psJornal.addBatch();
+                    jornais = true;
+                }
+            }
+
+            // obras primeiro (chave estrangeira das demais tabelas)
+            psObra.executeBatch();
+            psObraAutor.executeBatch();
+            if (livros) {
+                psLivro.executeBatch();
+            }
+            if (livrosOnline) {
+                psLivroOnline.executeBatch();
+            }
+            if (revistas) {
+                psRevista.executeBatch();
+            }
+            if (jornais) {
+                psJornal.executeBatch();
+            }
+        }
+
+        List<AlteracaoObra> alteracoes = new ArrayList<>(bloco.size());
+        for (Obra obra : bloco) {
+            alteracoes.add(new AlteracaoObra(obra.getId(), AlteracaoObra.INCLUSAO, obra.getTipo_Obra(), ORIGEM));
+        }
+        avisarAlteracoes(conn, alteracoes);
+        conn.commit();
+
+        autores.forEach(CACHE_AUTORES::registrar);
+        editoras.forEach(CACHE_EDITORAS::registrar);
+        if (!OUVINTES.isEmpty()) {
+            for (Obra obra : bloco) {
+                notificarGravacao(comoPersistida(obra));
             }
         }
+        return bloco.size();
     }
 
     /**
-     * Lista todas as obras com informações agregadas (autor, editora, tipo e campos específicos).
+     * Colunas retornadas pelas listagens: dados da obra, autores, editora, campos específicos
+     * e um CASE que determina o tipo a partir da tabela específica em que a obra aparece.
+     */
+    static final String SELECT_OBRA =
+            "SELECT " +
+                    "    o.id_obra, o.chamada, o.titulo, o.edicao, o.ano_publicacao, " +
+                    "    aa.autores, " +
+                    "    e.nome as editora_nome, " +
+                    "    l.isbn, " +
+                    "    r.issn as revista_issn, r.volume, r.numero as revista_numero, " +
+                    "    j.issn as jornal_issn, j.numero_edicao, " +
+                    "    lo.id_obra as livro_online_id, " +
+                    "    CASE " +
+                    "        WHEN l.id_obra IS NOT NULL THEN 'Livro' " +
+                    "        WHEN lo.id_obra IS NOT NULL THEN 'Livro Online' " +
+                    "        WHEN r.id_obra IS NOT NULL THEN 'Revista' " +
+                    "        WHEN j.id_obra IS NOT NULL THEN 'Jornal' " +
+                    "        ELSE 'Desconhecido' " +
+                    "    END as tipo_obra ";
+
+    /** Separador dos nomes na coluna "autores" das listagens (caractere de controle, não aparece em nomes). */
+    private static final char SEPARADOR_AUTORES = '\u001f';
+
+    /** Nomes dos autores na ordem de obras_autores.ordem (veja {@code sql/05_autores_ordenados.sql}). */
+    private static final String AUTORES_AGREGADOS = "string_agg(a.nome, chr(31) ORDER BY oa.ordem) AS autores ";
+
+    /** JOINs das tabelas específicas e da editora a partir do alias "o" (obras). */
+    private static final String JOINS_DETALHES =
+            "LEFT JOIN editoras e ON o.id_editora = e.id_editora " +
+                    "LEFT JOIN livros l ON o.id_obra = l.id_obra " +
+                    "LEFT JOIN livros_online lo ON o.id_obra = lo.id_obra " +
+                    "LEFT JOIN revistas r ON o.id_obra = r.id_obra " +
+                    "LEFT JOIN jornais j ON o.id_obra = j.id_obra ";
+
+    /**
+     * JOINs das tabelas relacionadas a partir do alias "o" (obras). Os autores são agregados
+     * por obra (string_agg), então uma obra com vários autores continua sendo uma única linha.
+     * O LATERAL agrega só os autores das obras selecionadas: adequado a páginas, buscas e ids.
+     */
+    static final String JOINS_OBRA =
+            "LEFT JOIN LATERAL (" +
+                    "    SELECT " + AUTORES_AGREGADOS +
+                    "    FROM obras_autores oa JOIN autores a ON oa.id_autor = a.id_autor " +
+                    "    WHERE oa.id_obra = o.id_obra" +
+                    ") aa ON true " +
+                    JOINS_DETALHES;
+
+    /**
+     * Igual a {@link #JOINS_OBRA}, para leituras do acervo inteiro (listar, stream, primeira
+     * sincronização): os autores de todas as obras são agregados de uma vez (GROUP BY + hash
+     * join), o que sai mais barato que um LATERAL por obra quando quase todas as obras são lidas.
+     */
+    static final String JOINS_OBRA_TODAS =
+            "LEFT JOIN (" +
+                    "    SELECT oa.id_obra, " + AUTORES_AGREGADOS +
+                    "    FROM obras_autores oa JOIN autores a ON oa.id_autor = a.id_autor " +
+                    "    GROUP BY oa.id_obra" +
+                    ") aa ON aa.id_obra = o.id_obra " +
+                    JOINS_DETALHES;
+
+    /**
+     * Lista todas as obras com informações agregadas (autores, editora, tipo e campos específicos).
      *
-     * A query utiliza LEFT JOINs para trazer dados das tabelas relacionadas e um CASE para determinar o tipo.
+     * A query utiliza LEFT JOINs para trazer dados das tabelas relacionadas e um CASE para determinar o tipo;
+     * os autores vêm agregados, então cada obra é uma linha (e um objeto), com qualquer número de autores.
      */
     public List<Obra> listar() throws SQLException {
-        final String sql =
-                "SELECT " +
-                        "    o.id_obra, o.chamada, o.titulo, o.edicao, o.ano_publicacao, " +
-                        "    a.nome as autor_nome, " +
-                        "    e.nome as editora_nome, " +
-                        "    l.isbn, " +
-                        "    r.issn as revista_issn, r.volume, r.numero as revista_numero, " +
-                        "    j.issn as jornal_issn, j.numero_edicao, " +
-                        "    lo.id_obra as livro_online_id, " +
-                        "    CASE " +
-                        "        WHEN l.id_obra IS NOT NULL THEN 'Livro' " +
-                        "        WHEN lo.id_obra IS NOT NULL THEN 'Livro Online' " +
-                        "        WHEN r.id_obra IS NOT NULL THEN 'Revista' " +
-                        "        WHEN j.id_obra IS NOT NULL THEN 'Jornal' " +
-                        "        ELSE 'Desconhecido' " +
-                        "    END as tipo_obra " +
-                        "FROM obras o " +
-                        "LEFT JOIN obras_autores oa ON o.id_obra = oa.id_obra " +
-                        "LEFT JOIN autores a ON oa.id_autor = a.id_autor " +
-                        "LEFT JOIN editoras e ON o.id_editora = e.id_editora " +
-                        "LEFT JOIN livros l ON o.id_obra = l.id_obra " +
-                        "LEFT JOIN livros_online lo ON o.id_obra = lo.id_obra " +
-                        "LEFT JOIN revistas r ON o.id_obra = r.id_obra " +
-                        "LEFT JOIN jornais j ON o.id_obra = j.id_obra " +
-                        "ORDER BY o.id_obra DESC";
+        return Metricas.medir("ObraDAO.listar", this::listarNoBanco, List::size);
+    }
+
+    private List<Obra> listarNoBanco() throws SQLException {
+        // Sem ORDER BY: ordenando no servidor, o PostgreSQL escolhe um plano paralelo em que cada
+        // worker agrega de novo os autores de todas as obras (o dobro do tempo com 100 mil obras)
+        final String sql = SELECT_OBRA + "FROM obras o " + JOINS_OBRA_TODAS;
 
         List<Obra> lista = new ArrayList<>();
         try (Connection conn = Db.getConnection();
@@ -402,20 +509,284 @@ public class ObraDAO {
                 lista.add(mapObra(rs)); // converte ResultSet em objeto modelo
             }
         }
+        lista.sort(Comparator.comparingInt(Obra::getId).reversed()); // mais recentes primeiro
+        return lista;
+    }
+
+    /** Obras buscadas do servidor por vez nas leituras com {@link #stream}. */
+    public static final int TAMANHO_BLOCO_CURSOR = 1_000;
+
+    /**
+     * Percorre as obras do filtro (mesmo formato de {@link #listar()}, ordem decrescente de id)
+     * sem carregá-las todas: o Stream lê de um cursor no servidor, em blocos de
+     * {@link #TAMANHO_BLOCO_CURSOR} obras, à medida que é consumido. A memória usada não
+     * depende do tamanho do acervo; serve para relatórios, exportações e verificações.
+     *
+     * A conexão fica emprestada até o Stream terminar: use sempre try-with-resources
+     * (o cursor também se fecha sozinho ao chegar ao fim).
+     * Erros de leitura depois de aberto chegam como IllegalStateException (causa: SQLException).
+     *
+     * <pre>
+     * try (Stream&lt;Obra&gt; obras = dao.stream(FiltroObras.doTipo("Livro"))) {
+     *     obras.forEach(relatorio::adicionar);
+     * }
+     * </pre>
+     */
+    public Stream<Obra> stream(FiltroObras filtro) throws SQLException {
+        return stream(filtro, TAMANHO_BLOCO_CURSOR);
+    }
+
+    /**
+     * Igual a {@link #stream(FiltroObras)}, com o tamanho dos blocos buscados do servidor.
+     * A métrica "ObraDAO.stream" mede a abertura do cursor (consulta e primeiro bloco).
+     */
+    public Stream<Obra> stream(FiltroObras filtro, int tamanhoBloco) throws SQLException {
+        if (tamanhoBloco <= 0) {
+            throw new IllegalArgumentException("tamanhoBloco deve ser positivo");
+        }
+        CursorObras cursor = Metricas.medir("ObraDAO.stream", () -> abrirCursor(filtro, tamanhoBloco), c -> 0);
+        return StreamSupport.stream(cursor, false).onClose(cursor::close);
+    }
+
+    private CursorObras abrirCursor(FiltroObras filtro, int tamanhoBloco) throws SQLException {
+        List<String> filtros = new ArrayList<>();
+        adicionarFiltros(filtros, filtro);
+        final String sql = SELECT_OBRA +
+                "FROM (" +
+                "    SELECT o.* FROM obras o " +
+                (filtros.isEmpty() ? "" : "    WHERE " + String.join(" AND ", filtros) + " ") +
+                ") o " +
+                JOINS_OBRA_TODAS +
+                "ORDER BY o.id_obra DESC";
+
+        Connection conn = Db.getConnection();
+        return new CursorObras(this, conn, sql, tamanhoBloco, ps -> preencherFiltros(ps, 1, filtro));
+    }
+
+    /** Condições SQL (alias "o" = obras) de um filtro; os valores vão em {@link #preencherFiltros}. */
+    private static void adicionarFiltros(List<String> filtros, FiltroObras filtro) {
+        if (filtro.tipo() != null) {
+            filtros.add("EXISTS (SELECT 1 FROM " + tabelaDoTipo(filtro.tipo()) + " t WHERE t.id_obra = o.id_obra)");
+        }
+        if (filtro.anoMinimo() != null) {
+            filtros.add("o.ano_publicacao >= ?");
+        }
+        if (filtro.anoMaximo() != null) {
+            filtros.add("o.ano_publicacao <= ?");
+        }
+    }
+
+    /** Preenche os parâmetros de {@link #adicionarFiltros} a partir da posição i; devolve a próxima. */
+    private static int preencherFiltros(PreparedStatement ps, int i, FiltroObras filtro) throws SQLException {
+        if (filtro.anoMinimo() != null) {
+            ps.setInt(i++, filtro.anoMinimo());
+        }
+        if (filtro.anoMaximo() != null) {
+            ps.setInt(i++, filtro.anoMaximo());
+        }
+        return i;
+    }
+
+    /**
+     * Lista uma página de obras usando paginação por chave (keyset / seek).
+     *
+     * Em vez de OFFSET (que obriga o banco a percorrer e descartar todas as linhas anteriores),
+     * a página começa logo após a chave (valor da coluna, id_obra) da última obra já exibida:
+     * o custo de cada página é o mesmo em qualquer ponto do acervo.
+     *
+     * A subconsulta pagina apenas a tabela obras; os JOINs são aplicados depois,
+     * somente às obras da página.
+     *
+     * @param ordem     coluna de ordenação (id_obra é sempre o desempate)
+     * @param crescente true para ASC, false para DESC
+     * @param apos      chave da última obra da página anterior; null para a primeira página
+     * @param limite    quantidade máxima de obras na página
+     */
+    public List<Obra> listarPagina(OrdemObra ordem, boolean crescente, ChavePagina apos, int limite)
+            throws SQLException {
+        return listarPagina(ordem, crescente, apos, null, limite);
+    }
+
+    /**
+     * Igual a {@link #listarPagina(OrdemObra, boolean, ChavePagina, int)}, limitada também pelo fim:
+     * só obras até a chave {@code ate} (inclusive). Usado para recarregar exatamente o intervalo
+     * de uma página já conhecida, mesmo que obras tenham sido incluídas/excluídas nele.
+     *
+     * @param ate chave da última obra do intervalo (inclusive); null para não limitar
+     */
+    public List<Obra> listarPagina(OrdemObra ordem, boolean crescente, ChavePagina apos, ChavePagina ate,
+                                   int limite) throws SQLException {
+        return Metricas.medir("ObraDAO.listarPagina",
+                () -> listarPaginaNoBanco(ordem, crescente, apos, ate, limite), List::size);
+    }
+
+    private List<Obra> listarPaginaNoBanco(OrdemObra ordem, boolean crescente, ChavePagina apos, ChavePagina ate,
+                                           int limite) throws SQLException {
+        final String direcao = crescente ? "ASC" : "DESC";
+        final String depois = crescente ? ">" : "<";
+        final String ateInclusive = crescente ? "<=" : ">=";
+        final String chave = "(" + ordem.expressao() + ", o.id_obra) ";
+        final String ordenacao = "ORDER BY " + ordem.expressao() + " " + direcao + ", o.id_obra " + direcao;
+
+        List<String> filtros = new ArrayList<>();
+        if (apos != null) {
+            filtros.add(chave + depois + " (?, ?)");
+        }
+        if (ate != null) {
+            filtros.add(chave + ateInclusive + " (?, ?)");
+        }
+
+        final String sql = SELECT_OBRA +
+                "FROM (" +
+                "    SELECT o.* FROM obras o " +
+                "    LEFT JOIN editoras e ON o.id_editora = e.id_editora " +
+                (filtros.isEmpty() ? "" : "    WHERE " + String.join(" AND ", filtros) + " ") +
+                // LIMIT literal (é um int): o plano genérico do comando preparado conhece o tamanho da página
+                "    " + ordenacao + " LIMIT " + limite +
+                ") o " +
+                JOINS_OBRA +
+                ordenacao;
+
+        List<Obra> lista = new ArrayList<>();
+        try (Connection conn = Db.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (apos != null) {
+                ps.setObject(i++, apos.valor());
+                ps.setInt(i++, apos.id());
+            }
+            if (ate != null) {
+                ps.setObject(i++, ate.valor());
+                ps.setInt(i++, ate.id());
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(mapObra(rs));
+                }
+            }
+        }
         return lista;
     }
 
+    /**
+     * Busca textual no servidor, ordenada por relevância.
+     *
+     * Usa a coluna tsvector {@code obras.busca} (título, autores e editora, dicionário português
+     * sem acentos) e seu índice GIN; veja {@code sql/02_busca_textual.sql}. Todas as palavras
+     * precisam aparecer e a última vale como prefixo ("memo" encontra "Memórias").
+     *
+     * @param consulta texto digitado pelo usuário
+     * @param limite   quantidade máxima de resultados
+     */
+    public List<Obra> buscar(String consulta, int limite) throws SQLException {
+        return buscar(consulta, null, null, null, limite);
+    }
+
+    /**
+     * Igual a {@link #buscar(String, int)}, com filtros opcionais (null = sem filtro).
+     *
+     * @param tipo      "Livro", "Livro Online", "Revista" ou "Jornal"
+     * @param anoMinimo ano de publicação mínimo (inclusive)
+     * @param anoMaximo ano de publicação máximo (inclusive)
+     */
+    public List<Obra> buscar(String consulta, String tipo, Integer anoMinimo, Integer anoMaximo, int limite)
+            throws SQLException {
+        return Metricas.medir("ObraDAO.buscar",
+                () -> buscarNoBanco(consulta, tipo, anoMinimo, anoMaximo, limite), List::size);
+    }
+
+    private List<Obra> buscarNoBanco(String consulta, String tipo, Integer anoMinimo, Integer anoMaximo,
+                                     int limite) throws SQLException {
+        String expressao = consultaTextual(consulta);
+        if (expressao.isEmpty()) {
+            return List.of();
+        }
+
+        FiltroObras filtro = new FiltroObras(tipo, anoMinimo, anoMaximo);
+        List<String> filtros = new ArrayList<>();
+        filtros.add("o.busca @@ q.consulta");
+        adicionarFiltros(filtros, filtro);
+
+        // A subconsulta usa o índice GIN, ordena por relevância e limita; os JOINs vêm depois
+        final String sql = SELECT_OBRA +
+                "FROM (" +
+                "    SELECT o.*, ts_rank(o.busca, q.consulta) AS relevancia " +
+                "    FROM obras o, to_tsquery('portugues_sem_acento', ?) AS q(consulta) " +
+                "    WHERE " + String.join(" AND ", filtros) + " " +
+                "    ORDER BY relevancia DESC, o.id_obra DESC LIMIT " + limite +
+                ") o " +
+                JOINS_OBRA +
+                "ORDER BY o.relevancia DESC, o.id_obra DESC";
+
+        List<Obra> lista = new ArrayList<>();
+        try (Connection conn = Db.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, expressao);
+            preencherFiltros(ps, 2, filtro);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(mapObra(rs));
+                }
+            }
+        }
+        return lista;
+    }
+
+    /**
+     * Monta a expressão para to_tsquery: palavras ligadas por E (&), a última como prefixo (:*).
+     * Só letras e dígitos passam, então o texto do usuário não altera a sintaxe da consulta.
+     */
+    private static String consultaTextual(String consulta) {
+        if (consulta == null) {
+            return "";
+        }
+        List<String> palavras = new ArrayList<>();
+        for (String palavra : consulta.split("[^\\p{L}\\p{N}]+")) {
+            if (!palavra.isEmpty()) {
+                palavras.add(palavra);
+            }
+        }
+        if (palavras.isEmpty()) {
+            return "";
+        }
+        return String.join(" & ", palavras) + ":*";
+    }
+
+    /** Tabela específica de cada tipo de obra (a mesma usada pelo CASE de tipo_obra). */
+    private static String tabelaDoTipo(String tipo) {
+        switch (tipo) {
+            case "Livro":
+                return "livros";
+            case "Livro Online":
+                return "livros_online";
+            case "Revista":
+                return "revistas";
+            case "Jornal":
+                return "jornais";
+            default:
+                throw new IllegalArgumentException("Tipo de obra desconhecido: " + tipo);
+        }
+    }
+
     /**
      * Mapeia um ResultSet para o objeto Obra.
      * Centraliza a lógica de leitura dos campos vindos da query complexa.
+     * (Visível no pacote para os benchmarks de mapeamento.)
      */
-    private Obra mapObra(ResultSet rs) throws SQLException {
+    Obra mapObra(ResultSet rs) throws SQLException {
         Obra obra = new Obra();
         obra.setId(rs.getInt("id_obra"));
         obra.setChamada(rs.getString("chamada"));
         obra.setTitulo(rs.getString("titulo"));
         obra.setAno_Publicacao(String.valueOf(rs.getInt("ano_publicacao")));
-        obra.setAutor(rs.getString("autor_nome"));
+        String autores = rs.getString("autores");
+        if (autores != null) {
+            obra.setAutores(autores.indexOf(SEPARADOR_AUTORES) < 0
+                    ? List.of(autores)
+                    : Arrays.asList(autores.split(String.valueOf(SEPARADOR_AUTORES))));
+        }
         obra.setEditora(rs.getString("editora_nome"));
         obra.setTipo_Obra(rs.getString("tipo_obra"));
 
@@ -436,93 +807,330 @@ public class ObraDAO {
             obra.setEdicao(rs.getString("edicao")); // pode usar campo edicao se preenchido
         }
 
+        Metricas.registrarBytes(tamanhoTexto(obra));
         return obra;
     }
 
+    /** Tamanho aproximado (bytes UTF-16) dos textos de uma obra, para as métricas de leitura. */
+    private static long tamanhoTexto(Obra obra) {
+        return 2L * (comprimento(obra.getChamada()) + comprimento(obra.getTitulo())
+                + comprimento(obra.getAno_Publicacao()) + comprimento(obra.getAutor())
+                + comprimento(obra.getEditora()) + comprimento(obra.getTipo_Obra())
+                + comprimento(obra.getIsbn()) + comprimento(obra.getVolume()) + comprimento(obra.getEdicao()));
+    }
+
+    private static int comprimento(String texto) {
+        return texto == null ? 0 : texto.length();
+    }
+
     /**
-     * Verifica se existe registro na tabela informada para a obra (usado para decidir UPDATE ou INSERT).
-     * Utiliza um COUNT simples.
+     * Relê obras pelo id, no mesmo formato das listagens (usado para aplicar alterações
+     * feitas por outras estações). Ids que não existem mais simplesmente não voltam.
      */
-    private boolean existeNaTabela(Connection conn, String tabela, int idObra) throws SQLException {
-        final String sql = "SELECT COUNT(*) FROM " + tabela + " WHERE id_obra=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, idObra);
+    public List<Obra> buscarPorIds(Collection<Integer> ids) throws SQLException {
+        return Metricas.medir("ObraDAO.buscarPorIds", () -> buscarPorIdsNoBanco(ids), List::size);
+    }
+
+    private List<Obra> buscarPorIdsNoBanco(Collection<Integer> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        final String sql = SELECT_OBRA + "FROM obras o " + JOINS_OBRA + "WHERE o.id_obra = ANY(?)";
+
+        List<Obra> lista = new ArrayList<>(ids.size());
+        try (Connection conn = Db.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setArray(1, conn.createArrayOf("integer", ids.toArray()));
             try (ResultSet rs = ps.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
+                while (rs.next()) {
+                    lista.add(mapObra(rs));
+                }
             }
         }
+        return lista;
     }
 
     /**
-     * Exclui registro de uma tabela específica para a obra.
-     * Usado durante o processo de exclusão para limpar dados dependentes.
+     * Todos os autores cadastrados, com a quantidade de obras de cada um (nome -> obras).
+     * Carregado uma vez pelas sugestões do formulário (IndiceNomes), que se mantêm pelas gravações.
      */
-    private void excluirDaTabela(Connection conn, String tabela, int idObra) throws SQLException {
-        final String sql = "DELETE FROM " + tabela + " WHERE id_obra=?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, idObra);
-            ps.executeUpdate();
+    public Map<String, Integer> obrasPorAutor() throws SQLException {
+        return Metricas.medir("ObraDAO.obrasPorAutor", () -> contarObrasPorNome(
+                "SELECT a.nome, count(oa.id_obra) FROM autores a " +
+                        "LEFT JOIN obras_autores oa ON oa.id_autor = a.id_autor " +
+                        "GROUP BY a.id_autor, a.nome"), Map::size);
+    }
+
+    /** Todas as editoras cadastradas, com a quantidade de obras de cada uma (nome -> obras). */
+    public Map<String, Integer> obrasPorEditora() throws SQLException {
+        return Metricas.medir("ObraDAO.obrasPorEditora", () -> contarObrasPorNome(
+                "SELECT e.nome, count(o.id_obra) FROM editoras e " +
+                        "LEFT JOIN obras o ON o.id_editora = e.id_editora " +
+                        "GROUP BY e.id_editora, e.nome"), Map::size);
+    }
+
+    private Map<String, Integer> contarObrasPorNome(String sql) throws SQLException {
+        Map<String, Integer> nomes = new HashMap<>();
+        try (Connection conn = Db.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                nomes.put(rs.getString(1), rs.getInt(2));
+            }
         }
+        return nomes;
     }
 
+    /** Versão que faz {@link #alteracoesDesde(long)} devolver o acervo inteiro. */
+    public static final long VERSAO_INICIAL = 0;
+
     /**
-     * Insere ou obtém ID do autor a partir do nome.
+     * Obras alteradas e excluídas desde uma versão (coluna obras.versao e tabela obras_excluidas;
+     * veja {@code sql/03_versao_alteracoes.sql}).
      *
-     * Estratégia:
-     * - Primeiro tenta localizar autor pelo nome (SELECT).
-     * - Se existir, retorna o id.
-     * - Se não existir, insere e retorna o id gerado.
+     * As consultas rodam numa transação REPEATABLE READ somente leitura, então enxergam o mesmo
+     * instante do banco; a versão devolvida é o xmin desse instante (a menor transação ainda
+     * em andamento). Alterações repetidas entre duas sincronizações são possíveis e inofensivas;
+     * perdidas, não.
      *
-     * Isso evita duplicar autores com o mesmo nome.
+     * @param versao versão devolvida pela sincronização anterior, ou {@link #VERSAO_INICIAL}
      */
-    private Integer inserirOuObterAutor(Connection conn, String nomeAutor) throws SQLException {
-        final String sqlCheck = "SELECT id_autor FROM autores WHERE nome = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sqlCheck)) {
-            ps.setString(1, nomeAutor);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("id_autor");
+    public AlteracoesAcervo alteracoesDesde(long versao) throws SQLException {
+        return Metricas.medir("ObraDAO.alteracoesDesde", () -> alteracoesDesdeNoBanco(versao),
+                a -> a.gravadas().size() + a.excluidas().size());
+    }
+
+    private AlteracoesAcervo alteracoesDesdeNoBanco(long versao) throws SQLException {
+        Connection conn = null;
+        try {
+            conn = Db.getConnection();
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setReadOnly(true);
+
+            long novaVersao;
+            try (Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint")) {
+                rs.next();
+                novaVersao = rs.getLong(1);
+            }
+
+            // Primeira sincronização lê o acervo inteiro: autores agregados de uma vez, como em listar()
+            final String sqlGravadas = SELECT_OBRA +
+                    "FROM (SELECT o.* FROM obras o WHERE o.versao >= ?::xid8) o " +
+                    (versao == VERSAO_INICIAL ? JOINS_OBRA_TODAS : JOINS_OBRA);
+            List<Obra> gravadas = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(sqlGravadas)) {
+                ps.setString(1, Long.toString(versao));
+                ps.setFetchSize(TAMANHO_BLOCO_PADRAO); // carga completa vem em blocos, não de uma vez
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        gravadas.add(mapObra(rs));
+                    }
                 }
             }
-        }
 
-        final String sqlInsert = "INSERT INTO autores (nome) VALUES (?)";
-        try (PreparedStatement ps = conn.prepareStatement(sqlInsert, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, nomeAutor);
-            ps.executeUpdate();
-            try (ResultSet rs = ps.getGeneratedKeys()) {
-                if (rs.next()) {
-                    return rs.getInt(1); // id gerado
+            List<Integer> excluidas = new ArrayList<>();
+            if (versao != VERSAO_INICIAL) {
+                final String sqlExcluidas = "SELECT id_obra FROM obras_excluidas WHERE versao >= ?::xid8";
+                try (PreparedStatement ps = conn.prepareStatement(sqlExcluidas)) {
+                    ps.setString(1, Long.toString(versao));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            excluidas.add(rs.getInt(1));
+                        }
+                    }
+                }
+            }
+
+            conn.commit();
+            return new AlteracoesAcervo(gravadas, excluidas, novaVersao);
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback(); // encerra a transação antes de restaurar isolamento/leitura
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setReadOnly(false);
+                    conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+                    conn.setAutoCommit(true); // devolve a conexão ao pool no estado padrão
+                    conn.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
                 }
             }
         }
-        throw new SQLException("Falha ao inserir autor.");
     }
 
     /**
-     * Insere ou obtém ID da editora (mesma lógica de autores).
+     * Anuncia as alterações no canal {@link #CANAL_ALTERACOES}, dentro da transação corrente:
+     * o PostgreSQL só entrega os avisos no commit (e os descarta no rollback).
+     * Um único comando para qualquer quantidade de avisos (pg_notify sobre unnest).
      */
-    private Integer inserirOuObterEditora(Connection conn, String nomeEditora) throws SQLException {
-        final String sqlCheck = "SELECT id_editora FROM editoras WHERE nome = ?";
-        try (PreparedStatement ps = conn.prepareStatement(sqlCheck)) {
-            ps.setString(1, nomeEditora);
+    private void avisarAlteracoes(Connection conn, List<AlteracaoObra> alteracoes) throws SQLException {
+        if (alteracoes.isEmpty()) {
+            return;
+        }
+        String[] payloads = new String[alteracoes.size()];
+        for (int i = 0; i < payloads.length; i++) {
+            payloads[i] = alteracoes.get(i).comoPayload();
+        }
+        final String sql = "SELECT pg_notify(?, p) FROM unnest(?::text[]) AS p";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, CANAL_ALTERACOES);
+            ps.setArray(2, conn.createArrayOf("text", payloads));
+            ps.executeQuery().close();
+        }
+    }
+
+    static void notificarGravacao(Obra obra) {
+        for (OuvinteObras ouvinte : OUVINTES) {
+            try {
+                ouvinte.obraGravada(obra);
+            } catch (RuntimeException e) {
+                e.printStackTrace(); // falha de um ouvinte não desfaz a gravação já confirmada
+            }
+        }
+    }
+
+    static void notificarExclusao(int id) {
+        for (OuvinteObras ouvinte : OUVINTES) {
+            try {
+                ouvinte.obraExcluida(id);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /** Avisa os ouvintes que alterações podem ter sido perdidas (ver {@link OuvinteObras#alteracoesPerdidas()}). */
+    static void notificarAlteracoesPerdidas() {
+        for (OuvinteObras ouvinte : OUVINTES) {
+            try {
+                ouvinte.alteracoesPerdidas();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Monta a obra como as listagens a devolveriam depois da gravação (mesmas regras de mapObra):
+     * permite atualizar a tela sem reler a obra do banco.
+     */
+    private Obra comoPersistida(Obra obra) {
+        Obra salva = new Obra();
+        salva.setId(obra.getId());
+        salva.setChamada(obra.getChamada());
+        salva.setTitulo(obra.getTitulo());
+        salva.setAno_Publicacao(String.valueOf(Integer.parseInt(obra.getAno_Publicacao())));
+        salva.setAutores(obra.getAutores());
+        salva.setEditora(obra.getEditora());
+        salva.setTipo_Obra(obra.getTipo_Obra());
+
+        String tipo = obra.getTipo_Obra();
+        if ("Livro".equals(tipo)) {
+            salva.setIsbn(obra.getIsbn());
+            salva.setEdicao(textoOuNull(obra.getEdicao()));
+        } else if ("Revista".equals(tipo)) {
+            salva.setIsbn(obra.getIsbn() != null ? obra.getIsbn() : "");
+            salva.setVolume(textoOuNull(obra.getVolume()));
+            salva.setEdicao(textoOuNull(obra.getEdicao()));
+        } else if ("Jornal".equals(tipo)) {
+            salva.setIsbn(obra.getIsbn());
+            salva.setEdicao(obra.getEdicao());
+        } else if ("Livro Online".equals(tipo)) {
+            salva.setEdicao(textoOuNull(obra.getEdicao()));
+        }
+        return salva;
+    }
+
+    /**
+     * Resolve vários nomes (autores ou editoras) para seus IDs de uma vez:
+     * primeiro pelo cache, depois um SELECT com = ANY(array) para os existentes e um único
+     * INSERT ... SELECT unnest(array) ON CONFLICT para os que faltam. Usado na importação em lote.
+     *
+     * @param cache    cache consultado antes do banco (null = todos pelo banco)
+     * @param tabela   "autores" ou "editoras" (valor interno, nunca vindo do usuário)
+     * @param colunaId coluna de ID da tabela
+     */
+    private Map<String, Integer> resolverNomes(Connection conn, CacheNomes cache, String tabela,
+                                               String colunaId, Set<String> nomes) throws SQLException {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> desconhecidos = new ArrayList<>();
+        for (String nome : nomes) {
+            Integer id = cache != null ? cache.obter(nome) : null;
+            if (id != null) {
+                ids.put(nome, id);
+            } else {
+                desconhecidos.add(nome);
+            }
+        }
+        if (desconhecidos.isEmpty()) {
+            return ids;
+        }
+
+        final String sqlBusca = "SELECT nome, " + colunaId + " FROM " + tabela + " WHERE nome = ANY(?)";
+        try (PreparedStatement ps = conn.prepareStatement(sqlBusca)) {
+            ps.setArray(1, conn.createArrayOf("text", desconhecidos.toArray()));
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("id_editora");
+                while (rs.next()) {
+                    ids.put(rs.getString(1), rs.getInt(2));
                 }
             }
         }
 
-        final String sqlInsert = "INSERT INTO editoras (nome) VALUES (?)";
-        try (PreparedStatement ps = conn.prepareStatement(sqlInsert, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, nomeEditora);
-            ps.executeUpdate();
-            try (ResultSet rs = ps.getGeneratedKeys()) {
-                if (rs.next()) {
-                    return rs.getInt(1);
+        List<String> faltantes = new ArrayList<>();
+        for (String nome : desconhecidos) {
+            if (!ids.containsKey(nome)) {
+                faltantes.add(nome);
+            }
+        }
+        if (faltantes.isEmpty()) {
+            return ids;
+        }
+
+        // ON CONFLICT: outra estação pode ter cadastrado o mesmo nome depois do SELECT acima
+        final String sqlInsert = "INSERT INTO " + tabela + " (nome) SELECT unnest(?::text[]) " +
+                "ON CONFLICT (nome) DO UPDATE SET nome = EXCLUDED.nome " +
+                "RETURNING nome, " + colunaId;
+        try (PreparedStatement ps = conn.prepareStatement(sqlInsert)) {
+            ps.setArray(1, conn.createArrayOf("text", faltantes.toArray()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.put(rs.getString(1), rs.getInt(2));
                 }
             }
         }
-        throw new SQLException("Falha ao inserir editora.");
+        return ids;
+    }
+
+    /** Converte texto vazio em null (colunas opcionais ficam NULL no banco). */
+    private static String textoOuNull(String valor) {
+        return valor != null && !valor.isEmpty() ? valor : null;
+    }
+
+    /**
+     * Remove do cache os nomes usados numa gravação que falhou: se a falha foi causada
+     * por um id obsoleto (linha removida por fora), a próxima tentativa consulta o banco.
+     */
+    private void esquecerNomes(Obra obra) {
+        for (String autor : obra.getAutores()) {
+            CACHE_AUTORES.remover(autor);
+        }
+        CACHE_EDITORAS.remover(obra.getEditora());
+    }
+
+    /** Como {@link #esquecerNomes(Obra)}, para todas as obras de um bloco da importação. */
+    private void esquecerNomes(List<Obra> bloco) {
+        for (Obra obra : bloco) {
+            esquecerNomes(obra);
+        }
     }
 }
@@ -0,0 +1,79 @@
+package trabalho.dao;
+
+import trabalho.model.Obra;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fachada assíncrona do {@link ObraDAO}.
+ *
+ * Cada chamada roda em uma virtual thread e devolve um CompletableFuture, para que a
+ * thread da interface (JavaFX) nunca fique bloqueada esperando o banco remoto.
+ * Erros de banco chegam ao future como CompletionException com a SQLException como causa.
+ *
+ * Os callbacks do future rodam na virtual thread; quem atualiza a interface deve
+ * voltar para a thread do JavaFX (Platform.runLater).
+ */
+public class ObraDAOAsync {
+
+    /** Operação síncrona do DAO que pode lançar SQLException. */
+    @FunctionalInterface
+    private interface OperacaoBanco<T> {
+        T executar() throws SQLException;
+    }
+
+    private final ObraDAO dao;
+
+    // Uma virtual thread por operação: barata mesmo com muitas chamadas bloqueadas na rede
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ObraDAOAsync(ObraDAO dao) {
+        this.dao = dao;
+    }
+
+    /** Insere e devolve a obra como ficou gravada (com id). */
+    public CompletableFuture<Obra> inserir(Obra obra) {
+        return executar(() -> dao.inserir(obra));
+    }
+
+    /** Atualiza e devolve a obra como ficou gravada. */
+    public CompletableFuture<Obra> atualizar(Obra obra) {
+        return executar(() -> dao.atualizar(obra));
+    }
+
+    public CompletableFuture<Void> excluir(int id) {
+        return executar(() -> {
+            dao.excluir(id);
+            return null;
+        });
+    }
+
+    public CompletableFuture<List<Obra>> listar() {
+        return executar(dao::listar);
+    }
+
+    public CompletableFuture<List<Obra>> listarPagina(OrdemObra ordem, boolean crescente,
+                                                      ChavePagina apos, ChavePagina ate, int limite) {
+        return executar(() -> dao.listarPagina(ordem, crescente, apos, ate, limite));
+    }
+
+    public CompletableFuture<List<Obra>> buscar(String consulta, String tipo, Integer anoMinimo,
+                                                Integer anoMaximo, int limite) {
+        return executar(() -> dao.buscar(consulta, tipo, anoMinimo, anoMaximo, limite));
+    }
+
+    private <T> CompletableFuture<T> executar(OperacaoBanco<T> operacao) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return operacao.executar();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+}
@@ -0,0 +1,125 @@
+package trabalho.dao;
+
+import trabalho.model.DadosObra;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Colunas pelas quais a listagem paginada de obras pode ser ordenada.
+ *
+ * Cada coluna conhece a expressão SQL usada no ORDER BY / WHERE da paginação por chave
+ * (keyset) e como extrair o mesmo valor de um objeto Obra já carregado, para montar
+ * a chave da próxima página. O id_obra é sempre usado como desempate.
+ *
+ * Em memória (cópia local, resultados da busca) as colunas de texto seguem a ordem alfabética
+ * do português ({@link Colacao}), não a dos códigos dos caracteres. O ORDER BY do banco usa a
+ * collation do banco, que num banco criado em pt_BR.UTF-8 é a mesma ordem; em outra collation
+ * (ex.: "C") a tabela lida do banco fica na ordem dele, e só a posição de uma obra recém-gravada
+ * na janela pode divergir.
+ */
+public enum OrdemObra {
+    ID("o.id_obra", DadosObra::getId),
+    TITULO("o.titulo", DadosObra::getTitulo),
+    ANO("o.ano_publicacao", DadosObra::anoPublicacao),
+    EDITORA("COALESCE(e.nome, '')", o -> o.getEditora() != null ? o.getEditora() : ""),
+    CHAMADA("COALESCE(o.chamada, '')", o -> o.getChamada() != null ? o.getChamada() : "");
+
+    private final String expressao;
+    private final Function<DadosObra, Object> valor;
+
+    OrdemObra(String expressao, Function<DadosObra, Object> valor) {
+        this.expressao = expressao;
+        this.valor = valor;
+    }
+
+    /** Expressão SQL da coluna (usa os aliases o = obras, e = editoras). */
+    public String expressao() {
+        return expressao;
+    }
+
+    /** Chave (valor da coluna + id) que posiciona a página seguinte logo após esta obra. */
+    public ChavePagina chaveApos(DadosObra obra) {
+        return new ChavePagina(valor.apply(obra), obra.getId());
+    }
+
+    /** Valor da obra nesta coluna pronto para ordenar muitas linhas (ver {@link ChaveOrdenacao}). */
+    public ChaveOrdenacao chaveOrdenacao(DadosObra obra) {
+        return chaveOrdenacao(chaveApos(obra));
+    }
+
+    /** A mesma chave a partir da posição de uma página (para buscas binárias). */
+    public ChaveOrdenacao chaveOrdenacao(ChavePagina chave) {
+        if (chave.valor() instanceof String texto) {
+            return ChaveOrdenacao.deTexto(Colacao.chave(texto), chave.id());
+        }
+        return ChaveOrdenacao.deNumero((Integer) chave.valor(), chave.id());
+    }
+
+    /**
+     * Compara duas chaves desta coluna (valor, depois id_obra); textos na ordem do português.
+     *
+     * @return negativo se {@code a} vem antes de {@code b} na listagem
+     */
+    public int comparar(ChavePagina a, ChavePagina b, boolean crescente) {
+        int c;
+        if (a.valor() instanceof String texto) {
+            c = Colacao.comparar(texto, (String) b.valor());
+        } else {
+            c = Integer.compare((Integer) a.valor(), (Integer) b.valor());
+        }
+        if (c == 0) {
+            c = Integer.compare(a.id(), b.id());
+        }
+        return crescente ? c : -c;
+    }
+
+    /**
+     * Ordena obras por esta coluna. As chaves de ordenação (a parte cara, nas colunas de texto)
+     * são calculadas em paralelo no ForkJoinPool comum e a ordenação também é paralela
+     * (Arrays.parallelSort), para listas grandes; quem chama não deve ser a thread do JavaFX.
+     */
+    public <T extends DadosObra> List<T> ordenar(Collection<T> obras, boolean crescente) {
+        List<Linha<T>> linhas = linhas(obras);
+        List<T> ordenadas = new ArrayList<>(linhas.size());
+        for (int i = 0; i < linhas.size(); i++) {
+            ordenadas.add(linhas.get(crescente ? i : linhas.size() - 1 - i).obra());
+        }
+        return ordenadas;
+    }
+
+    /** As obras com as suas chaves, em ordem crescente (ver {@link #ordenar}). */
+    <T extends DadosObra> List<Linha<T>> linhas(Collection<T> obras) {
+        List<T> todas = new ArrayList<>(obras);
+        Linha<T>[] linhas = novasLinhas(todas.size());
+        // Um texto repetido (a mesma editora em milhares de obras) tem a chave calculada uma vez
+        Map<String, ChaveOrdenacao> porTexto = new ConcurrentHashMap<>();
+        Arrays.parallelSetAll(linhas, i -> {
+            T obra = todas.get(i);
+            ChavePagina posicao = chaveApos(obra);
+            if (!(posicao.valor() instanceof String texto)) {
+                return new Linha<>(chaveOrdenacao(posicao), obra);
+            }
+            ChaveOrdenacao chave = porTexto.computeIfAbsent(texto, t -> chaveOrdenacao(posicao));
+            return new Linha<>(new ChaveOrdenacao(chave.prefixo(), chave.texto(), posicao.id()), obra);
+        });
+        Arrays.parallelSort(linhas, Comparator.comparing(Linha::chave));
+        return Arrays.asList(linhas);
+    }
+
+    // Não existe new Linha<T>[n]; o array só recebe Linha<T> e só sai daqui como List<Linha<T>>
+    @SuppressWarnings("unchecked")
+    private static <T extends DadosObra> Linha<T>[] novasLinhas(int tamanho) {
+        return (Linha<T>[]) new Linha<?>[tamanho];
+    }
+
+    /** Obra com a sua chave de ordenação numa coluna (usado também pela cópia local). */
+    record Linha<T extends DadosObra>(ChaveOrdenacao chave, T obra) {
+    }
+}
@@ -0,0 +1,28 @@
+package trabalho.dao;
+
+import trabalho.model.Obra;
+
+/**
+ * Recebe as alterações confirmadas (após o commit) pelo {@link ObraDAO}, nesta estação
+ * ou (via {@link SincronizadorObras}) em outras estações ligadas ao mesmo banco.
+ *
+ * Permite que estruturas em memória (índice de busca, caches da tela) se mantenham
+ * atualizadas sem reler o acervo. As chamadas acontecem na thread que executou a
+ * gravação (normalmente uma virtual thread do ObraDAOAsync), então implementações
+ * devem ser thread-safe e rápidas.
+ */
+public interface OuvinteObras {
+
+    /** Obra inserida ou atualizada, no formato devolvido pelas listagens. */
+    void obraGravada(Obra obra);
+
+    /** Obra excluída. */
+    void obraExcluida(int id);
+
+    /**
+     * Avisos de outras estações podem ter sido perdidos (conexão de escuta caiu e voltou):
+     * quem mantém dados em memória deve relê-los.
+     */
+    default void alteracoesPerdidas() {
+    }
+}
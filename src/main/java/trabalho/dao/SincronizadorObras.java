@@ -0,0 +1,88 @@
+package trabalho.dao;
+
+import trabalho.db.CanalNotificacoes;
+import trabalho.model.Obra;
+
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Aplica nesta estação as gravações feitas por outras estações.
+ *
+ * Escuta o canal {@link ObraDAO#CANAL_ALTERACOES} numa conexão dedicada e repassa cada
+ * alteração aos mesmos {@link OuvinteObras} que recebem as gravações locais, então a tabela
+ * e o índice de busca se atualizam sem recarregar o acervo:
+ * - exclusão: repassada direto, sem consultar o banco;
+ * - inclusão/atualização: as obras do lote são relidas numa única consulta (buscarPorIds).
+ *
+ * O custo por alteração é constante (não depende do tamanho do acervo) e não há consultas
+ * periódicas: sem gravações, a conexão de escuta fica parada.
+ */
+public class SincronizadorObras implements AutoCloseable {
+
+    private final ObraDAO dao;
+    private final CanalNotificacoes canal;
+
+    public SincronizadorObras(ObraDAO dao) {
+        this.dao = dao;
+        this.canal = new CanalNotificacoes(ObraDAO.CANAL_ALTERACOES, this::aplicar,
+                ObraDAO::notificarAlteracoesPerdidas);
+    }
+
+    public void iniciar() {
+        canal.iniciar();
+    }
+
+    @Override
+    public void close() {
+        canal.close();
+    }
+
+    /** Um lote de avisos (na thread do canal). */
+    private void aplicar(List<String> payloads) {
+        // Última operação de cada obra no lote (ex.: inclusão seguida de exclusão = exclusão)
+        Map<Integer, Character> ultimas = new LinkedHashMap<>();
+        for (String payload : payloads) {
+            AlteracaoObra alteracao = AlteracaoObra.doPayload(payload);
+            if (alteracao == null) {
+                System.err.println("Aviso de alteração ignorado (formato desconhecido): " + payload);
+                continue;
+            }
+            if (ObraDAO.ORIGEM.equals(alteracao.origem())) {
+                continue; // gravação desta estação: já aplicada pelo próprio DAO
+            }
+            ultimas.remove(alteracao.id());
+            ultimas.put(alteracao.id(), alteracao.operacao());
+        }
+
+        Set<Integer> gravadas = new HashSet<>();
+        for (Map.Entry<Integer, Character> e : ultimas.entrySet()) {
+            if (e.getValue() == AlteracaoObra.EXCLUSAO) {
+                ObraDAO.notificarExclusao(e.getKey());
+            } else {
+                gravadas.add(e.getKey());
+            }
+        }
+        if (gravadas.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (Obra obra : dao.buscarPorIds(gravadas)) {
+                gravadas.remove(obra.getId());
+                ObraDAO.notificarGravacao(obra);
+            }
+            // Gravada e excluída logo depois (o aviso da exclusão chega no próximo lote)
+            for (int id : gravadas) {
+                ObraDAO.notificarExclusao(id);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            ObraDAO.notificarAlteracoesPerdidas();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package trabalho.db;
+
+import org.postgresql.PGStatement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache de PreparedStatements de uma conexão física, pelo texto do SQL.
+ *
+ * O DAO prepara e fecha um comando a cada chamada; com o cache, close() devolve o comando
+ * à conexão e o próximo prepareStatement com o mesmo SQL o reaproveita. Comandos reutilizados
+ * passam a usar prepared statement nomeado no servidor (prepareThreshold = 1 do driver):
+ * a partir daí o PostgreSQL não analisa nem planeja de novo a consulta, só a executa.
+ *
+ * Só prepareStatement(sql) simples entra no cache (sem chaves geradas, tipos de ResultSet...).
+ * Os comandos guardados são limitados por conexão (LRU); o mais antigo é fechado ao estourar.
+ * Uma conexão é usada por uma thread de cada vez (pool), então não há sincronização interna.
+ */
+final class CacheComandos implements InvocationHandler {
+
+    // Contadores de todas as conexões (painel de desempenho)
+    private static final LongAdder ACERTOS = new LongAdder();
+    private static final LongAdder FALHAS = new LongAdder();
+    private static final LongAdder DESCARTES = new LongAdder();
+    private static final AtomicInteger EM_CACHE = new AtomicInteger();
+
+    private final Connection fisica;
+    private Connection proxy;
+    private final int capacidade;
+    private final LinkedHashMap<String, PreparedStatement> ociosos;
+
+    private CacheComandos(Connection fisica, int capacidade) {
+        this.fisica = fisica;
+        this.capacidade = capacidade;
+        this.ociosos = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> maisAntigo) {
+                if (size() > CacheComandos.this.capacidade) {
+                    DESCARTES.increment();
+                    EM_CACHE.decrementAndGet();
+                    fecharEmSilencio(maisAntigo.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** Embrulha a conexão física com um cache de até {@code capacidade} comandos. */
+    static Connection embrulhar(Connection fisica, int capacidade) {
+        CacheComandos cache = new CacheComandos(fisica, capacidade);
+        cache.proxy = (Connection) Proxy.newProxyInstance(
+                CacheComandos.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                cache);
+        return cache.proxy;
+    }
+
+    static EstatisticasCacheComandos estatisticas(int capacidade) {
+        return new EstatisticasCacheComandos(ACERTOS.sum(), FALHAS.sum(), DESCARTES.sum(),
+                EM_CACHE.get(), capacidade);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "prepareStatement":
+                if (args.length == 1) {
+                    return emprestar((String) args[0]);
+                }
+                break;
+            case "close":
+                fecharOciosos();
+                break;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "CacheComandos[" + fisica + "]";
+            default:
+                break;
+        }
+        return chamar(fisica, method, args);
+    }
+
+    private PreparedStatement emprestar(String sql) throws SQLException {
+        PreparedStatement fisico = ociosos.remove(sql);
+        if (fisico != null) {
+            EM_CACHE.decrementAndGet();
+            ACERTOS.increment();
+            // Comando reutilizado: prepara no servidor já na próxima execução
+            fisico.unwrap(PGStatement.class).setPrepareThreshold(1);
+        } else {
+            FALHAS.increment();
+            fisico = fisica.prepareStatement(sql);
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(
+                CacheComandos.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new ComandoEmprestado(sql, fisico));
+    }
+
+    /** Volta o comando ao cache, limpo para o próximo uso (ou o fecha, se não puder ser reutilizado). */
+    private void devolver(String sql, PreparedStatement fisico) {
+        try {
+            if (fisica.isClosed() || fisico.isClosed()) {
+                return;
+            }
+            fisico.clearParameters();
+            fisico.clearBatch();
+            fisico.clearWarnings();
+            fisico.setFetchSize(0);
+            fisico.setMaxRows(0);
+        } catch (SQLException e) {
+            fecharEmSilencio(fisico);
+            return;
+        }
+        PreparedStatement anterior = ociosos.put(sql, fisico);
+        if (anterior != null) {
+            // o mesmo SQL estava em uso duas vezes nesta conexão: fica só um
+            fecharEmSilencio(anterior);
+        } else {
+            EM_CACHE.incrementAndGet();
+        }
+    }
+
+    private void fecharOciosos() {
+        List<PreparedStatement> comandos = new ArrayList<>(ociosos.values());
+        EM_CACHE.addAndGet(-comandos.size());
+        ociosos.clear();
+        for (PreparedStatement comando : comandos) {
+            fecharEmSilencio(comando);
+        }
+    }
+
+    private static void fecharEmSilencio(PreparedStatement comando) {
+        try {
+            comando.close();
+        } catch (SQLException e) {
+            // comando já inutilizável; nada a fazer
+        }
+    }
+
+    private static Object chamar(Object alvo, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(alvo, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /** PreparedStatement entregue ao DAO: close() devolve ao cache; uso após o close() falha. */
+    private final class ComandoEmprestado implements InvocationHandler {
+        private final String sql;
+        private final PreparedStatement fisico;
+        private boolean devolvido;
+
+        ComandoEmprestado(String sql, PreparedStatement fisico) {
+            this.sql = sql;
+            this.fisico = fisico;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!devolvido) {
+                        devolvido = true;
+                        devolver(sql, fisico);
+                    }
+                    return null;
+                case "isClosed":
+                    if (devolvido) {
+                        return true;
+                    }
+                    break;
+                case "getConnection":
+                    return CacheComandos.this.proxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ComandoEmprestado[" + fisico + "]";
+                default:
+                    break;
+            }
+            if (devolvido) {
+                throw new SQLException("Comando já fechado.");
+            }
+            return chamar(fisico, method, args);
+        }
+    }
+}
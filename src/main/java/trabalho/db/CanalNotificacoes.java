@@ -0,0 +1,134 @@
+package trabalho.db;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Escuta um canal LISTEN/NOTIFY do PostgreSQL numa conexão dedicada (fora do pool).
+ *
+ * Uma thread própria fica bloqueada em getNotifications() até chegar algo; as notificações
+ * que chegam juntas são entregues em um único lote ao receptor. Se a conexão cair, ela é
+ * reaberta com espera crescente e {@code aoReconectar} é chamado: notificações enviadas
+ * enquanto estávamos desconectados se perderam, e quem escuta precisa se ressincronizar.
+ */
+public class CanalNotificacoes implements AutoCloseable {
+
+    private static final int ESPERA_NOTIFICACAO_MS = 10_000;
+    private static final long ESPERA_RECONEXAO_INICIAL_MS = 1_000;
+    private static final long ESPERA_RECONEXAO_MAXIMA_MS = 30_000;
+
+    private final String canal;
+    private final Consumer<List<String>> receptor;
+    private final Runnable aoReconectar;
+
+    private volatile boolean ativo;
+    private volatile Connection conexao;
+    private Thread thread;
+
+    /**
+     * @param canal        nome do canal (identificador SQL simples)
+     * @param receptor     recebe os payloads de cada lote, na thread do canal
+     * @param aoReconectar chamado após reconectar depois de uma queda (não na primeira conexão)
+     */
+    public CanalNotificacoes(String canal, Consumer<List<String>> receptor, Runnable aoReconectar) {
+        if (!canal.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Nome de canal inválido: " + canal);
+        }
+        this.canal = canal;
+        this.receptor = receptor;
+        this.aoReconectar = aoReconectar;
+    }
+
+    public synchronized void iniciar() {
+        if (ativo) {
+            return;
+        }
+        ativo = true;
+        thread = new Thread(this::executar, "canal-" + canal);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void close() {
+        ativo = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+        fecharConexao();
+    }
+
+    private void executar() {
+        long espera = ESPERA_RECONEXAO_INICIAL_MS;
+        boolean jaConectou = false;
+        while (ativo) {
+            try {
+                PGConnection pg = conectar();
+                if (jaConectou) {
+                    aoReconectar.run();
+                }
+                jaConectou = true;
+                espera = ESPERA_RECONEXAO_INICIAL_MS;
+
+                while (ativo) {
+                    PGNotification[] notificacoes = pg.getNotifications(ESPERA_NOTIFICACAO_MS);
+                    if (notificacoes == null || notificacoes.length == 0) {
+                        continue;
+                    }
+                    List<String> payloads = new ArrayList<>(notificacoes.length);
+                    for (PGNotification n : notificacoes) {
+                        payloads.add(n.getParameter());
+                    }
+                    try {
+                        receptor.accept(payloads);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace(); // um lote com problema não derruba o canal
+                    }
+                }
+            } catch (SQLException e) {
+                if (!ativo) {
+                    break;
+                }
+                System.err.println("Canal " + canal + " desconectado: " + e.getMessage()
+                        + " (nova tentativa em " + espera + " ms)");
+                fecharConexao();
+                try {
+                    Thread.sleep(espera);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+                espera = Math.min(espera * 2, ESPERA_RECONEXAO_MAXIMA_MS);
+            }
+        }
+        fecharConexao();
+    }
+
+    private PGConnection conectar() throws SQLException {
+        Connection conn = Db.abrirConexaoDedicada();
+        conexao = conn;
+        try (Statement st = conn.createStatement()) {
+            st.execute("LISTEN " + canal);
+        }
+        return conn.unwrap(PGConnection.class);
+    }
+
+    private void fecharConexao() {
+        Connection conn = conexao;
+        conexao = null;
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
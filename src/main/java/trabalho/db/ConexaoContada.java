@@ -0,0 +1,210 @@
+package trabalho.db;
+
+import trabalho.metricas.Metricas;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Conexão física "embrulhada" que conta as idas e voltas ao banco.
+ *
+ * Com o banco remoto, cada comando enviado custa uma viagem pela rede; o que pesa numa
+ * gravação é quantas vezes ela espera o servidor, não o trabalho de cada comando. Esta
+ * camada informa a {@link Metricas} cada ida, com os comandos e as linhas alteradas, e
+ * a soma fica registrada na operação em andamento (ex.: ObraDAO.atualizar).
+ *
+ * Contam como uma ida:
+ * - execute / executeQuery / executeUpdate de um comando;
+ * - executeBatch (o driver envia o batch inteiro de uma vez; cada item conta como um comando);
+ * - commit / rollback de uma transação com comandos, inclusive o commit implícito de
+ *   setAutoCommit(true) (sem comandos o driver não fala com o servidor);
+ * - setTransactionIsolation, savepoints e isValid (validação do pool).
+ *
+ * Limitação: com setFetchSize, as buscas de blocos seguintes do ResultSet não são contadas
+ * (o ResultSet não é embrulhado, para não encarecer a leitura de cada coluna).
+ */
+final class ConexaoContada implements InvocationHandler {
+
+    private final Connection fisica;
+    private Connection proxy;
+    private boolean autoCommit = true;
+    private boolean transacaoAberta;
+
+    private ConexaoContada(Connection fisica) {
+        this.fisica = fisica;
+    }
+
+    static Connection embrulhar(Connection fisica) throws SQLException {
+        ConexaoContada contador = new ConexaoContada(fisica);
+        contador.autoCommit = fisica.getAutoCommit();
+        contador.proxy = (Connection) Proxy.newProxyInstance(
+                ConexaoContada.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                contador);
+        return contador.proxy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "createStatement":
+            case "prepareStatement":
+            case "prepareCall":
+                Statement comando = (Statement) chamar(fisica, method, args);
+                return Proxy.newProxyInstance(
+                        ConexaoContada.class.getClassLoader(),
+                        new Class<?>[]{method.getReturnType()},
+                        new ComandoContado(comando));
+            case "setAutoCommit": {
+                boolean novo = (Boolean) args[0];
+                try {
+                    return chamar(fisica, method, args);
+                } finally {
+                    if (novo && !autoCommit) {
+                        encerrarTransacao(); // o driver confirma a transação em andamento
+                    }
+                    autoCommit = novo;
+                }
+            }
+            case "commit":
+                try {
+                    return chamar(fisica, method, args);
+                } finally {
+                    encerrarTransacao();
+                }
+            case "rollback":
+                try {
+                    return chamar(fisica, method, args);
+                } finally {
+                    if (args == null) {
+                        encerrarTransacao();
+                    } else {
+                        Metricas.registrarIda(0, 0); // até um savepoint: a transação continua
+                    }
+                }
+            case "setTransactionIsolation":
+            case "setSavepoint":
+            case "releaseSavepoint":
+            case "isValid":
+                try {
+                    return chamar(fisica, method, args);
+                } finally {
+                    Metricas.registrarIda(0, 0);
+                }
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "ConexaoContada[" + fisica + "]";
+            default:
+                return chamar(fisica, method, args);
+        }
+    }
+
+    private void encerrarTransacao() {
+        if (transacaoAberta) {
+            transacaoAberta = false;
+            Metricas.registrarIda(0, 0);
+        }
+    }
+
+    /** Fora do autocommit, o primeiro comando abre a transação (o BEGIN vai junto, na mesma ida). */
+    private void comandoEnviado(int comandos, long linhasAlteradas) {
+        if (!autoCommit) {
+            transacaoAberta = true;
+        }
+        Metricas.registrarIda(comandos, linhasAlteradas);
+    }
+
+    private static Object chamar(Object alvo, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(alvo, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /** Statement / PreparedStatement / CallableStatement embrulhado: conta cada execução. */
+    private final class ComandoContado implements InvocationHandler {
+        private final Statement fisico;
+        private int pendentesBatch;
+
+        ComandoContado(Statement fisico) {
+            this.fisico = fisico;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "execute":
+                case "executeQuery":
+                    try {
+                        return chamar(fisico, method, args);
+                    } finally {
+                        comandoEnviado(1, 0);
+                    }
+                case "executeUpdate":
+                case "executeLargeUpdate": {
+                    long linhas = 0;
+                    try {
+                        Object resultado = chamar(fisico, method, args);
+                        linhas = ((Number) resultado).longValue();
+                        return resultado;
+                    } finally {
+                        comandoEnviado(1, linhas);
+                    }
+                }
+                case "addBatch":
+                    pendentesBatch++;
+                    return chamar(fisico, method, args);
+                case "clearBatch":
+                    pendentesBatch = 0;
+                    return chamar(fisico, method, args);
+                case "executeBatch":
+                case "executeLargeBatch": {
+                    long linhas = 0;
+                    int comandos = pendentesBatch;
+                    pendentesBatch = 0;
+                    try {
+                        Object resultado = chamar(fisico, method, args);
+                        linhas = somaLinhas(resultado);
+                        return resultado;
+                    } finally {
+                        comandoEnviado(comandos, linhas);
+                    }
+                }
+                case "getConnection":
+                    return ConexaoContada.this.proxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ComandoContado[" + fisico + "]";
+                default:
+                    return chamar(fisico, method, args);
+            }
+        }
+
+        /** Soma das contagens do batch (SUCCESS_NO_INFO, negativo, não entra). */
+        private long somaLinhas(Object contagens) {
+            long total = 0;
+            if (contagens instanceof int[] c) {
+                for (int n : c) {
+                    total += Math.max(0, n);
+                }
+            } else if (contagens instanceof long[] c) {
+                for (long n : c) {
+                    total += Math.max(0, n);
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package trabalho.db;
+
+/**
+ * Parâmetros do pool de conexões.
+ *
+ * Os valores padrão podem ser sobrescritos por propriedades de sistema
+ * (ex.: -Dmuseu.pool.max=20), sem precisar recompilar.
+ *
+ * @param minimo             conexões mantidas abertas mesmo sem uso (pré-aquecidas)
+ * @param maximo             limite de conexões abertas ao mesmo tempo
+ * @param esperaMaximaMs     tempo máximo esperando uma conexão livre antes de falhar
+ * @param ociosidadeMaximaMs tempo que uma conexão excedente pode ficar ociosa antes de ser fechada
+ * @param limiteVazamentoMs  tempo emprestada a partir do qual a conexão é reportada como vazamento (0 desliga)
+ * @param origemVazamento    guarda a pilha de cada empréstimo para mostrar de onde veio a conexão vazada
+ *                           (diagnóstico: cria um Throwable a cada empréstimo)
+ * @param validacaoSegundos  timeout do isValid() executado no empréstimo
+ * @param validarAposMs      só valida no empréstimo conexões ociosas há mais que este tempo
+ *                           (conexões recém-devolvidas não pagam uma ida e volta extra ao banco)
+ * @param comandosEmCache    PreparedStatements guardados por conexão para reutilização (0 desliga)
+ */
+public record ConfigPool(int minimo,
+                         int maximo,
+                         long esperaMaximaMs,
+                         long ociosidadeMaximaMs,
+                         long limiteVazamentoMs,
+                         boolean origemVazamento,
+                         int validacaoSegundos,
+                         long validarAposMs,
+                         int comandosEmCache) {
+
+    public ConfigPool {
+        if (minimo < 0 || maximo < 1 || minimo > maximo) {
+            throw new IllegalArgumentException(
+                    "Configuração de pool inválida: minimo=" + minimo + ", maximo=" + maximo);
+        }
+        if (comandosEmCache < 0) {
+            throw new IllegalArgumentException(
+                    "Configuração de pool inválida: comandosEmCache=" + comandosEmCache);
+        }
+    }
+
+    /** Lê a configuração das propriedades de sistema, usando os padrões quando ausentes. */
+    public static ConfigPool doSistema() {
+        return new ConfigPool(
+                Integer.getInteger("museu.pool.min", 2),
+                Integer.getInteger("museu.pool.max", 10),
+                Long.getLong("museu.pool.esperaMs", 30_000L),
+                Long.getLong("museu.pool.ociosidadeMs", 300_000L),
+                Long.getLong("museu.pool.vazamentoMs", 60_000L),
+                Boolean.getBoolean("museu.pool.vazamentoOrigem"),
+                Integer.getInteger("museu.pool.validacaoSeg", 5),
+                Long.getLong("museu.pool.validarAposMs", 1_000L),
+                Integer.getInteger("museu.pool.comandosEmCache", 64)
+        );
+    }
+}
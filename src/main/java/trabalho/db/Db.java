@@ -1,25 +1,132 @@
 package trabalho.db;
 
+import trabalho.metricas.Metricas;
+
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
 
 public class Db {
-    // URL EXTERNA do Render com SSL habilitado
-    private static final String URL = "jdbc:postgresql://dpg-d4gh63mmcj7s73bdmokg-a.oregon-postgres.render.com:5432/muse_3jg2";
-    private static final String USER = "root";
-    private static final String PASS = "SG1KEurzAoFTEIoyOc5hFTwzA98wIYMZ";
+    // URL EXTERNA do Render com SSL habilitado (pode ser trocada com -Dmuseu.db.url=...)
+    private static final String URL = System.getProperty("museu.db.url",
+            "jdbc:postgresql://dpg-d4gh63mmcj7s73bdmokg-a.oregon-postgres.render.com:5432/muse_3jg2");
+    private static final String USER = System.getProperty("museu.db.user", "root");
+    private static final String PASS = System.getProperty("museu.db.pass", "SG1KEurzAoFTEIoyOc5hFTwzA98wIYMZ");
+
+    // Pool criado sob demanda na primeira utilização (ou em iniciarPool())
+    private static volatile PoolConexoes pool;
+    private static volatile ConfigPool config;
 
+    /**
+     * Retorna uma conexão do pool.
+     * Fechar a conexão (close) devolve-a ao pool para ser reutilizada.
+     */
     public static Connection getConnection() throws SQLException {
+        return Metricas.medir("Db.getConnection", () -> pool().emprestar(), conn -> 0);
+    }
+
+    /**
+     * Cria o pool e abre as conexões mínimas em segundo plano,
+     * para que o primeiro acesso da tela não pague o handshake com o banco.
+     */
+    public static void iniciarPool() {
+        PoolConexoes p = pool();
+        Thread.ofVirtual().name("pool-aquecimento").start(p::aquecer);
+    }
+
+    /** Fecha as conexões ociosas do pool (chamado ao encerrar a aplicação). */
+    public static synchronized void encerrarPool() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    /** Contadores do pool (ativas, ociosas, tempo de espera, tempo de criação...). */
+    public static EstatisticasPool estatisticasPool() {
+        return pool().estatisticas();
+    }
+
+    /** Contadores do cache de PreparedStatements das conexões do pool (acertos, falhas, descartes). */
+    public static EstatisticasCacheComandos estatisticasCacheComandos() {
+        return CacheComandos.estatisticas(config().comandosEmCache());
+    }
+
+    /** URL do banco em uso (identifica a origem de dados guardados localmente). */
+    public static String url() {
+        return URL;
+    }
+
+    /**
+     * Abre uma conexão física exclusiva, que não passa pelo pool (ex.: LISTEN de notificações,
+     * que precisa ficar aberta o tempo todo). Quem abre é responsável por fechar.
+     */
+    public static Connection abrirConexaoDedicada() throws SQLException {
+        return abrirConexaoFisica();
+    }
+
+    private static PoolConexoes pool() {
+        PoolConexoes p = pool;
+        if (p == null) {
+            synchronized (Db.class) {
+                p = pool;
+                if (p == null) {
+                    p = new PoolConexoes(config(), Db::abrirConexaoDoPool);
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    private static ConfigPool config() {
+        ConfigPool c = config;
+        if (c == null) {
+            c = ConfigPool.doSistema();
+            config = c;
+        }
+        return c;
+    }
+
+    /**
+     * Conexão física para o pool: guarda os PreparedStatements para reutilização
+     * (CacheComandos) e conta as idas ao banco de cada operação (ConexaoContada, para Metricas).
+     */
+    private static Connection abrirConexaoDoPool() throws SQLException {
+        Connection conn = abrirConexaoFisica();
+        int comandosEmCache = config().comandosEmCache();
+        if (comandosEmCache > 0) {
+            conn = CacheComandos.embrulhar(conn, comandosEmCache);
+        }
+        return ConexaoContada.embrulhar(conn);
+    }
+
+    /** Abre uma conexão física nova, fora do pool. */
+    private static Connection abrirConexaoFisica() throws SQLException {
         try {
             // Carrega o driver PostgreSQL
             Class.forName("org.postgresql.Driver");
 
+            Properties props = new Properties();
+            props.setProperty("user", USER);
+            props.setProperty("password", PASS);
+            // Reescreve batches de INSERT em INSERTs multi-linha (importação em lote)
+            props.setProperty("reWriteBatchedInserts", "true");
+            // Custo de leitura aleatória do planejador (opcional): o padrão do PostgreSQL (4) supõe
+            // disco giratório e faz as páginas de 200 obras lerem as tabelas dos tipos inteiras
+            // (hash join) em vez de buscar pelo índice; com o acervo em cache/SSD, 1.1 reflete o
+            // custo real. Sem a propriedade vale o que o servidor configurou.
+            String custoAleatorio = System.getProperty("museu.db.custoPaginaAleatoria");
+            if (custoAleatorio != null && !custoAleatorio.isBlank()) {
+                props.setProperty("options", "-c random_page_cost=" + custoAleatorio);
+            }
+
             // Retorna a conexão
-            return DriverManager.getConnection(URL, USER, PASS);
+            return DriverManager.getConnection(URL, props);
 
         } catch (ClassNotFoundException e) {
             throw new SQLException("Driver PostgreSQL não encontrado", e);
         }
     }
-}
\ No newline at end of file
+}
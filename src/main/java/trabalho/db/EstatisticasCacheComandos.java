@@ -0,0 +1,29 @@
+package trabalho.db;
+
+/**
+ * Fotografia dos contadores do cache de PreparedStatements das conexões do pool.
+ *
+ * @param acertos     prepareStatement atendidos por um comando já preparado na conexão
+ * @param falhas      prepareStatement que precisaram preparar um comando novo
+ * @param descartes   comandos fechados por falta de espaço no cache (LRU)
+ * @param emCache     comandos guardados neste momento, somando todas as conexões
+ * @param capacidade  limite de comandos guardados por conexão
+ */
+public record EstatisticasCacheComandos(long acertos,
+                                        long falhas,
+                                        long descartes,
+                                        int emCache,
+                                        int capacidade) {
+
+    /** Fração dos prepareStatement atendidos pelo cache (0 a 1). */
+    public double taxaAcerto() {
+        long total = acertos + falhas;
+        return total == 0 ? 0 : (double) acertos / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Comandos{acertos=%d, falhas=%d, taxa=%.0f%%, descartes=%d, em cache=%d (max %d/conexão)}",
+                acertos, falhas, taxaAcerto() * 100, descartes, emCache, capacidade);
+    }
+}
@@ -0,0 +1,36 @@
+package trabalho.db;
+
+/**
+ * Fotografia (snapshot) dos contadores do pool de conexões.
+ *
+ * @param ativas             conexões emprestadas neste momento
+ * @param ociosas            conexões abertas aguardando uso
+ * @param emprestimos        total de empréstimos desde a criação do pool
+ * @param esperaMediaMs      tempo médio aguardando uma conexão livre
+ * @param esperaMaximaMs     maior espera observada
+ * @param criadas            conexões físicas abertas desde a criação do pool
+ * @param criacaoMediaMs     tempo médio para abrir uma conexão física (TCP + TLS + autenticação)
+ * @param criacaoMaximaMs    maior tempo de abertura observado
+ * @param descartadas        conexões fechadas por falha de validação, ociosidade ou erro
+ * @param vazamentos         empréstimos que passaram do limite de vazamento
+ */
+public record EstatisticasPool(int ativas,
+                               int ociosas,
+                               long emprestimos,
+                               double esperaMediaMs,
+                               double esperaMaximaMs,
+                               long criadas,
+                               double criacaoMediaMs,
+                               double criacaoMaximaMs,
+                               long descartadas,
+                               long vazamentos) {
+
+    @Override
+    public String toString() {
+        return String.format(
+                "Pool{ativas=%d, ociosas=%d, emprestimos=%d, espera media/max=%.1f/%.1f ms, " +
+                        "criadas=%d, criacao media/max=%.1f/%.1f ms, descartadas=%d, vazamentos=%d}",
+                ativas, ociosas, emprestimos, esperaMediaMs, esperaMaximaMs,
+                criadas, criacaoMediaMs, criacaoMaximaMs, descartadas, vazamentos);
+    }
+}
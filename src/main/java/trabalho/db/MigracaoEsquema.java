@@ -0,0 +1,359 @@
+package trabalho.db;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Versão do esquema do banco: aplica os scripts de src/main/resources/trabalho/sql/ que ainda
+ * não foram aplicados e confere os índices de que as consultas do ObraDAO dependem.
+ *
+ * Cada script aplicado fica registrado na tabela esquema_versoes (versão = número do início
+ * do nome do arquivo). Um script roda numa transação junto com o seu registro: ou entra
+ * inteiro, ou nada muda. Várias estações abrindo ao mesmo tempo não aplicam o mesmo script
+ * duas vezes (pg_advisory_lock); com o esquema em dia, a conferência custa três consultas.
+ *
+ * Bancos anteriores a esta classe (scripts aplicados à mão): na primeira execução, o script
+ * que tem a linha "-- aplicado se: <condição SQL>" e cuja condição é verdadeira é registrado
+ * como já aplicado (linha de base), sem rodar de novo.
+ *
+ * Com -Dmuseu.esquema.migrar=false (usuário do banco sem permissão de DDL) nada é aplicado:
+ * um script pendente é erro, e o esquema tem de ser atualizado por quem administra o banco.
+ */
+public final class MigracaoEsquema {
+
+    /** Scripts em ordem de aplicação. Script novo: criar o próximo número e acrescentar aqui. */
+    static final List<String> SCRIPTS = List.of(
+            "00_esquema_base.sql",
+            "01_nomes_unicos.sql",
+            "02_busca_textual.sql",
+            "03_versao_alteracoes.sql",
+            "04_gravacao_obra.sql",
+            "05_autores_ordenados.sql",
+            "06_indices.sql"
+    );
+
+    /**
+     * Índices esperados depois dos scripts. Sem eles as consultas continuam funcionando, só que
+     * percorrendo a tabela inteira; por isso a falta de um deles impede o uso do banco.
+     */
+    public static final List<IndiceEsperado> INDICES = List.of(
+            new IndiceEsperado("autores", "nome", true, "autor pelo nome (gravação, importação)"),
+            new IndiceEsperado("editoras", "nome", true, "editora pelo nome (gravação, importação)"),
+            new IndiceEsperado("obras_autores", "id_obra", false, "autores de cada obra"),
+            new IndiceEsperado("obras_autores", "id_autor", false, "obras de um autor (renomear)"),
+            new IndiceEsperado("obras", "id_editora", false, "obras de uma editora (renomear)"),
+            new IndiceEsperado("livros", "id_obra", true, "tipo e ISBN da obra"),
+            new IndiceEsperado("livros_online", "id_obra", true, "tipo da obra"),
+            new IndiceEsperado("revistas", "id_obra", true, "tipo, ISSN, volume e número da obra"),
+            new IndiceEsperado("jornais", "id_obra", true, "tipo, ISSN e número da obra"),
+            new IndiceEsperado("obras", "titulo,id_obra", false, "página ordenada por título"),
+            new IndiceEsperado("obras", "ano_publicacao,id_obra", false, "página ordenada por ano"),
+            new IndiceEsperado("obras", "busca", false, "busca textual (GIN)"),
+            new IndiceEsperado("obras", "versao", false, "sincronização incremental"),
+            new IndiceEsperado("obras_excluidas", "versao", false, "sincronização incremental (exclusões)")
+    );
+
+    private static final String PASTA = "/trabalho/sql/";
+    private static final String MARCA_APLICADO = "-- aplicado se:";
+
+    /** Chave do pg_advisory_lock da migração (qualquer número fixo, o mesmo em todas as estações). */
+    private static final long CHAVE_TRAVA = 0x6D7573_6575_0001L;
+
+    /**
+     * Índice de que o DAO depende.
+     *
+     * @param tabela  tabela indexada
+     * @param colunas colunas iniciais do índice, separadas por vírgula (um índice com mais
+     *                colunas depois destas também serve)
+     * @param unico   exige índice único exatamente nessas colunas (chave primária ou UNIQUE)
+     * @param uso     consulta que depende do índice (para a mensagem de erro)
+     */
+    public record IndiceEsperado(String tabela, String colunas, boolean unico, String uso) {
+
+        @Override
+        public String toString() {
+            return tabela + " (" + colunas + ")" + (unico ? " único" : "") + " - " + uso;
+        }
+    }
+
+    /**
+     * Resultado da migração.
+     *
+     * @param aplicados scripts executados agora
+     * @param linhaBase scripts de um banco antigo registrados como já aplicados, sem executar
+     */
+    public record Resultado(List<String> aplicados, List<String> linhaBase) {
+    }
+
+    private record Script(int versao, String nome, String texto, long checksum, String condicaoAplicado) {
+    }
+
+    private MigracaoEsquema() {
+    }
+
+    /**
+     * Atualiza (ou só confere, com -Dmuseu.esquema.migrar=false) o esquema do banco da aplicação.
+     *
+     * @throws SQLException falha de um script, script pendente sem permissão de aplicar ou
+     *                      índice esperado ausente (a mensagem lista quais)
+     */
+    public static Resultado aplicar() throws SQLException {
+        boolean migrar = Boolean.parseBoolean(System.getProperty("museu.esquema.migrar", "true"));
+        try (Connection conn = Db.getConnection()) {
+            return aplicar(conn, migrar);
+        }
+    }
+
+    /** Igual a {@link #aplicar()}, na conexão informada (em autocommit, que é restaurado no fim). */
+    public static Resultado aplicar(Connection conn, boolean migrar) throws SQLException {
+        List<Script> scripts = lerScripts();
+        List<String> aplicados = new ArrayList<>();
+        List<String> linhaBase = new ArrayList<>();
+
+        Map<Integer, Long> registradas = versoesRegistradas(conn);
+        if (registradas == null || !pendentes(scripts, registradas).isEmpty()) {
+            if (!migrar) {
+                throw new SQLException("Esquema do banco desatualizado; scripts pendentes: "
+                        + nomes(registradas == null ? scripts : pendentes(scripts, registradas))
+                        + ". Aplique-os (ou rode a aplicação com museu.esquema.migrar=true).");
+            }
+            travar(conn, true);
+            try {
+                // Outra estação pode ter migrado enquanto esperávamos a trava
+                registradas = versoesRegistradas(conn);
+                if (registradas == null) {
+                    registradas = criarTabelaVersoes(conn, scripts, linhaBase);
+                }
+                for (Script script : pendentes(scripts, registradas)) {
+                    executar(conn, script);
+                    aplicados.add(script.nome());
+                }
+            } finally {
+                travar(conn, false);
+            }
+        }
+        avisarAlterados(scripts, registradas);
+
+        List<IndiceEsperado> faltando = indicesFaltando(conn);
+        if (!faltando.isEmpty()) {
+            StringBuilder msg = new StringBuilder("Índices ausentes no banco (as consultas percorreriam a tabela inteira):");
+            for (IndiceEsperado indice : faltando) {
+                msg.append("\n  ").append(indice);
+            }
+            throw new SQLException(msg.toString());
+        }
+        return new Resultado(aplicados, linhaBase);
+    }
+
+    /** Índices de {@link #INDICES} que não existem (ou estão inválidos) no banco, numa só consulta. */
+    public static List<IndiceEsperado> indicesFaltando(Connection conn) throws SQLException {
+        final String sql =
+                "SELECT e.n " +
+                "FROM unnest(?::text[], ?::text[], ?::boolean[]) WITH ORDINALITY AS e(tabela, colunas, unico, n) " +
+                "CROSS JOIN LATERAL string_to_array(e.colunas, ',') AS c(nomes) " +
+                "WHERE NOT EXISTS (" +
+                "    SELECT 1 FROM pg_index i " +
+                "    WHERE i.indrelid = to_regclass(e.tabela) " +
+                "      AND i.indisvalid " +
+                "      AND (NOT e.unico OR (i.indisunique AND i.indnkeyatts = cardinality(c.nomes))) " +
+                // Nomes das primeiras colunas do índice (expressão não tem nome: não confere)
+                "      AND c.nomes = (SELECT array_agg(a.attname::text ORDER BY k.pos) " +
+                "                     FROM generate_series(0, cardinality(c.nomes) - 1) AS k(pos) " +
+                "                     JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = i.indkey[k.pos])" +
+                ") " +
+                "ORDER BY e.n";
+
+        String[] tabelas = new String[INDICES.size()];
+        String[] colunas = new String[INDICES.size()];
+        Boolean[] unicos = new Boolean[INDICES.size()];
+        for (int i = 0; i < INDICES.size(); i++) {
+            tabelas[i] = INDICES.get(i).tabela();
+            colunas[i] = INDICES.get(i).colunas();
+            unicos[i] = INDICES.get(i).unico();
+        }
+
+        List<IndiceEsperado> faltando = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            Array arrTabelas = conn.createArrayOf("text", tabelas);
+            Array arrColunas = conn.createArrayOf("text", colunas);
+            Array arrUnicos = conn.createArrayOf("bool", unicos);
+            ps.setArray(1, arrTabelas);
+            ps.setArray(2, arrColunas);
+            ps.setArray(3, arrUnicos);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    faltando.add(INDICES.get(rs.getInt(1) - 1));
+                }
+            }
+        }
+        return faltando;
+    }
+
+    /** Versões registradas e seus checksums; null se a tabela esquema_versoes ainda não existe. */
+    private static Map<Integer, Long> versoesRegistradas(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            try (ResultSet rs = st.executeQuery("SELECT to_regclass('esquema_versoes') IS NOT NULL")) {
+                rs.next();
+                if (!rs.getBoolean(1)) {
+                    return null;
+                }
+            }
+            Map<Integer, Long> versoes = new HashMap<>();
+            try (ResultSet rs = st.executeQuery("SELECT versao, checksum FROM esquema_versoes")) {
+                while (rs.next()) {
+                    versoes.put(rs.getInt(1), rs.getLong(2));
+                }
+            }
+            return versoes;
+        }
+    }
+
+    /**
+     * Cria esquema_versoes. Num banco antigo, registra como linha de base os scripts cuja
+     * condição "-- aplicado se:" já é verdadeira.
+     */
+    private static Map<Integer, Long> criarTabelaVersoes(Connection conn, List<Script> scripts,
+                                                         List<String> linhaBase) throws SQLException {
+        Map<Integer, Long> registradas = new HashMap<>();
+        conn.setAutoCommit(false);
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE esquema_versoes (" +
+                    "    versao      integer PRIMARY KEY," +
+                    "    script      text        NOT NULL," +
+                    "    checksum    bigint      NOT NULL," +
+                    "    linha_base  boolean     NOT NULL DEFAULT false," +
+                    "    aplicado_em timestamptz NOT NULL DEFAULT now()" +
+                    ")");
+            for (Script script : scripts) {
+                if (script.condicaoAplicado() == null) {
+                    continue;
+                }
+                try (ResultSet rs = st.executeQuery("SELECT " + script.condicaoAplicado())) {
+                    rs.next();
+                    if (!rs.getBoolean(1)) {
+                        continue;
+                    }
+                }
+                registrar(conn, script, true);
+                registradas.put(script.versao(), script.checksum());
+                linhaBase.add(script.nome());
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        return registradas;
+    }
+
+    /** Executa o script e o registra na mesma transação. */
+    private static void executar(Connection conn, Script script) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement st = conn.createStatement()) {
+            st.execute(script.texto());
+            registrar(conn, script, false);
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("Falha ao aplicar " + script.nome() + ": " + e.getMessage(), e.getSQLState(), e);
+        } catch (RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static void registrar(Connection conn, Script script, boolean linhaBase) throws SQLException {
+        final String sql = "INSERT INTO esquema_versoes (versao, script, checksum, linha_base) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, script.versao());
+            ps.setString(2, script.nome());
+            ps.setLong(3, script.checksum());
+            ps.setBoolean(4, linhaBase);
+            ps.executeUpdate();
+        }
+    }
+
+    /** pg_advisory_lock / unlock da sessão: uma estação migra por vez. */
+    private static void travar(Connection conn, boolean travar) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                travar ? "SELECT pg_advisory_lock(?)" : "SELECT pg_advisory_unlock(?)")) {
+            ps.setLong(1, CHAVE_TRAVA);
+            ps.executeQuery().close();
+        }
+    }
+
+    private static List<Script> pendentes(List<Script> scripts, Map<Integer, Long> registradas) {
+        List<Script> pendentes = new ArrayList<>();
+        for (Script script : scripts) {
+            if (!registradas.containsKey(script.versao())) {
+                pendentes.add(script);
+            }
+        }
+        return pendentes;
+    }
+
+    /** Script alterado depois de aplicado não roda de novo: a mudança precisa de um script novo. */
+    private static void avisarAlterados(List<Script> scripts, Map<Integer, Long> registradas) {
+        for (Script script : scripts) {
+            Long checksum = registradas.get(script.versao());
+            if (checksum != null && checksum != script.checksum()) {
+                System.err.println("[esquema] " + script.nome() + " foi alterado depois de aplicado ao banco; "
+                        + "a alteração não será aplicada (crie um script novo).");
+            }
+        }
+    }
+
+    private static List<String> nomes(List<Script> scripts) {
+        List<String> nomes = new ArrayList<>();
+        for (Script script : scripts) {
+            nomes.add(script.nome());
+        }
+        return nomes;
+    }
+
+    private static List<Script> lerScripts() {
+        List<Script> scripts = new ArrayList<>();
+        for (String nome : SCRIPTS) {
+            byte[] bytes;
+            try (InputStream in = MigracaoEsquema.class.getResourceAsStream(PASTA + nome)) {
+                if (in == null) {
+                    throw new IllegalStateException("Script não encontrado no classpath: " + PASTA + nome);
+                }
+                bytes = in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            String texto = new String(bytes, StandardCharsets.UTF_8);
+
+            String condicao = null;
+            for (String linha : texto.split("\n")) {
+                if (linha.startsWith(MARCA_APLICADO)) {
+                    condicao = linha.substring(MARCA_APLICADO.length()).trim();
+                    break;
+                }
+            }
+            int versao = Integer.parseInt(nome.substring(0, nome.indexOf('_')));
+            scripts.add(new Script(versao, nome, texto, crc.getValue(), condicao));
+        }
+        return scripts;
+    }
+}
@@ -0,0 +1,420 @@
+package trabalho.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool limitado de conexões JDBC.
+ *
+ * Motivação: com o banco remoto, abrir uma conexão (TCP + TLS + autenticação) custa
+ * mais que a maioria das operações do DAO. O pool mantém conexões físicas abertas e
+ * as reaproveita entre chamadas.
+ *
+ * Funcionamento:
+ * - Pré-aquecimento: {@link #aquecer()} abre as conexões mínimas em paralelo.
+ * - Empréstimo: {@link #emprestar()} devolve uma conexão "embrulhada"; chamar close()
+ *   nela devolve a conexão ao pool em vez de fechá-la.
+ * - Validação: conexões ociosas há algum tempo passam por isValid() antes de serem entregues.
+ * - Manutenção periódica: fecha conexões excedentes ociosas, repõe o mínimo e
+ *   reporta empréstimos que passaram do limite de vazamento (o ponto de origem só com
+ *   -Dmuseu.pool.vazamentoOrigem=true, que guarda a pilha a cada empréstimo).
+ * - Devolução: desfaz a transação aberta e volta autocommit, somente leitura e isolamento
+ *   ao estado em que a conexão foi emprestada.
+ */
+public class PoolConexoes implements AutoCloseable {
+
+    /** Abre uma conexão física com o banco. */
+    @FunctionalInterface
+    public interface FabricaConexao {
+        Connection abrir() throws SQLException;
+    }
+
+    /** Conexão física e os metadados que o pool acompanha sobre ela. */
+    private static final class Entrada {
+        final Connection fisica;
+        volatile long ultimoUsoNanos = System.nanoTime();
+        volatile long emprestadaEmNanos;
+        volatile Throwable origemEmprestimo;
+        volatile boolean vazamentoReportado;
+        // Valores de antes do primeiro setReadOnly/setTransactionIsolation do empréstimo (null = não mudou)
+        Boolean somenteLeituraOriginal;
+        Integer isolamentoOriginal;
+
+        Entrada(Connection fisica) {
+            this.fisica = fisica;
+        }
+    }
+
+    private static final long INTERVALO_MANUTENCAO_MS = 5_000L;
+
+    private final ConfigPool config;
+    private final FabricaConexao fabrica;
+
+    // Ociosas em pilha (LIFO): a conexão mais recente é reutilizada primeiro,
+    // deixando as antigas envelhecerem até a remoção por ociosidade.
+    private final LinkedBlockingDeque<Entrada> ociosas = new LinkedBlockingDeque<>();
+    private final Set<Entrada> emprestadas = ConcurrentHashMap.newKeySet();
+    private final Semaphore vagas;
+    private final AtomicInteger abertas = new AtomicInteger();
+    private final ScheduledExecutorService manutencao;
+    private volatile boolean fechado;
+
+    // Contadores para estatísticas
+    private final LongAdder emprestimos = new LongAdder();
+    private final LongAdder esperaTotalNanos = new LongAdder();
+    private final AtomicLong esperaMaximaNanos = new AtomicLong();
+    private final LongAdder criadas = new LongAdder();
+    private final LongAdder criacaoTotalNanos = new LongAdder();
+    private final AtomicLong criacaoMaximaNanos = new AtomicLong();
+    private final LongAdder descartadas = new LongAdder();
+    private final LongAdder vazamentos = new LongAdder();
+
+    public PoolConexoes(ConfigPool config, FabricaConexao fabrica) {
+        this.config = config;
+        this.fabrica = fabrica;
+        this.vagas = new Semaphore(config.maximo(), true);
+        this.manutencao = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-conexoes-manutencao");
+            t.setDaemon(true);
+            return t;
+        });
+        manutencao.scheduleWithFixedDelay(this::executarManutencao,
+                INTERVALO_MANUTENCAO_MS, INTERVALO_MANUTENCAO_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Abre em paralelo as conexões necessárias para atingir o mínimo configurado.
+     * Falhas são registradas e não interrompem a aplicação (o empréstimo tenta de novo depois).
+     */
+    public void aquecer() {
+        List<Thread> threads = new ArrayList<>();
+        int faltam = config.minimo() - abertas.get();
+        for (int i = 0; i < faltam; i++) {
+            threads.add(Thread.ofVirtual().name("pool-aquecimento-" + i).start(() -> {
+                try {
+                    Entrada e = criar();
+                    if (e != null) {
+                        ociosas.offerLast(e);
+                    }
+                } catch (SQLException ex) {
+                    System.err.println("[pool] Falha ao pré-aquecer conexão: " + ex.getMessage());
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Empresta uma conexão. Bloqueia até haver vaga ou até {@link ConfigPool#esperaMaximaMs()}.
+     * A conexão devolvida deve ser fechada (try-with-resources) para voltar ao pool.
+     */
+    public Connection emprestar() throws SQLException {
+        if (fechado) {
+            throw new SQLException("Pool de conexões encerrado.");
+        }
+
+        long inicio = System.nanoTime();
+        boolean obteveVaga;
+        try {
+            obteveVaga = vagas.tryAcquire(config.esperaMaximaMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido aguardando conexão do pool.", e);
+        }
+        if (!obteveVaga) {
+            throw new SQLTimeoutException("Nenhuma conexão livre após "
+                    + config.esperaMaximaMs() + " ms. " + estatisticas());
+        }
+        long espera = System.nanoTime() - inicio;
+        esperaTotalNanos.add(espera);
+        esperaMaximaNanos.accumulateAndGet(espera, Math::max);
+
+        try {
+            Entrada e = obterValida();
+            e.emprestadaEmNanos = System.nanoTime();
+            e.vazamentoReportado = false;
+            e.origemEmprestimo = config.limiteVazamentoMs() > 0 && config.origemVazamento()
+                    ? new Throwable("Conexão emprestada aqui")
+                    : null;
+            emprestadas.add(e);
+            emprestimos.increment();
+            return embrulhar(e);
+        } catch (SQLException | RuntimeException ex) {
+            vagas.release();
+            throw ex;
+        }
+    }
+
+    /** Retorna os contadores atuais do pool. */
+    public EstatisticasPool estatisticas() {
+        long n = emprestimos.sum();
+        long c = criadas.sum();
+        return new EstatisticasPool(
+                emprestadas.size(),
+                ociosas.size(),
+                n,
+                n == 0 ? 0 : esperaTotalNanos.sum() / 1e6 / n,
+                esperaMaximaNanos.get() / 1e6,
+                c,
+                c == 0 ? 0 : criacaoTotalNanos.sum() / 1e6 / c,
+                criacaoMaximaNanos.get() / 1e6,
+                descartadas.sum(),
+                vazamentos.sum()
+        );
+    }
+
+    /** Fecha as conexões ociosas; as emprestadas são fechadas quando forem devolvidas. */
+    @Override
+    public void close() {
+        fechado = true;
+        manutencao.shutdownNow();
+        Entrada e;
+        while ((e = ociosas.pollFirst()) != null) {
+            descartar(e);
+        }
+    }
+
+    // ======== Internos ========
+
+    /** Pega uma conexão ociosa válida ou abre uma nova. Chamado já com a vaga reservada. */
+    private Entrada obterValida() throws SQLException {
+        while (true) {
+            Entrada e = ociosas.pollFirst();
+            if (e == null) {
+                Entrada nova = criar();
+                if (nova != null) {
+                    return nova;
+                }
+                // Limite físico atingido por conexões em aquecimento: aguarda uma ociosa
+                try {
+                    e = ociosas.pollFirst(config.esperaMaximaMs(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrompido aguardando conexão do pool.", ex);
+                }
+                if (e == null) {
+                    throw new SQLTimeoutException("Nenhuma conexão livre. " + estatisticas());
+                }
+            }
+            if (valida(e)) {
+                return e;
+            }
+            descartar(e);
+        }
+    }
+
+    private boolean valida(Entrada e) {
+        long ociosaMs = (System.nanoTime() - e.ultimoUsoNanos) / 1_000_000L;
+        try {
+            if (e.fisica.isClosed()) {
+                return false;
+            }
+            return ociosaMs < config.validarAposMs() || e.fisica.isValid(config.validacaoSegundos());
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Abre uma conexão física, respeitando o máximo de conexões abertas.
+     * @return a nova entrada, ou null se o limite já foi atingido
+     */
+    private Entrada criar() throws SQLException {
+        int atual;
+        do {
+            atual = abertas.get();
+            if (atual >= config.maximo()) {
+                return null;
+            }
+        } while (!abertas.compareAndSet(atual, atual + 1));
+
+        long inicio = System.nanoTime();
+        try {
+            Connection fisica = fabrica.abrir();
+            long duracao = System.nanoTime() - inicio;
+            criadas.increment();
+            criacaoTotalNanos.add(duracao);
+            criacaoMaximaNanos.accumulateAndGet(duracao, Math::max);
+            return new Entrada(fisica);
+        } catch (SQLException | RuntimeException ex) {
+            abertas.decrementAndGet();
+            throw ex;
+        }
+    }
+
+    private void devolver(Entrada e) {
+        emprestadas.remove(e);
+        e.origemEmprestimo = null;
+        try {
+            if (fechado || e.fisica.isClosed()) {
+                descartar(e);
+                return;
+            }
+            // Desfaz transação deixada aberta para não "vazar" estado para o próximo usuário
+            if (!e.fisica.getAutoCommit()) {
+                e.fisica.rollback();
+                e.fisica.setAutoCommit(true);
+            }
+            if (e.somenteLeituraOriginal != null) {
+                e.fisica.setReadOnly(e.somenteLeituraOriginal);
+                e.somenteLeituraOriginal = null;
+            }
+            if (e.isolamentoOriginal != null) {
+                e.fisica.setTransactionIsolation(e.isolamentoOriginal);
+                e.isolamentoOriginal = null;
+            }
+            e.ultimoUsoNanos = System.nanoTime();
+            ociosas.offerFirst(e);
+        } catch (SQLException ex) {
+            descartar(e);
+        } finally {
+            vagas.release();
+        }
+    }
+
+    private void descartar(Entrada e) {
+        abertas.decrementAndGet();
+        descartadas.increment();
+        try {
+            e.fisica.close();
+        } catch (SQLException ex) {
+            // conexão já inutilizável; nada a fazer
+        }
+    }
+
+    private void executarManutencao() {
+        try {
+            long agora = System.nanoTime();
+
+            // 1) Fecha conexões excedentes ociosas há muito tempo
+            for (Entrada e : ociosas) {
+                long ociosaMs = (agora - e.ultimoUsoNanos) / 1_000_000L;
+                if (abertas.get() > config.minimo()
+                        && ociosaMs > config.ociosidadeMaximaMs()
+                        && ociosas.remove(e)) {
+                    descartar(e);
+                }
+            }
+
+            // 2) Repõe o mínimo (ex.: após falhas de validação ou queda do banco)
+            while (!fechado && abertas.get() < config.minimo()) {
+                Entrada e = criar();
+                if (e == null) {
+                    break;
+                }
+                ociosas.offerLast(e);
+            }
+
+            // 3) Detecção de vazamento: conexão emprestada há tempo demais
+            if (config.limiteVazamentoMs() > 0) {
+                for (Entrada e : emprestadas) {
+                    long emprestadaMs = (agora - e.emprestadaEmNanos) / 1_000_000L;
+                    if (!e.vazamentoReportado && emprestadaMs > config.limiteVazamentoMs()) {
+                        e.vazamentoReportado = true;
+                        vazamentos.increment();
+                        System.err.println("[pool] Possível vazamento: conexão emprestada há "
+                                + emprestadaMs + " ms sem ser devolvida.");
+                        Throwable origem = e.origemEmprestimo;
+                        if (origem != null) {
+                            origem.printStackTrace();
+                        } else {
+                            System.err.println("[pool] -Dmuseu.pool.vazamentoOrigem=true mostra onde foi emprestada.");
+                        }
+                    }
+                }
+            }
+        } catch (SQLException ex) {
+            System.err.println("[pool] Falha na manutenção: " + ex.getMessage());
+        } catch (RuntimeException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private Connection embrulhar(Entrada e) {
+        return (Connection) Proxy.newProxyInstance(
+                PoolConexoes.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConexaoEmprestada(e));
+    }
+
+    /**
+     * Intercepta a conexão entregue ao DAO: close() devolve ao pool e qualquer uso
+     * após a devolução falha, em vez de operar sobre uma conexão de outro usuário.
+     */
+    private final class ConexaoEmprestada implements InvocationHandler {
+        private final Entrada entrada;
+        private boolean devolvida;
+
+        ConexaoEmprestada(Entrada entrada) {
+            this.entrada = entrada;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!devolvida) {
+                        devolvida = true;
+                        devolver(entrada);
+                    }
+                    return null;
+                case "isClosed":
+                    if (devolvida) {
+                        return true;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConexaoEmprestada[" + entrada.fisica + "]";
+                case "setReadOnly":
+                    // guarda o valor anterior para a devolução restaurar
+                    if (!devolvida && entrada.somenteLeituraOriginal == null) {
+                        entrada.somenteLeituraOriginal = entrada.fisica.isReadOnly();
+                    }
+                    break;
+                case "setTransactionIsolation":
+                    if (!devolvida && entrada.isolamentoOriginal == null) {
+                        entrada.isolamentoOriginal = entrada.fisica.getTransactionIsolation();
+                    }
+                    break;
+                default:
+                    break;
+            }
+            if (devolvida) {
+                throw new SQLException("Conexão já devolvida ao pool.");
+            }
+            try {
+                return method.invoke(entrada.fisica, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package trabalho.exportacao;
+
+import trabalho.dao.FiltroObras;
+import trabalho.dao.ObraDAO;
+import trabalho.db.Db;
+import trabalho.model.Obra;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exporta o acervo para arquivo (CSV, JSON Lines ou MARCXML, opcionalmente em gzip) para
+ * entregar a instituições parceiras.
+ *
+ * As obras vêm de um cursor no servidor ({@link ObraDAO#stream}) e vão direto para o arquivo
+ * ({@link SaidaArquivo}): a memória usada é a mesma para mil ou dez milhões de obras, e a
+ * gravação em disco (e a compactação) acontece em paralelo com a leitura do banco.
+ *
+ * O arquivo é gravado primeiro como "nome.parcial" e só recebe o nome final ao terminar;
+ * em caso de erro, o parcial é apagado.
+ *
+ * Uso em linha de comando (formato e gzip pela extensão: .csv, .jsonl, .xml, + .gz):
+ *   java ... trabalho.exportacao.ExportadorAcervo acervo.xml.gz [tipo]
+ */
+public class ExportadorAcervo {
+
+    /** Intervalo mínimo entre dois avisos de progresso. */
+    private static final long INTERVALO_PROGRESSO_NANOS = 500_000_000L;
+
+    /** Recebe o andamento da exportação (na thread que exporta). */
+    @FunctionalInterface
+    public interface Progresso {
+        void atualizar(long obras, long bytes, Duration decorrido);
+    }
+
+    /**
+     * Resultado da exportação.
+     *
+     * @param obras        obras exportadas
+     * @param bytesTexto   tamanho do texto gerado (UTF-8, antes da compactação)
+     * @param bytesArquivo tamanho do arquivo gravado
+     * @param duracao      tempo total da exportação
+     */
+    public record Resultado(long obras, long bytesTexto, long bytesArquivo, Duration duracao) {
+
+        /** Obras exportadas por segundo. */
+        public double obrasPorSegundo() {
+            double segundos = duracao.toNanos() / 1e9;
+            return segundos > 0 ? obras / segundos : obras;
+        }
+
+        /** Texto gerado por segundo, em MB. */
+        public double mbPorSegundo() {
+            double segundos = duracao.toNanos() / 1e9;
+            double mb = bytesTexto / (1024.0 * 1024.0);
+            return segundos > 0 ? mb / segundos : mb;
+        }
+    }
+
+    private final ObraDAO dao;
+
+    public ExportadorAcervo(ObraDAO dao) {
+        this.dao = dao;
+    }
+
+    /** Exporta as obras do filtro; formato e compactação pela extensão do arquivo. */
+    public Resultado exportar(Path arquivo, FiltroObras filtro, Progresso progresso) throws IOException, SQLException {
+        return exportar(arquivo, FormatoExportacao.doArquivo(arquivo), FormatoExportacao.compactado(arquivo),
+                filtro, progresso);
+    }
+
+    public Resultado exportar(Path arquivo, FormatoExportacao formato, boolean gzip, FiltroObras filtro,
+                              Progresso progresso) throws IOException, SQLException {
+        long inicio = System.nanoTime();
+        Path parcial = arquivo.resolveSibling(arquivo.getFileName() + ".parcial");
+        SaidaArquivo saida = SaidaArquivo.abrir(parcial, gzip);
+        long obras = 0;
+        try (Stream<Obra> stream = dao.stream(filtro)) {
+            StringBuilder texto = new StringBuilder(1024);
+            formato.cabecalho(texto);
+            long ultimoAviso = inicio;
+            for (Iterator<Obra> it = stream.iterator(); it.hasNext(); ) {
+                formato.obra(it.next(), texto);
+                saida.escrever(texto);
+                texto.setLength(0);
+                obras++;
+                if (progresso != null && (obras & 1023) == 0) {
+                    long agora = System.nanoTime();
+                    if (agora - ultimoAviso >= INTERVALO_PROGRESSO_NANOS) {
+                        ultimoAviso = agora;
+                        progresso.atualizar(obras, saida.bytes(), Duration.ofNanos(agora - inicio));
+                    }
+                }
+            }
+            formato.rodape(texto);
+            saida.escrever(texto);
+            saida.close();
+        } catch (IOException | SQLException | RuntimeException e) {
+            saida.abortar();
+            Files.deleteIfExists(parcial);
+            if (e instanceof IllegalStateException && e.getCause() instanceof SQLException causa) {
+                throw causa; // erro de leitura do cursor
+            }
+            throw e;
+        }
+        Files.move(parcial, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Duration duracao = Duration.ofNanos(System.nanoTime() - inicio);
+        if (progresso != null) {
+            progresso.atualizar(obras, saida.bytes(), duracao);
+        }
+        return new Resultado(obras, saida.bytes(), Files.size(arquivo), duracao);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Uso: ExportadorAcervo <arquivo.{csv|jsonl|xml}[.gz]> [tipo]");
+            System.exit(2);
+        }
+        Path arquivo = Path.of(args[0]);
+        FiltroObras filtro = args.length > 1 ? FiltroObras.doTipo(args[1]) : FiltroObras.TODAS;
+
+        try {
+            Resultado r = new ExportadorAcervo(new ObraDAO()).exportar(arquivo, filtro,
+                    (obras, bytes, decorrido) -> System.out.printf("%d obras, %.1f MB, %.0f s%n",
+                            obras, bytes / (1024.0 * 1024.0), decorrido.toMillis() / 1000.0));
+            System.out.printf("%d obras exportadas para %s: %.1f MB de texto, arquivo com %.1f MB, %.1f s "
+                            + "(%.0f obras/s, %.1f MB/s)%n",
+                    r.obras(), arquivo, r.bytesTexto() / (1024.0 * 1024.0), r.bytesArquivo() / (1024.0 * 1024.0),
+                    r.duracao().toMillis() / 1000.0, r.obrasPorSegundo(), r.mbPorSegundo());
+        } finally {
+            Db.encerrarPool();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package trabalho.exportacao;
+
+import trabalho.importacao.ImportadorCsv;
+import trabalho.model.Obra;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Formatos de exportação do acervo. Cada formato escreve o cabeçalho, uma obra por vez e o
+ * rodapé num StringBuilder; a gravação no arquivo fica com {@link SaidaArquivo}.
+ */
+public enum FormatoExportacao {
+
+    /**
+     * CSV com separador ";" e as colunas do {@link ImportadorCsv} (mais o id): o arquivo exportado
+     * pode ser importado de volta em outro acervo. Vários autores vão numa coluna, separados por "; ".
+     */
+    CSV("csv") {
+        @Override
+        void cabecalho(StringBuilder sb) {
+            sb.append("id;").append(String.join(";", ImportadorCsv.COLUNAS)).append('\n');
+        }
+
+        @Override
+        void obra(Obra obra, StringBuilder sb) {
+            sb.append(obra.getId());
+            // mesma ordem de ImportadorCsv.COLUNAS
+            campoCsv(sb, obra.getTitulo());
+            campoCsv(sb, obra.getAutor());
+            campoCsv(sb, obra.getTipo_Obra());
+            campoCsv(sb, obra.getAno_Publicacao());
+            campoCsv(sb, obra.getEditora());
+            campoCsv(sb, obra.getVolume());
+            campoCsv(sb, obra.getEdicao());
+            campoCsv(sb, obra.getIsbn());
+            campoCsv(sb, obra.getChamada());
+            sb.append('\n');
+        }
+    },
+
+    /** JSON Lines: um objeto JSON por linha, autores numa lista; campos vazios são omitidos. */
+    JSONL("jsonl") {
+        @Override
+        void obra(Obra obra, StringBuilder sb) {
+            sb.append("{\"id\":").append(obra.getId());
+            campoJson(sb, "titulo", obra.getTitulo());
+            sb.append(",\"autores\":[");
+            for (int i = 0; i < obra.getAutores().size(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                textoJson(sb, obra.getAutores().get(i));
+            }
+            sb.append(']');
+            campoJson(sb, "tipo", obra.getTipo_Obra());
+            String ano = obra.getAno_Publicacao();
+            if (ano != null && !ano.isEmpty() && ano.chars().allMatch(Character::isDigit)) {
+                sb.append(",\"ano\":").append(ano);
+            }
+            campoJson(sb, "editora", obra.getEditora());
+            campoJson(sb, "volume", obra.getVolume());
+            campoJson(sb, "edicao", obra.getEdicao());
+            campoJson(sb, "isbn", obra.getIsbn());
+            campoJson(sb, "chamada", obra.getChamada());
+            sb.append("}\n");
+        }
+    },
+
+    /** MARCXML (MARC 21 slim), para catálogos de outras instituições; veja {@link MarcXml}. */
+    MARCXML("xml") {
+        @Override
+        void cabecalho(StringBuilder sb) {
+            MarcXml.cabecalho(sb);
+        }
+
+        @Override
+        void obra(Obra obra, StringBuilder sb) {
+            MarcXml.registro(obra, sb);
+        }
+
+        @Override
+        void rodape(StringBuilder sb) {
+            MarcXml.rodape(sb);
+        }
+    };
+
+    private final String extensao;
+
+    FormatoExportacao(String extensao) {
+        this.extensao = extensao;
+    }
+
+    /** Extensão do arquivo, sem ponto e sem o ".gz". */
+    public String extensao() {
+        return extensao;
+    }
+
+    /** Formato pela extensão do arquivo (".csv", ".jsonl", ".xml", com ou sem ".gz"). */
+    public static FormatoExportacao doArquivo(Path arquivo) {
+        String nome = arquivo.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (nome.endsWith(".gz")) {
+            nome = nome.substring(0, nome.length() - 3);
+        }
+        for (FormatoExportacao formato : values()) {
+            if (nome.endsWith("." + formato.extensao)) {
+                return formato;
+            }
+        }
+        throw new IllegalArgumentException("Extensão de exportação desconhecida: " + arquivo.getFileName()
+                + " (use .csv, .jsonl ou .xml, opcionalmente com .gz)");
+    }
+
+    /** Arquivos terminados em ".gz" são gravados compactados. */
+    public static boolean compactado(Path arquivo) {
+        return arquivo.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz");
+    }
+
+    void cabecalho(StringBuilder sb) {
+    }
+
+    abstract void obra(Obra obra, StringBuilder sb);
+
+    void rodape(StringBuilder sb) {
+    }
+
+    /** ";" e o valor, entre aspas se tiver separador, aspas ou quebra de linha (aspas dobradas). */
+    private static void campoCsv(StringBuilder sb, String valor) {
+        sb.append(';');
+        if (valor == null) {
+            return;
+        }
+        boolean aspas = false;
+        for (int i = 0; i < valor.length() && !aspas; i++) {
+            char c = valor.charAt(i);
+            aspas = c == ';' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!aspas) {
+            sb.append(valor);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    private static void campoJson(StringBuilder sb, String nome, String valor) {
+        if (valor == null || valor.isEmpty()) {
+            return;
+        }
+        sb.append(",\"").append(nome).append("\":");
+        textoJson(sb, valor);
+    }
+
+    /** Texto JSON entre aspas, com os escapes obrigatórios. */
+    private static void textoJson(StringBuilder sb, String valor) {
+        sb.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                    break;
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,132 @@
+package trabalho.exportacao;
+
+import trabalho.model.Obra;
+
+import java.util.List;
+
+/**
+ * Registro MARC 21 (formato bibliográfico) em MARCXML "slim" para cada obra.
+ *
+ * Campos usados:
+ *   leader  - "m" (monografia) para livros, "s" (publicação seriada) para revistas e jornais
+ *   001     - id da obra
+ *   020 $a  - ISBN (livros)          022 $a - ISSN (revistas e jornais)
+ *   090 $a  - número de chamada local
+ *   100 $a  - autor principal         700 $a - demais autores
+ *   245 $a  - título
+ *   250 $a  - edição (livros)         362 $a - volume/número (revistas e jornais)
+ *   264 $b $c - editora e ano de publicação
+ */
+final class MarcXml {
+
+    private static final String LIDER_MONOGRAFIA = "00000nam a2200000   4500";
+    private static final String LIDER_SERIADA = "00000nas a2200000   4500";
+
+    private MarcXml() {
+    }
+
+    static void cabecalho(StringBuilder sb) {
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<collection xmlns=\"http://www.loc.gov/MARC21/slim\">\n");
+    }
+
+    static void rodape(StringBuilder sb) {
+        sb.append("</collection>\n");
+    }
+
+    static void registro(Obra obra, StringBuilder sb) {
+        String tipo = obra.getTipo_Obra();
+        boolean seriada = "Revista".equals(tipo) || "Jornal".equals(tipo);
+
+        sb.append("<record>\n");
+        sb.append("  <leader>").append(seriada ? LIDER_SERIADA : LIDER_MONOGRAFIA).append("</leader>\n");
+        sb.append("  <controlfield tag=\"001\">").append(obra.getId()).append("</controlfield>\n");
+        campo(sb, seriada ? "022" : "020", ' ', ' ', 'a', obra.getIsbn());
+        campo(sb, "090", ' ', ' ', 'a', obra.getChamada());
+        List<String> autores = obra.getAutores();
+        if (!autores.isEmpty()) {
+            campo(sb, "100", '1', ' ', 'a', autores.get(0));
+        }
+        campo(sb, "245", autores.isEmpty() ? '0' : '1', '0', 'a', obra.getTitulo());
+        if (seriada) {
+            campo(sb, "362", '0', ' ', 'a', designacao(obra.getVolume(), obra.getEdicao()));
+        } else {
+            campo(sb, "250", ' ', ' ', 'a', obra.getEdicao());
+        }
+        if (!vazio(obra.getEditora()) || !vazio(obra.getAno_Publicacao())) {
+            sb.append("  <datafield tag=\"264\" ind1=\" \" ind2=\"1\">\n");
+            subcampo(sb, 'b', obra.getEditora());
+            subcampo(sb, 'c', obra.getAno_Publicacao());
+            sb.append("  </datafield>\n");
+        }
+        for (int i = 1; i < autores.size(); i++) {
+            campo(sb, "700", '1', ' ', 'a', autores.get(i));
+        }
+        sb.append("</record>\n");
+    }
+
+    /** "v. 3, n. 12" a partir do volume e do número (revistas) ou só do número (jornais). */
+    private static String designacao(String volume, String numero) {
+        StringBuilder d = new StringBuilder();
+        if (!vazio(volume)) {
+            d.append("v. ").append(volume.trim());
+        }
+        if (!vazio(numero)) {
+            if (d.length() > 0) {
+                d.append(", ");
+            }
+            d.append("n. ").append(numero.trim());
+        }
+        return d.toString();
+    }
+
+    private static void campo(StringBuilder sb, String tag, char ind1, char ind2, char codigo, String valor) {
+        if (vazio(valor)) {
+            return;
+        }
+        sb.append("  <datafield tag=\"").append(tag)
+                .append("\" ind1=\"").append(ind1)
+                .append("\" ind2=\"").append(ind2).append("\">\n");
+        subcampo(sb, codigo, valor);
+        sb.append("  </datafield>\n");
+    }
+
+    private static void subcampo(StringBuilder sb, char codigo, String valor) {
+        if (vazio(valor)) {
+            return;
+        }
+        sb.append("    <subfield code=\"").append(codigo).append("\">");
+        texto(sb, valor.trim());
+        sb.append("</subfield>\n");
+    }
+
+    /** Escapa os caracteres especiais do XML e descarta os de controle, inválidos no XML 1.0. */
+    private static void texto(StringBuilder sb, String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '&':
+                    sb.append("&amp;");
+                    break;
+                case '<':
+                    sb.append("&lt;");
+                    break;
+                case '>':
+                    sb.append("&gt;");
+                    break;
+                case '"':
+                    sb.append("&quot;");
+                    break;
+                default:
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        sb.append(c);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static boolean vazio(String valor) {
+        return valor == null || valor.isBlank();
+    }
+}
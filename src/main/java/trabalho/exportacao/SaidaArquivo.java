@@ -0,0 +1,208 @@
+package trabalho.exportacao;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Arquivo de texto UTF-8 gravado por uma thread própria, em blocos (opcionalmente em gzip).
+ *
+ * Quem exporta codifica o texto em blocos de {@link #TAMANHO_BLOCO} bytes e os entrega a uma
+ * fila; a thread de escrita compacta (se for o caso) e grava no FileChannel. Assim a leitura
+ * do banco, a formatação e a escrita em disco andam ao mesmo tempo, e a memória usada é fixa
+ * ({@link #BLOCOS} blocos): se o disco for mais lento, quem exporta espera um bloco livre.
+ *
+ * Uso por uma única thread (a que exporta); close() grava o que falta e espera a escrita.
+ */
+final class SaidaArquivo implements Closeable {
+
+    static final int TAMANHO_BLOCO = 256 * 1024;
+    static final int BLOCOS = 4;
+
+    /** Marca de fim na fila de blocos cheios. */
+    private static final ByteBuffer FIM = ByteBuffer.allocate(0);
+
+    private final FileChannel canal;
+    private final OutputStream gzip;
+    private final BlockingQueue<ByteBuffer> livres = new ArrayBlockingQueue<>(BLOCOS);
+    private final BlockingQueue<ByteBuffer> cheios = new ArrayBlockingQueue<>(BLOCOS + 1);
+    private final CharsetEncoder codificador = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer pendente = CharBuffer.allocate(TAMANHO_BLOCO / 4);
+    private final Thread escritora;
+
+    private ByteBuffer atual;
+    private long bytes;
+    private volatile Throwable erroEscrita;
+    private boolean fechado;
+
+    private SaidaArquivo(FileChannel canal, boolean compactar) throws IOException {
+        this.canal = canal;
+        this.gzip = compactar ? new GZIPOutputStream(Channels.newOutputStream(canal), TAMANHO_BLOCO) : null;
+        for (int i = 0; i < BLOCOS; i++) {
+            // gzip lê de byte[]; sem gzip, o buffer direto vai ao disco sem cópia
+            livres.add(compactar ? ByteBuffer.allocate(TAMANHO_BLOCO) : ByteBuffer.allocateDirect(TAMANHO_BLOCO));
+        }
+        this.atual = livres.poll();
+        this.escritora = Thread.ofVirtual().name("exportacao-escrita").start(this::escreverBlocos);
+    }
+
+    /** Cria (ou substitui) o arquivo; com {@code compactar}, grava em gzip. */
+    static SaidaArquivo abrir(Path arquivo, boolean compactar) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            return new SaidaArquivo(canal, compactar);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /** Acrescenta o texto (copiado; o StringBuilder pode ser reutilizado em seguida). */
+    void escrever(StringBuilder texto) throws IOException {
+        int inicio = 0;
+        int tamanho = texto.length();
+        while (inicio < tamanho) {
+            int n = Math.min(pendente.remaining(), tamanho - inicio);
+            texto.getChars(inicio, inicio + n, pendente.array(), pendente.arrayOffset() + pendente.position());
+            pendente.position(pendente.position() + n);
+            inicio += n;
+            if (!pendente.hasRemaining()) {
+                codificar(false);
+            }
+        }
+    }
+
+    /** Bytes de texto (UTF-8, antes da compactação) já codificados. */
+    long bytes() {
+        return bytes + atual.position();
+    }
+
+    /** Grava o restante, espera a thread de escrita e fecha o arquivo. */
+    @Override
+    public void close() throws IOException {
+        if (fechado) {
+            return;
+        }
+        fechado = true;
+        try {
+            codificar(true);
+            while (codificador.flush(atual).isOverflow()) {
+                enviar();
+            }
+            enviar();
+        } finally {
+            encerrar();
+        }
+        if (erroEscrita != null) {
+            throw erroEscrita instanceof IOException e ? e : new IOException(erroEscrita);
+        }
+    }
+
+    /** Interrompe a gravação (falha de quem exporta): fecha o arquivo sem gravar o que falta. */
+    void abortar() {
+        if (fechado) {
+            return;
+        }
+        fechado = true;
+        try {
+            encerrar();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Codifica o texto pendente nos blocos; um caractere incompleto (surrogate) espera o resto. */
+    private void codificar(boolean fimDoTexto) throws IOException {
+        pendente.flip();
+        while (true) {
+            CoderResult r = codificador.encode(pendente, atual, fimDoTexto);
+            if (!r.isOverflow()) {
+                break;
+            }
+            enviar();
+        }
+        pendente.compact();
+    }
+
+    /** Entrega o bloco atual à thread de escrita e pega um livre (esperando, se o disco estiver atrasado). */
+    private void enviar() throws IOException {
+        if (erroEscrita != null) {
+            throw new IOException("Falha ao gravar o arquivo de exportação.", erroEscrita);
+        }
+        if (atual.position() == 0) {
+            return;
+        }
+        bytes += atual.position();
+        atual.flip();
+        try {
+            cheios.put(atual);
+            atual = livres.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Exportação interrompida.");
+        }
+    }
+
+    private void encerrar() throws IOException {
+        try {
+            cheios.put(FIM);
+            escritora.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            escritora.interrupt();
+            throw new InterruptedIOException("Exportação interrompida.");
+        } finally {
+            canal.close();
+        }
+    }
+
+    /** Thread de escrita: grava cada bloco cheio e o devolve aos livres. */
+    private void escreverBlocos() {
+        try {
+            ByteBuffer bloco;
+            while ((bloco = cheios.take()) != FIM) {
+                try {
+                    if (erroEscrita == null) {
+                        gravar(bloco);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    erroEscrita = e; // continua esvaziando a fila para quem exporta não travar
+                }
+                bloco.clear();
+                livres.put(bloco);
+            }
+            if (gzip != null && erroEscrita == null) {
+                gzip.close(); // grava o final do gzip (e fecha o canal)
+            }
+        } catch (IOException | RuntimeException | InterruptedException e) {
+            erroEscrita = e;
+        }
+    }
+
+    private void gravar(ByteBuffer bloco) throws IOException {
+        if (gzip != null) {
+            gzip.write(bloco.array(), bloco.arrayOffset() + bloco.position(), bloco.remaining());
+        } else {
+            while (bloco.hasRemaining()) {
+                canal.write(bloco);
+            }
+        }
+    }
+}
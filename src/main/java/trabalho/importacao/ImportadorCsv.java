@@ -0,0 +1,253 @@
+package trabalho.importacao;
+
+import trabalho.dao.ObraDAO;
+import trabalho.db.Db;
+import trabalho.model.Obra;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Importa um acervo legado a partir de um arquivo CSV usando {@link ObraDAO#inserirLote}.
+ *
+ * Formato esperado: primeira linha com o cabeçalho (em qualquer ordem)
+ *   titulo;autor;tipo;ano;editora;volume;edicao;isbn;chamada
+ * Separador ";" ou "," (detectado pelo cabeçalho); campos podem vir entre aspas.
+ *
+ * O arquivo é lido sob demanda, bloco a bloco, então pode ser maior que a memória.
+ * Linhas inválidas (mesmas regras da tela de cadastro) são ignoradas e reportadas.
+ *
+ * Uso em linha de comando:
+ *   java ... trabalho.importacao.ImportadorCsv arquivo.csv [tamanhoBloco]
+ */
+public class ImportadorCsv {
+
+    /** Colunas reconhecidas no cabeçalho. */
+    public static final List<String> COLUNAS =
+            List.of("titulo", "autor", "tipo", "ano", "editora", "volume", "edicao", "isbn", "chamada");
+
+    private static final Set<String> TIPOS = Set.of("Livro", "Livro Online", "Revista", "Jornal");
+
+    /**
+     * Resultado da importação.
+     *
+     * @param importadas obras gravadas no banco
+     * @param rejeitadas linhas ignoradas por dados inválidos
+     * @param duracao    tempo total da importação
+     */
+    public record Resultado(int importadas, int rejeitadas, Duration duracao) {
+
+        /** Obras importadas por segundo. */
+        public double obrasPorSegundo() {
+            double segundos = duracao.toNanos() / 1e9;
+            return segundos > 0 ? importadas / segundos : importadas;
+        }
+    }
+
+    private final ObraDAO dao;
+    private final int tamanhoBloco;
+
+    public ImportadorCsv(ObraDAO dao, int tamanhoBloco) {
+        this.dao = dao;
+        this.tamanhoBloco = tamanhoBloco;
+    }
+
+    /** Importa todas as linhas válidas do arquivo. */
+    public Resultado importar(Path arquivo) throws IOException, SQLException {
+        long inicio = System.nanoTime();
+        try (BufferedReader in = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            LeitorLinhas leitor = new LeitorLinhas(in);
+            int importadas;
+            try {
+                importadas = dao.inserirLote(() -> leitor, tamanhoBloco);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return new Resultado(importadas, leitor.rejeitadas, Duration.ofNanos(System.nanoTime() - inicio));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Uso: ImportadorCsv <arquivo.csv> [tamanhoBloco]");
+            System.exit(2);
+        }
+        int bloco = args.length > 1 ? Integer.parseInt(args[1]) : ObraDAO.TAMANHO_BLOCO_PADRAO;
+
+        try {
+            Resultado r = new ImportadorCsv(new ObraDAO(), bloco).importar(Path.of(args[0]));
+            System.out.printf("%d obras importadas, %d linhas rejeitadas, %.1f s (%.0f obras/s)%n",
+                    r.importadas(), r.rejeitadas(), r.duracao().toMillis() / 1000.0, r.obrasPorSegundo());
+        } finally {
+            Db.encerrarPool();
+        }
+    }
+
+    /**
+     * Iterator que lê e converte uma linha por vez. Linhas inválidas são puladas
+     * (e reportadas em System.err) para não interromper a importação inteira.
+     */
+    private static final class LeitorLinhas implements Iterator<Obra> {
+        private final BufferedReader in;
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final char separador;
+        private int numeroLinha = 1;
+        private int rejeitadas;
+        private Obra proxima;
+
+        LeitorLinhas(BufferedReader in) throws IOException {
+            this.in = in;
+            String cabecalho = in.readLine();
+            if (cabecalho == null) {
+                throw new IOException("Arquivo CSV vazio.");
+            }
+            if (cabecalho.startsWith("\uFEFF")) {
+                cabecalho = cabecalho.substring(1); // BOM do Excel
+            }
+            this.separador = cabecalho.indexOf(';') >= 0 ? ';' : ',';
+            List<String> nomes = separar(cabecalho, separador);
+            for (int i = 0; i < nomes.size(); i++) {
+                indices.put(nomes.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String obrigatoria : List.of("titulo", "autor", "tipo", "ano", "editora", "chamada")) {
+                if (!indices.containsKey(obrigatoria)) {
+                    throw new IOException("Coluna obrigatória ausente no cabeçalho: " + obrigatoria);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (proxima != null) {
+                return true;
+            }
+            try {
+                String linha;
+                while ((linha = in.readLine()) != null) {
+                    numeroLinha++;
+                    if (linha.isBlank()) {
+                        continue;
+                    }
+                    Obra obra = converter(separar(linha, separador));
+                    String erro = validar(obra);
+                    if (erro == null) {
+                        proxima = obra;
+                        return true;
+                    }
+                    rejeitadas++;
+                    System.err.println("Linha " + numeroLinha + " ignorada: " + erro);
+                }
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Obra next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Obra obra = proxima;
+            proxima = null;
+            return obra;
+        }
+
+        private Obra converter(List<String> campos) {
+            Obra obra = new Obra();
+            obra.setTitulo(campo(campos, "titulo"));
+            obra.setAutor(campo(campos, "autor"));
+            obra.setTipo_Obra(campo(campos, "tipo"));
+            obra.setAno_Publicacao(campo(campos, "ano"));
+            obra.setEditora(campo(campos, "editora"));
+            obra.setVolume(campo(campos, "volume"));
+            obra.setEdicao(campo(campos, "edicao"));
+            obra.setIsbn(campo(campos, "isbn"));
+            obra.setChamada(campo(campos, "chamada"));
+            return obra;
+        }
+
+        /** Valor aparado da coluna, ou null se ausente/vazio. */
+        private String campo(List<String> campos, String coluna) {
+            Integer i = indices.get(coluna);
+            if (i == null || i >= campos.size()) {
+                return null;
+            }
+            String valor = campos.get(i).trim();
+            return valor.isEmpty() ? null : valor;
+        }
+
+        /** Mesmas regras de ObraController.validar; retorna a mensagem de erro ou null se válida. */
+        private static String validar(Obra obra) {
+            if (obra.getTitulo() == null) {
+                return "título é obrigatório";
+            }
+            if (obra.getAutor() == null) {
+                return "autor é obrigatório";
+            }
+            if (obra.getTipo_Obra() == null || !TIPOS.contains(obra.getTipo_Obra())) {
+                return "tipo inválido (" + obra.getTipo_Obra() + ")";
+            }
+            if (obra.getEditora() == null) {
+                return "editora é obrigatória";
+            }
+            if (obra.getChamada() == null) {
+                return "chamada é obrigatória";
+            }
+            try {
+                int ano = Integer.parseInt(obra.getAno_Publicacao());
+                if (ano < 1500 || ano > 2100) {
+                    return "ano fora do intervalo 1500-2100";
+                }
+            } catch (NumberFormatException e) {
+                return "ano inválido (" + obra.getAno_Publicacao() + ")";
+            }
+            return null;
+        }
+    }
+
+    /** Separa uma linha CSV respeitando campos entre aspas ("" representa uma aspa). */
+    static List<String> separar(String linha, char separador) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"') {
+                    if (i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                        atual.append('"');
+                        i++;
+                    } else {
+                        entreAspas = false;
+                    }
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == separador) {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        campos.add(atual.toString());
+        return campos;
+    }
+}
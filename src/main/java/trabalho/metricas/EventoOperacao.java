@@ -0,0 +1,41 @@
+package trabalho.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de cada operação medida por {@link Metricas} (métodos do ObraDAO e
+ * Db.getConnection). Numa gravação JFR aparece junto de GC, I/O de socket e bloqueios,
+ * o que permite ver por que uma gravação específica foi lenta.
+ *
+ * Sem gravação JFR ativa o custo é praticamente nulo (o evento é descartado sem ser gravado).
+ */
+@Name("trabalho.OperacaoBanco")
+@Label("Operação de Banco")
+@Category({"Museu", "Banco"})
+@Description("Chamada do ObraDAO ou empréstimo de conexão do pool")
+@StackTrace(false)
+class EventoOperacao extends Event {
+
+    @Label("Operação")
+    String operacao;
+
+    @Label("Linhas")
+    long linhas;
+
+    @Label("Dados mapeados")
+    @DataAmount
+    long bytes;
+
+    @Label("Idas ao banco")
+    @Description("Idas e voltas ao banco (comandos, batches, commits...)")
+    int idas;
+
+    @Label("Sucesso")
+    boolean sucesso;
+}
@@ -0,0 +1,87 @@
+package trabalho.metricas;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências no estilo HDR (log-linear), seguro para várias threads e sem travas.
+ *
+ * Cada potência de 2 é dividida em 32 faixas iguais, então qualquer valor é guardado com erro
+ * relativo de no máximo ~3%, de nanossegundos a horas, em um array fixo de contadores.
+ * Registrar custa um incremento atômico; percentis são calculados só na leitura.
+ */
+public class Histograma {
+
+    private static final int BITS_PRECISAO = 5;
+    private static final int FAIXAS = 1 << BITS_PRECISAO;
+    private static final int TAMANHO = (64 - BITS_PRECISAO) * FAIXAS;
+
+    private final AtomicLongArray contagens = new AtomicLongArray(TAMANHO);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder soma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    /** Registra um valor (ex.: duração em nanossegundos). Negativos contam como 0. */
+    public void registrar(long valor) {
+        long v = Math.max(0, valor);
+        contagens.incrementAndGet(indice(v));
+        total.increment();
+        soma.add(v);
+        maximo.accumulate(v);
+    }
+
+    public long quantidade() {
+        return total.sum();
+    }
+
+    public double media() {
+        long n = total.sum();
+        return n == 0 ? 0 : (double) soma.sum() / n;
+    }
+
+    public long maximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Valor abaixo do qual estão {@code percentil}% dos registros (limite superior da faixa).
+     *
+     * @param percentil de 0 a 100
+     */
+    public long percentil(double percentil) {
+        long n = total.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long alvo = Math.max(1, (long) Math.ceil(percentil / 100.0 * n));
+        long acumulado = 0;
+        for (int i = 0; i < TAMANHO; i++) {
+            acumulado += contagens.get(i);
+            if (acumulado >= alvo) {
+                return Math.min(limiteSuperior(i), maximo());
+            }
+        }
+        return maximo();
+    }
+
+    /** Faixa do valor: valores pequenos têm faixa própria; os demais, expoente + 5 bits de mantissa. */
+    private static int indice(long v) {
+        if (v < FAIXAS) {
+            return (int) v;
+        }
+        int expoente = 63 - Long.numberOfLeadingZeros(v);
+        int mantissa = (int) (v >>> (expoente - BITS_PRECISAO)) & (FAIXAS - 1);
+        return (expoente - BITS_PRECISAO + 1) * FAIXAS + mantissa;
+    }
+
+    private static long limiteSuperior(int indice) {
+        if (indice < FAIXAS) {
+            return indice;
+        }
+        int grupo = indice / FAIXAS;
+        int mantissa = indice % FAIXAS;
+        int deslocamento = grupo - 1;
+        return ((long) (FAIXAS + mantissa + 1) << deslocamento) - 1;
+    }
+}
@@ -0,0 +1,226 @@
+package trabalho.metricas;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * Medição das operações de banco: latência (histograma), erros, linhas devolvidas,
+ * dados mapeados e idas e voltas ao banco, por operação ("ObraDAO.listar", "Db.getConnection"...).
+ *
+ * Uso: {@code return Metricas.medir("ObraDAO.listar", this::listarNoBanco, List::size);}
+ *
+ * O custo por chamada é de alguns contadores atômicos; cada medição também vira um evento
+ * JFR ({@link EventoOperacao}) quando há gravação ativa. Os números podem ser vistos no
+ * painel de desempenho da tela ou exportados periodicamente para um arquivo CSV.
+ *
+ * As idas ao banco são informadas pelas conexões do pool ({@code trabalho.db.ConexaoContada})
+ * e somadas à operação em andamento na thread; medições aninhadas (ex.: Db.getConnection dentro
+ * de ObraDAO.inserir) repassam seus números à operação externa.
+ */
+public final class Metricas {
+
+    /** Operação medida (mesma forma das operações do DAO). */
+    @FunctionalInterface
+    public interface Operacao<T> {
+        T executar() throws SQLException;
+    }
+
+    private static final class Operacoes {
+        final Histograma tempos = new Histograma();
+        final LongAdder erros = new LongAdder();
+        final LongAdder linhas = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder idas = new LongAdder();
+        final LongAccumulator idasMaximo = new LongAccumulator(Math::max, 0);
+        final LongAdder comandos = new LongAdder();
+        final LongAdder linhasAlteradas = new LongAdder();
+    }
+
+    /** Medição em andamento na thread (recebe bytes e idas ao banco; pode haver medições aninhadas). */
+    private static final class Medicao {
+        final Medicao anterior;
+        long bytes;
+        int idas;
+        int comandos;
+        long linhasAlteradas;
+
+        Medicao(Medicao anterior) {
+            this.anterior = anterior;
+        }
+    }
+
+    private static final Map<String, Operacoes> OPERACOES = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Medicao> ATUAL = new ThreadLocal<>();
+
+    private Metricas() {
+    }
+
+    /**
+     * Executa e mede uma operação.
+     *
+     * @param nome   nome da operação nos relatórios
+     * @param linhas quantas linhas o resultado representa (ex.: List::size)
+     */
+    public static <T> T medir(String nome, Operacao<T> operacao, ToIntFunction<? super T> linhas)
+            throws SQLException {
+        Operacoes op = OPERACOES.computeIfAbsent(nome, k -> new Operacoes());
+        EventoOperacao evento = new EventoOperacao();
+        evento.begin();
+        Medicao medicao = new Medicao(ATUAL.get());
+        ATUAL.set(medicao);
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        int quantidade = 0;
+        try {
+            T resultado = operacao.executar();
+            quantidade = resultado != null ? linhas.applyAsInt(resultado) : 0;
+            sucesso = true;
+            return resultado;
+        } finally {
+            op.tempos.registrar(System.nanoTime() - inicio);
+            op.linhas.add(quantidade);
+            op.bytes.add(medicao.bytes);
+            op.idas.add(medicao.idas);
+            op.idasMaximo.accumulate(medicao.idas);
+            op.comandos.add(medicao.comandos);
+            op.linhasAlteradas.add(medicao.linhasAlteradas);
+            if (!sucesso) {
+                op.erros.increment();
+            }
+            Medicao externa = medicao.anterior;
+            if (externa != null) {
+                externa.bytes += medicao.bytes;
+                externa.idas += medicao.idas;
+                externa.comandos += medicao.comandos;
+                externa.linhasAlteradas += medicao.linhasAlteradas;
+                ATUAL.set(externa);
+            } else {
+                ATUAL.remove();
+            }
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.operacao = nome;
+                evento.linhas = quantidade;
+                evento.bytes = medicao.bytes;
+                evento.idas = medicao.idas;
+                evento.sucesso = sucesso;
+                evento.commit();
+            }
+        }
+    }
+
+    /** Soma bytes de dados mapeados à operação em andamento na thread (se houver). */
+    public static void registrarBytes(long bytes) {
+        Medicao medicao = ATUAL.get();
+        if (medicao != null) {
+            medicao.bytes += bytes;
+        }
+    }
+
+    /**
+     * Registra uma ida e volta ao banco na operação em andamento na thread (se houver).
+     *
+     * @param comandos        comandos SQL enviados nessa ida (0 para commit/rollback/validação)
+     * @param linhasAlteradas linhas alteradas informadas pelo banco
+     */
+    public static void registrarIda(int comandos, long linhasAlteradas) {
+        Medicao medicao = ATUAL.get();
+        if (medicao != null) {
+            medicao.idas++;
+            medicao.comandos += comandos;
+            medicao.linhasAlteradas += linhasAlteradas;
+        }
+    }
+
+    /** Números de todas as operações, em ordem de nome. */
+    public static List<ResumoOperacao> resumo() {
+        List<ResumoOperacao> resumo = new ArrayList<>();
+        for (Map.Entry<String, Operacoes> e : OPERACOES.entrySet()) {
+            Operacoes op = e.getValue();
+            Histograma t = op.tempos;
+            resumo.add(new ResumoOperacao(e.getKey(), t.quantidade(), op.erros.sum(), op.linhas.sum(),
+                    op.bytes.sum(), op.idas.sum(), op.idasMaximo.get(), op.comandos.sum(),
+                    op.linhasAlteradas.sum(), t.media() / 1e6, t.percentil(50) / 1e6, t.percentil(90) / 1e6,
+                    t.percentil(99) / 1e6, t.maximo() / 1e6));
+        }
+        resumo.sort((a, b) -> a.operacao().compareTo(b.operacao()));
+        return resumo;
+    }
+
+    /** Tabela de texto (fonte monoespaçada) com o resumo de cada operação. */
+    public static String relatorio() {
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT,
+                "%-28s %8s %6s %9s %9s %9s %9s %9s %10s %10s %7s %7s%n",
+                "operação", "chamadas", "erros", "média ms", "p50 ms", "p90 ms", "p99 ms", "máx ms",
+                "linhas", "KB", "idas", "idasMax"));
+        for (ResumoOperacao r : resumo()) {
+            sb.append(String.format(Locale.ROOT,
+                    "%-28s %8d %6d %9.2f %9.2f %9.2f %9.2f %9.2f %10d %10d %7.1f %7d%n",
+                    r.operacao(), r.chamadas(), r.erros(), r.mediaMs(), r.p50Ms(), r.p90Ms(), r.p99Ms(),
+                    r.maximoMs(), r.linhas(), r.bytes() / 1024, r.idasPorChamada(), r.idasMaximo()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Acrescenta o resumo ao arquivo CSV a cada intervalo (uma linha por operação, com data/hora),
+     * numa thread daemon. O cabeçalho é escrito se o arquivo ainda não existir.
+     */
+    public static void exportarPeriodicamente(Path arquivo, Duration intervalo) {
+        ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metricas-exportacao");
+            t.setDaemon(true);
+            return t;
+        });
+        long ms = intervalo.toMillis();
+        agendador.scheduleWithFixedDelay(() -> exportar(arquivo), ms, ms, TimeUnit.MILLISECONDS);
+    }
+
+    /** Acrescenta o resumo atual ao arquivo CSV (separador ";"). */
+    public static void exportar(Path arquivo) {
+        String agora = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        try {
+            boolean novo = !Files.exists(arquivo);
+            try (Writer out = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (novo) {
+                    out.write("instante;operacao;chamadas;erros;linhas;bytes;idas;idas_max;comandos;"
+                            + "linhas_alteradas;media_ms;p50_ms;p90_ms;p99_ms;max_ms\n");
+                }
+                for (ResumoOperacao r : resumo()) {
+                    out.write(String.format(Locale.ROOT,
+                            "%s;%s;%d;%d;%d;%d;%d;%d;%d;%d;%.3f;%.3f;%.3f;%.3f;%.3f%n",
+                            agora, r.operacao(), r.chamadas(), r.erros(), r.linhas(), r.bytes(),
+                            r.idas(), r.idasMaximo(), r.comandos(), r.linhasAlteradas(), r.mediaMs(), r.p50Ms(), r.p90Ms(), r.p99Ms(), r.maximoMs()));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Falha ao exportar métricas para " + arquivo + ": " + e.getMessage());
+        }
+    }
+
+    /** Descarta os números acumulados. */
+    public static void zerar() {
+        OPERACOES.clear();
+    }
+}
@@ -0,0 +1,20 @@
+package trabalho.metricas;
+
+/**
+ * Números acumulados de uma operação desde o início da aplicação (ou do último zerar).
+ * Tempos em milissegundos.
+ *
+ * @param idas            idas e voltas ao banco somadas de todas as chamadas
+ * @param idasMaximo      maior quantidade de idas e voltas numa única chamada
+ * @param comandos        comandos SQL executados (cada item de um batch conta um)
+ * @param linhasAlteradas linhas inseridas/atualizadas/excluídas informadas pelo banco
+ */
+public record ResumoOperacao(String operacao, long chamadas, long erros, long linhas, long bytes,
+                             long idas, long idasMaximo, long comandos, long linhasAlteradas,
+                             double mediaMs, double p50Ms, double p90Ms, double p99Ms, double maximoMs) {
+
+    /** Média de idas e voltas ao banco por chamada. */
+    public double idasPorChamada() {
+        return chamadas == 0 ? 0 : (double) idas / chamadas;
+    }
+}
@@ -0,0 +1,45 @@
+package trabalho.model;
+
+import java.util.List;
+
+/**
+ * Leitura dos dados de uma obra: os getters de {@link Obra}, implementados também pela
+ * {@link ObraCompacta}. Quem só lê (ordenação, filtros, índice de busca, exportação da cópia
+ * local) aceita qualquer uma das duas.
+ */
+public interface DadosObra {
+
+    Integer getId();
+
+    String getTitulo();
+
+    String getTipo_Obra();
+
+    String getAno_Publicacao();
+
+    String getAutor();
+
+    /** Autores da obra, na ordem (o primeiro é o principal). Lista imutável, nunca null. */
+    List<String> getAutores();
+
+    String getEditora();
+
+    String getVolume();
+
+    String getEdicao();
+
+    String getIsbn();
+
+    String getChamada();
+
+    String getNumero();
+
+    /**
+     * Ano de publicação como número.
+     *
+     * @throws NumberFormatException se a obra não tiver um ano válido
+     */
+    default int anoPublicacao() {
+        return Integer.parseInt(getAno_Publicacao());
+    }
+}
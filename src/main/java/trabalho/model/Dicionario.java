@@ -0,0 +1,33 @@
+package trabalho.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Textos repetidos em muitas obras (nomes de autores e editoras, edições, volumes) guardados
+ * uma vez: {@link #compartilhado} devolve sempre a mesma String para o mesmo texto.
+ *
+ * Um mapa próprio em vez de String.intern(): os textos do acervo não vão para a tabela de
+ * strings da JVM e a quantidade guardada pode ser informada. Os textos não saem do mapa; são
+ * poucos perto das obras (dezenas de milhares de nomes para milhões de obras). Thread-safe.
+ */
+final class Dicionario {
+
+    private static final ConcurrentHashMap<String, String> TEXTOS = new ConcurrentHashMap<>();
+
+    private Dicionario() {
+    }
+
+    /** A String guardada para o texto (a própria, na primeira vez). */
+    static String compartilhado(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String existente = TEXTOS.putIfAbsent(texto, texto);
+        return existente != null ? existente : texto;
+    }
+
+    /** Quantidade de textos distintos guardados. */
+    static int tamanho() {
+        return TEXTOS.size();
+    }
+}
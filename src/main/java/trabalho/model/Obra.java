@@ -1,11 +1,19 @@
 package trabalho.model;
 
-public class Obra  {
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+public class Obra implements DadosObra {
+    /** Separador dos autores no texto de getAutor()/setAutor() (tela, CSV, cópia local). */
+    public static final String SEPARADOR_AUTORES = "; ";
+
     private Integer id;
     private String titulo;
     private String tipo_Obra;
     private String ano_Publicacao;
-    private String autor;
+    private String autor; // texto dos autores, na ordem, separados por SEPARADOR_AUTORES
+    private List<String> autores = List.of();
     private String editora;
     private String volume;
     private String edicao;
@@ -30,7 +38,7 @@ public class Obra  {
         this.titulo = titulo;
         this.tipo_Obra = tipo_Obra;
         this.ano_Publicacao = ano_Publicacao;
-        this.autor = autor;
+        setAutor(autor);
         this.editora = editora;
     }
 
@@ -40,7 +48,7 @@ public class Obra  {
         this.titulo = titulo;
         this.tipo_Obra = tipo_Obra;
         this.ano_Publicacao = ano_Publicacao;
-        this.autor = autor;
+        setAutor(autor);
         this.editora = editora;
         this.chamada = chamada;
         this.numero = numero;
@@ -83,8 +91,42 @@ public class Obra  {
         return autor;
     }
 
+    /**
+     * Define os autores a partir do texto: um nome, ou vários separados por ";"
+     * (espaços nas pontas e nomes vazios ou repetidos são ignorados).
+     */
     public void setAutor(String autor) {
-        this.autor = autor;
+        if (autor == null || autor.indexOf(';') < 0) {
+            this.autor = autor;
+            this.autores = autor == null ? List.of() : List.of(autor);
+            return;
+        }
+        List<String> nomes = new ArrayList<>();
+        for (String nome : autor.split(";")) {
+            nomes.add(nome.trim());
+        }
+        setAutores(nomes);
+    }
+
+    /** Autores da obra, na ordem (o primeiro é o principal). Lista imutável, nunca null. */
+    public List<String> getAutores() {
+        return autores;
+    }
+
+    public void setAutores(List<String> autores) {
+        if (autores.size() == 1 && autores.get(0) != null && !autores.get(0).isBlank()) {
+            this.autores = List.of(autores.get(0)); // caso mais comum: um autor
+            this.autor = autores.get(0);
+            return;
+        }
+        LinkedHashSet<String> nomes = new LinkedHashSet<>();
+        for (String nome : autores) {
+            if (nome != null && !nome.isBlank()) {
+                nomes.add(nome);
+            }
+        }
+        this.autores = List.copyOf(nomes);
+        this.autor = nomes.isEmpty() ? null : String.join(SEPARADOR_AUTORES, nomes);
     }
 
     public String getEditora() {
@@ -0,0 +1,235 @@
+package trabalho.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Obra guardada em memória com o mínimo de objetos, para uma estação manter o catálogo
+ * inteiro (milhões de obras): a cópia local (AcervoLocal) e o índice de busca (IndiceObras)
+ * guardam ObraCompacta, e a tela e o DAO continuam com Obra ({@link #paraObra}).
+ *
+ * Em relação a Obra:
+ * - id em int e ano em short (Obra: Integer e String); tipo num byte ({@link TipoObra}; um texto
+ *   que não é de nenhum tipo fica como "Desconhecido", o mesmo que o ObraDAO devolve);
+ * - autores, editora, edição e volume são a mesma String em todas as obras com o mesmo texto
+ *   ({@link Dicionario}). Lida do banco, cada linha traz Strings novas, até para a editora de
+ *   milhares de obras;
+ * - volume, edição, ISBN e número, que muitas obras não têm, ficam num array só com os
+ *   presentes (null se nenhum), com uma máscara dos que existem;
+ * - a lista de autores não é guardada: {@link #getAutores()} divide o texto quando pedida.
+ *
+ * Os getters de Obra ({@link DadosObra}) devolvem os mesmos valores. Imutável: uma gravação
+ * gera outra ObraCompacta. Thread-safe.
+ */
+public final class ObraCompacta implements DadosObra {
+
+    private static final short SEM_ANO = Short.MIN_VALUE;
+    private static final byte SEM_TIPO = -1;
+
+    // Bits de "presentes", na ordem em que os opcionais ficam no array
+    private static final int VOLUME = 1;
+    private static final int EDICAO = 2;
+    private static final int ISBN = 4;
+    private static final int NUMERO = 8;
+
+    private final int id;
+    private final String titulo;
+    private final String autor;
+    private final String editora;
+    private final String chamada;
+    private final String[] opcionais;
+    private final short ano;
+    private final byte tipo;
+    private final byte presentes;
+
+    private ObraCompacta(int id, String titulo, String autor, String editora, String chamada,
+                         String[] opcionais, short ano, byte tipo, byte presentes) {
+        this.id = id;
+        this.titulo = titulo;
+        this.autor = autor;
+        this.editora = editora;
+        this.chamada = chamada;
+        this.opcionais = opcionais;
+        this.ano = ano;
+        this.tipo = tipo;
+        this.presentes = presentes;
+    }
+
+    /**
+     * Versão compacta dos dados de uma obra já gravada.
+     *
+     * @throws IllegalArgumentException sem id ou com ano fora de um short
+     * @throws NumberFormatException    com ano que não é número
+     */
+    public static ObraCompacta de(DadosObra obra) {
+        if (obra instanceof ObraCompacta compacta) {
+            return compacta;
+        }
+        if (obra.getId() == null) {
+            throw new IllegalArgumentException("Obra sem id: " + obra.getTitulo());
+        }
+        TipoObra tipo = TipoObra.lido(obra.getTipo_Obra());
+
+        short ano = SEM_ANO;
+        if (obra.getAno_Publicacao() != null) {
+            int valor = Integer.parseInt(obra.getAno_Publicacao());
+            if (valor <= Short.MIN_VALUE || valor > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Ano fora do intervalo: " + valor);
+            }
+            ano = (short) valor;
+        }
+
+        String[] valores = {
+                Dicionario.compartilhado(obra.getVolume()),
+                Dicionario.compartilhado(obra.getEdicao()),
+                obra.getIsbn(),
+                Dicionario.compartilhado(obra.getNumero())
+        };
+        int presentes = 0;
+        int quantidade = 0;
+        for (int i = 0; i < valores.length; i++) {
+            if (valores[i] != null) {
+                presentes |= 1 << i;
+                valores[quantidade++] = valores[i];
+            }
+        }
+
+        return new ObraCompacta(obra.getId(), obra.getTitulo(), Dicionario.compartilhado(obra.getAutor()),
+                Dicionario.compartilhado(obra.getEditora()), obra.getChamada(),
+                quantidade == 0 ? null : Arrays.copyOf(valores, quantidade), ano,
+                tipo == null ? SEM_TIPO : (byte) tipo.ordinal(), (byte) presentes);
+    }
+
+    /** Obra com os mesmos dados, para a tela e o DAO (um objeto novo a cada chamada). */
+    public Obra paraObra() {
+        Obra obra = new Obra(id, titulo, getTipo_Obra(), getAno_Publicacao(), autor, editora, chamada, getNumero());
+        obra.setVolume(getVolume());
+        obra.setEdicao(getEdicao());
+        obra.setIsbn(getIsbn());
+        return obra;
+    }
+
+    /** id_obra, sem criar um Integer. */
+    public int id() {
+        return id;
+    }
+
+    /** Tipo da obra (null se não informado). */
+    public TipoObra tipo() {
+        return tipo == SEM_TIPO ? null : TipoObra.doIndice(tipo);
+    }
+
+    // ======== Getters de Obra ========
+
+    @Override
+    public Integer getId() {
+        return id;
+    }
+
+    @Override
+    public String getTitulo() {
+        return titulo;
+    }
+
+    @Override
+    public String getTipo_Obra() {
+        return tipo == SEM_TIPO ? null : TipoObra.doIndice(tipo).nome();
+    }
+
+    @Override
+    public String getAno_Publicacao() {
+        return ano == SEM_ANO ? null : Integer.toString(ano);
+    }
+
+    @Override
+    public int anoPublicacao() {
+        if (ano == SEM_ANO) {
+            throw new NumberFormatException("Obra sem ano de publicação: " + id);
+        }
+        return ano;
+    }
+
+    @Override
+    public String getAutor() {
+        return autor;
+    }
+
+    @Override
+    public List<String> getAutores() {
+        if (autor == null) {
+            return List.of();
+        }
+        if (autor.indexOf(';') < 0) {
+            return List.of(autor);
+        }
+        List<String> nomes = new ArrayList<>();
+        for (String nome : autor.split(";")) {
+            nomes.add(nome.trim()); // o mesmo texto que Obra.setAutores juntou
+        }
+        return List.copyOf(nomes);
+    }
+
+    @Override
+    public String getEditora() {
+        return editora;
+    }
+
+    @Override
+    public String getVolume() {
+        return opcional(VOLUME);
+    }
+
+    @Override
+    public String getEdicao() {
+        return opcional(EDICAO);
+    }
+
+    @Override
+    public String getIsbn() {
+        return opcional(ISBN);
+    }
+
+    @Override
+    public String getChamada() {
+        return chamada;
+    }
+
+    @Override
+    public String getNumero() {
+        return opcional(NUMERO);
+    }
+
+    /** Valor de um campo opcional: a posição no array é a quantidade de presentes antes dele. */
+    private String opcional(int campo) {
+        if ((presentes & campo) == 0) {
+            return null;
+        }
+        return opcionais[Integer.bitCount(presentes & (campo - 1))];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ObraCompacta outra)) {
+            return false;
+        }
+        return id == outra.id && ano == outra.ano && tipo == outra.tipo && presentes == outra.presentes
+                && Objects.equals(titulo, outra.titulo) && Objects.equals(autor, outra.autor)
+                && Objects.equals(editora, outra.editora) && Objects.equals(chamada, outra.chamada)
+                && Arrays.equals(opcionais, outra.opcionais);
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ObraCompacta{id=" + id + ", titulo='" + titulo + "'}";
+    }
+}
@@ -0,0 +1,73 @@
+package trabalho.model;
+
+/**
+ * Tipos de obra do acervo, com o nome usado na tela, no banco e nos arquivos.
+ *
+ * DESCONHECIDO é o que as listagens do ObraDAO devolvem para uma obra sem linha em nenhuma
+ * tabela específica (livros, revistas...); não é um tipo que se possa cadastrar.
+ */
+public enum TipoObra {
+    LIVRO("Livro"),
+    LIVRO_ONLINE("Livro Online"),
+    REVISTA("Revista"),
+    JORNAL("Jornal"),
+    DESCONHECIDO("Desconhecido");
+
+    private static final TipoObra[] TIPOS = values();
+
+    private final String nome;
+
+    TipoObra(String nome) {
+        this.nome = nome;
+    }
+
+    /** Nome do tipo ("Livro Online"), o valor de Obra.getTipo_Obra(). */
+    public String nome() {
+        return nome;
+    }
+
+    /**
+     * Tipo pelo nome ("Livro", "Livro Online", "Revista" ou "Jornal").
+     *
+     * @return null se {@code nome} for null
+     * @throws IllegalArgumentException se o nome não for de um tipo conhecido
+     */
+    public static TipoObra de(String nome) {
+        if (nome == null) {
+            return null;
+        }
+        for (TipoObra tipo : TIPOS) {
+            if (tipo.nome.equals(nome)) {
+                return tipo;
+            }
+        }
+        throw new IllegalArgumentException("Tipo de obra desconhecido: " + nome);
+    }
+
+    /**
+     * Tipo de uma obra lida do banco ou de um arquivo: como {@link #de}, mas um nome que não é
+     * de nenhum tipo vira DESCONHECIDO em vez de erro (a obra continua na cópia e na busca).
+     *
+     * @return null se {@code nome} for null
+     */
+    public static TipoObra lido(String nome) {
+        if (nome == null) {
+            return null;
+        }
+        for (TipoObra tipo : TIPOS) {
+            if (tipo.nome.equals(nome)) {
+                return tipo;
+            }
+        }
+        return DESCONHECIDO;
+    }
+
+    static TipoObra doIndice(int indice) {
+        return TIPOS[indice];
+    }
+
+    @Override
+    public String toString() {
+        return nome;
+    }
+}
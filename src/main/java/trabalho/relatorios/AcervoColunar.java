@@ -0,0 +1,455 @@
+package trabalho.relatorios;
+
+import trabalho.dao.FiltroObras;
+import trabalho.dao.ObraDAO;
+import trabalho.metricas.Metricas;
+import trabalho.model.DadosObra;
+import trabalho.model.Obra;
+import trabalho.model.TipoObra;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Acervo em colunas, para relatórios que agregam o acervo inteiro ("revistas por década",
+ * "editoras com mais obras") sem percorrer objetos Obra.
+ *
+ * Cada coluna é um array primitivo indexado pela linha (0 a tamanho - 1):
+ * - id em int[], ano em short[] e tipo em byte[] (ordinal de {@link TipoObra});
+ * - editora em int[]: o código do nome no dicionário de editoras;
+ * - autores: os códigos no dicionário de autores de todas as linhas, uma após a outra
+ *   (os da linha i vão de inicioAutores[i] a inicioAutores[i + 1]), pois uma obra pode ter vários;
+ * - um bitmap por tipo (long[], um bit por linha).
+ *
+ * Uma consulta parte de uma {@link Selecao} (todas as linhas, um tipo, uma faixa de anos ou
+ * combinações) e conta ou agrupa as linhas selecionadas. Os laços percorrem os arrays em
+ * sequência, 64 linhas por palavra do bitmap, sem objetos por linha; a partir de
+ * {@link #PARALELO_A_PARTIR_DE} linhas, os blocos de palavras são divididos entre os núcleos
+ * (ForkJoinPool comum), cada um com as próprias contagens, somadas no fim.
+ *
+ * É um retrato do acervo: montado de uma vez ({@link #carregar} do banco, {@link #de} de obras já
+ * em memória) e imutável depois, então pode ser consultado de várias threads. Para refletir as
+ * gravações seguintes, monte outro.
+ *
+ * <pre>
+ * AcervoColunar acervo = AcervoColunar.carregar(dao);
+ * Map&lt;String, Integer&gt; porDecada = acervo.agrupar(Agrupamento.DECADA, acervo.doTipo(TipoObra.REVISTA));
+ * List&lt;Map.Entry&lt;String, Integer&gt;&gt; editoras = acervo.maiores(Agrupamento.EDITORA, acervo.todas(), 10);
+ * </pre>
+ */
+public final class AcervoColunar {
+
+    /** Linhas a partir das quais as consultas rodam em paralelo. */
+    public static final int PARALELO_A_PARTIR_DE = 1 << 17;
+
+    // Palavras do bitmap (64 linhas cada) por tarefa das consultas em paralelo
+    private static final int PALAVRAS_POR_BLOCO = 1 << 10;
+
+    private static final short SEM_ANO = Short.MIN_VALUE;
+    private static final byte SEM_TIPO = -1;
+    private static final int SEM_EDITORA = -1;
+    private static final TipoObra[] TIPOS = TipoObra.values();
+
+    private final int tamanho;
+    private final int[] ids;
+    private final short[] anos;
+    private final byte[] tipos;
+    private final int[] editoras;
+    private final int[] inicioAutores;
+    private final int[] autores;
+    private final String[] nomesEditoras;
+    private final String[] nomesAutores;
+    private final long[][] bitmapsTipo; // [ordinal do tipo][palavra]
+    private final int anoMinimo;        // menor e maior ano informado (0 e -1 se nenhum)
+    private final int anoMaximo;
+
+    private AcervoColunar(Montagem m) {
+        tamanho = m.tamanho;
+        ids = Arrays.copyOf(m.ids, tamanho);
+        anos = Arrays.copyOf(m.anos, tamanho);
+        tipos = Arrays.copyOf(m.tipos, tamanho);
+        editoras = Arrays.copyOf(m.editoras, tamanho);
+        inicioAutores = Arrays.copyOf(m.inicioAutores, tamanho + 1);
+        autores = Arrays.copyOf(m.autores, m.totalAutores);
+        nomesEditoras = m.nomesEditoras.toArray(new String[0]);
+        nomesAutores = m.nomesAutores.toArray(new String[0]);
+
+        bitmapsTipo = new long[TIPOS.length][palavras()];
+        int menor = Integer.MAX_VALUE;
+        int maior = Integer.MIN_VALUE;
+        for (int linha = 0; linha < tamanho; linha++) {
+            if (tipos[linha] != SEM_TIPO) {
+                bitmapsTipo[tipos[linha]][linha >>> 6] |= 1L << linha;
+            }
+            if (anos[linha] != SEM_ANO) {
+                menor = Math.min(menor, anos[linha]);
+                maior = Math.max(maior, anos[linha]);
+            }
+        }
+        anoMinimo = menor <= maior ? menor : 0;
+        anoMaximo = menor <= maior ? maior : -1;
+    }
+
+    /**
+     * Monta o acervo em colunas com todas as obras do banco, lidas pelo cursor de
+     * {@link ObraDAO#stream} (sem uma lista de Obra no meio).
+     */
+    public static AcervoColunar carregar(ObraDAO dao) throws SQLException {
+        return Metricas.medir("AcervoColunar.carregar", () -> {
+            try (Stream<Obra> obras = dao.stream(FiltroObras.TODAS)) {
+                return de(obras);
+            }
+        }, AcervoColunar::tamanho);
+    }
+
+    /**
+     * Monta o acervo em colunas com as obras do Stream (por exemplo, as da cópia local:
+     * {@code AcervoColunar.de(acervoLocal.compactas().stream())}), na ordem em que vierem.
+     *
+     * @throws IllegalArgumentException obra sem id
+     */
+    public static AcervoColunar de(Stream<? extends DadosObra> obras) {
+        Montagem montagem = new Montagem();
+        obras.forEachOrdered(montagem::adicionar);
+        return new AcervoColunar(montagem);
+    }
+
+    /** Quantidade de obras (linhas). */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    // ======== Seleções ========
+
+    /** Todas as linhas. */
+    public Selecao todas() {
+        long[] bits = new long[palavras()];
+        Arrays.fill(bits, -1L);
+        if (tamanho % 64 != 0) {
+            bits[bits.length - 1] = (1L << tamanho) - 1; // só as linhas que existem na última palavra
+        }
+        return new Selecao(bits, tamanho);
+    }
+
+    /** Linhas de um tipo (o bitmap do tipo, sem cópia nem varredura). */
+    public Selecao doTipo(TipoObra tipo) {
+        return new Selecao(bitmapsTipo[tipo.ordinal()], tamanho);
+    }
+
+    /**
+     * Linhas com ano de publicação entre anoMinimo e anoMaximo (inclusive); obras sem ano
+     * ficam de fora. Integer.MIN_VALUE / MAX_VALUE = sem limite.
+     */
+    public Selecao entreAnos(int anoMinimo, int anoMaximo) {
+        int minimo = Math.max(anoMinimo, SEM_ANO + 1);
+        int maximo = Math.min(anoMaximo, Short.MAX_VALUE);
+        long[] bits = new long[palavras()];
+        if (minimo <= maximo) {
+            int largura = maximo - minimo;
+            IntStream palavras = IntStream.range(0, bits.length);
+            if (tamanho >= PARALELO_A_PARTIR_DE) {
+                palavras = palavras.parallel();
+            }
+            palavras.forEach(p -> bits[p] = palavraEntreAnos(p, minimo, largura));
+        }
+        return new Selecao(bits, tamanho);
+    }
+
+    /** Bits das 64 linhas da palavra p com ano em [minimo, minimo + largura], sem desvio por linha. */
+    private long palavraEntreAnos(int p, int minimo, int largura) {
+        int inicio = p << 6;
+        int fim = Math.min(inicio + 64, tamanho);
+        long palavra = 0;
+        for (int linha = inicio; linha < fim; linha++) {
+            // Abaixo do mínimo (e SEM_ANO) a diferença é negativa: sem sinal, maior que a largura
+            long dentro = Integer.compareUnsigned(anos[linha] - minimo, largura) <= 0 ? 1L : 0L;
+            palavra |= dentro << (linha - inicio);
+        }
+        return palavra;
+    }
+
+    /** id_obra das linhas selecionadas, na ordem das linhas (para buscar as obras no DAO). */
+    public int[] ids(Selecao selecao) {
+        long[] bits = bitsDe(selecao);
+        int[] resultado = new int[selecao.contar()];
+        int n = 0;
+        for (int p = 0; p < bits.length; p++) {
+            long palavra = bits[p];
+            while (palavra != 0) {
+                resultado[n++] = ids[(p << 6) + Long.numberOfTrailingZeros(palavra)];
+                palavra &= palavra - 1;
+            }
+        }
+        return resultado;
+    }
+
+    // ======== Agregações ========
+
+    /** Quantidade de linhas selecionadas. */
+    public int contar(Selecao selecao) {
+        bitsDe(selecao);
+        return selecao.contar();
+    }
+
+    /**
+     * Quantidade de obras selecionadas por grupo, sem os grupos vazios (nem as obras sem o
+     * valor: sem ano, sem editora...). Em ordem de grupo: tipo, ano e década em ordem crescente;
+     * editoras e autores em ordem de nome.
+     */
+    public Map<String, Integer> agrupar(Agrupamento por, Selecao selecao) {
+        int[] contagens = contagens(por, selecao);
+        List<Integer> grupos = gruposNaoVazios(contagens);
+        if (por == Agrupamento.EDITORA || por == Agrupamento.AUTOR) {
+            grupos.sort(Comparator.comparing(grupo -> nomeGrupo(por, grupo)));
+        }
+        Map<String, Integer> resultado = new LinkedHashMap<>();
+        for (int grupo : grupos) {
+            resultado.put(nomeGrupo(por, grupo), contagens[grupo]);
+        }
+        return resultado;
+    }
+
+    /** Os {@code limite} grupos com mais obras selecionadas, do maior para o menor (empate: nome). */
+    public List<Map.Entry<String, Integer>> maiores(Agrupamento por, Selecao selecao, int limite) {
+        int[] contagens = contagens(por, selecao);
+        List<Integer> grupos = gruposComPeloMenos(contagens, minimoDosMaiores(contagens, limite));
+        grupos.sort(Comparator.comparingInt((Integer grupo) -> contagens[grupo]).reversed()
+                .thenComparing(grupo -> nomeGrupo(por, grupo)));
+        List<Map.Entry<String, Integer>> resultado = new ArrayList<>();
+        for (int grupo : grupos.subList(0, Math.min(limite, grupos.size()))) {
+            resultado.add(Map.entry(nomeGrupo(por, grupo), contagens[grupo]));
+        }
+        return resultado;
+    }
+
+    /** Contagem por código de grupo (posição no array). */
+    private int[] contagens(Agrupamento por, Selecao selecao) {
+        long[] bits = bitsDe(selecao);
+        switch (por) {
+            case TIPO:
+                return contar(bits, TIPOS.length, (de, ate, contagens) -> {
+                    for (int t = 0; t < TIPOS.length; t++) {
+                        long[] doTipo = bitmapsTipo[t];
+                        int total = 0;
+                        for (int p = de; p < ate; p++) {
+                            total += Long.bitCount(bits[p] & doTipo[p]);
+                        }
+                        contagens[t] += total;
+                    }
+                });
+            case ANO:
+                return contar(bits, anoMaximo - anoMinimo + 1, (de, ate, contagens) -> {
+                    for (int p = de; p < ate; p++) {
+                        for (long palavra = bits[p]; palavra != 0; palavra &= palavra - 1) {
+                            int ano = anos[(p << 6) + Long.numberOfTrailingZeros(palavra)];
+                            if (ano != SEM_ANO) {
+                                contagens[ano - anoMinimo]++;
+                            }
+                        }
+                    }
+                });
+            case DECADA:
+                int primeira = Math.floorDiv(anoMinimo, 10);
+                return contar(bits, Math.floorDiv(anoMaximo, 10) - primeira + 1, (de, ate, contagens) -> {
+                    for (int p = de; p < ate; p++) {
+                        for (long palavra = bits[p]; palavra != 0; palavra &= palavra - 1) {
+                            int ano = anos[(p << 6) + Long.numberOfTrailingZeros(palavra)];
+                            if (ano != SEM_ANO) {
+                                contagens[Math.floorDiv(ano, 10) - primeira]++;
+                            }
+                        }
+                    }
+                });
+            case EDITORA:
+                return contar(bits, nomesEditoras.length, (de, ate, contagens) -> {
+                    for (int p = de; p < ate; p++) {
+                        for (long palavra = bits[p]; palavra != 0; palavra &= palavra - 1) {
+                            int editora = editoras[(p << 6) + Long.numberOfTrailingZeros(palavra)];
+                            if (editora != SEM_EDITORA) {
+                                contagens[editora]++;
+                            }
+                        }
+                    }
+                });
+            default:
+                return contar(bits, nomesAutores.length, (de, ate, contagens) -> {
+                    for (int p = de; p < ate; p++) {
+                        for (long palavra = bits[p]; palavra != 0; palavra &= palavra - 1) {
+                            int linha = (p << 6) + Long.numberOfTrailingZeros(palavra);
+                            for (int a = inicioAutores[linha]; a < inicioAutores[linha + 1]; a++) {
+                                contagens[autores[a]]++;
+                            }
+                        }
+                    }
+                });
+        }
+    }
+
+    /** Conta as linhas selecionadas das palavras [de, ate) do bitmap em contagens[grupo]. */
+    private interface ContagemPalavras {
+        void contar(int de, int ate, int[] contagens);
+    }
+
+    /**
+     * Executa a contagem no bitmap inteiro: de uma vez, ou em blocos de PALAVRAS_POR_BLOCO
+     * palavras em paralelo, cada tarefa com o próprio array de contagens.
+     */
+    private int[] contar(long[] bits, int grupos, ContagemPalavras contagem) {
+        if (tamanho < PARALELO_A_PARTIR_DE) {
+            int[] contagens = new int[grupos];
+            contagem.contar(0, bits.length, contagens);
+            return contagens;
+        }
+        int blocos = (bits.length + PALAVRAS_POR_BLOCO - 1) / PALAVRAS_POR_BLOCO;
+        return IntStream.range(0, blocos).parallel().collect(
+                () -> new int[grupos],
+                (contagens, bloco) -> contagem.contar(bloco * PALAVRAS_POR_BLOCO,
+                        Math.min(bits.length, (bloco + 1) * PALAVRAS_POR_BLOCO), contagens),
+                (a, b) -> {
+                    for (int i = 0; i < a.length; i++) {
+                        a[i] += b[i];
+                    }
+                });
+    }
+
+    private static List<Integer> gruposNaoVazios(int[] contagens) {
+        return gruposComPeloMenos(contagens, 1);
+    }
+
+    private static List<Integer> gruposComPeloMenos(int[] contagens, int minimo) {
+        List<Integer> grupos = new ArrayList<>();
+        for (int grupo = 0; grupo < contagens.length; grupo++) {
+            if (contagens[grupo] >= minimo) {
+                grupos.add(grupo);
+            }
+        }
+        return grupos;
+    }
+
+    /**
+     * Contagem do limite-ésimo maior grupo (pelo menos 1), por um histograma das contagens: só os
+     * grupos com pelo menos essa contagem são ordenados (com 100 mil autores, poucas dezenas).
+     */
+    private static int minimoDosMaiores(int[] contagens, int limite) {
+        int maior = 0;
+        for (int contagem : contagens) {
+            maior = Math.max(maior, contagem);
+        }
+        int[] gruposPorContagem = new int[maior + 1];
+        for (int contagem : contagens) {
+            gruposPorContagem[contagem]++;
+        }
+        int acumulado = 0;
+        for (int contagem = maior; contagem > 1; contagem--) {
+            acumulado += gruposPorContagem[contagem];
+            if (acumulado >= limite) {
+                return contagem;
+            }
+        }
+        return 1;
+    }
+
+    private String nomeGrupo(Agrupamento por, int grupo) {
+        switch (por) {
+            case TIPO:
+                return TIPOS[grupo].nome();
+            case ANO:
+                return Integer.toString(anoMinimo + grupo);
+            case DECADA:
+                int inicio = (Math.floorDiv(anoMinimo, 10) + grupo) * 10;
+                return inicio + "-" + (inicio + 9);
+            case EDITORA:
+                return nomesEditoras[grupo];
+            default:
+                return nomesAutores[grupo];
+        }
+    }
+
+    private long[] bitsDe(Selecao selecao) {
+        if (selecao.tamanho() != tamanho) {
+            throw new IllegalArgumentException("Seleção de outro acervo: " + selecao.tamanho()
+                    + " linhas, este tem " + tamanho);
+        }
+        return selecao.bits();
+    }
+
+    private int palavras() {
+        return (tamanho + 63) >>> 6;
+    }
+
+    /** Colunas em crescimento enquanto as obras chegam do Stream. */
+    private static final class Montagem {
+        private int tamanho;
+        private int totalAutores;
+        private int[] ids = new int[1024];
+        private short[] anos = new short[1024];
+        private byte[] tipos = new byte[1024];
+        private int[] editoras = new int[1024];
+        private int[] inicioAutores = new int[1025];
+        private int[] autores = new int[1024];
+        private final Map<String, Integer> codigosEditoras = new HashMap<>();
+        private final List<String> nomesEditoras = new ArrayList<>();
+        private final Map<String, Integer> codigosAutores = new HashMap<>();
+        private final List<String> nomesAutores = new ArrayList<>();
+
+        void adicionar(DadosObra obra) {
+            if (obra.getId() == null) {
+                throw new IllegalArgumentException("Obra sem id: " + obra.getTitulo());
+            }
+            if (tamanho == ids.length) {
+                int capacidade = tamanho * 2;
+                ids = Arrays.copyOf(ids, capacidade);
+                anos = Arrays.copyOf(anos, capacidade);
+                tipos = Arrays.copyOf(tipos, capacidade);
+                editoras = Arrays.copyOf(editoras, capacidade);
+                inicioAutores = Arrays.copyOf(inicioAutores, capacidade + 1);
+            }
+            TipoObra tipo = TipoObra.lido(obra.getTipo_Obra());
+
+            ids[tamanho] = obra.getId();
+            anos[tamanho] = ano(obra);
+            tipos[tamanho] = tipo == null ? SEM_TIPO : (byte) tipo.ordinal();
+            editoras[tamanho] = obra.getEditora() == null ? SEM_EDITORA
+                    : codigo(obra.getEditora(), codigosEditoras, nomesEditoras);
+            for (String autor : obra.getAutores()) {
+                if (totalAutores == autores.length) {
+                    autores = Arrays.copyOf(autores, totalAutores * 2);
+                }
+                autores[totalAutores++] = codigo(autor, codigosAutores, nomesAutores);
+            }
+            tamanho++;
+            inicioAutores[tamanho] = totalAutores;
+        }
+
+        /** Ano da obra, ou SEM_ANO se não informado ou inválido (como no filtro da tabela). */
+        private static short ano(DadosObra obra) {
+            if (obra.getAno_Publicacao() == null) {
+                return SEM_ANO;
+            }
+            try {
+                int ano = obra.anoPublicacao();
+                return ano > SEM_ANO && ano <= Short.MAX_VALUE ? (short) ano : SEM_ANO;
+            } catch (NumberFormatException e) {
+                return SEM_ANO;
+            }
+        }
+
+        private static int codigo(String nome, Map<String, Integer> codigos, List<String> nomes) {
+            Integer codigo = codigos.get(nome);
+            if (codigo == null) {
+                codigo = nomes.size();
+                codigos.put(nome, codigo);
+                nomes.add(nome);
+            }
+            return codigo;
+        }
+    }
+}
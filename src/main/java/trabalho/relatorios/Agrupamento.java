@@ -0,0 +1,15 @@
+package trabalho.relatorios;
+
+/** Colunas pelas quais {@link AcervoColunar} agrupa as contagens. */
+public enum Agrupamento {
+    /** Tipo da obra ("Livro", "Revista", ...). */
+    TIPO,
+    /** Ano de publicação. */
+    ANO,
+    /** Década de publicação ("1990-1999"). */
+    DECADA,
+    /** Editora. */
+    EDITORA,
+    /** Autor: uma obra com vários autores conta para cada um. */
+    AUTOR
+}
@@ -0,0 +1,71 @@
+package trabalho.relatorios;
+
+/**
+ * Linhas selecionadas de um {@link AcervoColunar}: um bitmap com um bit por linha (64 linhas
+ * por long). Imutável; as combinações criam outra seleção.
+ *
+ * <pre>
+ * Selecao revistasAntigas = acervo.doTipo(TipoObra.REVISTA).e(acervo.entreAnos(1900, 1950));
+ * </pre>
+ */
+public final class Selecao {
+
+    private final long[] bits;
+    private final int tamanho;
+
+    Selecao(long[] bits, int tamanho) {
+        this.bits = bits;
+        this.tamanho = tamanho;
+    }
+
+    /** Quantidade de linhas selecionadas. */
+    public int contar() {
+        int total = 0;
+        for (long palavra : bits) {
+            total += Long.bitCount(palavra);
+        }
+        return total;
+    }
+
+    /** true se a linha está selecionada. */
+    public boolean contem(int linha) {
+        return (bits[linha >>> 6] & (1L << linha)) != 0;
+    }
+
+    /** Linhas selecionadas nas duas seleções. */
+    public Selecao e(Selecao outra) {
+        conferirTamanho(outra);
+        long[] resultado = new long[bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            resultado[i] = bits[i] & outra.bits[i];
+        }
+        return new Selecao(resultado, tamanho);
+    }
+
+    /** Linhas selecionadas em qualquer das duas seleções. */
+    public Selecao ou(Selecao outra) {
+        conferirTamanho(outra);
+        long[] resultado = new long[bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            resultado[i] = bits[i] | outra.bits[i];
+        }
+        return new Selecao(resultado, tamanho);
+    }
+
+    /** Bitmap das linhas (não alterar: pode ser o bitmap de tipo do próprio acervo). */
+    long[] bits() {
+        return bits;
+    }
+
+    /** Linhas do acervo de onde veio a seleção. */
+    int tamanho() {
+        return tamanho;
+    }
+
+    private void conferirTamanho(Selecao outra) {
+        if (outra.tamanho != tamanho) {
+            throw new IllegalArgumentException("Seleções de acervos diferentes: " + tamanho + " e "
+                    + outra.tamanho + " linhas");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+-- Esquema base do acervo: tabelas de obras, autores, editoras e tipos.
+--
+-- É o esquema do banco original da aplicação (criado antes dos scripts de ajuste). Em um banco
+-- que já tem as tabelas, nada muda (IF NOT EXISTS); num banco vazio, cria o acervo do zero.
+-- Os scripts seguintes são aplicados depois, em ordem, por MigracaoEsquema.
+
+CREATE TABLE IF NOT EXISTS autores (
+    id_autor serial PRIMARY KEY,
+    nome     varchar(200) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS editoras (
+    id_editora serial PRIMARY KEY,
+    nome       varchar(200) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS obras (
+    id_obra        serial PRIMARY KEY,
+    chamada        varchar(100),
+    chamada_local  varchar(100),
+    titulo         varchar(300) NOT NULL,
+    edicao         varchar(50),
+    ano_publicacao integer NOT NULL,
+    id_editora     integer REFERENCES editoras (id_editora)
+);
+
+CREATE TABLE IF NOT EXISTS obras_autores (
+    id_obra  integer NOT NULL REFERENCES obras (id_obra),
+    id_autor integer NOT NULL REFERENCES autores (id_autor),
+    PRIMARY KEY (id_obra, id_autor)
+);
+
+CREATE TABLE IF NOT EXISTS livros (
+    id_obra integer PRIMARY KEY REFERENCES obras (id_obra),
+    isbn    varchar(20)
+);
+
+CREATE TABLE IF NOT EXISTS livros_online (
+    id_obra integer PRIMARY KEY REFERENCES obras (id_obra)
+);
+
+CREATE TABLE IF NOT EXISTS revistas (
+    id_obra integer PRIMARY KEY REFERENCES obras (id_obra),
+    issn    varchar(20),
+    volume  varchar(50),
+    numero  varchar(50)
+);
+
+CREATE TABLE IF NOT EXISTS jornais (
+    id_obra       integer PRIMARY KEY REFERENCES obras (id_obra),
+    issn          varchar(20),
+    numero_edicao varchar(50)
+);
@@ -0,0 +1,48 @@
+-- Nomes únicos de autores e editoras.
+--
+-- Necessário para o INSERT ... ON CONFLICT (nome) usado pelo ObraDAO ao resolver
+-- autores/editoras em um único comando (e sem corrida entre estações).
+-- Antes de criar as constraints, unifica duplicatas já existentes, apontando as
+-- referências para o menor id de cada nome. Uma obra ligada a duas variantes do mesmo
+-- autor ficaria com o par (id_obra, id_autor) repetido na chave de obras_autores: antes de
+-- apontar para o id mantido, apaga as ligações que já existem com ele (ou com uma variante
+-- de id menor, que será apontada para ele).
+
+-- aplicado se: EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'autores_nome_key')
+
+WITH d AS (SELECT id_autor, min(id_autor) OVER (PARTITION BY nome) AS manter FROM autores)
+DELETE FROM obras_autores oa
+USING d
+WHERE oa.id_autor = d.id_autor
+  AND d.id_autor <> d.manter
+  AND EXISTS (SELECT 1
+              FROM obras_autores outra
+              JOIN d d2 ON d2.id_autor = outra.id_autor
+              WHERE outra.id_obra = oa.id_obra
+                AND d2.manter = d.manter
+                AND outra.id_autor < oa.id_autor);
+
+UPDATE obras_autores oa
+SET id_autor = d.manter
+FROM (SELECT id_autor, min(id_autor) OVER (PARTITION BY nome) AS manter FROM autores) d
+WHERE oa.id_autor = d.id_autor
+  AND d.id_autor <> d.manter;
+
+DELETE FROM autores a
+USING autores b
+WHERE a.nome = b.nome
+  AND a.id_autor > b.id_autor;
+
+UPDATE obras o
+SET id_editora = d.manter
+FROM (SELECT id_editora, min(id_editora) OVER (PARTITION BY nome) AS manter FROM editoras) d
+WHERE o.id_editora = d.id_editora
+  AND d.id_editora <> d.manter;
+
+DELETE FROM editoras a
+USING editoras b
+WHERE a.nome = b.nome
+  AND a.id_editora > b.id_editora;
+
+ALTER TABLE autores ADD CONSTRAINT autores_nome_key UNIQUE (nome);
+ALTER TABLE editoras ADD CONSTRAINT editoras_nome_key UNIQUE (nome);
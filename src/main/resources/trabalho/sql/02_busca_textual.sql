@@ -0,0 +1,126 @@
+-- Busca textual no servidor (ObraDAO.buscar).
+--
+-- Cada obra ganha uma coluna tsvector "busca" com o título (peso A), os nomes dos
+-- autores (peso B) e o nome da editora (peso C), no dicionário português e sem acentos.
+-- A coluna é mantida por triggers e indexada com GIN, então a busca não depende de
+-- ILIKE '%...%' (que percorre a tabela inteira).
+--
+-- Requer a extensão unaccent (pacote contrib do PostgreSQL).
+
+-- aplicado se: EXISTS (SELECT 1 FROM pg_attribute WHERE attrelid = to_regclass('obras') AND attname = 'busca' AND NOT attisdropped)
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- Configuração "portugues_sem_acento": igual à portuguese, mas remove acentos antes do stemming
+CREATE TEXT SEARCH CONFIGURATION portugues_sem_acento (COPY = portuguese);
+ALTER TEXT SEARCH CONFIGURATION portugues_sem_acento
+    ALTER MAPPING FOR hword, hword_part, word WITH unaccent, portuguese_stem;
+
+ALTER TABLE obras ADD COLUMN busca tsvector;
+
+-- Documento de busca de uma obra a partir do título, editora e autores atuais
+CREATE FUNCTION obras_documento_busca(p_id_obra integer, p_titulo text, p_id_editora integer)
+    RETURNS tsvector
+    LANGUAGE sql STABLE AS
+$$
+SELECT setweight(to_tsvector('portugues_sem_acento', coalesce(p_titulo, '')), 'A')
+           || setweight(to_tsvector('portugues_sem_acento', coalesce(
+                  (SELECT string_agg(a.nome, ' ')
+                   FROM obras_autores oa
+                   JOIN autores a ON a.id_autor = oa.id_autor
+                   WHERE oa.id_obra = p_id_obra), '')), 'B')
+           || setweight(to_tsvector('portugues_sem_acento', coalesce(
+                  (SELECT e.nome FROM editoras e WHERE e.id_editora = p_id_editora), '')), 'C')
+$$;
+
+-- obras: recalcula no próprio registro (BEFORE), sem UPDATE extra
+CREATE FUNCTION obras_busca_trigger() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    NEW.busca := obras_documento_busca(NEW.id_obra, NEW.titulo, NEW.id_editora);
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER obras_busca
+    BEFORE INSERT OR UPDATE OF titulo, id_editora ON obras
+    FOR EACH ROW EXECUTE FUNCTION obras_busca_trigger();
+
+-- obras_autores: um UPDATE por comando (e não por linha), para não pesar na importação em lote.
+-- O UPDATE só altera "busca", então não dispara de novo o trigger de obras (UPDATE OF titulo, id_editora).
+CREATE FUNCTION obras_autores_busca_inclusao() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE obras o
+    SET busca = obras_documento_busca(o.id_obra, o.titulo, o.id_editora)
+    WHERE o.id_obra IN (SELECT id_obra FROM novos);
+    RETURN NULL;
+END
+$$;
+
+CREATE FUNCTION obras_autores_busca_exclusao() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE obras o
+    SET busca = obras_documento_busca(o.id_obra, o.titulo, o.id_editora)
+    WHERE o.id_obra IN (SELECT id_obra FROM antigos);
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER obras_autores_busca_ins
+    AFTER INSERT ON obras_autores
+    REFERENCING NEW TABLE AS novos
+    FOR EACH STATEMENT EXECUTE FUNCTION obras_autores_busca_inclusao();
+
+CREATE TRIGGER obras_autores_busca_upd
+    AFTER UPDATE ON obras_autores
+    REFERENCING NEW TABLE AS novos
+    FOR EACH STATEMENT EXECUTE FUNCTION obras_autores_busca_inclusao();
+
+CREATE TRIGGER obras_autores_busca_del
+    AFTER DELETE ON obras_autores
+    REFERENCING OLD TABLE AS antigos
+    FOR EACH STATEMENT EXECUTE FUNCTION obras_autores_busca_exclusao();
+
+-- Renomear um autor/editora atualiza as obras ligadas a ele
+CREATE FUNCTION autores_busca_trigger() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE obras o
+    SET busca = obras_documento_busca(o.id_obra, o.titulo, o.id_editora)
+    WHERE o.id_obra IN (SELECT oa.id_obra FROM obras_autores oa WHERE oa.id_autor = NEW.id_autor);
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER autores_busca
+    AFTER UPDATE OF nome ON autores
+    FOR EACH ROW WHEN (OLD.nome IS DISTINCT FROM NEW.nome)
+    EXECUTE FUNCTION autores_busca_trigger();
+
+CREATE FUNCTION editoras_busca_trigger() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE obras o
+    SET busca = obras_documento_busca(o.id_obra, o.titulo, o.id_editora)
+    WHERE o.id_editora = NEW.id_editora;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER editoras_busca
+    AFTER UPDATE OF nome ON editoras
+    FOR EACH ROW WHEN (OLD.nome IS DISTINCT FROM NEW.nome)
+    EXECUTE FUNCTION editoras_busca_trigger();
+
+-- Preenche as obras existentes e cria o índice depois (mais rápido que manter o índice durante a carga)
+UPDATE obras o
+SET busca = obras_documento_busca(o.id_obra, o.titulo, o.id_editora);
+
+CREATE INDEX obras_busca_idx ON obras USING gin (busca);
@@ -0,0 +1,138 @@
+-- Versão de alteração das obras, para sincronização incremental (ObraDAO.alteracoesDesde).
+--
+-- Cada obra guarda em "versao" o id da transação (xid8) que a alterou por último, seja na
+-- própria tabela obras, seja em obras_autores, livros, livros_online, revistas ou jornais,
+-- ou ao renomear seu autor/editora. Obras excluídas ficam registradas em obras_excluidas.
+--
+-- Por que o id da transação e não uma sequence/timestamp: valores de sequence são
+-- distribuídos antes do commit, então uma transação lenta pode confirmar uma versão
+-- menor que outra já sincronizada e ser perdida. Com xid8, o cliente guarda o
+-- pg_snapshot_xmin() do momento da sincronização: toda transação ainda não confirmada
+-- naquele momento tem xid >= xmin, e entra na próxima sincronização (versao >= xmin).
+--
+-- Requer PostgreSQL 13+ (xid8, pg_current_xact_id).
+
+-- aplicado se: to_regclass('obras_excluidas') IS NOT NULL
+
+ALTER TABLE obras ADD COLUMN versao xid8;
+UPDATE obras SET versao = pg_current_xact_id();
+ALTER TABLE obras ALTER COLUMN versao SET NOT NULL;
+CREATE INDEX obras_versao_idx ON obras (versao);
+
+CREATE TABLE obras_excluidas (
+    id_obra integer PRIMARY KEY,
+    versao  xid8    NOT NULL
+);
+CREATE INDEX obras_excluidas_versao_idx ON obras_excluidas (versao);
+
+-- obras: marca a versão no próprio registro
+CREATE FUNCTION obras_versao_trigger() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    NEW.versao := pg_current_xact_id();
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER obras_versao
+    BEFORE INSERT OR UPDATE ON obras
+    FOR EACH ROW EXECUTE FUNCTION obras_versao_trigger();
+
+-- Exclusão: deixa a marca em obras_excluidas (e a retira se o id voltar a existir)
+CREATE FUNCTION obras_exclusao_trigger() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    INSERT INTO obras_excluidas (id_obra, versao)
+    SELECT id_obra, pg_current_xact_id() FROM antigas
+    ON CONFLICT (id_obra) DO UPDATE SET versao = EXCLUDED.versao;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER obras_exclusao
+    AFTER DELETE ON obras
+    REFERENCING OLD TABLE AS antigas
+    FOR EACH STATEMENT EXECUTE FUNCTION obras_exclusao_trigger();
+
+CREATE FUNCTION obras_reinclusao_trigger() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    DELETE FROM obras_excluidas x USING novas n WHERE x.id_obra = n.id_obra;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER obras_reinclusao
+    AFTER INSERT ON obras
+    REFERENCING NEW TABLE AS novas
+    FOR EACH STATEMENT EXECUTE FUNCTION obras_reinclusao_trigger();
+
+-- Tabelas ligadas à obra: um UPDATE por comando (importação em lote não paga por linha).
+-- A tabela de transição tem o mesmo nome ("linhas") nas três operações, então uma função serve.
+CREATE FUNCTION obras_tocar_relacionadas() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE obras o
+    SET versao = pg_current_xact_id()
+    WHERE o.id_obra IN (SELECT id_obra FROM linhas)
+      AND o.versao <> pg_current_xact_id();
+    RETURN NULL;
+END
+$$;
+
+DO
+$$
+    DECLARE
+        tabela text;
+    BEGIN
+        FOREACH tabela IN ARRAY ARRAY ['obras_autores', 'livros', 'livros_online', 'revistas', 'jornais']
+            LOOP
+                EXECUTE format('CREATE TRIGGER %I AFTER INSERT ON %I REFERENCING NEW TABLE AS linhas '
+                                   'FOR EACH STATEMENT EXECUTE FUNCTION obras_tocar_relacionadas()',
+                               tabela || '_versao_ins', tabela);
+                EXECUTE format('CREATE TRIGGER %I AFTER UPDATE ON %I REFERENCING NEW TABLE AS linhas '
+                                   'FOR EACH STATEMENT EXECUTE FUNCTION obras_tocar_relacionadas()',
+                               tabela || '_versao_upd', tabela);
+                EXECUTE format('CREATE TRIGGER %I AFTER DELETE ON %I REFERENCING OLD TABLE AS linhas '
+                                   'FOR EACH STATEMENT EXECUTE FUNCTION obras_tocar_relacionadas()',
+                               tabela || '_versao_del', tabela);
+            END LOOP;
+    END
+$$;
+
+-- Renomear autor/editora altera o que as obras ligadas exibem
+CREATE FUNCTION autores_versao_trigger() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE obras o
+    SET versao = pg_current_xact_id()
+    WHERE o.id_obra IN (SELECT oa.id_obra FROM obras_autores oa WHERE oa.id_autor = NEW.id_autor);
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER autores_versao
+    AFTER UPDATE OF nome ON autores
+    FOR EACH ROW WHEN (OLD.nome IS DISTINCT FROM NEW.nome)
+    EXECUTE FUNCTION autores_versao_trigger();
+
+CREATE FUNCTION editoras_versao_trigger() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE obras o
+    SET versao = pg_current_xact_id()
+    WHERE o.id_editora = NEW.id_editora;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER editoras_versao
+    AFTER UPDATE OF nome ON editoras
+    FOR EACH ROW WHEN (OLD.nome IS DISTINCT FROM NEW.nome)
+    EXECUTE FUNCTION editoras_versao_trigger();
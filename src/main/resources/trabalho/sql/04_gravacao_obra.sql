@@ -0,0 +1,143 @@
+-- Gravação e exclusão de uma obra em um único comando (ObraDAO.inserir/atualizar/excluir).
+--
+-- Com o banco remoto, cada comando custa uma ida e volta pela rede. Antes, atualizar uma
+-- obra enviava até 9 comandos (autor, editora, obras, obras_autores, tabela específica,
+-- NOTIFY, commit...). Estas funções fazem o mesmo trabalho no servidor: o DAO envia um
+-- SELECT em autocommit, e o comando inteiro é atômico (um erro desfaz tudo, como o
+-- rollback da transação de antes).
+--
+-- O aviso às outras estações (pg_notify) sai no mesmo comando, no formato de
+-- AlteracaoObra.comoPayload: "id:operação:tipo:origem".
+
+-- aplicado se: to_regproc('obras_excluir') IS NOT NULL
+
+-- Id do autor/editora pelo nome, cadastrando se ainda não existir (UNIQUE de 01_nomes_unicos.sql)
+CREATE FUNCTION autores_obter_id(p_nome text) RETURNS integer
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    v_id integer;
+BEGIN
+    SELECT id_autor INTO v_id FROM autores WHERE nome = p_nome;
+    IF NOT FOUND THEN
+        INSERT INTO autores (nome) VALUES (p_nome)
+        ON CONFLICT (nome) DO UPDATE SET nome = EXCLUDED.nome
+        RETURNING id_autor INTO v_id;
+    END IF;
+    RETURN v_id;
+END
+$$;
+
+CREATE FUNCTION editoras_obter_id(p_nome text) RETURNS integer
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    v_id integer;
+BEGIN
+    SELECT id_editora INTO v_id FROM editoras WHERE nome = p_nome;
+    IF NOT FOUND THEN
+        INSERT INTO editoras (nome) VALUES (p_nome)
+        ON CONFLICT (nome) DO UPDATE SET nome = EXCLUDED.nome
+        RETURNING id_editora INTO v_id;
+    END IF;
+    RETURN v_id;
+END
+$$;
+
+-- Insere (p_id nulo) ou atualiza uma obra com autor, editora e tabela específica do tipo.
+-- p_id_autor / p_id_editora: ids já conhecidos pelo cache do cliente (nulo = resolver pelo nome).
+-- Na atualização, registros de outros tipos são removidos (a obra mudou de tipo).
+CREATE FUNCTION obras_gravar(p_id integer,
+                             p_chamada text,
+                             p_titulo text,
+                             p_edicao text,
+                             p_ano integer,
+                             p_autor text,
+                             p_id_autor integer,
+                             p_editora text,
+                             p_id_editora integer,
+                             p_tipo text,
+                             p_isbn text,
+                             p_volume text,
+                             p_canal text,
+                             p_origem text)
+    RETURNS TABLE (obra integer, autor integer, editora integer)
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    v_id      integer := p_id;
+    v_autor   integer := coalesce(p_id_autor, autores_obter_id(p_autor));
+    v_editora integer := coalesce(p_id_editora, editoras_obter_id(p_editora));
+BEGIN
+    IF v_id IS NULL THEN
+        INSERT INTO obras (chamada, chamada_local, titulo, edicao, ano_publicacao, id_editora)
+        VALUES (p_chamada, p_chamada, p_titulo, nullif(p_edicao, ''), p_ano, v_editora)
+        RETURNING id_obra INTO v_id;
+    ELSE
+        UPDATE obras
+        SET chamada = p_chamada, chamada_local = p_chamada, titulo = p_titulo,
+            edicao = nullif(p_edicao, ''), ano_publicacao = p_ano, id_editora = v_editora
+        WHERE id_obra = v_id;
+        IF NOT FOUND THEN
+            RAISE EXCEPTION 'Obra % não encontrada.', v_id USING ERRCODE = 'no_data_found';
+        END IF;
+        DELETE FROM obras_autores WHERE id_obra = v_id;
+    END IF;
+
+    INSERT INTO obras_autores (id_obra, id_autor) VALUES (v_id, v_autor);
+
+    -- Tabela específica: atualiza se já existir, senão insere (mesmos valores de ObraDAO.comoPersistida)
+    IF p_tipo = 'Livro' THEN
+        UPDATE livros SET isbn = p_isbn WHERE id_obra = v_id;
+        IF NOT FOUND THEN
+            INSERT INTO livros (id_obra, isbn) VALUES (v_id, p_isbn);
+        END IF;
+    ELSIF p_tipo = 'Livro Online' THEN
+        INSERT INTO livros_online (id_obra)
+        SELECT v_id WHERE NOT EXISTS (SELECT 1 FROM livros_online WHERE id_obra = v_id);
+    ELSIF p_tipo = 'Revista' THEN
+        UPDATE revistas
+        SET issn = coalesce(p_isbn, ''), volume = nullif(p_volume, ''), numero = nullif(p_edicao, '')
+        WHERE id_obra = v_id;
+        IF NOT FOUND THEN
+            INSERT INTO revistas (id_obra, issn, volume, numero)
+            VALUES (v_id, coalesce(p_isbn, ''), nullif(p_volume, ''), nullif(p_edicao, ''));
+        END IF;
+    ELSIF p_tipo = 'Jornal' THEN
+        UPDATE jornais SET issn = p_isbn, numero_edicao = p_edicao WHERE id_obra = v_id;
+        IF NOT FOUND THEN
+            INSERT INTO jornais (id_obra, issn, numero_edicao) VALUES (v_id, p_isbn, p_edicao);
+        END IF;
+    END IF;
+
+    IF p_id IS NOT NULL AND p_tipo IN ('Livro', 'Livro Online', 'Revista', 'Jornal') THEN
+        DELETE FROM livros WHERE id_obra = v_id AND p_tipo <> 'Livro';
+        DELETE FROM livros_online WHERE id_obra = v_id AND p_tipo <> 'Livro Online';
+        DELETE FROM revistas WHERE id_obra = v_id AND p_tipo <> 'Revista';
+        DELETE FROM jornais WHERE id_obra = v_id AND p_tipo <> 'Jornal';
+    END IF;
+
+    PERFORM pg_notify(p_canal, v_id || ':' || CASE WHEN p_id IS NULL THEN 'I' ELSE 'U' END
+                               || ':' || coalesce(p_tipo, '') || ':' || p_origem);
+
+    obra := v_id;
+    autor := v_autor;
+    editora := v_editora;
+    RETURN NEXT;
+END
+$$;
+
+-- Exclui uma obra e seus registros dependentes (id inexistente não é erro)
+CREATE FUNCTION obras_excluir(p_id integer, p_canal text, p_origem text) RETURNS void
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    DELETE FROM livros WHERE id_obra = p_id;
+    DELETE FROM livros_online WHERE id_obra = p_id;
+    DELETE FROM revistas WHERE id_obra = p_id;
+    DELETE FROM jornais WHERE id_obra = p_id;
+    DELETE FROM obras_autores WHERE id_obra = p_id;
+    DELETE FROM obras WHERE id_obra = p_id;
+    PERFORM pg_notify(p_canal, p_id || ':D::' || p_origem);
+END
+$$;
@@ -0,0 +1,111 @@
+-- Obras com vários autores: ordem dos autores e gravação da lista inteira.
+--
+-- As listagens do DAO agregam os autores de cada obra no servidor (string_agg na ordem desta
+-- coluna), então uma obra com N autores vem numa única linha, e não em N linhas repetidas.
+-- obras_gravar passa a receber a lista de autores (na ordem) em vez de um único nome.
+
+-- aplicado se: EXISTS (SELECT 1 FROM pg_attribute WHERE attrelid = to_regclass('obras_autores') AND attname = 'ordem' AND NOT attisdropped)
+
+-- Ordem do autor na obra (1 = principal). Para as obras já cadastradas vale a ordem de inclusão.
+ALTER TABLE obras_autores ADD COLUMN ordem smallint;
+
+UPDATE obras_autores oa
+SET ordem = n.ordem
+FROM (SELECT ctid AS linha, row_number() OVER (PARTITION BY id_obra ORDER BY ctid) AS ordem
+      FROM obras_autores) n
+WHERE oa.ctid = n.linha;
+
+ALTER TABLE obras_autores
+    ALTER COLUMN ordem SET DEFAULT 1,
+    ALTER COLUMN ordem SET NOT NULL;
+
+-- Mesma função de 04_gravacao_obra.sql, com a lista de autores:
+-- p_autores / p_ids_autores: nomes na ordem e ids já conhecidos pelo cache do cliente
+-- (mesmo tamanho; elemento nulo = resolver pelo nome). Devolve os ids dos autores na mesma ordem.
+DROP FUNCTION obras_gravar(integer, text, text, text, integer, text, integer, text, integer, text, text, text, text, text);
+
+CREATE FUNCTION obras_gravar(p_id integer,
+                             p_chamada text,
+                             p_titulo text,
+                             p_edicao text,
+                             p_ano integer,
+                             p_autores text[],
+                             p_ids_autores integer[],
+                             p_editora text,
+                             p_id_editora integer,
+                             p_tipo text,
+                             p_isbn text,
+                             p_volume text,
+                             p_canal text,
+                             p_origem text)
+    RETURNS TABLE (obra integer, ids_autores integer[], editora integer)
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    v_id      integer := p_id;
+    v_autores integer[] := ARRAY(SELECT coalesce(p_ids_autores[i], autores_obter_id(p_autores[i]))
+                                 FROM generate_subscripts(p_autores, 1) AS i
+                                 ORDER BY i);
+    v_editora integer := coalesce(p_id_editora, editoras_obter_id(p_editora));
+BEGIN
+    IF v_id IS NULL THEN
+        INSERT INTO obras (chamada, chamada_local, titulo, edicao, ano_publicacao, id_editora)
+        VALUES (p_chamada, p_chamada, p_titulo, nullif(p_edicao, ''), p_ano, v_editora)
+        RETURNING id_obra INTO v_id;
+    ELSE
+        UPDATE obras
+        SET chamada = p_chamada, chamada_local = p_chamada, titulo = p_titulo,
+            edicao = nullif(p_edicao, ''), ano_publicacao = p_ano, id_editora = v_editora
+        WHERE id_obra = v_id;
+        IF NOT FOUND THEN
+            RAISE EXCEPTION 'Obra % não encontrada.', v_id USING ERRCODE = 'no_data_found';
+        END IF;
+        DELETE FROM obras_autores WHERE id_obra = v_id;
+    END IF;
+
+    -- Um autor repetido na lista fica só na primeira posição
+    INSERT INTO obras_autores (id_obra, id_autor, ordem)
+    SELECT v_id, a.id_autor, min(a.posicao)
+    FROM unnest(v_autores) WITH ORDINALITY AS a(id_autor, posicao)
+    GROUP BY a.id_autor;
+
+    -- Tabela específica: atualiza se já existir, senão insere (mesmos valores de ObraDAO.comoPersistida)
+    IF p_tipo = 'Livro' THEN
+        UPDATE livros SET isbn = p_isbn WHERE id_obra = v_id;
+        IF NOT FOUND THEN
+            INSERT INTO livros (id_obra, isbn) VALUES (v_id, p_isbn);
+        END IF;
+    ELSIF p_tipo = 'Livro Online' THEN
+        INSERT INTO livros_online (id_obra)
+        SELECT v_id WHERE NOT EXISTS (SELECT 1 FROM livros_online WHERE id_obra = v_id);
+    ELSIF p_tipo = 'Revista' THEN
+        UPDATE revistas
+        SET issn = coalesce(p_isbn, ''), volume = nullif(p_volume, ''), numero = nullif(p_edicao, '')
+        WHERE id_obra = v_id;
+        IF NOT FOUND THEN
+            INSERT INTO revistas (id_obra, issn, volume, numero)
+            VALUES (v_id, coalesce(p_isbn, ''), nullif(p_volume, ''), nullif(p_edicao, ''));
+        END IF;
+    ELSIF p_tipo = 'Jornal' THEN
+        UPDATE jornais SET issn = p_isbn, numero_edicao = p_edicao WHERE id_obra = v_id;
+        IF NOT FOUND THEN
+            INSERT INTO jornais (id_obra, issn, numero_edicao) VALUES (v_id, p_isbn, p_edicao);
+        END IF;
+    END IF;
+
+    IF p_id IS NOT NULL AND p_tipo IN ('Livro', 'Livro Online', 'Revista', 'Jornal') THEN
+        DELETE FROM livros WHERE id_obra = v_id AND p_tipo <> 'Livro';
+        DELETE FROM livros_online WHERE id_obra = v_id AND p_tipo <> 'Livro Online';
+        DELETE FROM revistas WHERE id_obra = v_id AND p_tipo <> 'Revista';
+        DELETE FROM jornais WHERE id_obra = v_id AND p_tipo <> 'Jornal';
+    END IF;
+
+    PERFORM pg_notify(p_canal, v_id || ':' || CASE WHEN p_id IS NULL THEN 'I' ELSE 'U' END
+                               || ':' || coalesce(p_tipo, '') || ':' || p_origem);
+
+    obra := v_id;
+    ids_autores := v_autores;
+    editora := v_editora;
+    RETURN NEXT;
+END
+$$;
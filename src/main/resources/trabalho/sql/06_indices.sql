@@ -0,0 +1,40 @@
+-- Índices das consultas do ObraDAO e dos triggers (conferidos por MigracaoEsquema.INDICES).
+--
+-- O banco original foi criado fora da aplicação, então não se sabe se as tabelas dos tipos
+-- e obras_autores têm chave primária: sem ela, cada LEFT JOIN das listagens e cada
+-- gravação percorre a tabela inteira. Este script cria o que faltar e não mexe no que existe
+-- (num banco criado por 00_esquema_base.sql, só os índices novos do fim).
+
+-- Tabelas dos tipos: uma linha por obra, procurada pelo id_obra
+DO
+$$
+DECLARE
+    v_tabela text;
+BEGIN
+    FOREACH v_tabela IN ARRAY ARRAY['livros', 'livros_online', 'revistas', 'jornais'] LOOP
+        IF NOT EXISTS (SELECT 1
+                       FROM pg_index i
+                       JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = i.indkey[0]
+                       WHERE i.indrelid = v_tabela::regclass
+                         AND i.indisunique AND i.indnkeyatts = 1 AND a.attname = 'id_obra') THEN
+            EXECUTE format('ALTER TABLE %I ADD PRIMARY KEY (id_obra)', v_tabela);
+        END IF;
+    END LOOP;
+
+    -- Autores de cada obra (listagens, obras_gravar, obras_excluir)
+    IF NOT EXISTS (SELECT 1
+                   FROM pg_index i
+                   JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = i.indkey[0]
+                   WHERE i.indrelid = 'obras_autores'::regclass AND a.attname = 'id_obra') THEN
+        CREATE INDEX obras_autores_id_obra_idx ON obras_autores (id_obra);
+    END IF;
+END
+$$;
+
+-- Obras de um autor/editora: triggers de renomear (busca textual e versão)
+CREATE INDEX IF NOT EXISTS obras_autores_id_autor_idx ON obras_autores (id_autor);
+CREATE INDEX IF NOT EXISTS obras_id_editora_idx ON obras (id_editora);
+
+-- Paginação por chave (OrdemObra.TITULO e ANO): a página lê só as linhas que mostra
+CREATE INDEX IF NOT EXISTS obras_titulo_idx ON obras (titulo, id_obra);
+CREATE INDEX IF NOT EXISTS obras_ano_publicacao_idx ON obras (ano_publicacao, id_obra);
@@ -0,0 +1,95 @@
+package trabalho.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import trabalho.model.Obra;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class AcervoLocalTest {
+
+    @TempDir
+    Path pasta;
+
+    private final List<String> repassados = new ArrayList<>();
+    private final OuvinteObras ouvinte = new OuvinteObras() {
+        @Override
+        public void obraGravada(Obra obra) {
+            repassados.add("gravada " + obra.getId() + " " + obra.getTitulo());
+        }
+
+        @Override
+        public void obraExcluida(int id) {
+            repassados.add("excluida " + id);
+        }
+    };
+
+    @AfterEach
+    void removerOuvinte() {
+        ObraDAO.removerOuvinte(ouvinte);
+    }
+
+    @Test
+    void avisoDuranteSincronizacaoCompletaNaoEApagadoPeloRetrato() throws Exception {
+        DaoFalso dao = new DaoFalso();
+        AcervoLocal acervo = new AcervoLocal(pasta.resolve("acervo.bin"), dao);
+        dao.resposta = new AlteracoesAcervo(List.of(obra(1, "retrato"), obra(2, "outra")), List.of(), 10);
+        dao.duranteConsulta = () -> acervo.obraGravada(obra(1, "aviso"));
+
+        acervo.sincronizar();
+
+        assertEquals("aviso", porId(acervo).get(1).getTitulo());
+        assertEquals("outra", porId(acervo).get(2).getTitulo());
+    }
+
+    @Test
+    void avisoDuranteSincronizacaoIncrementalValeENaoERepassadoDeNovo() throws Exception {
+        DaoFalso dao = new DaoFalso();
+        AcervoLocal acervo = new AcervoLocal(pasta.resolve("acervo.bin"), dao);
+        dao.resposta = new AlteracoesAcervo(List.of(obra(1, "a"), obra(2, "b"), obra(3, "c")), List.of(), 10);
+        acervo.sincronizar();
+
+        ObraDAO.adicionarOuvinte(ouvinte);
+        dao.resposta = new AlteracoesAcervo(List.of(obra(1, "retrato"), obra(2, "retrato")), List.of(3), 20);
+        dao.duranteConsulta = () -> {
+            acervo.obraGravada(obra(1, "aviso"));
+            acervo.obraExcluida(2);
+        };
+        acervo.sincronizar();
+
+        Map<Integer, Obra> obras = porId(acervo);
+        assertEquals("aviso", obras.get(1).getTitulo());
+        assertFalse(obras.containsKey(2));
+        assertFalse(obras.containsKey(3));
+        assertEquals(List.of("excluida 3"), repassados); // 1 e 2: os ouvintes já têm o aviso, mais novo
+    }
+
+    private static Map<Integer, Obra> porId(AcervoLocal acervo) {
+        return acervo.obras().stream().collect(Collectors.toMap(Obra::getId, Function.identity()));
+    }
+
+    private static Obra obra(int id, String titulo) {
+        return new Obra(id, titulo, "Livro", "2000", "Autor", "Editora");
+    }
+
+    /** DAO sem banco: devolve a resposta preparada e, no meio da consulta, simula avisos. */
+    private static final class DaoFalso extends ObraDAO {
+        AlteracoesAcervo resposta;
+        Runnable duranteConsulta = () -> { };
+
+        @Override
+        public AlteracoesAcervo alteracoesDesde(long versao) {
+            duranteConsulta.run();
+            return resposta;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package trabalho.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ObraCompactaTest {
+
+    @Test
+    void obraSemTabelaEspecificaFicaComoDesconhecido() {
+        // O que ObraDAO.mapObra devolve para uma obra sem linha em livros, revistas, jornais...
+        Obra obra = new Obra(7, "Sem subtipo", "Desconhecido", "1999", "Fulano", "Editora X");
+
+        ObraCompacta compacta = ObraCompacta.de(obra);
+
+        assertEquals(TipoObra.DESCONHECIDO, compacta.tipo());
+        assertEquals("Desconhecido", compacta.getTipo_Obra());
+        assertEquals("Desconhecido", compacta.paraObra().getTipo_Obra());
+        assertEquals(1999, compacta.anoPublicacao());
+    }
+
+    @Test
+    void tipoForaDaListaNaoImpedeACompactacao() {
+        Obra obra = new Obra(8, "Tipo antigo", "Folheto", null, null, null);
+
+        ObraCompacta compacta = ObraCompacta.de(obra);
+
+        assertEquals(TipoObra.DESCONHECIDO, compacta.tipo());
+        assertNull(compacta.getAno_Publicacao());
+    }
+
+    @Test
+    void obraSemTipo() {
+        ObraCompacta compacta = ObraCompacta.de(new Obra(9, "Sem tipo", null, "2001"));
+
+        assertNull(compacta.tipo());
+        assertNull(compacta.getTipo_Obra());
+    }
+}